@@ -0,0 +1,88 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+
+/**
+ * An asynchronous variant of the {@link MembershipOracle}. Instead of blocking until all queries of a batch have been
+ * answered, an asynchronous oracle immediately returns a {@link CompletableFuture} that completes once all queries of
+ * the batch have been answered. This allows callers to overlap the construction of subsequent batches with the
+ * processing of the current one (query pipelining), which can hide the latency of the system under learning.
+ * <p>
+ * If the processing of a batch fails, the returned future completes exceptionally. Note that the queries of a batch
+ * must not be accessed until the corresponding future has completed.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public interface AsyncMembershipOracle<I, D> {
+
+    /**
+     * Asynchronously processes the specified collection of queries. When the returned future completes (normally),
+     * each of the contained queries {@link Query#answer(Object)} method will have been called with an argument
+     * reflecting the SUL response to the respective query.
+     *
+     * @param queries
+     *         the queries to process
+     *
+     * @return a future that completes once all queries have been answered
+     */
+    CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries);
+
+    /**
+     * Asynchronously answers the query consisting of the given prefix and suffix.
+     *
+     * @param prefix
+     *         the prefix of the query
+     * @param suffix
+     *         the suffix of the query
+     *
+     * @return a future that completes with the output of the query
+     */
+    default CompletableFuture<D> answerQueryAsync(Word<I> prefix, Word<I> suffix) {
+        final DefaultQuery<I, D> query = new DefaultQuery<>(prefix, suffix);
+        return processQueriesAsync(Collections.singleton(query)).thenApply(v -> query.getOutput());
+    }
+
+    /**
+     * Returns a (blocking) {@link MembershipOracle} view of this oracle, which waits for the completion of each batch.
+     * Runtime exceptions that occurred during the (asynchronous) processing of a batch are re-thrown directly.
+     *
+     * @return a blocking view of this oracle
+     */
+    default MembershipOracle<I, D> asBlockingOracle() {
+        return queries -> {
+            try {
+                processQueriesAsync(queries).join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        };
+    }
+}
@@ -59,6 +59,15 @@ public interface ThreadPool {
          *
          * @see Executors#newCachedThreadPool()
          */
-        CACHED
+        CACHED,
+        /**
+         * Execute each job on a new virtual thread. This is well suited for oracles that spend most of their time
+         * blocked on I/O (e.g., SULs that communicate via sockets), because hundreds of jobs can then be executed
+         * concurrently at a low cost. Note that the specified pool size still limits the number of jobs (and oracle
+         * instances) that are active at the same time.
+         * <p>
+         * Virtual threads require Java 21 or newer. On older runtimes, this policy behaves like {@link #CACHED}.
+         */
+        VIRTUAL
     }
 }
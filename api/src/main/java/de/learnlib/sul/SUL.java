@@ -16,6 +16,8 @@
 package de.learnlib.sul;
 
 import de.learnlib.exception.SULException;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
 
 /**
  * Interface for a system under learning (SUL) that can make single steps.
@@ -50,6 +52,31 @@ public interface SUL<I, O> {
      */
     O step(I in);
 
+    /**
+     * make a sequence of steps on the SUL. The default implementation calls {@link #step(Object)} for each input
+     * symbol. SULs that can execute several steps more efficiently at once (e.g., adapters that can transmit several
+     * input symbols in a single message) should override this method. Wrappers of SULs should delegate to this method
+     * of the wrapped SUL.
+     * <p>
+     * If the execution of an input symbol fails, the exception is propagated and the outputs of the preceding input
+     * symbols are discarded, i.e., the state of the SUL is the same as after an exception of {@link #step(Object)}.
+     *
+     * @param in
+     *         the inputs to the SUL
+     *
+     * @return the outputs of the SUL (one for each input symbol)
+     *
+     * @throws SULException
+     *         if an input symbol cannot be executed on the SUL
+     */
+    default Word<O> stepAll(Word<? extends I> in) {
+        final WordBuilder<O> wb = new WordBuilder<>(in.length());
+        for (I sym : in) {
+            wb.add(step(sym));
+        }
+        return wb.toWord();
+    }
+
     /**
      * Returns whether this SUL is capable of {@link #fork() forking}.
      *
@@ -19,6 +19,7 @@ import de.learnlib.Mapper;
 import de.learnlib.Mapper.SynchronousMapper;
 import de.learnlib.exception.MappedException;
 import de.learnlib.exception.SULException;
+import net.automatalib.word.Word;
 
 /**
  * An extension of the {@link Mapper} interface specifically for {@link SUL}s.
@@ -68,6 +69,19 @@ public interface SULMapper<AI, AO, CI, CO> extends SynchronousMapper<AI, AO, CI,
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Checks whether a sequence of abstract inputs may be mapped and executed at once (see {@link SUL#stepAll(Word)}).
+     * This requires that the mapping of inputs and outputs does not depend on how calls of {@link #mapInput(Object)}
+     * and {@link #mapOutput(Object)} interleave. Furthermore, since it cannot be determined which input symbol of a
+     * batch caused an exception, exceptions that occur during the execution of a batch are propagated without being
+     * {@link #mapWrappedException(SULException) mapped}.
+     *
+     * @return {@code true} if sequences of inputs may be executed at once, {@code false} otherwise.
+     */
+    default boolean canBatch() {
+        return false;
+    }
+
     /**
      * Maps a wrapped {@link SULException} to an abstract output symbol, or rethrows it if it is unmappable.
      *
@@ -0,0 +1,290 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.exception.SULException;
+import de.learnlib.sul.SUL;
+import net.automatalib.word.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link SUL} that keeps a pool of instances (the given SUL and its forks) which are reset in the background. Each
+ * call of {@link #pre()} hands out an instance whose {@link SUL#pre()} method has already been called, and each call
+ * of {@link #post()} returns the instance to the pool, where its {@link SUL#post()} and (subsequently) {@link
+ * SUL#pre()} methods are called asynchronously. Hence, the (potentially expensive) resets of the SUL are removed from
+ * the query path, as long as the pool contains enough instances.
+ * <p>
+ * Forks of this SUL share the pool, so that parallel oracles can use a single pool of pre-warmed instances. If all
+ * instances are in use, {@link #pre()} blocks until an instance becomes available. If the asynchronous reset of an
+ * instance fails repeatedly, the instance is dropped from the pool. Only if no instances are left, {@link #pre()}
+ * throws a {@link SULException} that reports the last failure.
+ * <p>
+ * The pool owns the given SUL and its forks. Once the pool is no longer needed, it should be {@link #close() closed} to
+ * shut down the instances.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class PooledSUL<I, O> implements SUL<I, O>, Closeable {
+
+    private final Pool<I, O> pool;
+    private @Nullable SUL<I, O> current;
+
+    /**
+     * Constructor, using an internal executor with one (daemon) thread per pooled instance.
+     *
+     * @param sul
+     *         the SUL whose instances should be pooled
+     * @param poolSize
+     *         the number of pooled instances
+     */
+    public PooledSUL(SUL<I, O> sul, int poolSize) {
+        this(sul, poolSize, Executors.newFixedThreadPool(poolSize, r -> {
+            final Thread t = new Thread(r, "pooled-sul-reset");
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the SUL whose instances should be pooled
+     * @param poolSize
+     *         the number of pooled instances
+     * @param executor
+     *         the executor for the asynchronous resets. It is not shut down when closing this SUL
+     */
+    public PooledSUL(SUL<I, O> sul, int poolSize, Executor executor) {
+        this(sul, poolSize, executor, false);
+    }
+
+    private PooledSUL(SUL<I, O> sul, int poolSize, Executor executor, boolean ownsExecutor) {
+        this(new Pool<>(sul, poolSize, executor, ownsExecutor ? (ExecutorService) executor : null));
+    }
+
+    private PooledSUL(Pool<I, O> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void pre() {
+        // a missing post() call should not leak an instance
+        post();
+        current = pool.acquire();
+    }
+
+    @Override
+    public void post() {
+        final SUL<I, O> sul = current;
+        if (sul != null) {
+            current = null;
+            pool.release(sul);
+        }
+    }
+
+    @Override
+    public O step(I in) {
+        return getCurrent().step(in);
+    }
+
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        return getCurrent().stepAll(in);
+    }
+
+    @Override
+    public boolean canFork() {
+        return true;
+    }
+
+    @Override
+    public PooledSUL<I, O> fork() {
+        return new PooledSUL<>(pool);
+    }
+
+    /**
+     * Returns the number of pooled instances that are currently reset and ready to be used.
+     *
+     * @return the number of ready instances
+     */
+    public int getNumReadyInstances() {
+        return pool.ready.size();
+    }
+
+    /**
+     * Closes the pool (which is shared with all forks of this SUL). All instances that are not currently in use are
+     * shut down via {@link SUL#post()}. Instances that are currently in use are shut down upon their next
+     * {@link #post()}.
+     */
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    private SUL<I, O> getCurrent() {
+        final SUL<I, O> sul = current;
+        if (sul == null) {
+            throw new IllegalStateException("pre() has not been called");
+        }
+        return sul;
+    }
+
+    private static final class Pool<I, O> {
+
+        private static final int MAX_RESET_ATTEMPTS = 3;
+        private static final long POLL_INTERVAL_MS = 100;
+
+        private final BlockingQueue<SUL<I, O>> ready;
+        private final Executor executor;
+        private final @Nullable ExecutorService ownedExecutor;
+
+        // guarded by this
+        private boolean closed;
+        private int numInstances;
+        private @Nullable RuntimeException lastFailure;
+
+        Pool(SUL<I, O> sul, int poolSize, Executor executor, @Nullable ExecutorService ownedExecutor) {
+            if (poolSize < 1) {
+                throw new IllegalArgumentException("The pool needs to contain at least one instance");
+            } else if (poolSize > 1 && !sul.canFork()) {
+                throw new IllegalArgumentException("The SUL needs to be forkable in order to pool several instances");
+            }
+
+            this.ready = new LinkedBlockingQueue<>();
+            this.executor = executor;
+            this.ownedExecutor = ownedExecutor;
+            this.numInstances = poolSize;
+
+            schedule(sul, false);
+            for (int i = 1; i < poolSize; i++) {
+                schedule(sul.fork(), false);
+            }
+        }
+
+        SUL<I, O> acquire() {
+            while (true) {
+                synchronized (this) {
+                    if (closed) {
+                        throw new IllegalStateException("The pool has already been closed");
+                    } else if (numInstances == 0) {
+                        throw new SULException(lastFailure);
+                    }
+                }
+
+                // poll (rather than take) so that waiting threads notice if the pool is closed or runs empty
+                try {
+                    final SUL<I, O> sul = ready.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                    if (sul != null) {
+                        return sul;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SULException(e);
+                }
+            }
+        }
+
+        void release(SUL<I, O> sul) {
+            final boolean isClosed;
+            synchronized (this) {
+                isClosed = closed;
+            }
+
+            if (isClosed) {
+                sul.post();
+            } else {
+                // if the pool is closed in the meantime, the reset takes care of shutting down the instance
+                schedule(sul, true);
+            }
+        }
+
+        private void schedule(SUL<I, O> sul, boolean cleanup) {
+            try {
+                executor.execute(() -> reset(sul, cleanup));
+            } catch (RejectedExecutionException e) {
+                // do not lose the instance, but reset it on the calling thread
+                reset(sul, cleanup);
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidCatchingGenericException") // failing instances are retried or dropped
+        private void reset(SUL<I, O> sul, boolean cleanup) {
+            RuntimeException failure = null;
+
+            for (int i = 0; i < MAX_RESET_ATTEMPTS; i++) {
+                try {
+                    if (cleanup && i == 0) {
+                        sul.post();
+                    }
+                    sul.pre();
+                    failure = null;
+                    break;
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+            }
+
+            synchronized (this) {
+                if (failure != null) {
+                    // drop the instance, the remaining instances can still be used
+                    numInstances--;
+                    lastFailure = failure;
+                    return;
+                } else if (!closed) {
+                    ready.add(sul);
+                    return;
+                }
+            }
+
+            sul.post();
+        }
+
+        void close() {
+            final List<SUL<I, O>> drained = new ArrayList<>();
+
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                ready.drainTo(drained);
+            }
+
+            for (SUL<I, O> sul : drained) {
+                sul.post();
+            }
+
+            if (ownedExecutor != null) {
+                ownedExecutor.shutdown();
+            }
+        }
+    }
+}
@@ -15,31 +15,59 @@
  */
 package de.learnlib.driver.reflect;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 
 import de.learnlib.exception.SULException;
 import de.learnlib.sul.ContextHandler;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 final class InstanceConstructor implements ContextHandler<Object> {
 
-    private final Constructor<?> constructor;
-    private final Object[] params;
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final @Nullable MethodHandle constructor;
+    private final @Nullable Exception constructorError;
 
     InstanceConstructor(Constructor<?> constructor, Object[] params) {
-        this.constructor = constructor;
-        this.params = params;
+        MethodHandle handle = null;
+        Exception error = null;
+        try {
+            handle = createConstructor(constructor, params);
+        } catch (InstantiationException | IllegalAccessException | IllegalArgumentException | ClassCastException e) {
+            error = e;
+        }
+        this.constructor = handle;
+        this.constructorError = error;
+    }
+
+    private static MethodHandle createConstructor(Constructor<?> constructor, Object[] params)
+            throws InstantiationException, IllegalAccessException {
+        if (Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+            throw new InstantiationException(constructor.getDeclaringClass().getName());
+        }
+        if (constructor.getParameterCount() != params.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+
+        final MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity();
+        return MethodHandles.insertArguments(handle, 0, params).asType(CONSTRUCTOR_TYPE);
     }
 
-    @SuppressWarnings("PMD.PreserveStackTrace")
+    @SuppressWarnings("PMD.AvoidCatchingThrowable") // exceptions of the constructor constitute the SUL behavior
     @Override
     public Object createContext() {
+        if (constructor == null) {
+            throw new SULException(constructorError);
+        }
+
         try {
-            return constructor.newInstance(params);
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new SULException(e);
-        } catch (InvocationTargetException e) {
-            throw new SULException(e.getCause());
+            return (Object) constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new SULException(t);
         }
     }
 
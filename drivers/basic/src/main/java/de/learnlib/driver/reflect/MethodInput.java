@@ -15,8 +15,11 @@
  */
 package de.learnlib.driver.reflect;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 
 import de.learnlib.exception.SULException;
 import de.learnlib.sul.ContextExecutableInput;
@@ -24,34 +27,69 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * An input symbol that represents a call to a method with a specific set of parameters.
+ * <p>
+ * The method (including its parameters) is resolved once upon construction to a {@link MethodHandle} of type
+ * {@code (Object)Object}, so that the execution of the input does not involve any reflective access checks or
+ * allocations of parameter arrays. If the method cannot be accessed or the parameters do not match the signature of
+ * the method, the respective error is reported via a {@link SULException} upon execution.
  */
 public class MethodInput implements ContextExecutableInput<MethodOutput, Object> {
 
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class);
+
     private final String displayName;
-    private final Method method;
-    private final Object[] parameters;
+    private final boolean isVoid;
+
+    private final @Nullable MethodHandle invoker;
+    private final @Nullable Exception invokerError;
 
     public MethodInput(String displayName, Method method, Object[] parameters) {
         this.displayName = displayName;
-        this.method = method;
-        this.parameters = parameters;
+        this.isVoid = Void.TYPE.equals(method.getReturnType());
+
+        MethodHandle handle = null;
+        Exception error = null;
+        try {
+            handle = createInvoker(method, parameters);
+        } catch (IllegalAccessException | IllegalArgumentException | ClassCastException e) {
+            error = e;
+        }
+        this.invoker = handle;
+        this.invokerError = error;
     }
 
-    @SuppressWarnings("PMD.PreserveStackTrace")
+    private static MethodHandle createInvoker(Method method, Object[] parameters) throws IllegalAccessException {
+        if (method.getParameterCount() != parameters.length) {
+            throw new IllegalArgumentException("wrong number of arguments");
+        }
+
+        MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.insertArguments(handle, 0, parameters);
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        } else {
+            handle = MethodHandles.insertArguments(handle, 1, parameters);
+        }
+
+        return handle.asType(INVOKER_TYPE);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable") // exceptions of the invoked method constitute the SUL behavior
     @Override
     public MethodOutput execute(Object context) {
+        if (invoker == null) {
+            throw new SULException(invokerError);
+        }
+
+        final Object ret;
         try {
-            final Object ret = this.method.invoke(context, parameters);
-            if (Void.TYPE.equals(this.method.getReturnType())) {
-                return VoidOutput.INSTANCE;
-            } else {
-                return new ReturnValue<@Nullable Object>(ret);
-            }
-        } catch (IllegalAccessException | IllegalArgumentException e) {
-            throw new SULException(e);
-        } catch (InvocationTargetException e) {
-            throw new SULException(e.getCause());
+            ret = (Object) invoker.invokeExact(context);
+        } catch (Throwable t) {
+            throw new SULException(t);
         }
+
+        return isVoid ? VoidOutput.INSTANCE : ReturnValue.of(ret);
     }
 
     @Override
@@ -27,12 +27,52 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  */
 public final class ReturnValue<T> extends MethodOutput {
 
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 127;
+
+    private static final ReturnValue<?> NULL = new ReturnValue<>(null);
+    private static final ReturnValue<Boolean> TRUE = new ReturnValue<>(Boolean.TRUE);
+    private static final ReturnValue<Boolean> FALSE = new ReturnValue<>(Boolean.FALSE);
+    private static final ReturnValue<?>[] INTEGERS = new ReturnValue<?>[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < INTEGERS.length; i++) {
+            INTEGERS[i] = new ReturnValue<>(CACHE_LOW + i);
+        }
+    }
+
     private final T ret;
 
     public ReturnValue(T ret) {
         this.ret = ret;
     }
 
+    /**
+     * Returns a {@link ReturnValue} for the given value. Return values of {@code null}, {@link Boolean}s and small
+     * {@link Integer}s are cached, so that the respective method calls do not allocate new output objects.
+     *
+     * @param ret
+     *         the return value
+     * @param <T>
+     *         return value type
+     *
+     * @return the {@link ReturnValue} for the given value
+     */
+    @SuppressWarnings("unchecked") // the cached instances wrap values of the requested type
+    public static <T> ReturnValue<T> of(T ret) {
+        if (ret == null) {
+            return (ReturnValue<T>) NULL;
+        } else if (ret instanceof Boolean) {
+            return (ReturnValue<T>) ((Boolean) ret ? TRUE : FALSE);
+        } else if (ret instanceof Integer) {
+            final int value = (Integer) ret;
+            if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+                return (ReturnValue<T>) INTEGERS[value - CACHE_LOW];
+            }
+        }
+        return new ReturnValue<>(ret);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hashCode(this.ret);
@@ -0,0 +1,123 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link RemoteWorkerLauncher} that starts each worker as a local child process and communicates with it via the
+ * standard input and output pipes of the process. The error stream of the worker is inherited from the current
+ * process.
+ * <p>
+ * By default, workers are started as a new JVM (using the {@code java} executable and class path of the current JVM)
+ * running {@link RemoteSULWorker} with the given {@link RemoteSULFactory}. Alternatively, an arbitrary command can be
+ * specified, e.g. to run workers with a different class path or a non-Java implementation of the protocol.
+ */
+public class ProcessWorkerLauncher implements RemoteWorkerLauncher {
+
+    private static final long TERMINATION_GRACE_MILLIS = 1000;
+
+    private final List<String> command;
+
+    public ProcessWorkerLauncher(Class<? extends RemoteSULFactory<?, ?>> factoryClass) {
+        this(factoryClass, Collections.emptyList());
+    }
+
+    public ProcessWorkerLauncher(Class<? extends RemoteSULFactory<?, ?>> factoryClass, List<String> jvmArgs) {
+        this(buildJavaCommand(factoryClass.getName(), jvmArgs));
+    }
+
+    public ProcessWorkerLauncher(List<String> command) {
+        if (command.isEmpty()) {
+            throw new IllegalArgumentException("The command must not be empty");
+        }
+        this.command = new ArrayList<>(command);
+    }
+
+    private static List<String> buildJavaCommand(String factoryClassName, List<String> jvmArgs) {
+        final String javaHome = System.getProperty("java.home");
+        final String java = javaHome + File.separator + "bin" + File.separator + "java";
+
+        final List<String> result = new ArrayList<>(jvmArgs.size() + 4);
+        result.add(java);
+        result.addAll(jvmArgs);
+        result.add("-cp");
+        result.add(System.getProperty("java.class.path"));
+        result.add(RemoteSULWorker.class.getName());
+        result.add(factoryClassName);
+
+        return result;
+    }
+
+    @Override
+    public Channel launch() throws IOException {
+        final Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        return new ProcessChannel(process);
+    }
+
+    private static final class ProcessChannel implements Channel {
+
+        private final Process process;
+
+        ProcessChannel(Process process) {
+            this.process = process;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return process.getInputStream();
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return process.getOutputStream();
+        }
+
+        @Override
+        public boolean isAlive() {
+            return process.isAlive();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // closing the input of the worker causes a regular shutdown
+                process.getOutputStream().close();
+            } catch (IOException e) {
+                // the worker has already terminated (or is broken), so don't wait for it
+                process.destroyForcibly();
+            }
+
+            try {
+                if (!process.waitFor(TERMINATION_GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            } finally {
+                process.getInputStream().close();
+            }
+        }
+    }
+}
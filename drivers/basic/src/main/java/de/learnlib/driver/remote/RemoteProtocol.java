@@ -0,0 +1,167 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import net.automatalib.alphabet.Alphabet;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Constants and encoding utilities of the binary protocol spoken between a {@link RemoteSULWorker} and its clients.
+ * <p>
+ * After start-up, a worker sends a handshake consisting of {@link #MAGIC}, {@link #VERSION}, and the sizes of its input
+ * and output alphabet. Afterwards, the client sends requests (an opcode followed by its payload) which the worker
+ * answers (a status byte followed by its payload) in order. Symbols are transmitted as their index in the respective
+ * alphabet using a variable-length encoding, so that the symbols of small alphabets occupy a single byte each. Output
+ * symbols are shifted by one, reserving {@code 0} for {@code null} outputs.
+ */
+final class RemoteProtocol {
+
+    static final int MAGIC = 0x4C4C5357; // "LLSW"
+    static final int VERSION = 1;
+
+    /**
+     * Request: a batch of queries. Payload: the number of queries, followed by (prefix length, suffix length, symbols)
+     * for each query. Response: (length, symbols) of the suffix output for each query.
+     */
+    static final int OP_QUERIES = 1;
+    /**
+     * Request: {@code SUL.pre()}. No payload, no response payload.
+     */
+    static final int OP_PRE = 2;
+    /**
+     * Request: {@code SUL.step(I)}. Payload: the input symbol. Response: the output symbol.
+     */
+    static final int OP_STEP = 3;
+    /**
+     * Request: {@code SUL.post()}. No payload, no response payload.
+     */
+    static final int OP_POST = 4;
+    /**
+     * Request: a heartbeat. No payload, no response payload.
+     */
+    static final int OP_PING = 5;
+    /**
+     * Request: terminate the worker. No payload, no response.
+     */
+    static final int OP_SHUTDOWN = 6;
+    /**
+     * Request: {@code SUL.stepAll(Word)}. Payload: the number of input symbols, followed by the symbols. Response: the
+     * output symbols.
+     */
+    static final int OP_STEP_ALL = 7;
+
+    static final int STATUS_OK = 0;
+    /**
+     * Response status indicating an exception of the SUL. Payload: the (UTF-encoded) message.
+     */
+    static final int STATUS_ERROR = 1;
+
+    static final int NULL_SYMBOL = 0;
+
+    private static final int VARINT_PAYLOAD_BITS = 7;
+    private static final int VARINT_PAYLOAD_MASK = 0x7F;
+    private static final int VARINT_CONTINUATION = 0x80;
+    private static final int VARINT_MAX_SHIFT = 28;
+
+    private RemoteProtocol() {
+        // prevent instantiation
+    }
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+
+        int rest = value;
+        while ((rest & ~VARINT_PAYLOAD_MASK) != 0) {
+            out.writeByte((rest & VARINT_PAYLOAD_MASK) | VARINT_CONTINUATION);
+            rest >>>= VARINT_PAYLOAD_BITS;
+        }
+        out.writeByte(rest);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int result = 0;
+        for (int shift = 0; shift <= VARINT_MAX_SHIFT; shift += VARINT_PAYLOAD_BITS) {
+            final int b = in.readUnsignedByte();
+            result |= (b & VARINT_PAYLOAD_MASK) << shift;
+            if ((b & VARINT_CONTINUATION) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static <I> void writeInput(DataOutput out, Alphabet<I> alphabet, I symbol) throws IOException {
+        if (!alphabet.containsSymbol(symbol)) {
+            throw new IllegalArgumentException("Symbol '" + symbol + "' is not contained in the input alphabet");
+        }
+        writeVarInt(out, alphabet.getSymbolIndex(symbol));
+    }
+
+    static <I> I readInput(DataInput in, Alphabet<I> alphabet) throws IOException {
+        final int idx = readVarInt(in);
+        if (idx >= alphabet.size()) {
+            throw new IOException("Invalid input symbol index: " + idx);
+        }
+        return alphabet.getSymbol(idx);
+    }
+
+    static <O> void writeOutput(DataOutput out, Alphabet<O> alphabet, @Nullable O symbol) throws IOException {
+        writeVarInt(out, symbol == null ? NULL_SYMBOL : alphabet.getSymbolIndex(symbol) + 1);
+    }
+
+    @SuppressWarnings("nullness") // null outputs are passed through as-is, as in any other SUL
+    static <O> O readOutput(DataInput in, Alphabet<O> alphabet) throws IOException {
+        final int idx = readVarInt(in);
+        if (idx == NULL_SYMBOL) {
+            return null;
+        }
+        if (idx > alphabet.size()) {
+            throw new IOException("Invalid output symbol index: " + (idx - 1));
+        }
+        return alphabet.getSymbol(idx - 1);
+    }
+
+    static void expectStatus(DataInput in) throws IOException {
+        final int status = in.readUnsignedByte();
+
+        switch (status) {
+            case STATUS_OK:
+                return;
+            case STATUS_ERROR:
+                throw new RemoteSULException(in.readUTF());
+            default:
+                throw new IOException("Unexpected response status: " + status);
+        }
+    }
+
+    /**
+     * Signals an exception of the SUL inside the worker process, as opposed to a failure of the worker process itself.
+     */
+    static final class RemoteSULException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        RemoteSULException(String message) {
+            super(message);
+        }
+    }
+}
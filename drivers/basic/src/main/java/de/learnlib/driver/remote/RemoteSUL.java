@@ -0,0 +1,226 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.learnlib.exception.SULException;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * A {@link SUL} that forwards each call to a SUL running in a separate worker process (see {@link RemoteSULWorker}).
+ * <p>
+ * The worker is started lazily and is replaced by a fresh worker if it crashes, does not answer within the configured
+ * timeout, or (after being idle for longer than the configured heartbeat interval) does not answer a heartbeat. If this
+ * happens during an episode, the inputs of the current episode are replayed on the new worker (assuming the SUL is
+ * deterministic) before the failed call is retried. Exceptions thrown by the SUL inside the worker are re-thrown as
+ * {@link SULException}s.
+ * <p>
+ * Since every call requires a round trip to the worker, sequences of inputs should be executed via
+ * {@link #stepAll(Word)}, which transmits them in a single request. Furthermore, a {@link RemoteSULOracle} (which
+ * transmits whole batches of queries at once) should be preferred for answering membership queries. Forks of this SUL
+ * use their own workers.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class RemoteSUL<I, O> implements SUL<I, O>, Closeable {
+
+    private final RemoteWorkerLauncher launcher;
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxRetries;
+
+    private final WorkerConnection connection;
+    private final List<I> episode;
+    private boolean inEpisode;
+
+    public RemoteSUL(RemoteWorkerLauncher launcher, Alphabet<I> inputAlphabet, Alphabet<O> outputAlphabet) {
+        this(launcher,
+             inputAlphabet,
+             outputAlphabet,
+             RemoteSULOracle.DEFAULT_TIMEOUT_MILLIS,
+             RemoteSULOracle.DEFAULT_HEARTBEAT_MILLIS,
+             RemoteSULOracle.DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param launcher
+     *         the launcher for starting (and restarting) the worker
+     * @param inputAlphabet
+     *         the input alphabet, which must coincide with the input alphabet of the worker
+     * @param outputAlphabet
+     *         the output alphabet, which must coincide with the output alphabet of the worker
+     * @param timeoutMillis
+     *         the time (in milliseconds) the worker may take for answering a single request
+     * @param heartbeatMillis
+     *         the idle time (in milliseconds) after which the worker is pinged before sending a new request. A
+     *         non-positive value disables heartbeats
+     * @param maxRetries
+     *         the maximum number of times a request is re-sent after a failure of the worker
+     */
+    public RemoteSUL(RemoteWorkerLauncher launcher,
+                     Alphabet<I> inputAlphabet,
+                     Alphabet<O> outputAlphabet,
+                     long timeoutMillis,
+                     long heartbeatMillis,
+                     int maxRetries) {
+        this.launcher = launcher;
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxRetries = maxRetries;
+        this.connection = new WorkerConnection(launcher,
+                                               inputAlphabet.size(),
+                                               outputAlphabet.size(),
+                                               timeoutMillis,
+                                               heartbeatMillis,
+                                               maxRetries);
+        this.episode = new ArrayList<>();
+        this.connection.setRestorer(this::replayEpisode);
+    }
+
+    @Override
+    public void pre() {
+        episode.clear();
+        try {
+            connection.call(out -> out.writeByte(RemoteProtocol.OP_PRE), WorkerConnection::readStatus);
+        } catch (IOException e) {
+            throw new SULException(e);
+        }
+        inEpisode = true;
+    }
+
+    @Override
+    public void post() {
+        try {
+            connection.call(out -> out.writeByte(RemoteProtocol.OP_POST), WorkerConnection::readStatus);
+        } catch (IOException e) {
+            throw new SULException(e);
+        } finally {
+            inEpisode = false;
+            episode.clear();
+        }
+    }
+
+    @Override
+    public O step(I in) {
+        final O output;
+        try {
+            output = connection.call(out -> writeStep(out, in), this::readStep);
+        } catch (IOException e) {
+            throw new SULException(e);
+        }
+        episode.add(in);
+        return output;
+    }
+
+    /**
+     * Transmits all inputs to the worker in a single request.
+     */
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        final Word<O> output;
+        try {
+            output = connection.call(out -> writeStepAll(out, in), dis -> readStepAll(dis, in.length()));
+        } catch (IOException e) {
+            throw new SULException(e);
+        }
+        episode.addAll(in.asList());
+        return output;
+    }
+
+    @Override
+    public boolean canFork() {
+        return true;
+    }
+
+    @Override
+    public SUL<I, O> fork() {
+        return new RemoteSUL<>(launcher, inputAlphabet, outputAlphabet, timeoutMillis, heartbeatMillis, maxRetries);
+    }
+
+    /**
+     * Returns the number of times the worker of this SUL has been replaced due to a failure.
+     *
+     * @return the number of worker restarts
+     */
+    public int getNumRestarts() {
+        return connection.getNumRestarts();
+    }
+
+    /**
+     * Terminates the worker of this SUL. A subsequent episode starts a new worker.
+     */
+    @Override
+    public void close() {
+        connection.close();
+    }
+
+    private void writeStep(DataOutputStream out, I in) throws IOException {
+        out.writeByte(RemoteProtocol.OP_STEP);
+        RemoteProtocol.writeInput(out, inputAlphabet, in);
+    }
+
+    private O readStep(DataInputStream in) throws IOException {
+        RemoteProtocol.expectStatus(in);
+        return RemoteProtocol.readOutput(in, outputAlphabet);
+    }
+
+    private void writeStepAll(DataOutputStream out, Word<? extends I> in) throws IOException {
+        out.writeByte(RemoteProtocol.OP_STEP_ALL);
+        RemoteProtocol.writeVarInt(out, in.length());
+        for (I sym : in) {
+            RemoteProtocol.writeInput(out, inputAlphabet, sym);
+        }
+    }
+
+    private Word<O> readStepAll(DataInputStream in, int length) throws IOException {
+        RemoteProtocol.expectStatus(in);
+        final WordBuilder<O> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.add(RemoteProtocol.readOutput(in, outputAlphabet));
+        }
+        return wb.toWord();
+    }
+
+    private void replayEpisode(WorkerConnection c) throws IOException {
+        if (!inEpisode) {
+            return;
+        }
+
+        c.callOnce(out -> out.writeByte(RemoteProtocol.OP_PRE), WorkerConnection::readStatus);
+        if (!episode.isEmpty()) {
+            final Word<I> inputs = Word.fromList(episode);
+            c.callOnce(out -> writeStepAll(out, inputs), dis -> readStepAll(dis, inputs.length()));
+        }
+    }
+}
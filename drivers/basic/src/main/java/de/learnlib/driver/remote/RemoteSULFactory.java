@@ -0,0 +1,56 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+
+/**
+ * A factory for the {@link SUL} that is run by a {@link RemoteSULWorker}. Implementations are instantiated
+ * reflectively inside the worker process and therefore need to provide a public no-argument constructor.
+ * <p>
+ * Inputs and outputs are exchanged by their index in the respective alphabet, hence the client needs to use the same
+ * alphabets (w.r.t. the order of symbols) as the worker.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public interface RemoteSULFactory<I, O> {
+
+    /**
+     * Creates the SUL that answers the requests of a single worker process. The SUL is only accessed by a single thread.
+     *
+     * @return the SUL
+     */
+    SUL<I, O> createSUL();
+
+    /**
+     * Returns the input alphabet of the created SULs.
+     *
+     * @return the input alphabet
+     */
+    Alphabet<I> getInputAlphabet();
+
+    /**
+     * Returns the output alphabet of the created SULs. Every (non-{@code null}) output of the SUL must be contained in
+     * this alphabet.
+     *
+     * @return the output alphabet
+     */
+    Alphabet<O> getOutputAlphabet();
+}
@@ -0,0 +1,199 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import de.learnlib.exception.SULException;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.Query;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * A {@link MealyMembershipOracle} that answers queries by means of a SUL running in a separate worker process (see
+ * {@link RemoteSULWorker}). Queries are transmitted in batches of (at most) a given size, so that a whole batch only
+ * requires a single round trip to the worker.
+ * <p>
+ * The worker is started lazily and is replaced by a fresh worker if it crashes, does not answer a batch within the
+ * configured timeout, or (after being idle for longer than the configured heartbeat interval) does not answer a
+ * heartbeat. In these cases, the affected batch is re-sent to the new worker up to the configured number of retries.
+ * Exceptions thrown by the SUL inside the worker are re-thrown as {@link SULException}s.
+ * <p>
+ * Each oracle communicates with exactly one worker. To answer queries in parallel, use one oracle per worker, e.g. by
+ * passing {@code () -> new RemoteSULOracle<>(...)} to the builders of the parallelism module.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class RemoteSULOracle<I, O> implements MealyMembershipOracle<I, O>, Closeable {
+
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 60_000;
+    public static final long DEFAULT_HEARTBEAT_MILLIS = 5_000;
+    public static final int DEFAULT_MAX_RETRIES = 2;
+
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final int batchSize;
+    private final WorkerConnection connection;
+
+    public RemoteSULOracle(RemoteWorkerLauncher launcher, Alphabet<I> inputAlphabet, Alphabet<O> outputAlphabet) {
+        this(launcher,
+             inputAlphabet,
+             outputAlphabet,
+             DEFAULT_BATCH_SIZE,
+             DEFAULT_TIMEOUT_MILLIS,
+             DEFAULT_HEARTBEAT_MILLIS,
+             DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param launcher
+     *         the launcher for starting (and restarting) the worker
+     * @param inputAlphabet
+     *         the input alphabet, which must coincide with the input alphabet of the worker
+     * @param outputAlphabet
+     *         the output alphabet, which must coincide with the output alphabet of the worker
+     * @param batchSize
+     *         the maximum number of queries per request
+     * @param timeoutMillis
+     *         the time (in milliseconds) the worker may take for answering a single request
+     * @param heartbeatMillis
+     *         the idle time (in milliseconds) after which the worker is pinged before sending a new request. A
+     *         non-positive value disables heartbeats
+     * @param maxRetries
+     *         the maximum number of times a request is re-sent after a failure of the worker
+     */
+    public RemoteSULOracle(RemoteWorkerLauncher launcher,
+                           Alphabet<I> inputAlphabet,
+                           Alphabet<O> outputAlphabet,
+                           int batchSize,
+                           long timeoutMillis,
+                           long heartbeatMillis,
+                           int maxRetries) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.batchSize = batchSize;
+        this.connection = new WorkerConnection(launcher,
+                                               inputAlphabet.size(),
+                                               outputAlphabet.size(),
+                                               timeoutMillis,
+                                               heartbeatMillis,
+                                               maxRetries);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        final List<Query<I, Word<O>>> batch = new ArrayList<>(Math.min(batchSize, queries.size()));
+        final Iterator<? extends Query<I, Word<O>>> iter = queries.iterator();
+
+        while (iter.hasNext()) {
+            batch.add(iter.next());
+            if (batch.size() == batchSize || !iter.hasNext()) {
+                processBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<Query<I, Word<O>>> batch) {
+        final List<Word<O>> outputs;
+
+        try {
+            outputs = connection.call(out -> writeQueries(out, batch), in -> readOutputs(in, batch));
+        } catch (IOException e) {
+            throw new SULException(e);
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).answer(outputs.get(i));
+        }
+    }
+
+    private void writeQueries(DataOutputStream out, List<Query<I, Word<O>>> batch) throws IOException {
+        out.writeByte(RemoteProtocol.OP_QUERIES);
+        RemoteProtocol.writeVarInt(out, batch.size());
+
+        for (Query<I, Word<O>> q : batch) {
+            final Word<I> prefix = q.getPrefix();
+            final Word<I> suffix = q.getSuffix();
+
+            RemoteProtocol.writeVarInt(out, prefix.length());
+            RemoteProtocol.writeVarInt(out, suffix.length());
+            for (I sym : prefix) {
+                RemoteProtocol.writeInput(out, inputAlphabet, sym);
+            }
+            for (I sym : suffix) {
+                RemoteProtocol.writeInput(out, inputAlphabet, sym);
+            }
+        }
+    }
+
+    private List<Word<O>> readOutputs(DataInputStream in, List<Query<I, Word<O>>> batch) throws IOException {
+        RemoteProtocol.expectStatus(in);
+
+        final List<Word<O>> result = new ArrayList<>(batch.size());
+        for (Query<I, Word<O>> q : batch) {
+            final int length = RemoteProtocol.readVarInt(in);
+            if (length != q.getSuffix().length()) {
+                throw new IOException("Expected an output of length " + q.getSuffix().length() + ", got " + length);
+            }
+
+            final WordBuilder<O> wb = new WordBuilder<>(length);
+            for (int i = 0; i < length; i++) {
+                wb.add(RemoteProtocol.readOutput(in, outputAlphabet));
+            }
+            result.add(wb.toWord());
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of times the worker of this oracle has been replaced due to a failure.
+     *
+     * @return the number of worker restarts
+     */
+    public int getNumRestarts() {
+        return connection.getNumRestarts();
+    }
+
+    /**
+     * Terminates the worker of this oracle. A subsequent query starts a new worker.
+     */
+    @Override
+    public void close() {
+        connection.close();
+    }
+}
@@ -0,0 +1,307 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * The server side of the remote SUL protocol. A worker answers the requests of a single client (a
+ * {@link RemoteSULOracle} or a {@link RemoteSUL}) sequentially on a single {@link SUL} instance, until the client
+ * requests a shutdown or closes the connection.
+ * <p>
+ * The {@link #main(String[]) main} method runs a worker on the standard input and output of the current process, which
+ * is how the {@link ProcessWorkerLauncher} starts its workers. Exceptions of the SUL are reported to the client and do
+ * not terminate the worker.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public final class RemoteSULWorker<I, O> {
+
+    private static final int MAX_MESSAGE_LENGTH = 1024;
+
+    private final SUL<I, O> sul;
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private boolean inEpisode;
+
+    private RemoteSULWorker(SUL<I, O> sul,
+                            Alphabet<I> inputAlphabet,
+                            Alphabet<O> outputAlphabet,
+                            InputStream in,
+                            OutputStream out) {
+        this.sul = sul;
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    /**
+     * Runs a worker on the standard input and output of the current process. The only argument is the fully qualified
+     * name of the {@link RemoteSULFactory} whose SUL should be served. Since the standard output is reserved for the
+     * protocol, {@link System#out} is redirected to {@link System#err} before the SUL is created.
+     *
+     * @param args
+     *         the command line arguments
+     *
+     * @throws Exception
+     *         if the factory cannot be instantiated or the communication fails
+     */
+    @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "PMD.CloseResource"}) // entry point of the worker
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: RemoteSULWorker <factory class>");
+        }
+
+        final PrintStream protocolOut = System.out;
+        System.setOut(System.err);
+
+        final Class<?> factoryClass = Class.forName(args[0]);
+        final RemoteSULFactory<?, ?> factory = (RemoteSULFactory<?, ?>) factoryClass.getConstructor().newInstance();
+
+        serve(factory, System.in, protocolOut);
+    }
+
+    /**
+     * Serves the SUL of the given factory on the given streams until the client requests a shutdown or closes the
+     * connection.
+     *
+     * @param factory
+     *         the factory providing the SUL and its alphabets
+     * @param in
+     *         the stream of requests
+     * @param out
+     *         the stream of responses
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @throws IOException
+     *         if the communication fails
+     */
+    public static <I, O> void serve(RemoteSULFactory<I, O> factory, InputStream in, OutputStream out)
+            throws IOException {
+        new RemoteSULWorker<>(factory.createSUL(),
+                              factory.getInputAlphabet(),
+                              factory.getOutputAlphabet(),
+                              in,
+                              out).run();
+    }
+
+    private void run() throws IOException {
+        out.writeInt(RemoteProtocol.MAGIC);
+        out.writeInt(RemoteProtocol.VERSION);
+        RemoteProtocol.writeVarInt(out, inputAlphabet.size());
+        RemoteProtocol.writeVarInt(out, outputAlphabet.size());
+        out.flush();
+
+        try {
+            int op;
+            while ((op = in.read()) >= 0 && op != RemoteProtocol.OP_SHUTDOWN) {
+                handle(op);
+                out.flush();
+            }
+        } finally {
+            if (inEpisode) {
+                sul.post();
+            }
+        }
+    }
+
+    private void handle(int op) throws IOException {
+        switch (op) {
+            case RemoteProtocol.OP_QUERIES:
+                handleQueries();
+                break;
+            case RemoteProtocol.OP_PRE:
+                handlePre();
+                break;
+            case RemoteProtocol.OP_STEP:
+                handleStep();
+                break;
+            case RemoteProtocol.OP_STEP_ALL:
+                handleStepAll();
+                break;
+            case RemoteProtocol.OP_POST:
+                handlePost();
+                break;
+            case RemoteProtocol.OP_PING:
+                out.writeByte(RemoteProtocol.STATUS_OK);
+                break;
+            default:
+                throw new IOException("Unknown opcode: " + op);
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // exceptions of the SUL are reported to the client
+    private void handleQueries() throws IOException {
+        // read the complete batch first, so that an exception of the SUL does not corrupt the request stream
+        final int numQueries = RemoteProtocol.readVarInt(in);
+        final int[] prefixLengths = new int[numQueries];
+        final Object[][] words = new Object[numQueries][];
+
+        for (int i = 0; i < numQueries; i++) {
+            prefixLengths[i] = RemoteProtocol.readVarInt(in);
+            final int suffixLength = RemoteProtocol.readVarInt(in);
+            final Object[] word = new Object[prefixLengths[i] + suffixLength];
+            for (int j = 0; j < word.length; j++) {
+                word[j] = RemoteProtocol.readInput(in, inputAlphabet);
+            }
+            words[i] = word;
+        }
+
+        final Object[][] outputs = new Object[numQueries][];
+
+        try {
+            for (int i = 0; i < numQueries; i++) {
+                outputs[i] = answerQuery(words[i], prefixLengths[i]);
+            }
+        } catch (RuntimeException e) {
+            writeError(e);
+            return;
+        }
+
+        out.writeByte(RemoteProtocol.STATUS_OK);
+        for (Object[] output : outputs) {
+            RemoteProtocol.writeVarInt(out, output.length);
+            for (Object o : output) {
+                @SuppressWarnings("unchecked")
+                final O sym = (O) o;
+                RemoteProtocol.writeOutput(out, outputAlphabet, sym);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] answerQuery(Object[] word, int prefixLength) {
+        final Object[] result = new Object[word.length - prefixLength];
+
+        sul.pre();
+        try {
+            for (int i = 0; i < prefixLength; i++) {
+                sul.step((I) word[i]);
+            }
+            for (int i = prefixLength; i < word.length; i++) {
+                result[i - prefixLength] = checkOutput(sul.step((I) word[i]));
+            }
+        } finally {
+            sul.post();
+        }
+
+        return result;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // exceptions of the SUL are reported to the client
+    private void handlePre() throws IOException {
+        try {
+            sul.pre();
+            inEpisode = true;
+        } catch (RuntimeException e) {
+            writeError(e);
+            return;
+        }
+
+        out.writeByte(RemoteProtocol.STATUS_OK);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // exceptions of the SUL are reported to the client
+    private void handleStep() throws IOException {
+        final I input = RemoteProtocol.readInput(in, inputAlphabet);
+        final O output;
+
+        try {
+            output = checkOutput(sul.step(input));
+        } catch (RuntimeException e) {
+            writeError(e);
+            return;
+        }
+
+        out.writeByte(RemoteProtocol.STATUS_OK);
+        RemoteProtocol.writeOutput(out, outputAlphabet, output);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // exceptions of the SUL are reported to the client
+    private void handleStepAll() throws IOException {
+        // read all inputs first, so that an exception of the SUL does not corrupt the request stream
+        final int length = RemoteProtocol.readVarInt(in);
+        final WordBuilder<I> inputs = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            inputs.add(RemoteProtocol.readInput(in, inputAlphabet));
+        }
+
+        final Word<O> outputs;
+
+        try {
+            outputs = sul.stepAll(inputs.toWord());
+            for (O o : outputs) {
+                checkOutput(o);
+            }
+        } catch (RuntimeException e) {
+            writeError(e);
+            return;
+        }
+
+        out.writeByte(RemoteProtocol.STATUS_OK);
+        for (O o : outputs) {
+            RemoteProtocol.writeOutput(out, outputAlphabet, o);
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // exceptions of the SUL are reported to the client
+    private void handlePost() throws IOException {
+        try {
+            inEpisode = false;
+            sul.post();
+        } catch (RuntimeException e) {
+            writeError(e);
+            return;
+        }
+
+        out.writeByte(RemoteProtocol.STATUS_OK);
+    }
+
+    private O checkOutput(O output) {
+        if (output != null && !outputAlphabet.containsSymbol(output)) {
+            throw new IllegalStateException("Output '" + output + "' is not contained in the output alphabet");
+        }
+        return output;
+    }
+
+    private void writeError(RuntimeException e) throws IOException {
+        final String message = String.valueOf(e);
+        out.writeByte(RemoteProtocol.STATUS_ERROR);
+        out.writeUTF(message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+    }
+}
@@ -0,0 +1,66 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A strategy for starting the worker processes used by {@link RemoteSULOracle}s and {@link RemoteSUL}s.
+ *
+ * @see ProcessWorkerLauncher
+ */
+public interface RemoteWorkerLauncher {
+
+    /**
+     * Starts a new worker and returns a channel to communicate with it.
+     *
+     * @return the channel to the new worker
+     *
+     * @throws IOException
+     *         if the worker cannot be started
+     */
+    Channel launch() throws IOException;
+
+    /**
+     * A bidirectional byte channel to a single worker. Closing the channel terminates the worker.
+     */
+    interface Channel extends Closeable {
+
+        /**
+         * Returns the stream of data sent by the worker.
+         *
+         * @return the stream of data sent by the worker
+         */
+        InputStream getInputStream();
+
+        /**
+         * Returns the stream of data sent to the worker.
+         *
+         * @return the stream of data sent to the worker
+         */
+        OutputStream getOutputStream();
+
+        /**
+         * Returns whether the worker is still alive.
+         *
+         * @return {@code true} if the worker is alive, {@code false} otherwise
+         */
+        boolean isAlive();
+    }
+}
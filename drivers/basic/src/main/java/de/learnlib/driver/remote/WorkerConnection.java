@@ -0,0 +1,315 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import de.learnlib.driver.remote.RemoteProtocol.RemoteSULException;
+import de.learnlib.driver.remote.RemoteWorkerLauncher.Channel;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The client side of a connection to a (lazily started) worker. Requests are answered within a given timeout. If the
+ * connection has been idle for longer than the heartbeat interval, the worker is pinged before sending the next request.
+ * Workers that crash, time out, or miss a heartbeat are discarded and replaced by a fresh worker, after which a
+ * (configurable) {@link SessionRestorer} may re-establish the state of the previous worker.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ */
+final class WorkerConnection implements Closeable {
+
+    private static final byte[] PING = {RemoteProtocol.OP_PING};
+
+    private final RemoteWorkerLauncher launcher;
+    private final int numInputs;
+    private final int numOutputs;
+    private final long timeoutMillis;
+    private final long heartbeatMillis;
+    private final int maxRetries;
+
+    private @Nullable SessionRestorer restorer;
+
+    private @Nullable Channel channel;
+    private @Nullable ExecutorService ioExecutor;
+    private @Nullable DataInputStream in;
+    private @Nullable DataOutputStream out;
+
+    private long lastResponse;
+    private boolean started;
+    private int numRestarts;
+
+    WorkerConnection(RemoteWorkerLauncher launcher,
+                     int numInputs,
+                     int numOutputs,
+                     long timeoutMillis,
+                     long heartbeatMillis,
+                     int maxRetries) {
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("The timeout must be positive");
+        }
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("The number of retries must not be negative");
+        }
+        this.launcher = launcher;
+        this.numInputs = numInputs;
+        this.numOutputs = numOutputs;
+        this.timeoutMillis = timeoutMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxRetries = maxRetries;
+    }
+
+    void setRestorer(SessionRestorer restorer) {
+        this.restorer = restorer;
+    }
+
+    int getNumRestarts() {
+        return numRestarts;
+    }
+
+    /**
+     * Sends a request to the worker and returns its response. If the worker fails, the request is retried (on a new
+     * worker) up to the configured number of times.
+     *
+     * @throws RemoteSULException
+     *         if the SUL of the worker has thrown an exception (this does not trigger a retry)
+     * @throws IOException
+     *         if no worker was able to answer the request
+     */
+    @SuppressWarnings("PMD.AvoidRethrowingException") // only failures of the worker trigger a retry
+    <T> T call(RequestWriter request, ResponseReader<T> response) throws IOException {
+        final byte[] message = encode(request);
+
+        IOException failure = null;
+        for (int i = 0; i <= maxRetries; i++) {
+            try {
+                ensureAlive();
+                return exchange(message, response, timeoutMillis);
+            } catch (RemoteSULException | InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                failure = e;
+                discard();
+            }
+        }
+
+        assert failure != null;
+        throw failure;
+    }
+
+    /**
+     * Sends a request to the current worker without retrying or restarting it. Intended for use by a
+     * {@link SessionRestorer}.
+     */
+    <T> T callOnce(RequestWriter request, ResponseReader<T> response) throws IOException {
+        return exchange(encode(request), response, timeoutMillis);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.EmptyCatchBlock") // shutting down is best-effort
+    public void close() {
+        if (channel != null && out != null) {
+            try {
+                out.writeByte(RemoteProtocol.OP_SHUTDOWN);
+                out.flush();
+            } catch (IOException e) {
+                // the worker is discarded anyway
+            }
+        }
+        discard();
+        // a subsequent request starts a new worker, which is not considered a restart
+        started = false;
+    }
+
+    @SuppressWarnings("PMD.AvoidRethrowingException") // interrupts must not trigger a restart
+    private void ensureAlive() throws IOException {
+        if (channel != null && channel.isAlive()) {
+            final long idleNanos = System.nanoTime() - lastResponse;
+            if (heartbeatMillis <= 0 || idleNanos < TimeUnit.MILLISECONDS.toNanos(heartbeatMillis)) {
+                return;
+            }
+
+            try {
+                exchange(PING, WorkerConnection::readStatus, heartbeatMillis);
+                return;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                // missed heartbeat, replace the worker
+                discard();
+            }
+        }
+
+        start();
+    }
+
+    @SuppressWarnings("PMD.CloseResource") // the channel is owned by this connection and closed in discard()
+    private void start() throws IOException {
+        discard();
+
+        if (started) {
+            numRestarts++;
+        }
+        started = true;
+
+        this.channel = launcher.launch();
+        this.ioExecutor = Executors.newSingleThreadExecutor(r -> {
+            final Thread t = new Thread(r, "remote-sul-io");
+            t.setDaemon(true);
+            return t;
+        });
+        this.in = new DataInputStream(new BufferedInputStream(channel.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(channel.getOutputStream()));
+
+        exchange(new byte[0], this::readHandshake, timeoutMillis);
+
+        if (restorer != null) {
+            restorer.restore(this);
+        }
+    }
+
+    private @Nullable Void readHandshake(DataInputStream input) throws IOException {
+        if (input.readInt() != RemoteProtocol.MAGIC) {
+            throw new IOException("The worker does not speak the remote SUL protocol");
+        }
+
+        final int version = input.readInt();
+        if (version != RemoteProtocol.VERSION) {
+            throw new IOException("Unsupported protocol version: " + version);
+        }
+
+        final int workerInputs = RemoteProtocol.readVarInt(input);
+        final int workerOutputs = RemoteProtocol.readVarInt(input);
+        if (workerInputs != numInputs || workerOutputs != numOutputs) {
+            throw new IOException("The alphabets of the worker (" + workerInputs + " inputs, " + workerOutputs +
+                                  " outputs) do not match the alphabets of the client (" + numInputs + " inputs, " +
+                                  numOutputs + " outputs)");
+        }
+
+        return null;
+    }
+
+    // causes of execution exceptions are re-thrown as-is, the streams are closed in discard()
+    @SuppressWarnings({"PMD.PreserveStackTrace", "PMD.CloseResource"})
+    private <T> T exchange(byte[] message, ResponseReader<T> response, long timeout) throws IOException {
+        if (channel == null || ioExecutor == null || in == null || out == null) {
+            throw new IOException("The worker is not running");
+        }
+
+        final DataInputStream input = in;
+        final DataOutputStream output = out;
+        final Future<T> future = ioExecutor.submit(() -> {
+            output.write(message);
+            output.flush();
+            return response.read(input);
+        });
+
+        try {
+            final T result = future.get(timeout, TimeUnit.MILLISECONDS);
+            lastResponse = System.nanoTime();
+            return result;
+        } catch (TimeoutException e) {
+            discard();
+            throw new IOException("The worker did not respond within " + timeout + " ms", e);
+        } catch (InterruptedException e) {
+            discard();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the worker");
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RemoteSULException) {
+                // the worker itself is fine
+                lastResponse = System.nanoTime();
+                throw (RemoteSULException) cause;
+            }
+            discard();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    static @Nullable Void readStatus(DataInputStream input) throws IOException {
+        RemoteProtocol.expectStatus(input);
+        return null;
+    }
+
+    @SuppressWarnings({"PMD.CloseResource", "PMD.EmptyCatchBlock"}) // the worker is broken anyway
+    private void discard() {
+        final Channel c = this.channel;
+        final ExecutorService executor = this.ioExecutor;
+
+        this.channel = null;
+        this.ioExecutor = null;
+        this.in = null;
+        this.out = null;
+
+        if (c != null) {
+            try {
+                // terminating the worker also unblocks pending reads of the I/O thread
+                c.close();
+            } catch (IOException e) {
+                // the worker is broken anyway
+            }
+        }
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] encode(RequestWriter request) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            request.write(out);
+        }
+        return buffer.toByteArray();
+    }
+
+    @FunctionalInterface
+    interface RequestWriter {
+
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ResponseReader<T> {
+
+        T read(DataInputStream in) throws IOException;
+    }
+
+    /**
+     * A callback for re-establishing the state of a failed worker on its replacement.
+     */
+    @FunctionalInterface
+    interface SessionRestorer {
+
+        void restore(WorkerConnection connection) throws IOException;
+    }
+}
@@ -0,0 +1,226 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.learnlib.exception.SULException;
+import de.learnlib.sul.SUL;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PooledSULTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testResetsAreAsynchronous() throws InterruptedException {
+        final CountingSUL sul = new CountingSUL();
+
+        try (PooledSUL<Integer, Integer> pooled = new PooledSUL<>(sul, 2)) {
+            final SUL<Integer, Integer> fork = pooled.fork();
+
+            for (int i = 0; i < 10; i++) {
+                pooled.pre();
+                fork.pre();
+                Assert.assertEquals(pooled.stepAll(Word.fromSymbols(1, 2, 3)), Word.fromSymbols(1, 3, 6));
+                Assert.assertEquals(fork.step(4), Integer.valueOf(4));
+                pooled.post();
+                fork.post();
+            }
+
+            awaitReadyInstances(pooled, 2);
+            Assert.assertFalse(sul.resetThreads.contains(Thread.currentThread()));
+        }
+
+        Assert.assertEquals(sul.forks.get(), 1);
+    }
+
+    @Test
+    public void testFailingReset() {
+        final CountingSUL sul = new CountingSUL();
+        sul.failingPres.set(1);
+
+        final PooledSUL<Integer, Integer> pooled = new PooledSUL<>(sul, 1, DIRECT);
+
+        // the failed reset is retried
+        pooled.pre();
+        Assert.assertEquals(pooled.step(5), Integer.valueOf(5));
+        pooled.post();
+
+        Assert.assertEquals(pooled.getNumReadyInstances(), 1);
+        pooled.close();
+
+        Assert.assertEquals(sul.pres.get(), 3);
+        Assert.assertEquals(sul.posts.get(), 2);
+    }
+
+    @Test
+    public void testDroppedInstances() {
+        final CountingSUL sul = new CountingSUL();
+        // all reset attempts of the first instance fail
+        sul.failingPres.set(3);
+
+        final PooledSUL<Integer, Integer> pooled = new PooledSUL<>(sul, 2, DIRECT);
+        Assert.assertEquals(pooled.getNumReadyInstances(), 1);
+
+        // the remaining instance can still be used
+        pooled.pre();
+        Assert.assertEquals(pooled.step(5), Integer.valueOf(5));
+
+        // only if no instance is left, pre() fails
+        sul.failingPres.set(3);
+        pooled.post();
+        Assert.assertThrows(SULException.class, pooled::pre);
+    }
+
+    @Test
+    public void testRejectedResets() {
+        final CountingSUL sul = new CountingSUL();
+        final PooledSUL<Integer, Integer> pooled = new PooledSUL<>(sul, 1, r -> {
+            throw new RejectedExecutionException();
+        });
+
+        // the instances are reset synchronously instead
+        for (int i = 0; i < 3; i++) {
+            pooled.pre();
+            Assert.assertEquals(pooled.step(i), Integer.valueOf(i));
+            pooled.post();
+        }
+
+        Assert.assertEquals(sul.pres.get(), 4);
+        Assert.assertEquals(sul.posts.get(), 3);
+        Assert.assertEquals(pooled.getNumReadyInstances(), 1);
+    }
+
+    @Test
+    public void testClose() {
+        final CountingSUL sul = new CountingSUL();
+        final PooledSUL<Integer, Integer> pooled = new PooledSUL<>(sul, 3, DIRECT);
+
+        pooled.pre();
+        Assert.assertEquals(pooled.getNumReadyInstances(), 2);
+        Assert.assertEquals(sul.pres.get(), 3);
+
+        pooled.close();
+        Assert.assertEquals(sul.posts.get(), 2);
+
+        // instances in use are shut down upon their release
+        pooled.post();
+        Assert.assertEquals(sul.posts.get(), 3);
+        Assert.assertThrows(IllegalStateException.class, pooled::pre);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testCloseWhileWaiting() throws InterruptedException {
+        // an executor that never resets any instance
+        final PooledSUL<Integer, Integer> pooled = new PooledSUL<>(new CountingSUL(), 1, r -> {});
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        final Thread waiting = new Thread(() -> {
+            try {
+                pooled.pre();
+            } catch (IllegalStateException e) {
+                error.set(e);
+            }
+        });
+
+        waiting.start();
+        pooled.close();
+        waiting.join();
+
+        Assert.assertNotNull(error.get());
+    }
+
+    private static void awaitReadyInstances(PooledSUL<?, ?> sul, int expected) throws InterruptedException {
+        while (sul.getNumReadyInstances() < expected) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * A SUL that sums up its inputs and records its resets (shared with its forks).
+     */
+    private static final class CountingSUL implements SUL<Integer, Integer> {
+
+        private final AtomicInteger pres;
+        private final AtomicInteger posts;
+        private final AtomicInteger forks;
+        private final AtomicInteger failingPres;
+        private final Set<Thread> resetThreads;
+
+        private int sum;
+
+        CountingSUL() {
+            this(new AtomicInteger(),
+                 new AtomicInteger(),
+                 new AtomicInteger(),
+                 new AtomicInteger(),
+                 ConcurrentHashMap.newKeySet());
+        }
+
+        private CountingSUL(AtomicInteger pres,
+                            AtomicInteger posts,
+                            AtomicInteger forks,
+                            AtomicInteger failingPres,
+                            Set<Thread> resetThreads) {
+            this.pres = pres;
+            this.posts = posts;
+            this.forks = forks;
+            this.failingPres = failingPres;
+            this.resetThreads = resetThreads;
+        }
+
+        @Override
+        public void pre() {
+            resetThreads.add(Thread.currentThread());
+            pres.incrementAndGet();
+            if (failingPres.getAndDecrement() > 0) {
+                throw new IllegalStateException("pre failed");
+            }
+            sum = 0;
+        }
+
+        @Override
+        public void post() {
+            resetThreads.add(Thread.currentThread());
+            posts.incrementAndGet();
+        }
+
+        @Override
+        public Integer step(Integer in) {
+            sum += in;
+            return sum;
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public SUL<Integer, Integer> fork() {
+            forks.incrementAndGet();
+            return new CountingSUL(pres, posts, forks, failingPres, resetThreads);
+        }
+    }
+}
@@ -17,6 +17,7 @@ package de.learnlib.driver.reflect;
 
 import java.lang.reflect.Constructor;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.learnlib.exception.SULException;
 import org.testng.Assert;
@@ -65,4 +66,30 @@ public class SimplePOJOTestDriverTest {
         driver.post();
     }
 
+    @Test
+    public void testDriverWithPrimitivesAndStatics() throws Exception {
+
+        final Constructor<?> c = AtomicInteger.class.getConstructor(int.class);
+        final SimplePOJOTestDriver driver = new SimplePOJOTestDriver(c, 40);
+
+        final MethodInput add = driver.addInput("add_1", "addAndGet", 1);
+        final MethodInput cas = driver.addInput("cas_41", "compareAndSet", 41, 0);
+        final MethodInput max = driver.addInput("max", Math.class.getMethod("max", int.class, int.class), 3, 7);
+        final MethodInput wrong = driver.addInput("wrong", AtomicInteger.class.getMethod("addAndGet", int.class), "1");
+
+        driver.pre();
+        Assert.assertEquals(driver.step(add), new ReturnValue<>(41));
+        Assert.assertEquals(driver.step(max), new ReturnValue<>(7));
+        Assert.assertEquals(driver.step(cas), new ReturnValue<>(true));
+        Assert.assertEquals(driver.step(cas), new ReturnValue<>(false));
+        Assert.assertThrows(SULException.class, () -> driver.step(wrong));
+        driver.post();
+
+        // frequent return values are cached
+        Assert.assertSame(ReturnValue.of(true), ReturnValue.of(true));
+        Assert.assertSame(ReturnValue.of(42), ReturnValue.of(42));
+        Assert.assertSame(ReturnValue.of(null), ReturnValue.of(null));
+        Assert.assertEquals(ReturnValue.of(1000), new ReturnValue<>(1000));
+    }
+
 }
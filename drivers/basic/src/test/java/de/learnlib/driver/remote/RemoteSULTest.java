@@ -0,0 +1,259 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.remote;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.exception.SULException;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+@Test
+public class RemoteSULTest {
+
+    private static final String CRASH_FILE_PROPERTY = "learnlib.test.crashFile";
+
+    private static final int FAIL = 3;
+    private static final int CRASH_ONCE = 4;
+    private static final int HANG = 5;
+
+    private static final Alphabet<Integer> INPUTS = Alphabets.integers(0, 2);
+    private static final Alphabet<Integer> INPUTS_WITH_FAILURES = Alphabets.integers(0, HANG);
+    private static final Alphabet<Integer> OUTPUTS = Alphabets.integers(0, CounterSUL.MODULUS - 1);
+
+    private Path crashFile;
+    private RemoteWorkerLauncher launcher;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        crashFile = Files.createTempFile("learnlib-remote-sul", ".crash");
+        Files.delete(crashFile);
+        launcher = new ProcessWorkerLauncher(CounterSULFactory.class,
+                                             Collections.singletonList("-D" + CRASH_FILE_PROPERTY + '=' + crashFile));
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(crashFile);
+    }
+
+    @Test
+    public void testBatchedQueries() {
+        final SULOracle<Integer, Integer> expected = new SULOracle<>(new CounterSUL());
+        final List<DefaultQuery<Integer, Word<Integer>>> queries = generateQueries(new Random(42), 50);
+
+        try (RemoteSULOracle<Integer, Integer> oracle = new RemoteSULOracle<>(launcher,
+                                                                              INPUTS_WITH_FAILURES,
+                                                                              OUTPUTS,
+                                                                              7,
+                                                                              RemoteSULOracle.DEFAULT_TIMEOUT_MILLIS,
+                                                                              1,
+                                                                              0)) {
+            oracle.processQueries(queries);
+
+            for (DefaultQuery<Integer, Word<Integer>> q : queries) {
+                Assert.assertEquals(q.getOutput(), expected.answerQuery(q.getPrefix(), q.getSuffix()));
+            }
+            Assert.assertEquals(oracle.getNumRestarts(), 0);
+        }
+    }
+
+    @Test
+    public void testStepwiseSUL() {
+        final CounterSUL expected = new CounterSUL();
+        final Random random = new Random(1337);
+
+        try (RemoteSUL<Integer, Integer> sul = new RemoteSUL<>(launcher, INPUTS_WITH_FAILURES, OUTPUTS)) {
+            Assert.assertTrue(sul.canFork());
+            final RemoteSUL<Integer, Integer> fork = (RemoteSUL<Integer, Integer>) sul.fork();
+
+            try {
+                for (int i = 0; i < 3; i++) {
+                    sul.pre();
+                    fork.pre();
+                    expected.pre();
+                    for (int j = 0; j < 10; j++) {
+                        final Integer sym = INPUTS.getSymbol(random.nextInt(INPUTS.size()));
+                        final Integer out = expected.step(sym);
+                        Assert.assertEquals(sul.step(sym), out);
+                        Assert.assertEquals(fork.step(sym), out);
+                    }
+                    sul.post();
+                    fork.post();
+                    expected.post();
+                }
+            } finally {
+                fork.close();
+            }
+        }
+    }
+
+    @Test
+    public void testSULException() {
+        try (RemoteSULOracle<Integer, Integer> oracle = new RemoteSULOracle<>(launcher, INPUTS_WITH_FAILURES, OUTPUTS)) {
+            final SULException ex = Assert.expectThrows(SULException.class,
+                                                        () -> oracle.answerQuery(Word.fromSymbols(1, FAIL)));
+            Assert.assertTrue(ex.getCause().getMessage().contains("failure input"));
+
+            // the worker survives exceptions of its SUL
+            Assert.assertEquals(oracle.answerQuery(Word.fromSymbols(1, 2)), Word.fromSymbols(1, 3));
+            Assert.assertEquals(oracle.getNumRestarts(), 0);
+        }
+    }
+
+    @Test
+    public void testCrashedWorkerIsRestarted() throws IOException {
+        try (RemoteSULOracle<Integer, Integer> oracle = new RemoteSULOracle<>(launcher, INPUTS_WITH_FAILURES, OUTPUTS)) {
+            Assert.assertEquals(oracle.answerQuery(Word.fromSymbols(2)), Word.fromSymbols(2));
+
+            Files.createFile(crashFile);
+            final Word<Integer> output = oracle.answerQuery(Word.fromSymbols(2), Word.fromSymbols(CRASH_ONCE, 1));
+
+            Assert.assertEquals(output, Word.fromSymbols(2, 3));
+            Assert.assertEquals(oracle.getNumRestarts(), 1);
+        }
+    }
+
+    @Test
+    public void testEpisodeIsReplayedAfterCrash() throws IOException {
+        try (RemoteSUL<Integer, Integer> sul = new RemoteSUL<>(launcher, INPUTS_WITH_FAILURES, OUTPUTS)) {
+            sul.pre();
+            Assert.assertEquals(sul.stepAll(Word.fromSymbols(2, 2)), Word.fromSymbols(2, 4));
+
+            Files.createFile(crashFile);
+            Assert.assertEquals(sul.step(CRASH_ONCE), Integer.valueOf(4));
+            Assert.assertEquals(sul.step(1), Integer.valueOf(0));
+            sul.post();
+
+            Assert.assertEquals(sul.getNumRestarts(), 1);
+        }
+    }
+
+    @Test
+    public void testUnresponsiveWorkerIsRestarted() {
+        try (RemoteSULOracle<Integer, Integer> oracle = new RemoteSULOracle<>(launcher,
+                                                                              INPUTS_WITH_FAILURES,
+                                                                              OUTPUTS,
+                                                                              RemoteSULOracle.DEFAULT_BATCH_SIZE,
+                                                                              2000,
+                                                                              RemoteSULOracle.DEFAULT_HEARTBEAT_MILLIS,
+                                                                              1)) {
+            Assert.expectThrows(SULException.class, () -> oracle.answerQuery(Word.fromSymbols(HANG)));
+            Assert.assertEquals(oracle.getNumRestarts(), 1);
+
+            Assert.assertEquals(oracle.answerQuery(Word.fromSymbols(1, 1)), Word.fromSymbols(1, 2));
+            Assert.assertEquals(oracle.getNumRestarts(), 2);
+        }
+    }
+
+    private static List<DefaultQuery<Integer, Word<Integer>>> generateQueries(Random random, int num) {
+        final List<DefaultQuery<Integer, Word<Integer>>> result = new ArrayList<>(num);
+
+        for (int i = 0; i < num; i++) {
+            result.add(new DefaultQuery<>(generateWord(random), generateWord(random)));
+        }
+
+        return result;
+    }
+
+    private static Word<Integer> generateWord(Random random) {
+        final int length = random.nextInt(6);
+        final WordBuilder<Integer> wb = new WordBuilder<>(length);
+
+        for (int i = 0; i < length; i++) {
+            wb.add(INPUTS.getSymbol(random.nextInt(INPUTS.size())));
+        }
+
+        return wb.toWord();
+    }
+
+    /**
+     * A SUL that outputs the sum of its inputs (modulo {@link #MODULUS}) and provides special inputs for simulating
+     * failures.
+     */
+    static final class CounterSUL implements SUL<Integer, Integer> {
+
+        static final int MODULUS = 5;
+
+        private int sum;
+
+        @Override
+        public void pre() {
+            sum = 0;
+        }
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Integer step(Integer in) {
+            switch (in) {
+                case FAIL:
+                    throw new IllegalArgumentException("failure input");
+                case CRASH_ONCE:
+                    final String crashFile = System.getProperty(CRASH_FILE_PROPERTY);
+                    if (crashFile != null && new File(crashFile).delete()) {
+                        Runtime.getRuntime().halt(1);
+                    }
+                    return sum;
+                case HANG:
+                    try {
+                        Thread.sleep(Long.MAX_VALUE);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return sum;
+                default:
+                    sum = (sum + in) % MODULUS;
+                    return sum;
+            }
+        }
+    }
+
+    public static final class CounterSULFactory implements RemoteSULFactory<Integer, Integer> {
+
+        @Override
+        public SUL<Integer, Integer> createSUL() {
+            return new CounterSUL();
+        }
+
+        @Override
+        public Alphabet<Integer> getInputAlphabet() {
+            return INPUTS_WITH_FAILURES;
+        }
+
+        @Override
+        public Alphabet<Integer> getOutputAlphabet() {
+            return OUTPUTS;
+        }
+    }
+}
@@ -21,6 +21,8 @@ import de.learnlib.exception.MappedException;
 import de.learnlib.exception.SULException;
 import de.learnlib.sul.SUL;
 import de.learnlib.sul.SULMapper;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class MappedSUL<AI, AO, CI, CO> implements SUL<AI, AO> {
@@ -78,6 +80,31 @@ public class MappedSUL<AI, AO, CI, CO> implements SUL<AI, AO> {
         return mappedEx.getThisStepOutput();
     }
 
+    /**
+     * Executes the given inputs at once on the wrapped SUL if the mapper {@link SULMapper#canBatch() supports
+     * batching}. Otherwise, each input is executed individually via {@link #step(Object)}.
+     */
+    @Override
+    public Word<AO> stepAll(Word<? extends AI> in) {
+        if (inError || !mapper.canBatch()) {
+            return SUL.super.stepAll(in);
+        }
+
+        final WordBuilder<CI> concreteInputs = new WordBuilder<>(in.length());
+        for (AI sym : in) {
+            concreteInputs.add(mapper.mapInput(sym));
+        }
+
+        final Word<? extends CO> concreteOutputs = sul.stepAll(concreteInputs.toWord());
+
+        final WordBuilder<AO> result = new WordBuilder<>(concreteOutputs.length());
+        for (CO sym : concreteOutputs) {
+            result.add(mapper.mapOutput(sym));
+        }
+
+        return result.toWord();
+    }
+
     @Override
     public boolean canFork() {
         return mapper.canFork() && sul.canFork();
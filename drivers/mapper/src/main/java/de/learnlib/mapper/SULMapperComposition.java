@@ -65,6 +65,11 @@ final class SULMapperComposition<AI, AO, ACI, CAO, CI, CO>
         return mapper1.canFork() && mapper2.canFork();
     }
 
+    @Override
+    public boolean canBatch() {
+        return mapper1.canBatch() && mapper2.canBatch();
+    }
+
     @Override
     public SULMapper<AI, AO, CI, CO> fork() {
         return new SULMapperComposition<>(mapper1.fork(), mapper2.fork());
@@ -28,7 +28,9 @@ import de.learnlib.driver.reflect.Unobserved;
 import de.learnlib.driver.reflect.VoidOutput;
 import de.learnlib.exception.SULException;
 import de.learnlib.sul.SUL;
+import de.learnlib.sul.SULMapper;
 import net.automatalib.alphabet.Alphabet;
+import net.automatalib.word.Word;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -81,4 +83,74 @@ public class MappedSULTest {
         driver.post();
     }
 
+    @Test
+    public void testMapperWithBatching() {
+        final BatchCountingSUL delegate = new BatchCountingSUL();
+        final SUL<Integer, String> mapped = SULMappers.apply(new IncrementingMapper(true), delegate);
+        final SUL<Integer, String> unbatched = SULMappers.apply(new IncrementingMapper(false), delegate);
+
+        final Word<Integer> input = Word.fromSymbols(1, 2, 3);
+        final Word<String> expected = Word.fromSymbols("2", "3", "4");
+
+        mapped.pre();
+        Assert.assertEquals(mapped.stepAll(input), expected);
+        mapped.post();
+        Assert.assertEquals(delegate.batches, 1);
+        Assert.assertEquals(delegate.steps, 0);
+
+        unbatched.pre();
+        Assert.assertEquals(unbatched.stepAll(input), expected);
+        unbatched.post();
+        Assert.assertEquals(delegate.batches, 1);
+        Assert.assertEquals(delegate.steps, input.length());
+    }
+
+    private static final class IncrementingMapper implements SULMapper<Integer, String, Integer, Integer> {
+
+        private final boolean canBatch;
+
+        IncrementingMapper(boolean canBatch) {
+            this.canBatch = canBatch;
+        }
+
+        @Override
+        public Integer mapInput(Integer abstractInput) {
+            return abstractInput + 1;
+        }
+
+        @Override
+        public String mapOutput(Integer concreteOutput) {
+            return concreteOutput.toString();
+        }
+
+        @Override
+        public boolean canBatch() {
+            return canBatch;
+        }
+    }
+
+    private static final class BatchCountingSUL implements SUL<Integer, Integer> {
+
+        private int steps;
+        private int batches;
+
+        @Override
+        public void pre() {}
+
+        @Override
+        public void post() {}
+
+        @Override
+        public Integer step(Integer in) {
+            steps++;
+            return in;
+        }
+
+        @Override
+        public Word<Integer> stepAll(Word<? extends Integer> in) {
+            batches++;
+            return Word.fromList(in.asList());
+        }
+    }
+
 }
@@ -0,0 +1,272 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.simulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.Query;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.concept.StateIDs;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * A {@link SUL} that simulates a {@link MealyMachine} which has been compiled into flat {@code int} arrays. Contrary to
+ * the {@link MealySimulatorSUL}, each step only consists of an alphabet index lookup and two array accesses, which
+ * makes this SUL well-suited for benchmarking learners against large reference models.
+ * <p>
+ * The Mealy machine is compiled once upon construction, i.e., subsequent modifications of the Mealy machine are not
+ * reflected by this SUL. Undefined transitions lead to an artificial sink state which outputs the specified
+ * {@code noTransOut} symbol for every input.
+ * <p>
+ * Via {@link #asOracle()}, the compiled Mealy machine can be used as a (thread-safe) membership oracle that answers
+ * batches of queries without any intermediate SUL calls.
+ * <p>
+ * Note: this SUL is {@link SUL#fork() forkable}. Forks share the compiled Mealy machine, so forking only allocates a
+ * new (integer) state.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class CompiledMealySimulatorSUL<I, O> implements SUL<I, O> {
+
+    private final CompiledMealy<I, O> mealy;
+    private int curr;
+
+    /**
+     * Constructor, using {@code null} as the output for undefined transitions.
+     *
+     * @param mealy
+     *         the Mealy machine
+     * @param alphabet
+     *         the input alphabet. Only symbols of this alphabet can be simulated, other symbols cause an
+     *         {@link IllegalArgumentException}.
+     */
+    public CompiledMealySimulatorSUL(MealyMachine<?, I, ?, O> mealy, Alphabet<I> alphabet) {
+        this(mealy, alphabet, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param mealy
+     *         the Mealy machine
+     * @param alphabet
+     *         the input alphabet. Only symbols of this alphabet can be simulated, other symbols cause an
+     *         {@link IllegalArgumentException}.
+     * @param noTransOut
+     *         the output symbol to use when encountering undefined transitions
+     */
+    public CompiledMealySimulatorSUL(MealyMachine<?, I, ?, O> mealy, Alphabet<I> alphabet, O noTransOut) {
+        this(CompiledMealy.compile(mealy, alphabet, noTransOut));
+    }
+
+    private CompiledMealySimulatorSUL(CompiledMealy<I, O> mealy) {
+        this.mealy = mealy;
+        this.curr = mealy.sink;
+    }
+
+    @Override
+    public void pre() {
+        this.curr = mealy.initial;
+    }
+
+    @Override
+    public void post() {
+        this.curr = mealy.sink;
+    }
+
+    @Override
+    public O step(I in) {
+        final int trans = mealy.getTransition(curr, in);
+        curr = mealy.successors[trans];
+        return mealy.getOutput(trans);
+    }
+
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        final WordBuilder<O> wb = new WordBuilder<>(in.length());
+        int state = curr;
+
+        for (int i = 0; i < in.length(); i++) {
+            final int trans = mealy.getTransition(state, in.getSymbol(i));
+            wb.add(mealy.getOutput(trans));
+            state = mealy.successors[trans];
+        }
+
+        curr = state;
+        return wb.toWord();
+    }
+
+    @Override
+    public boolean canFork() {
+        return true;
+    }
+
+    @Override
+    public CompiledMealySimulatorSUL<I, O> fork() {
+        return new CompiledMealySimulatorSUL<>(mealy);
+    }
+
+    /**
+     * Returns a membership oracle that answers queries directly on the compiled Mealy machine. The oracle is
+     * thread-safe and independent of the state of this SUL.
+     *
+     * @return a membership oracle view of the compiled Mealy machine
+     */
+    public MealyMembershipOracle<I, O> asOracle() {
+        return mealy;
+    }
+
+    /**
+     * The compiled representation of a Mealy machine. Transitions are identified by {@code state * numInputs +
+     * inputIndex}, outputs are stored by their index in a table of distinct output symbols.
+     *
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     */
+    private static final class CompiledMealy<I, O> implements MealyMembershipOracle<I, O> {
+
+        private final Alphabet<I> alphabet;
+        private final int numInputs;
+        private final int[] successors;
+        private final int[] outputIndices;
+        private final Object[] outputs;
+        private final int initial;
+        private final int sink;
+
+        CompiledMealy(Alphabet<I> alphabet,
+                      int[] successors,
+                      int[] outputIndices,
+                      Object[] outputs,
+                      int initial,
+                      int sink) {
+            this.alphabet = alphabet;
+            this.numInputs = alphabet.size();
+            this.successors = successors;
+            this.outputIndices = outputIndices;
+            this.outputs = outputs;
+            this.initial = initial;
+            this.sink = sink;
+        }
+
+        static <S, I, T, O> CompiledMealy<I, O> compile(MealyMachine<S, I, T, O> mealy,
+                                                        Alphabet<I> alphabet,
+                                                        O noTransOut) {
+            final int numInputs = alphabet.size();
+            final int sink = mealy.size();
+            final int[] successors = new int[(sink + 1) * numInputs];
+            final int[] outputIndices = new int[successors.length];
+
+            final Map<O, Integer> outputMap = new HashMap<>();
+            final List<O> outputList = new ArrayList<>();
+            final int noTransIdx = getOutputIndex(noTransOut, outputMap, outputList);
+
+            final StateIDs<S> ids = mealy.stateIDs();
+
+            for (S s : mealy.getStates()) {
+                final int base = ids.getStateId(s) * numInputs;
+                for (int i = 0; i < numInputs; i++) {
+                    final T trans = mealy.getTransition(s, alphabet.getSymbol(i));
+                    if (trans == null) {
+                        successors[base + i] = sink;
+                        outputIndices[base + i] = noTransIdx;
+                    } else {
+                        final O output = mealy.getTransitionOutput(trans);
+                        successors[base + i] = ids.getStateId(mealy.getSuccessor(trans));
+                        outputIndices[base + i] = getOutputIndex(output, outputMap, outputList);
+                    }
+                }
+            }
+
+            final int sinkBase = sink * numInputs;
+            for (int i = 0; i < numInputs; i++) {
+                successors[sinkBase + i] = sink;
+                outputIndices[sinkBase + i] = noTransIdx;
+            }
+
+            final S init = mealy.getInitialState();
+            final int initial = init == null ? sink : ids.getStateId(init);
+
+            return new CompiledMealy<>(alphabet,
+                                       successors,
+                                       outputIndices,
+                                       outputList.toArray(),
+                                       initial,
+                                       sink);
+        }
+
+        private static <O> int getOutputIndex(O output, Map<O, Integer> outputMap, List<O> outputList) {
+            final Integer idx = outputMap.get(output);
+            if (idx != null) {
+                return idx;
+            }
+            final int newIdx = outputList.size();
+            outputMap.put(output, newIdx);
+            outputList.add(output);
+            return newIdx;
+        }
+
+        int getTransition(int state, I input) {
+            final int idx = alphabet.getSymbolIndex(input);
+            if (idx < 0 || idx >= numInputs) {
+                throw new IllegalArgumentException("Input '" + input + "' is not contained in the alphabet");
+            }
+            return state * numInputs + idx;
+        }
+
+        @SuppressWarnings("unchecked") // the output table only contains elements of type O
+        O getOutput(int transition) {
+            return (O) outputs[outputIndices[transition]];
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+            for (Query<I, Word<O>> q : queries) {
+                q.answer(answerQuery(q.getPrefix(), q.getSuffix()));
+            }
+        }
+
+        @Override
+        public Word<O> answerQuery(Word<I> prefix, Word<I> suffix) {
+            int state = initial;
+
+            for (int i = 0; i < prefix.length(); i++) {
+                state = successors[getTransition(state, prefix.getSymbol(i))];
+            }
+
+            final WordBuilder<O> wb = new WordBuilder<>(suffix.length());
+            for (int i = 0; i < suffix.length(); i++) {
+                final int trans = getTransition(state, suffix.getSymbol(i));
+                wb.add(getOutput(trans));
+                state = successors[trans];
+            }
+
+            return wb.toWord();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.driver.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.example.mealy.ExampleRandomMealy;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.alphabet.GrowingMapAlphabet;
+import net.automatalib.automaton.transducer.CompactMealy;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CompiledMealySimulatorSULTest {
+
+    private static final int NUM_QUERIES = 500;
+    private static final int MAX_LENGTH = 15;
+
+    @Test
+    public void testEquivalenceToSimulator() {
+        final Alphabet<Character> inputs = Alphabets.characters('a', 'c');
+        final Alphabet<Integer> outputs = Alphabets.integers(0, 2);
+        final ExampleRandomMealy<Character, Integer> example =
+                ExampleRandomMealy.createExample(new Random(42), inputs, 50, outputs.toArray(new Integer[0]));
+        final MealyMachine<?, Character, ?, Integer> target = example.getReferenceAutomaton();
+
+        final CompiledMealySimulatorSUL<Character, Integer> compiled = new CompiledMealySimulatorSUL<>(target, inputs);
+        final SUL<Character, Integer> reference = new MealySimulatorSUL<>(target);
+        final SUL<Character, Integer> fork = compiled.fork();
+        final MealyMembershipOracle<Character, Integer> batchOracle = compiled.asOracle();
+
+        final Random random = new Random(42);
+        final List<DefaultQuery<Character, Word<Integer>>> queries = new ArrayList<>(NUM_QUERIES);
+
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Word<Character> prefix = randomWord(inputs, random);
+            final Word<Character> suffix = randomWord(inputs, random);
+            final Word<Integer> expected = answerQuery(reference, prefix, suffix);
+
+            Assert.assertEquals(answerQuery(compiled, prefix, suffix), expected);
+            Assert.assertEquals(answerQuery(fork, prefix, suffix), expected);
+            queries.add(new DefaultQuery<>(prefix, suffix));
+        }
+
+        batchOracle.processQueries(queries);
+
+        for (DefaultQuery<Character, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), answerQuery(reference, q.getPrefix(), q.getSuffix()));
+        }
+    }
+
+    @Test
+    public void testUndefinedTransitions() {
+        final Alphabet<Character> inputs = Alphabets.characters('a', 'b');
+        final CompactMealy<Character, String> partial = new CompactMealy<>(inputs);
+        final int s0 = partial.addInitialState();
+        final int s1 = partial.addState();
+        partial.addTransition(s0, 'a', s1, "x");
+        partial.addTransition(s1, 'a', s0, "y");
+
+        final SUL<Character, String> compiled = new CompiledMealySimulatorSUL<>(partial, inputs, "-");
+        final SUL<Character, String> reference = new MealySimulatorSUL<>(partial, "-");
+
+        final Word<Character> input = Word.fromString("aaabaa");
+
+        compiled.pre();
+        reference.pre();
+        for (Character sym : input) {
+            Assert.assertEquals(compiled.step(sym), reference.step(sym));
+        }
+        compiled.post();
+        reference.post();
+
+        Assert.assertEquals(new CompiledMealySimulatorSUL<>(partial, inputs, "-").asOracle().answerQuery(input),
+                            Word.fromSymbols("x", "y", "x", "-", "-", "-"));
+    }
+
+    @Test
+    public void testUnknownInput() {
+        final GrowingMapAlphabet<Character> inputs = new GrowingMapAlphabet<>(Arrays.asList('a', 'b'));
+        final CompactMealy<Character, String> mealy = new CompactMealy<>(inputs);
+        final int s0 = mealy.addInitialState();
+        mealy.addTransition(s0, 'a', s0, "x");
+        mealy.addTransition(s0, 'b', s0, "y");
+
+        final CompiledMealySimulatorSUL<Character, String> compiled = new CompiledMealySimulatorSUL<>(mealy, inputs);
+
+        // symbols that have been added after compilation have no transitions
+        inputs.addSymbol('z');
+
+        compiled.pre();
+        final IllegalArgumentException ex =
+                Assert.expectThrows(IllegalArgumentException.class, () -> compiled.step('z'));
+        Assert.assertTrue(ex.getMessage().contains("'z'"));
+        compiled.post();
+
+        Assert.assertThrows(IllegalArgumentException.class,
+                            () -> compiled.asOracle().answerQuery(Word.fromString("abz")));
+    }
+
+    private static <I, O> Word<O> answerQuery(SUL<I, O> sul, Word<I> prefix, Word<I> suffix) {
+        sul.pre();
+        try {
+            sul.stepAll(prefix);
+            return sul.stepAll(suffix);
+        } finally {
+            sul.post();
+        }
+    }
+
+    private static <I> Word<I> randomWord(Alphabet<I> inputs, Random random) {
+        final int length = random.nextInt(MAX_LENGTH);
+        final WordBuilder<I> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.add(inputs.getSymbol(random.nextInt(inputs.size())));
+        }
+        return wb.toWord();
+    }
+}
@@ -0,0 +1,319 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A prefix tree whose size is bounded by a {@link CacheBudget}. This class is the storage backend of the bounded
+ * caches, e.g. the {@code BoundedMealyTreeBuilder} or the {@code BoundedDFATreeBuilder}.
+ * <p>
+ * Once the number of nodes exceeds the budget, nodes are evicted in the order determined by the given
+ * {@link EvictionPolicy}. Only leaves are eligible for eviction, so a node is only evicted after all of its successors
+ * have been evicted. As a result, the tree stays prefix-closed and short prefixes (such as the access sequences of a
+ * learner) remain cached the longest. Nodes with a {@code null} value are treated as mere connectors: once they
+ * become a leaf due to an eviction, they are removed as well.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <V>
+ *         value type
+ */
+public final class BoundedCacheTree<V> {
+
+    private final CacheBudget budget;
+    private final Node<V> root;
+    private final NavigableSet<Node<V>> leaves;
+
+    private int alphabetSize;
+    private long maxSize;
+    private long size;
+    private long evictionCount;
+    private long clock;
+    private long nextId;
+
+    public BoundedCacheTree(int alphabetSize, CacheBudget budget, EvictionPolicy policy) {
+        this.alphabetSize = alphabetSize;
+        this.budget = budget;
+        this.maxSize = budget.getMaxEntries(alphabetSize);
+        this.root = new Node<>(null, -1, 0, null, nextId++);
+        this.leaves = new TreeSet<>(new CandidateComparator(policy));
+    }
+
+    /**
+     * Returns the root of the tree.
+     *
+     * @return the root of the tree
+     */
+    public Node<V> getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the successor of the given node, creating it (with the given value) if it does not exist yet. Creating a
+     * node does not evict any nodes, see {@link #evict(Node)}.
+     *
+     * @param node
+     *         the node
+     * @param idx
+     *         the index of the input symbol
+     * @param value
+     *         the value of the successor, if it needs to be created
+     *
+     * @return the (potentially new) successor
+     */
+    public Node<V> getOrCreateSuccessor(Node<V> node, int idx, @Nullable V value) {
+        final Node<V> succ = node.getSuccessor(idx);
+
+        if (succ != null) {
+            touch(succ);
+            return succ;
+        }
+
+        if (node.childCount == 0) {
+            leaves.remove(node);
+        }
+
+        final Node<V> newSucc = new Node<>(node, idx, node.depth + 1, value, nextId++);
+        newSucc.lastAccess = ++clock;
+        node.setSuccessor(idx, newSucc, alphabetSize);
+        leaves.add(newSucc);
+        size++;
+
+        return newSucc;
+    }
+
+    /**
+     * Records an access to the given node, which may affect its priority for eviction.
+     *
+     * @param node
+     *         the accessed node
+     */
+    public void touch(Node<V> node) {
+        if (node == root) {
+            return;
+        }
+
+        final boolean isLeaf = node.childCount == 0 && leaves.remove(node);
+
+        node.lastAccess = ++clock;
+        node.accessCount++;
+
+        if (isLeaf) {
+            leaves.add(node);
+        }
+    }
+
+    /**
+     * Evicts nodes until the tree satisfies its budget.
+     *
+     * @param retain
+     *         a node that must not be evicted (e.g., the node that has just been inserted)
+     */
+    public void evict(Node<V> retain) {
+        while (size > maxSize && !leaves.isEmpty()) {
+            Node<V> victim = leaves.first();
+
+            if (victim == retain) {
+                victim = leaves.higher(retain);
+                if (victim == null) {
+                    return;
+                }
+            }
+
+            remove(victim);
+            evictionCount++;
+
+            Node<V> parent = victim.parent;
+            assert parent != null;
+
+            while (parent != root && parent.childCount == 0 && parent.value == null) {
+                remove(parent);
+                parent = parent.parent;
+                assert parent != null;
+            }
+
+            if (parent != root && parent.childCount == 0) {
+                leaves.add(parent);
+            }
+        }
+    }
+
+    private void remove(Node<V> node) {
+        final Node<V> parent = node.parent;
+        assert parent != null && node.childCount == 0;
+
+        leaves.remove(node);
+        parent.setSuccessor(node.idx, null, alphabetSize);
+        size--;
+    }
+
+    /**
+     * Informs the tree about an increased alphabet size.
+     *
+     * @param newAlphabetSize
+     *         the new size of the alphabet
+     */
+    public void setAlphabetSize(int newAlphabetSize) {
+        this.alphabetSize = newAlphabetSize;
+        this.maxSize = budget.getMaxEntries(newAlphabetSize);
+    }
+
+    /**
+     * Returns the number of nodes in this tree (excluding the root).
+     *
+     * @return the number of nodes in this tree
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of nodes that have been evicted from this tree so far. Connecting nodes without a value (see
+     * above) are not counted.
+     *
+     * @return the number of evicted nodes
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * A node of a {@link BoundedCacheTree}.
+     *
+     * @param <V>
+     *         value type
+     */
+    public static final class Node<V> implements EvictionPolicy.Candidate {
+
+        private final @Nullable Node<V> parent;
+        private final int idx;
+        private final int depth;
+        private final long id;
+        private @Nullable V value;
+        private @Nullable Node<V> @Nullable [] children;
+        private int childCount;
+        private long lastAccess;
+        private long accessCount;
+
+        Node(@Nullable Node<V> parent, int idx, int depth, @Nullable V value, long id) {
+            this.parent = parent;
+            this.idx = idx;
+            this.depth = depth;
+            this.value = value;
+            this.id = id;
+            this.accessCount = 1;
+        }
+
+        public @Nullable V getValue() {
+            return value;
+        }
+
+        public void setValue(@Nullable V value) {
+            this.value = value;
+        }
+
+        public @Nullable Node<V> getSuccessor(int idx) {
+            final Node<V>[] children = this.children;
+            return children == null || idx >= children.length ? null : children[idx];
+        }
+
+        public List<Node<V>> getSuccessors() {
+            final Node<V>[] children = this.children;
+
+            if (children == null) {
+                return new ArrayList<>(0);
+            }
+
+            final List<Node<V>> result = new ArrayList<>(childCount);
+            for (Node<V> c : children) {
+                if (c != null) {
+                    result.add(c);
+                }
+            }
+
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        void setSuccessor(int idx, @Nullable Node<V> succ, int alphabetSize) {
+            Node<V>[] children = this.children;
+
+            if (children == null) {
+                children = new Node[Math.max(alphabetSize, idx + 1)];
+                this.children = children;
+            } else if (idx >= children.length) {
+                children = Arrays.copyOf(children, Math.max(alphabetSize, idx + 1));
+                this.children = children;
+            }
+
+            if (children[idx] == null) {
+                if (succ != null) {
+                    childCount++;
+                }
+            } else if (succ == null) {
+                childCount--;
+            }
+
+            children[idx] = succ;
+
+            if (childCount == 0) {
+                // release the memory of leaves
+                this.children = null;
+            }
+        }
+
+        @Override
+        public int getDepth() {
+            return depth;
+        }
+
+        @Override
+        public long getLastAccess() {
+            return lastAccess;
+        }
+
+        @Override
+        public long getAccessCount() {
+            return accessCount;
+        }
+    }
+
+    private static final class CandidateComparator implements Comparator<Node<?>>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EvictionPolicy policy;
+
+        CandidateComparator(EvictionPolicy policy) {
+            this.policy = policy;
+        }
+
+        @Override
+        public int compare(Node<?> n1, Node<?> n2) {
+            final int cmp = policy.compare(n1, n2);
+            return cmp != 0 ? cmp : Long.compare(n1.id, n2.id);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+/**
+ * The budget of a memory-bounded cache. A budget can either be specified in terms of cache entries (i.e., the number
+ * of nodes of the internal prefix tree) or in terms of (estimated) bytes.
+ */
+public final class CacheBudget {
+
+    // rough estimates for a 64-bit JVM with compressed references
+    private static final int NODE_BYTES = 64;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    private final long value;
+    private final boolean bytes;
+
+    private CacheBudget(long value, boolean bytes) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("The budget must be positive");
+        }
+        this.value = value;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates a budget that limits the number of cache entries.
+     *
+     * @param maxEntries
+     *         the maximum number of entries
+     *
+     * @return the budget
+     */
+    public static CacheBudget entries(long maxEntries) {
+        return new CacheBudget(maxEntries, false);
+    }
+
+    /**
+     * Creates a budget that limits the (estimated) memory consumption of the cache. Note that the estimation only
+     * accounts for the internal data structures of the cache, and not the memory consumed by the stored symbols.
+     *
+     * @param maxBytes
+     *         the maximum number of bytes
+     *
+     * @return the budget
+     */
+    public static CacheBudget bytes(long maxBytes) {
+        return new CacheBudget(maxBytes, true);
+    }
+
+    /**
+     * Returns the maximum number of cache entries admitted by this budget.
+     *
+     * @param alphabetSize
+     *         the size of the input alphabet, which determines the size of a single cache entry
+     *
+     * @return the maximum number of cache entries
+     */
+    public long getMaxEntries(int alphabetSize) {
+        if (!bytes) {
+            return value;
+        }
+
+        final long entrySize = NODE_BYTES + ARRAY_HEADER_BYTES + (long) alphabetSize * REFERENCE_BYTES;
+        return Math.max(1, value / entrySize);
+    }
+
+    @Override
+    public String toString() {
+        return bytes ? value + " bytes" : value + " entries";
+    }
+}
@@ -0,0 +1,131 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The (mutable) counters backing a {@link CacheStatistics} instance. All counters are lock-free, so they may be updated
+ * concurrently, e.g. by caches that are shared between several threads or by forked SULs.
+ * <p>
+ * A query is considered a <i>hit</i> if it has been answered without consulting the delegate, and a <i>miss</i>
+ * otherwise. For each query, the length of the longest prefix that could be answered by the cache is recorded. For
+ * hits, this is the length of the whole query.
+ */
+public final class CacheCounters {
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder partialHits;
+    private final LongAdder savedSymbols;
+    private final ConcurrentMap<Integer, LongAdder> prefixLengths;
+
+    public CacheCounters() {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.partialHits = new LongAdder();
+        this.savedSymbols = new LongAdder();
+        this.prefixLengths = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Records a query that has been answered by the cache.
+     *
+     * @param length
+     *         the length of the query, i.e. the number of symbols that did not need to be executed on the system
+     */
+    public void recordHit(int length) {
+        hits.increment();
+        savedSymbols.add(length);
+        recordPrefixLength(length);
+    }
+
+    /**
+     * Records a query that had to be forwarded to the delegate.
+     *
+     * @param length
+     *         the length of the query
+     * @param matchedPrefixLength
+     *         the length of the longest prefix of the query that could be answered by the cache
+     */
+    public void recordMiss(int length, int matchedPrefixLength) {
+        misses.increment();
+        if (matchedPrefixLength > 0 && matchedPrefixLength < length) {
+            partialHits.increment();
+        }
+        recordPrefixLength(matchedPrefixLength);
+    }
+
+    private void recordPrefixLength(int length) {
+        prefixLengths.computeIfAbsent(length, k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns the number of queries that have been answered by the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of queries that had to be forwarded to the delegate.
+     *
+     * @return the number of cache misses
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of cache misses for which a non-empty (proper) prefix could be answered by the cache.
+     *
+     * @return the number of partial prefix hits
+     */
+    public long getPartialHits() {
+        return partialHits.sum();
+    }
+
+    /**
+     * Returns the number of symbols that did not need to be executed on the system because their queries were answered
+     * by the cache.
+     *
+     * @return the number of saved symbols
+     */
+    public long getSavedSymbols() {
+        return savedSymbols.sum();
+    }
+
+    /**
+     * Returns a snapshot of the histogram of matched prefix lengths, mapping each length to the number of queries whose
+     * longest cached prefix had this length.
+     *
+     * @return the histogram of matched prefix lengths
+     */
+    public SortedMap<Integer, Long> getPrefixLengthHistogram() {
+        final SortedMap<Integer, Long> result = new TreeMap<>();
+        for (Map.Entry<Integer, LongAdder> e : prefixLengths.entrySet()) {
+            result.put(e.getKey(), e.getValue().sum());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+import de.learnlib.statistic.StatisticData;
+
+/**
+ * A snapshot of the {@link CacheCounters} of a cache.
+ */
+final class CacheStatisticData implements StatisticData {
+
+    private final long hits;
+    private final long misses;
+    private final long partialHits;
+    private final long savedSymbols;
+    private final long nodeCount;
+    private final SortedMap<Integer, Long> prefixLengths;
+
+    CacheStatisticData(CacheCounters counters, long nodeCount) {
+        this.hits = counters.getHits();
+        this.misses = counters.getMisses();
+        this.partialHits = counters.getPartialHits();
+        this.savedSymbols = counters.getSavedSymbols();
+        this.prefixLengths = counters.getPrefixLengthHistogram();
+        this.nodeCount = nodeCount;
+    }
+
+    @Override
+    public String getName() {
+        return "Cache";
+    }
+
+    @Override
+    public String getUnit() {
+        return "queries";
+    }
+
+    @Override
+    public String getSummary() {
+        return getName() + " [" + getUnit() + "]: " + hits + " (hits), " + misses + " (misses), " + partialHits +
+               " (partial hits), " + savedSymbols + " (saved symbols), " + nodeCount + " (nodes)";
+    }
+
+    @Override
+    public String getDetails() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(getSummary()).append(System.lineSeparator());
+        for (Entry<Integer, Long> e : prefixLengths.entrySet()) {
+            sb.append('\t').append(e.getKey()).append(", ").append(e.getValue()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
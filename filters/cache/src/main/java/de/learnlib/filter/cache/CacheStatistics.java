@@ -0,0 +1,49 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import de.learnlib.statistic.StatisticCollector;
+import de.learnlib.statistic.StatisticData;
+
+/**
+ * Interface for caches that report statistics about their effectiveness, such as the number of cache hits and misses,
+ * partial prefix hits, or the number of symbols that did not need to be executed on the system under learning.
+ * <p>
+ * The gathered information is also available as {@link StatisticData} (see {@link #getStatisticalData()}), so caches
+ * can be inspected in the same way as, e.g., the counter oracles of the {@code learnlib-statistics} artifact.
+ */
+public interface CacheStatistics extends StatisticCollector {
+
+    /**
+     * Returns the (live) counters of this cache.
+     *
+     * @return the counters of this cache
+     */
+    CacheCounters getCacheCounters();
+
+    /**
+     * Returns the current number of nodes (or entries, for hash-based caches) of this cache. Note that, depending on
+     * the implementation, this may require a traversal of the cache contents.
+     *
+     * @return the current number of nodes of this cache
+     */
+    long getNodeCount();
+
+    @Override
+    default StatisticData getStatisticalData() {
+        return new CacheStatisticData(getCacheCounters(), getNodeCount());
+    }
+}
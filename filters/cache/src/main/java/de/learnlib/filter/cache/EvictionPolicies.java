@@ -0,0 +1,55 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+/**
+ * Default {@link EvictionPolicy eviction policies} for memory-bounded caches.
+ */
+public enum EvictionPolicies implements EvictionPolicy {
+
+    /**
+     * Evicts the least recently used entries first.
+     */
+    LRU {
+        @Override
+        public int compare(Candidate c1, Candidate c2) {
+            return Long.compare(c1.getLastAccess(), c2.getLastAccess());
+        }
+    },
+
+    /**
+     * Evicts the least frequently used entries first. Ties are broken by evicting the least recently used entry.
+     */
+    LFU {
+        @Override
+        public int compare(Candidate c1, Candidate c2) {
+            final int cmp = Long.compare(c1.getAccessCount(), c2.getAccessCount());
+            return cmp != 0 ? cmp : LRU.compare(c1, c2);
+        }
+    },
+
+    /**
+     * Evicts the entries of the longest words first, so that short prefixes are kept as long as possible. Ties are
+     * broken by evicting the least recently used entry.
+     */
+    DEPTH_AWARE {
+        @Override
+        public int compare(Candidate c1, Candidate c2) {
+            final int cmp = Integer.compare(c2.getDepth(), c1.getDepth());
+            return cmp != 0 ? cmp : LRU.compare(c1, c2);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.io.Serializable;
+import java.util.Comparator;
+
+/**
+ * A policy that determines which entries of a memory-bounded cache are evicted first, once the cache exceeds its
+ * {@link CacheBudget budget}. A policy is a {@link Comparator} over eviction candidates: if
+ * {@code compare(c1, c2) < 0}, then {@code c1} is evicted before {@code c2}.
+ * <p>
+ * Note that policies only rank candidates. Bounded caches only consider leaves of their internal prefix tree as
+ * candidates, so that prefixes (e.g., the access sequences of a learner) are always evicted after their extensions.
+ * Policies are {@link Serializable} so that caches using them can be suspended and resumed.
+ *
+ * @see EvictionPolicies
+ */
+public interface EvictionPolicy extends Comparator<EvictionPolicy.Candidate>, Serializable {
+
+    /**
+     * The information about a cache entry that is available to an {@link EvictionPolicy}.
+     */
+    interface Candidate {
+
+        /**
+         * Returns the length of the word that is represented by this entry.
+         *
+         * @return the length of the word that is represented by this entry
+         */
+        int getDepth();
+
+        /**
+         * Returns a logical timestamp of the last access to this entry. Larger values indicate more recent accesses.
+         *
+         * @return a logical timestamp of the last access to this entry
+         */
+        long getLastAccess();
+
+        /**
+         * Returns the number of accesses to this entry (including its creation).
+         *
+         * @return the number of accesses to this entry
+         */
+        long getAccessCount();
+    }
+}
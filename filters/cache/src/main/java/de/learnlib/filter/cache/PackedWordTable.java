@@ -0,0 +1,416 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Arrays;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A compact hash table for words over a fixed alphabet. Instead of storing {@code Word} objects (with their boxed
+ * symbols), words are stored as sequences of alphabet indices that are bit-packed into a single {@code long} array.
+ * The table uses open addressing with linear probing and stores a precomputed 64-bit hash per entry, so that neither
+ * lookups nor rehashing need to traverse the stored keys unless the hashes match. Each entry is associated with an
+ * {@code int} value that is stored in a parallel primitive array. The hash is a polynomial rolling hash (see
+ * {@link #extendHash(long, int)}), so that callers which build words symbol by symbol can compute the hashes of all
+ * prefixes in a single pass and pass them to {@link #find(int[], int, long)} and
+ * {@link #insert(int[], int, long, int, int[])}. Optionally, each entry may additionally store a
+ * payload, i.e., a sequence of symbols (of a potentially different alphabet) of the same length as the key, which is
+ * packed directly after the key (e.g., the outputs of a Mealy query).
+ * <p>
+ * Entries are identified by consecutive indices (in order of insertion) and are never removed.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ */
+public final class PackedWordTable {
+
+    /**
+     * The value returned by {@link #find(int[], int)} if the table does not contain the requested word.
+     */
+    public static final int NO_ENTRY = -1;
+
+    /**
+     * The hash of the empty word.
+     */
+    public static final long EMPTY_HASH = 0;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    private static final int ADDRESS_BITS = 6; // 64 bits per long
+
+    private final int bitsPerSymbol;
+    private final long symbolMask;
+    private final int bitsPerPayloadSymbol;
+    private final long payloadMask;
+
+    private long[] arena;
+    private long arenaBits;
+
+    private long[] offsets;
+    private int[] lengths;
+    private long[] hashes;
+    private int[] values;
+    private int size;
+
+    // stores entry indices + 1, so that 0 marks an empty slot
+    private int[] slots;
+
+    /**
+     * Constructor for a table without payloads.
+     *
+     * @param alphabetSize
+     *         the size of the alphabet of the stored words
+     */
+    public PackedWordTable(int alphabetSize) {
+        this(alphabetSize, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param alphabetSize
+     *         the size of the alphabet of the stored words
+     * @param payloadAlphabetSize
+     *         the size of the alphabet of the stored payloads, or 0 if entries do not store payloads
+     */
+    public PackedWordTable(int alphabetSize, int payloadAlphabetSize) {
+        this.bitsPerSymbol = bitsFor(alphabetSize);
+        this.symbolMask = (1L << bitsPerSymbol) - 1;
+        this.bitsPerPayloadSymbol = payloadAlphabetSize > 0 ? bitsFor(payloadAlphabetSize) : 0;
+        this.payloadMask = (1L << bitsPerPayloadSymbol) - 1;
+        this.arena = new long[INITIAL_CAPACITY];
+        this.offsets = new long[INITIAL_CAPACITY];
+        this.lengths = new int[INITIAL_CAPACITY];
+        this.hashes = new long[INITIAL_CAPACITY];
+        this.values = new int[INITIAL_CAPACITY];
+        this.slots = new int[INITIAL_CAPACITY * 2];
+    }
+
+    private static int bitsFor(int alphabetSize) {
+        return Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(alphabetSize - 1));
+    }
+
+    /**
+     * Computes the hash of the given word. The result equals the result of successively extending {@link #EMPTY_HASH}
+     * by the symbols of the word (see {@link #extendHash(long, int)}).
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     *
+     * @return the hash of the word
+     */
+    public static long hash(int[] word, int length) {
+        long hash = EMPTY_HASH;
+        for (int i = 0; i < length; i++) {
+            hash = extendHash(hash, word[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Computes the hash of a word {@code w·a} from the hash of {@code w}.
+     *
+     * @param hash
+     *         the hash of the word {@code w}
+     * @param symbol
+     *         the alphabet index of the symbol {@code a}
+     *
+     * @return the hash of the word {@code w·a}
+     */
+    public static long extendHash(long hash, int symbol) {
+        return (hash + symbol + 1) * HASH_MULTIPLIER;
+    }
+
+    /**
+     * Returns the index of the entry that stores the given word.
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     *
+     * @return the index of the entry, or {@link #NO_ENTRY} if the table does not contain the word
+     */
+    public int find(int[] word, int length) {
+        return find(word, length, hash(word, length));
+    }
+
+    /**
+     * Returns the index of the entry that stores the given word, whose hash has already been computed.
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     * @param hash
+     *         the hash of the word (see {@link #hash(int[], int)})
+     *
+     * @return the index of the entry, or {@link #NO_ENTRY} if the table does not contain the word
+     */
+    public int find(int[] word, int length, long hash) {
+        final int mask = slots.length - 1;
+
+        for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = slots[slot] - 1;
+
+            if (entry < 0) {
+                return NO_ENTRY;
+            }
+            if (hashes[entry] == hash && keyEquals(entry, word, length)) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Inserts the given word with the given value. If the table already contains the word, its value is overridden.
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     * @param value
+     *         the value to associate with the word
+     *
+     * @return the index of the entry that stores the word
+     */
+    public int insert(int[] word, int length, int value) {
+        return insert(word, length, value, null);
+    }
+
+    /**
+     * Inserts the given word with the given value and payload. If the table already contains the word, its value is
+     * overridden, but its payload remains unchanged.
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     * @param value
+     *         the value to associate with the word
+     * @param payload
+     *         the (alphabet indices of the) payload symbols, must contain at least {@code length} elements. May be
+     *         {@code null} if this table does not store payloads
+     *
+     * @return the index of the entry that stores the word
+     */
+    public int insert(int[] word, int length, int value, int @Nullable [] payload) {
+        return insert(word, length, hash(word, length), value, payload);
+    }
+
+    /**
+     * Inserts the given word, whose hash has already been computed, with the given value and payload. If the table
+     * already contains the word, its value is overridden, but its payload remains unchanged.
+     *
+     * @param word
+     *         the alphabet indices of the word's symbols
+     * @param length
+     *         the length of the word (i.e., the number of relevant elements of {@code word})
+     * @param hash
+     *         the hash of the word (see {@link #hash(int[], int)})
+     * @param value
+     *         the value to associate with the word
+     * @param payload
+     *         the (alphabet indices of the) payload symbols, must contain at least {@code length} elements. May be
+     *         {@code null} if this table does not store payloads
+     *
+     * @return the index of the entry that stores the word
+     */
+    public int insert(int[] word, int length, long hash, int value, int @Nullable [] payload) {
+        final int mask = slots.length - 1;
+
+        int slot = spread(hash) & mask;
+        for (; ; slot = (slot + 1) & mask) {
+            final int entry = slots[slot] - 1;
+
+            if (entry < 0) {
+                break;
+            }
+            if (hashes[entry] == hash && keyEquals(entry, word, length)) {
+                values[entry] = value;
+                return entry;
+            }
+        }
+
+        final int entry = size++;
+        ensureEntryCapacity(size);
+
+        offsets[entry] = arenaBits;
+        lengths[entry] = length;
+        hashes[entry] = hash;
+        values[entry] = value;
+        append(word, length, bitsPerSymbol, symbolMask);
+        if (bitsPerPayloadSymbol > 0) {
+            if (payload == null) {
+                throw new IllegalArgumentException("This table requires payloads");
+            }
+            append(payload, length, bitsPerPayloadSymbol, payloadMask);
+        }
+
+        slots[slot] = entry + 1;
+
+        // keep a load factor of at most 0.5
+        if (2 * size > slots.length) {
+            rehash(slots.length * 2);
+        }
+
+        return entry;
+    }
+
+    /**
+     * Returns the number of entries in this table.
+     *
+     * @return the number of entries in this table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the given entry.
+     *
+     * @param entry
+     *         the index of the entry
+     *
+     * @return the value of the given entry
+     */
+    public int getValue(int entry) {
+        return values[entry];
+    }
+
+    /**
+     * Returns the length of the word stored in the given entry.
+     *
+     * @param entry
+     *         the index of the entry
+     *
+     * @return the length of the word
+     */
+    public int getLength(int entry) {
+        return lengths[entry];
+    }
+
+    /**
+     * Returns the alphabet index of a symbol of the word stored in the given entry.
+     *
+     * @param entry
+     *         the index of the entry
+     * @param pos
+     *         the position of the symbol in the word
+     *
+     * @return the alphabet index of the symbol
+     */
+    public int getSymbol(int entry, int pos) {
+        return read(offsets[entry] + (long) pos * bitsPerSymbol, bitsPerSymbol, symbolMask);
+    }
+
+    /**
+     * Returns the alphabet index of a payload symbol of the given entry.
+     *
+     * @param entry
+     *         the index of the entry
+     * @param pos
+     *         the position of the symbol in the payload
+     *
+     * @return the alphabet index of the payload symbol
+     */
+    public int getPayloadSymbol(int entry, int pos) {
+        final long payloadOffset = offsets[entry] + (long) lengths[entry] * bitsPerSymbol;
+        return read(payloadOffset + (long) pos * bitsPerPayloadSymbol, bitsPerPayloadSymbol, payloadMask);
+    }
+
+    // the low bits of the rolling hash only depend on the low bits of the symbols, so fold in the high bits
+    private static int spread(long hash) {
+        final long h = hash ^ (hash >>> Integer.SIZE);
+        return (int) (h ^ (h >>> Short.SIZE));
+    }
+
+    private boolean keyEquals(int entry, int[] word, int length) {
+        if (lengths[entry] != length) {
+            return false;
+        }
+
+        long pos = offsets[entry];
+        for (int i = 0; i < length; i++) {
+            if (read(pos, bitsPerSymbol, symbolMask) != word[i]) {
+                return false;
+            }
+            pos += bitsPerSymbol;
+        }
+
+        return true;
+    }
+
+    private int read(long bitPos, int bits, long mask) {
+        final int idx = (int) (bitPos >>> ADDRESS_BITS);
+        final int shift = (int) (bitPos & (Long.SIZE - 1));
+
+        long value = arena[idx] >>> shift;
+        if (shift + bits > Long.SIZE) {
+            value |= arena[idx + 1] << (Long.SIZE - shift);
+        }
+
+        return (int) (value & mask);
+    }
+
+    private void append(int[] symbols, int length, int bits, long mask) {
+        final long requiredLongs = ((arenaBits + (long) length * bits) >>> ADDRESS_BITS) + 1;
+
+        if (requiredLongs > arena.length) {
+            arena = Arrays.copyOf(arena, (int) Math.max(requiredLongs, arena.length + (arena.length >> 1)));
+        }
+
+        for (int i = 0; i < length; i++) {
+            final int idx = (int) (arenaBits >>> ADDRESS_BITS);
+            final int shift = (int) (arenaBits & (Long.SIZE - 1));
+            final long sym = symbols[i] & mask;
+
+            arena[idx] |= sym << shift;
+            if (shift + bits > Long.SIZE) {
+                arena[idx + 1] |= sym >>> (Long.SIZE - shift);
+            }
+
+            arenaBits += bits;
+        }
+    }
+
+    private void ensureEntryCapacity(int capacity) {
+        if (capacity > offsets.length) {
+            final int newCapacity = Math.max(capacity, offsets.length + (offsets.length >> 1));
+            offsets = Arrays.copyOf(offsets, newCapacity);
+            lengths = Arrays.copyOf(lengths, newCapacity);
+            hashes = Arrays.copyOf(hashes, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        final int[] newSlots = new int[newCapacity];
+        final int mask = newCapacity - 1;
+
+        for (int entry = 0; entry < size; entry++) {
+            int slot = spread(hashes[entry]) & mask;
+            while (newSlots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = entry + 1;
+        }
+
+        this.slots = newSlots;
+    }
+}
@@ -0,0 +1,381 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A prefix tree (trie) whose nodes are stored in a memory-mapped file. This class is the storage backend of the
+ * persistent caches, e.g. the {@code PersistentMealyTreeBuilder} or the {@code PersistentDFATreeBuilder}.
+ * <p>
+ * Each node is represented by a fixed-size record that consists of an {@code int} value (whose semantics are defined
+ * by the respective cache) and one successor slot per alphabet symbol. Records are only ever appended to the file and
+ * each successor slot is written at most once (when the successor is created), so the file is consistent at any point
+ * in time: a new node is fully written before it becomes reachable from its parent. As a result, opening an existing
+ * file only requires to map it into memory and does not involve any deserialization.
+ * <p>
+ * A file can be opened by at most one writer at a time (which is ensured via a {@link FileLock}), but it can be opened
+ * by an arbitrary number of (read-only) readers, including readers from different processes. Changes of the writer are
+ * guaranteed to be persisted on disk only after {@link #flush()} or {@link #close()} has been called.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ */
+public final class PersistentTrie implements Closeable, Flushable {
+
+    /**
+     * The index of the root node.
+     */
+    public static final int ROOT = 0;
+
+    /**
+     * The value returned by {@link #getSuccessor(int, int)} if no successor exists.
+     */
+    public static final int NO_NODE = -1;
+
+    private static final int MAGIC = 0x4C4C5443; // "LLTC"
+    private static final int VERSION = 1;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int SLOTS_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int HEADER_SIZE = 32;
+
+    private static final int TARGET_SEGMENT_SIZE = 64 * 1024 * 1024; // 64 MiB
+
+    private final FileChannel channel;
+    private final @Nullable FileLock lock;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments;
+    private final boolean readOnly;
+
+    private final int numSlots;
+    private final int recordSize;
+    private final int nodesPerSegment;
+    private final long segmentSize;
+
+    private int size;
+
+    private PersistentTrie(FileChannel channel,
+                           @Nullable FileLock lock,
+                           MappedByteBuffer header,
+                           int numSlots,
+                           boolean readOnly) {
+        this.channel = channel;
+        this.lock = lock;
+        this.header = header;
+        this.readOnly = readOnly;
+        this.numSlots = numSlots;
+        this.recordSize = (numSlots + 1) * Integer.BYTES;
+        this.nodesPerSegment = Math.max(1, TARGET_SEGMENT_SIZE / recordSize);
+        this.segmentSize = (long) nodesPerSegment * recordSize;
+        this.segments = new ArrayList<>();
+        this.size = header.getInt(SIZE_OFFSET);
+    }
+
+    /**
+     * Opens (or creates, if not existent) the given file for reading and writing.
+     *
+     * @param file
+     *         the file containing the trie
+     * @param numSlots
+     *         the number of successors per node (usually, the size of the input alphabet)
+     *
+     * @return the opened trie
+     *
+     * @throws IOException
+     *         if the file cannot be opened, is locked by a different writer, or does not contain a compatible trie
+     */
+    @SuppressWarnings("PMD.CloseResource") // channel and lock are owned (and closed) by the returned trie
+    public static PersistentTrie open(Path file, int numSlots) throws IOException {
+        final FileChannel channel =
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        try {
+            final FileLock lock = tryLock(channel, file);
+            final boolean initialize = channel.size() == 0;
+            final MappedByteBuffer header = channel.map(MapMode.READ_WRITE, 0, HEADER_SIZE);
+
+            if (initialize) {
+                header.putInt(MAGIC_OFFSET, MAGIC);
+                header.putInt(VERSION_OFFSET, VERSION);
+                header.putInt(SLOTS_OFFSET, numSlots);
+                header.putInt(SIZE_OFFSET, 0);
+            } else {
+                validateHeader(header, numSlots, file);
+            }
+
+            final PersistentTrie result = new PersistentTrie(channel, lock, header, numSlots, false);
+
+            if (initialize) {
+                result.appendNode(0);
+            }
+
+            return result;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the given file in read-only mode. The file may concurrently be opened by other readers or a single writer
+     * (potentially from different processes).
+     *
+     * @param file
+     *         the file containing the trie
+     * @param numSlots
+     *         the number of successors per node (usually, the size of the input alphabet)
+     *
+     * @return the opened trie
+     *
+     * @throws IOException
+     *         if the file cannot be opened or does not contain a compatible trie
+     */
+    @SuppressWarnings("PMD.CloseResource") // the channel is owned (and closed) by the returned trie
+    public static PersistentTrie openReadOnly(Path file, int numSlots) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("'" + file + "' does not contain a valid cache");
+            }
+
+            final MappedByteBuffer header = channel.map(MapMode.READ_ONLY, 0, HEADER_SIZE);
+            validateHeader(header, numSlots, file);
+
+            return new PersistentTrie(channel, null, header, numSlots, true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel, Path file) throws IOException {
+        final FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("'" + file + "' is already opened for writing", e);
+        }
+
+        if (lock == null) {
+            throw new IOException("'" + file + "' is already opened for writing by a different process");
+        }
+
+        return lock;
+    }
+
+    private static void validateHeader(MappedByteBuffer header, int numSlots, Path file) throws IOException {
+        if (header.getInt(MAGIC_OFFSET) != MAGIC || header.getInt(VERSION_OFFSET) != VERSION) {
+            throw new IOException("'" + file + "' does not contain a valid cache");
+        }
+
+        final int storedSlots = header.getInt(SLOTS_OFFSET);
+        if (storedSlots != numSlots) {
+            throw new IOException("'" + file + "' contains a cache for " + storedSlots + " input symbols, but " +
+                                  numSlots + " were requested");
+        }
+    }
+
+    /**
+     * Returns the number of nodes in this trie. For read-only tries, this also includes nodes that have been added by a
+     * concurrent writer since opening the file.
+     *
+     * @return the number of nodes in this trie
+     */
+    public int size() {
+        return readOnly ? header.getInt(SIZE_OFFSET) : size;
+    }
+
+    /**
+     * Returns whether this trie has been opened in read-only mode.
+     *
+     * @return {@code true} if this trie is read-only, {@code false} otherwise
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns the value stored at the given node.
+     *
+     * @param node
+     *         the node
+     *
+     * @return the value of the node
+     */
+    public int getValue(int node) {
+        return getSegment(node).getInt(getOffset(node));
+    }
+
+    /**
+     * Sets the value stored at the given node.
+     *
+     * @param node
+     *         the node
+     * @param value
+     *         the new value
+     */
+    public void setValue(int node, int value) {
+        checkWritable();
+        getSegment(node).putInt(getOffset(node), value);
+    }
+
+    /**
+     * Returns the successor of the given node for the given slot.
+     *
+     * @param node
+     *         the node
+     * @param slot
+     *         the slot (usually, the alphabet index of the input symbol)
+     *
+     * @return the successor node, or {@link #NO_NODE} if no such successor exists
+     */
+    public int getSuccessor(int node, int slot) {
+        final int succ = getSegment(node).getInt(getOffset(node) + (slot + 1) * Integer.BYTES);
+
+        // the root is never a successor, so we can use 0 as the (default) marker for undefined successors
+        if (succ == ROOT) {
+            return NO_NODE;
+        }
+
+        // a read-only trie may see a successor written by a concurrent writer whose segment is not yet mapped
+        if (readOnly && !isMappable(succ)) {
+            return NO_NODE;
+        }
+
+        return succ;
+    }
+
+    /**
+     * Creates a new successor for the given node.
+     *
+     * @param node
+     *         the node
+     * @param slot
+     *         the slot (usually, the alphabet index of the input symbol)
+     * @param value
+     *         the value of the new successor
+     *
+     * @return the new successor node
+     */
+    public int addSuccessor(int node, int slot, int value) {
+        checkWritable();
+        assert getSuccessor(node, slot) == NO_NODE;
+
+        final int succ = appendNode(value);
+        // only link the node after it has been fully written
+        getSegment(node).putInt(getOffset(node) + (slot + 1) * Integer.BYTES, succ);
+        return succ;
+    }
+
+    @Override
+    public void flush() {
+        if (!readOnly) {
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            header.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            if (lock != null) {
+                lock.release();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int appendNode(int value) {
+        if (size == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Maximum number of nodes exceeded");
+        }
+
+        final int node = size;
+        final MappedByteBuffer segment = getSegment(node);
+        final int offset = getOffset(node);
+
+        // the record may contain garbage from an interrupted write, so we reset it explicitly
+        segment.putInt(offset, value);
+        for (int i = 0; i < numSlots; i++) {
+            segment.putInt(offset + (i + 1) * Integer.BYTES, ROOT);
+        }
+
+        size++;
+        header.putInt(SIZE_OFFSET, size);
+
+        return node;
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("The trie has been opened in read-only mode");
+        }
+    }
+
+    private int getOffset(int node) {
+        return (node % nodesPerSegment) * recordSize;
+    }
+
+    private boolean isMappable(int node) {
+        final int segmentIdx = node / nodesPerSegment;
+
+        if (segmentIdx < segments.size()) {
+            return true;
+        }
+
+        try {
+            return channel.size() >= HEADER_SIZE + (segmentIdx + 1) * segmentSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private MappedByteBuffer getSegment(int node) {
+        final int segmentIdx = node / nodesPerSegment;
+
+        while (segments.size() <= segmentIdx) {
+            final long position = HEADER_SIZE + segments.size() * segmentSize;
+            try {
+                // mapping a region beyond the end of the file (in read-write mode) implicitly extends the file
+                segments.add(channel.map(readOnly ? MapMode.READ_ONLY : MapMode.READ_WRITE, position, segmentSize));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not map the cache file", e);
+            }
+        }
+
+        return segments.get(segmentIdx);
+    }
+}
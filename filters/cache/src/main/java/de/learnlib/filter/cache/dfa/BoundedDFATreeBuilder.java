@@ -0,0 +1,293 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import de.learnlib.filter.cache.BoundedCacheTree;
+import de.learnlib.filter.cache.BoundedCacheTree.Node;
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicy;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.GrowingAlphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.exception.GrowingAlphabetNotSupportedException;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.dfa.Acceptance;
+import net.automatalib.incremental.dfa.IncrementalDFABuilder;
+import net.automatalib.ts.UniversalDTS;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A tree-based {@link IncrementalDFABuilder} whose memory consumption is bounded by a {@link CacheBudget}. Once the
+ * budget is exceeded, information is evicted according to the given {@link EvictionPolicy} (see
+ * {@link BoundedCacheTree} for details). Since only leaves are evicted, the acceptance of short prefixes is retained
+ * the longest.
+ * <p>
+ * Evicted information is simply forgotten, i.e., a cache using this builder will re-query evicted words.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe. In particular, lookups update the eviction statistics,
+ * so this builder must not be used with caches that only acquire a read lock for lookups.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class BoundedDFATreeBuilder<I> implements IncrementalDFABuilder<I>, InputAlphabetHolder<I> {
+
+    private final Alphabet<I> inputAlphabet;
+    // a null value encodes Acceptance.DONT_KNOW
+    private final BoundedCacheTree<Boolean> tree;
+
+    public BoundedDFATreeBuilder(Alphabet<I> inputAlphabet, CacheBudget budget, EvictionPolicy policy) {
+        this.inputAlphabet = inputAlphabet;
+        this.tree = new BoundedCacheTree<>(inputAlphabet.size(), budget, policy);
+    }
+
+    @Override
+    public Acceptance lookup(Word<? extends I> word) {
+        Node<Boolean> curr = tree.getRoot();
+
+        for (I sym : word) {
+            final Node<Boolean> succ = curr.getSuccessor(inputAlphabet.getSymbolIndex(sym));
+
+            if (succ == null) {
+                return Acceptance.DONT_KNOW;
+            }
+
+            tree.touch(succ);
+            curr = succ;
+        }
+
+        return getAcceptance(curr);
+    }
+
+    @Override
+    public void insert(Word<? extends I> word, boolean accepting) {
+        Node<Boolean> curr = tree.getRoot();
+
+        for (I sym : word) {
+            curr = tree.getOrCreateSuccessor(curr, inputAlphabet.getSymbolIndex(sym), null);
+        }
+
+        final Acceptance acc = getAcceptance(curr);
+
+        if (acc == Acceptance.DONT_KNOW) {
+            curr.setValue(accepting);
+        } else if (acc.conflicts(accepting)) {
+            throw new ConflictException(
+                    "Conflicting acceptance values for word " + word + ": " + acc + " vs " + accepting);
+        }
+
+        tree.evict(curr);
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            if (!(this.inputAlphabet instanceof GrowingAlphabet)) {
+                throw new GrowingAlphabetNotSupportedException(this.inputAlphabet);
+            }
+            ((GrowingAlphabet<I>) this.inputAlphabet).addSymbol(symbol);
+        }
+
+        // successor arrays are grown lazily, we only need to update the budget
+        tree.setAlphabetSize(this.inputAlphabet.size());
+    }
+
+    /**
+     * Returns the number of cache entries (i.e. the number of nodes in the underlying tree, excluding the root).
+     *
+     * @return the number of cache entries
+     */
+    public long size() {
+        return tree.size();
+    }
+
+    /**
+     * Returns the number of cache entries that have been evicted so far.
+     *
+     * @return the number of evicted cache entries
+     */
+    public long getEvictionCount() {
+        return tree.getEvictionCount();
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(DFA<?, I> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        return doFindSeparatingWord(target, inputs, omitUndefined);
+    }
+
+    private <S> @Nullable Word<I> doFindSeparatingWord(DFA<S, I> target,
+                                                       Collection<? extends I> inputs,
+                                                       boolean omitUndefined) {
+        final S init = target.getInitialState();
+
+        if (init == null) {
+            return omitUndefined ? null : Word.epsilon();
+        }
+
+        if (getAcceptance(tree.getRoot()).conflicts(target.isAccepting(init))) {
+            return Word.epsilon();
+        }
+
+        final Deque<Record<@Nullable S, I>> dfsStack = new ArrayDeque<>();
+        dfsStack.push(new Record<>(init, tree.getRoot(), null, inputs.iterator()));
+
+        while (!dfsStack.isEmpty()) {
+            final Record<@Nullable S, I> rec = dfsStack.peek();
+
+            if (!rec.inputIt.hasNext()) {
+                dfsStack.pop();
+                continue;
+            }
+
+            final I input = rec.inputIt.next();
+            final Node<Boolean> succ = rec.treeNode.getSuccessor(inputAlphabet.getSymbolIndex(input));
+
+            if (succ == null) {
+                continue;
+            }
+
+            final S state = rec.automatonState;
+            final S automatonSucc = state == null ? null : target.getSuccessor(state, input);
+
+            if (omitUndefined && automatonSucc == null) {
+                continue;
+            }
+
+            final boolean accepting = automatonSucc != null && target.isAccepting(automatonSucc);
+
+            if (getAcceptance(succ).conflicts(accepting)) {
+                final WordBuilder<I> sep = new WordBuilder<>(dfsStack.size());
+                sep.append(input);
+
+                Record<@Nullable S, I> curr = dfsStack.pop();
+                while (!dfsStack.isEmpty()) {
+                    sep.append(curr.incomingInput);
+                    curr = dfsStack.pop();
+                }
+
+                return sep.reverse().toWord();
+            }
+
+            dfsStack.push(new Record<>(automatonSucc, succ, input, inputs.iterator()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new GraphView();
+    }
+
+    @Override
+    public UniversalDTS<?, I, ?, Acceptance, Void> asTransitionSystem() {
+        return new TransitionSystemView();
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    private static Acceptance getAcceptance(Node<Boolean> node) {
+        final Boolean value = node.getValue();
+        return value == null ? Acceptance.DONT_KNOW : Acceptance.fromBoolean(value);
+    }
+
+    private static final class Record<S, I> {
+
+        private final S automatonState;
+        private final Node<Boolean> treeNode;
+        private final @Nullable I incomingInput;
+        private final Iterator<? extends I> inputIt;
+
+        Record(S automatonState, Node<Boolean> treeNode, @Nullable I incomingInput, Iterator<? extends I> inputIt) {
+            this.automatonState = automatonState;
+            this.treeNode = treeNode;
+            this.incomingInput = incomingInput;
+            this.inputIt = inputIt;
+        }
+    }
+
+    private class TransitionSystemView implements UniversalDTS<Node<Boolean>, I, Node<Boolean>, Acceptance, Void> {
+
+        @Override
+        public @Nullable Node<Boolean> getTransition(Node<Boolean> state, I input) {
+            return state.getSuccessor(inputAlphabet.getSymbolIndex(input));
+        }
+
+        @Override
+        public Node<Boolean> getSuccessor(Node<Boolean> transition) {
+            return transition;
+        }
+
+        @Override
+        public Node<Boolean> getInitialState() {
+            return tree.getRoot();
+        }
+
+        @Override
+        public Acceptance getStateProperty(Node<Boolean> state) {
+            return getAcceptance(state);
+        }
+
+        @Override
+        public @Nullable Void getTransitionProperty(Node<Boolean> transition) {
+            return null;
+        }
+    }
+
+    private class GraphView implements Graph<Node<Boolean>, Node<Boolean>> {
+
+        @Override
+        public Collection<Node<Boolean>> getNodes() {
+            final List<Node<Boolean>> result = new ArrayList<>();
+            final Deque<Node<Boolean>> queue = new ArrayDeque<>();
+            queue.add(tree.getRoot());
+
+            while (!queue.isEmpty()) {
+                final Node<Boolean> node = queue.poll();
+                result.add(node);
+                queue.addAll(node.getSuccessors());
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection<Node<Boolean>> getOutgoingEdges(Node<Boolean> node) {
+            return node.getSuccessors();
+        }
+
+        @Override
+        public Node<Boolean> getTarget(Node<Boolean> edge) {
+            return edge;
+        }
+    }
+}
@@ -17,11 +17,15 @@ package de.learnlib.filter.cache.dfa;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
 import de.learnlib.filter.cache.dfa.DFACacheOracle.DFACacheOracleState;
 import de.learnlib.logging.Category;
@@ -32,6 +36,7 @@ import net.automatalib.alphabet.SupportsGrowingAlphabet;
 import net.automatalib.common.util.Pair;
 import net.automatalib.incremental.dfa.Acceptance;
 import net.automatalib.incremental.dfa.IncrementalDFABuilder;
+import net.automatalib.ts.simple.SimpleDTS;
 import net.automatalib.word.Word;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,16 +55,21 @@ import org.slf4j.LoggerFactory;
  *         input symbol class
  */
 public class DFACacheOracle<I>
-        implements DFALearningCacheOracle<I>, SupportsGrowingAlphabet<I>, Resumable<DFACacheOracleState<I>> {
+        implements DFALearningCacheOracle<I>,
+                   SupportsGrowingAlphabet<I>,
+                   CacheStatistics,
+                   Resumable<DFACacheOracleState<I>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DFACacheOracle.class);
 
     private IncrementalDFABuilder<I> incDfa;
     private final MembershipOracle<I, Boolean> delegate;
+    private final CacheCounters counters;
 
     DFACacheOracle(IncrementalDFABuilder<I> incDfa, MembershipOracle<I, Boolean> delegate) {
         this.incDfa = incDfa;
         this.delegate = delegate;
+        this.counters = new CacheCounters();
     }
 
     @Override
@@ -81,7 +91,14 @@ public class DFACacheOracle<I>
         updateCache(unanswered);
 
         if (!duplicates.isEmpty()) {
-            queryCache(duplicates);
+            // answer duplicates directly, since (bounded) caches may have already evicted the inserted information
+            final Map<Word<I>, Boolean> answers = new HashMap<>();
+            for (ProxyQuery<I> q : unanswered) {
+                answers.put(q.getInput(), q.getAnswer());
+            }
+            for (Query<I, Boolean> q : duplicates) {
+                q.answer(answers.get(q.getInput()));
+            }
         }
     }
 
@@ -110,6 +127,16 @@ public class DFACacheOracle<I>
         this.incDfa = state.getBuilder();
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return incDfa.asGraph().size();
+    }
+
     Pair<Collection<ProxyQuery<I>>, Collection<Query<I, Boolean>>> queryCache(Collection<? extends Query<I, Boolean>> queries) {
         final List<ProxyQuery<I>> unanswered = new ArrayList<>();
         final List<Query<I, Boolean>> duplicates = new ArrayList<>();
@@ -120,11 +147,14 @@ public class DFACacheOracle<I>
             final Acceptance acc = incDfa.lookup(input);
             if (acc != Acceptance.DONT_KNOW) {
                 q.answer(acc.toBoolean());
+                counters.recordHit(input.length());
             } else {
                 if (cache.add(input)) { // never seen before
                     unanswered.add(new ProxyQuery<>(q));
+                    counters.recordMiss(input.length(), getMatchedPrefixLength(incDfa.asTransitionSystem(), input));
                 } else {
                     duplicates.add(q);
+                    counters.recordHit(input.length());
                 }
             }
         }
@@ -138,6 +168,20 @@ public class DFACacheOracle<I>
         }
     }
 
+    private static <S, I> int getMatchedPrefixLength(SimpleDTS<S, I> ts, Word<I> word) {
+        S state = ts.getInitialState();
+        int length = 0;
+
+        while (state != null && length < word.length()) {
+            state = ts.getSuccessor(state, word.getSymbol(length));
+            if (state != null) {
+                length++;
+            }
+        }
+
+        return length;
+    }
+
     public static class DFACacheOracleState<I> {
 
         private final IncrementalDFABuilder<I> builder;
@@ -17,6 +17,8 @@ package de.learnlib.filter.cache.dfa;
 
 import java.util.Map;
 
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicy;
 import de.learnlib.oracle.MembershipOracle;
 import net.automatalib.alphabet.Alphabet;
 import net.automatalib.automaton.fsa.DFA;
@@ -123,6 +125,75 @@ public final class DFACaches {
         return new DFACacheOracle<>(new IncrementalPCDFATreeBuilder<>(alphabet), mqOracle);
     }
 
+    /**
+     * Creates a cache oracle for a DFA learning setup, using a tree with bounded memory consumption for internal cache
+     * organization.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param budget
+     *         the budget of the cache
+     * @param policy
+     *         the policy which determines the order in which cache entries are evicted
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFACacheOracle}.
+     *
+     * @see BoundedDFATreeBuilder
+     */
+    public static <I> DFACacheOracle<I> createBoundedTreeCache(Alphabet<I> alphabet,
+                                                               MembershipOracle<I, Boolean> mqOracle,
+                                                               CacheBudget budget,
+                                                               EvictionPolicy policy) {
+        return createBoundedTreeCache(mqOracle, new BoundedDFATreeBuilder<>(alphabet, budget, policy));
+    }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, using a tree with bounded memory consumption for internal cache
+     * organization. The given builder can be used to inspect the eviction statistics of the cache.
+     *
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param cacheBuilder
+     *         the bounded builder to be used by the cache oracle
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFACacheOracle}.
+     *
+     * @see BoundedDFATreeBuilder
+     */
+    public static <I> DFACacheOracle<I> createBoundedTreeCache(MembershipOracle<I, Boolean> mqOracle,
+                                                               BoundedDFATreeBuilder<I> cacheBuilder) {
+        return new DFACacheOracle<>(cacheBuilder, mqOracle);
+    }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, using a memory-mapped file for internal cache organization. The
+     * cached information survives restarts of the JVM and may be shared with other processes.
+     * <p>
+     * Note: the given builder is owned by the caller, who is responsible for closing it once the cache is no longer
+     * used.
+     *
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param cacheBuilder
+     *         the (opened) persistent builder to be used by the cache oracle
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFACacheOracle}.
+     *
+     * @see PersistentDFATreeBuilder
+     */
+    public static <I> DFACacheOracle<I> createPersistentCache(MembershipOracle<I, Boolean> mqOracle,
+                                                              PersistentDFATreeBuilder<I> cacheBuilder) {
+        return new DFACacheOracle<>(cacheBuilder, mqOracle);
+    }
+
     /**
      * Creates a cache oracle for a DFA learning setup, using a {@link Map} for internal cache organization.
      *
@@ -136,4 +207,40 @@ public final class DFACaches {
     public static <I> DFAHashCacheOracle<I> createHashCache(MembershipOracle<I, Boolean> mqOracle) {
         return new DFAHashCacheOracle<>(mqOracle);
     }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, using a hash map with a bounded number of entries for internal
+     * cache organization. Once the bound is exceeded, the least recently used queries are evicted.
+     *
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param maxEntries
+     *         the maximum number of cached queries
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFAHashCacheOracle}.
+     */
+    public static <I> DFAHashCacheOracle<I> createBoundedHashCache(MembershipOracle<I, Boolean> mqOracle,
+                                                                   int maxEntries) {
+        return new DFAHashCacheOracle<>(mqOracle, new DFAHashCacheOracle.BoundedHashMap<>(maxEntries));
+    }
+
+    /**
+     * Creates a cache oracle for a DFA learning setup, using a compact hash table of bit-packed words for internal cache
+     * organization.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param mqOracle
+     *         the oracle to delegate queries to, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     *
+     * @return the cached {@link DFAPackedHashCacheOracle}.
+     */
+    public static <I> DFAPackedHashCacheOracle<I> createPackedHashCache(Alphabet<I> alphabet,
+                                                                        MembershipOracle<I, Boolean> mqOracle) {
+        return new DFAPackedHashCacheOracle<>(alphabet, mqOracle);
+    }
 }
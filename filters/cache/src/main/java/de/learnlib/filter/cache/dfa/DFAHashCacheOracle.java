@@ -18,12 +18,13 @@ package de.learnlib.filter.cache.dfa;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
 import de.learnlib.filter.cache.dfa.DFAHashCacheOracle.DFAHashCacheOracleState;
 import de.learnlib.oracle.EquivalenceOracle;
@@ -38,14 +39,19 @@ import net.automatalib.word.Word;
  * <b>Note:</b> this implementation is <b>not</b> thread-safe. If you require a cache that is usable in a parallel
  * environment. consider using the alternatives offered by the {@code ThreadSafeDFACaches} factory from the {@code
  * learnlib-parallelism} artifact.
+ * <p>
+ * Optionally, the number of cached queries can be bounded (see {@link DFACaches#createBoundedHashCache(MembershipOracle,
+ * int)}), in which case the least recently used queries are evicted first.
  *
  * @param <I>
  *         input symbol type
  */
-public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumable<DFAHashCacheOracleState<I>> {
+public class DFAHashCacheOracle<I>
+        implements DFALearningCacheOracle<I>, CacheStatistics, Resumable<DFAHashCacheOracleState<I>> {
 
     private final MembershipOracle<I, Boolean> delegate;
     private Map<Word<I>, Boolean> cache;
+    private final CacheCounters counters;
 
     DFAHashCacheOracle(MembershipOracle<I, Boolean> delegate) {
         this(delegate, new HashMap<>());
@@ -54,6 +60,7 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
     DFAHashCacheOracle(MembershipOracle<I, Boolean> delegate, Map<Word<I>, Boolean> cache) {
         this.delegate = delegate;
         this.cache = cache;
+        this.counters = new CacheCounters();
     }
 
     @Override
@@ -65,18 +72,23 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
     public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
         final List<ProxyQuery<I>> misses = new ArrayList<>();
         final List<Query<I, Boolean>> duplicates = new ArrayList<>();
-        final Set<Word<I>> batchCache = new HashSet<>();
+        final Map<Word<I>, ProxyQuery<I>> batchCache = new HashMap<>();
 
         for (Query<I, Boolean> qry : queries) {
             final Word<I> input = qry.getInput();
             final Boolean answer = cache.get(input);
             if (answer != null) {
                 qry.answer(answer);
+                counters.recordHit(input.length());
             } else {
-                if (batchCache.add(input)) { // never seen before
-                    misses.add(new ProxyQuery<>(qry));
+                if (!batchCache.containsKey(input)) { // never seen before
+                    final ProxyQuery<I> miss = new ProxyQuery<>(qry);
+                    batchCache.put(input, miss);
+                    misses.add(miss);
+                    counters.recordMiss(input.length(), 0);
                 } else {
                     duplicates.add(qry);
+                    counters.recordHit(input.length());
                 }
             }
         }
@@ -87,13 +99,22 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
             cache.put(miss.getInput(), miss.getAnswer());
         }
 
-        if (!duplicates.isEmpty()) {
-            for (Query<I, Boolean> d : duplicates) {
-                d.answer(cache.get(d.getInput()));
-            }
+        // answer from the batch, as a bounded cache may already have evicted the query
+        for (Query<I, Boolean> d : duplicates) {
+            d.answer(batchCache.get(d.getInput()).getAnswer());
         }
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return cache.size();
+    }
+
     @Override
     public DFAHashCacheOracleState<I> suspend() {
         return new DFAHashCacheOracleState<>(cache);
@@ -104,6 +125,32 @@ public class DFAHashCacheOracle<I> implements DFALearningCacheOracle<I>, Resumab
         this.cache = state.getCache();
     }
 
+    /**
+     * A map that holds at most a given number of entries and evicts the least recently accessed entry once this number
+     * is exceeded.
+     */
+    static final class BoundedHashMap<K, V> extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+        private static final float LOAD_FACTOR = 0.75f;
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final int maxEntries;
+
+        BoundedHashMap(int maxEntries) {
+            super(INITIAL_CAPACITY, LOAD_FACTOR, true);
+            if (maxEntries <= 0) {
+                throw new IllegalArgumentException("The number of entries must be positive");
+            }
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > maxEntries;
+        }
+    }
+
     public static class DFAHashCacheOracleState<I> {
 
         private final Map<Word<I>, Boolean> cache;
@@ -0,0 +1,59 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.Collection;
+
+import de.learnlib.filter.cache.PackedWordTable;
+import de.learnlib.oracle.EquivalenceOracle.DFAEquivalenceOracle;
+import de.learnlib.query.DefaultQuery;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+final class DFAPackedHashCacheConsistencyTest<I> implements DFAEquivalenceOracle<I> {
+
+    private final Alphabet<I> alphabet;
+    private final PackedWordTable cache;
+
+    DFAPackedHashCacheConsistencyTest(Alphabet<I> alphabet, PackedWordTable cache) {
+        this.alphabet = alphabet;
+        this.cache = cache;
+    }
+
+    @Override
+    public @Nullable DefaultQuery<I, Boolean> findCounterExample(DFA<?, I> hypothesis, Collection<? extends I> inputs) {
+        for (int entry = 0; entry < cache.size(); entry++) {
+            final int length = cache.getLength(entry);
+            final WordBuilder<I> wb = new WordBuilder<>(length);
+
+            for (int i = 0; i < length; i++) {
+                wb.append(alphabet.getSymbol(cache.getSymbol(entry, i)));
+            }
+
+            final Word<I> input = wb.toWord();
+            final boolean answer = cache.getValue(entry) != 0;
+
+            if (hypothesis.computeOutput(input) != answer) {
+                return new DefaultQuery<>(input, answer);
+            }
+        }
+        return null;
+    }
+
+}
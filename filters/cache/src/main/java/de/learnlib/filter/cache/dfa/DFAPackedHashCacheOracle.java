@@ -0,0 +1,165 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
+import de.learnlib.filter.cache.LearningCacheOracle.DFALearningCacheOracle;
+import de.learnlib.filter.cache.PackedWordTable;
+import de.learnlib.filter.cache.dfa.DFAPackedHashCacheOracle.DFAPackedHashCacheOracleState;
+import de.learnlib.oracle.EquivalenceOracle;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.Query;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.word.Word;
+
+/**
+ * A {@link DFALearningCacheOracle} that uses a {@link PackedWordTable} for internal cache organization. Compared to the
+ * {@link DFAHashCacheOracle}, words are stored as bit-packed sequences of alphabet indices and answers are stored in
+ * a primitive array, which drastically reduces the memory consumption per cached query.
+ * <p>
+ * Since the packing depends on the size of the input alphabet, this cache does not support growing alphabets.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class DFAPackedHashCacheOracle<I>
+        implements DFALearningCacheOracle<I>, CacheStatistics, Resumable<DFAPackedHashCacheOracleState> {
+
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+
+    private final Alphabet<I> alphabet;
+    private final MembershipOracle<I, Boolean> delegate;
+    private PackedWordTable cache;
+    private int[] buffer;
+    private final CacheCounters counters;
+
+    DFAPackedHashCacheOracle(Alphabet<I> alphabet, MembershipOracle<I, Boolean> delegate) {
+        this.alphabet = alphabet;
+        this.delegate = delegate;
+        this.cache = new PackedWordTable(alphabet.size());
+        this.buffer = new int[0];
+        this.counters = new CacheCounters();
+    }
+
+    @Override
+    public EquivalenceOracle<DFA<?, I>, I, Boolean> createCacheConsistencyTest() {
+        return new DFAPackedHashCacheConsistencyTest<>(alphabet, cache);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Boolean>> queries) {
+        final List<ProxyQuery<I>> misses = new ArrayList<>();
+        final List<Query<I, Boolean>> duplicates = new ArrayList<>();
+        final PackedWordTable batchCache = new PackedWordTable(alphabet.size());
+
+        for (Query<I, Boolean> qry : queries) {
+            final int length = qry.getInput().length();
+            final long hash = encode(qry.getInput());
+            final int entry = cache.find(buffer, length, hash);
+            if (entry != PackedWordTable.NO_ENTRY) {
+                qry.answer(cache.getValue(entry) == TRUE);
+                counters.recordHit(length);
+            } else {
+                if (batchCache.find(buffer, length, hash) == PackedWordTable.NO_ENTRY) { // never seen before
+                    batchCache.insert(buffer, length, hash, misses.size(), null);
+                    misses.add(new ProxyQuery<>(qry));
+                    counters.recordMiss(length, 0);
+                } else {
+                    duplicates.add(qry);
+                    counters.recordHit(length);
+                }
+            }
+        }
+
+        delegate.processQueries(misses);
+
+        for (ProxyQuery<I> miss : misses) {
+            final int length = miss.getInput().length();
+            final long hash = encode(miss.getInput());
+            cache.insert(buffer, length, hash, miss.getAnswer() ? TRUE : FALSE, null);
+        }
+
+        for (Query<I, Boolean> d : duplicates) {
+            final int length = d.getInput().length();
+            final long hash = encode(d.getInput());
+            d.answer(misses.get(batchCache.getValue(batchCache.find(buffer, length, hash))).getAnswer());
+        }
+    }
+
+    /**
+     * Encodes the given word into the buffer and returns its hash, which is computed along the way.
+     */
+    private long encode(Word<I> word) {
+        final int length = word.length();
+
+        if (buffer.length < length) {
+            buffer = new int[Math.max(length, 2 * buffer.length)];
+        }
+
+        long hash = PackedWordTable.EMPTY_HASH;
+        for (int i = 0; i < length; i++) {
+            final int idx = alphabet.getSymbolIndex(word.getSymbol(i));
+            buffer[i] = idx;
+            hash = PackedWordTable.extendHash(hash, idx);
+        }
+
+        return hash;
+    }
+
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return cache.size();
+    }
+
+    @Override
+    public DFAPackedHashCacheOracleState suspend() {
+        return new DFAPackedHashCacheOracleState(cache);
+    }
+
+    @Override
+    public void resume(DFAPackedHashCacheOracleState state) {
+        this.cache = state.getCache();
+    }
+
+    public static class DFAPackedHashCacheOracleState {
+
+        private final PackedWordTable cache;
+
+        public DFAPackedHashCacheOracleState(PackedWordTable cache) {
+            this.cache = cache;
+        }
+
+        public PackedWordTable getCache() {
+            return cache;
+        }
+    }
+
+}
@@ -0,0 +1,334 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+import de.learnlib.filter.cache.PersistentTrie;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.dfa.Acceptance;
+import net.automatalib.incremental.dfa.IncrementalDFABuilder;
+import net.automatalib.ts.UniversalDTS;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A tree-based {@link IncrementalDFABuilder} whose data is stored in a memory-mapped file (see
+ * {@link PersistentTrie}). The cached information survives restarts of the JVM and can be shared (read-only) by
+ * several processes on the same host.
+ * <p>
+ * Since the file layout depends on the size of the input alphabet, the alphabet must not change between different
+ * runs. If the builder is opened in read-only mode, insertions of new information are silently discarded (conflicts
+ * with existing information are still reported).
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ */
+public class PersistentDFATreeBuilder<I>
+        implements IncrementalDFABuilder<I>, InputAlphabetHolder<I>, Closeable, Flushable {
+
+    private static final int DONT_KNOW = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+
+    private final Alphabet<I> inputAlphabet;
+    private final PersistentTrie trie;
+
+    public PersistentDFATreeBuilder(Path file, Alphabet<I> inputAlphabet) throws IOException {
+        this(file, inputAlphabet, false);
+    }
+
+    public PersistentDFATreeBuilder(Path file, Alphabet<I> inputAlphabet, boolean readOnly) throws IOException {
+        this.inputAlphabet = inputAlphabet;
+        this.trie = readOnly ?
+                PersistentTrie.openReadOnly(file, inputAlphabet.size()) :
+                PersistentTrie.open(file, inputAlphabet.size());
+    }
+
+    @Override
+    public Acceptance lookup(Word<? extends I> word) {
+        int curr = PersistentTrie.ROOT;
+
+        for (I sym : word) {
+            curr = trie.getSuccessor(curr, inputAlphabet.getSymbolIndex(sym));
+
+            if (curr == PersistentTrie.NO_NODE) {
+                return Acceptance.DONT_KNOW;
+            }
+        }
+
+        return getAcceptance(curr);
+    }
+
+    @Override
+    public void insert(Word<? extends I> word, boolean accepting) {
+        int curr = PersistentTrie.ROOT;
+
+        for (I sym : word) {
+            final int idx = inputAlphabet.getSymbolIndex(sym);
+            final int succ = trie.getSuccessor(curr, idx);
+
+            if (succ == PersistentTrie.NO_NODE) {
+                if (trie.isReadOnly()) {
+                    return;
+                }
+                curr = trie.addSuccessor(curr, idx, DONT_KNOW);
+            } else {
+                curr = succ;
+            }
+        }
+
+        final Acceptance acc = getAcceptance(curr);
+
+        if (acc == Acceptance.DONT_KNOW) {
+            if (!trie.isReadOnly()) {
+                trie.setValue(curr, accepting ? TRUE : FALSE);
+            }
+        } else if (acc.conflicts(accepting)) {
+            throw new ConflictException(
+                    "Conflicting acceptance values for word " + word + ": " + acc + " vs " + accepting);
+        }
+    }
+
+    /**
+     * Adding new alphabet symbols is not supported, because the file layout depends on the size of the input alphabet.
+     * Symbols that are already contained in the input alphabet are silently ignored.
+     *
+     * @param symbol
+     *         the symbol to add
+     *
+     * @throws UnsupportedOperationException
+     *         if the symbol is not contained in the input alphabet
+     */
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            throw new UnsupportedOperationException("Persistent caches do not support growing alphabets");
+        }
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(DFA<?, I> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        return doFindSeparatingWord(target, inputs, omitUndefined);
+    }
+
+    private <S> @Nullable Word<I> doFindSeparatingWord(DFA<S, I> target,
+                                                       Collection<? extends I> inputs,
+                                                       boolean omitUndefined) {
+        final S init = target.getInitialState();
+
+        if (init == null) {
+            return omitUndefined ? null : Word.epsilon();
+        }
+
+        if (getAcceptance(PersistentTrie.ROOT).conflicts(target.isAccepting(init))) {
+            return Word.epsilon();
+        }
+
+        final Deque<Record<@Nullable S, I>> dfsStack = new ArrayDeque<>();
+        dfsStack.push(new Record<>(init, PersistentTrie.ROOT, null, inputs.iterator()));
+
+        while (!dfsStack.isEmpty()) {
+            final Record<@Nullable S, I> rec = dfsStack.peek();
+
+            if (!rec.inputIt.hasNext()) {
+                dfsStack.pop();
+                continue;
+            }
+
+            final I input = rec.inputIt.next();
+            final int succ = trie.getSuccessor(rec.treeNode, inputAlphabet.getSymbolIndex(input));
+
+            if (succ == PersistentTrie.NO_NODE) {
+                continue;
+            }
+
+            final S state = rec.automatonState;
+            final S automatonSucc = state == null ? null : target.getSuccessor(state, input);
+
+            if (omitUndefined && automatonSucc == null) {
+                continue;
+            }
+
+            final boolean accepting = automatonSucc != null && target.isAccepting(automatonSucc);
+
+            if (getAcceptance(succ).conflicts(accepting)) {
+                final WordBuilder<I> sep = new WordBuilder<>(dfsStack.size());
+                sep.append(input);
+
+                Record<@Nullable S, I> curr = dfsStack.pop();
+                while (!dfsStack.isEmpty()) {
+                    sep.append(curr.incomingInput);
+                    curr = dfsStack.pop();
+                }
+
+                return sep.reverse().toWord();
+            }
+
+            dfsStack.push(new Record<>(automatonSucc, succ, input, inputs.iterator()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new GraphView();
+    }
+
+    @Override
+    public UniversalDTS<?, I, ?, Acceptance, Void> asTransitionSystem() {
+        return new TransitionSystemView();
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    /**
+     * Returns the number of nodes in the underlying tree (excluding the root).
+     *
+     * @return the number of nodes in the underlying tree
+     */
+    public int size() {
+        return trie.size() - 1;
+    }
+
+    @Override
+    public void flush() {
+        trie.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        trie.close();
+    }
+
+    private Acceptance getAcceptance(int node) {
+        switch (trie.getValue(node)) {
+            case TRUE:
+                return Acceptance.TRUE;
+            case FALSE:
+                return Acceptance.FALSE;
+            default:
+                return Acceptance.DONT_KNOW;
+        }
+    }
+
+    private List<Integer> getSuccessors(int node) {
+        final List<Integer> result = new ArrayList<>();
+
+        for (int i = 0; i < inputAlphabet.size(); i++) {
+            final int succ = trie.getSuccessor(node, i);
+            if (succ != PersistentTrie.NO_NODE) {
+                result.add(succ);
+            }
+        }
+
+        return result;
+    }
+
+    private static final class Record<S, I> {
+
+        private final S automatonState;
+        private final int treeNode;
+        private final @Nullable I incomingInput;
+        private final Iterator<? extends I> inputIt;
+
+        Record(S automatonState, int treeNode, @Nullable I incomingInput, Iterator<? extends I> inputIt) {
+            this.automatonState = automatonState;
+            this.treeNode = treeNode;
+            this.incomingInput = incomingInput;
+            this.inputIt = inputIt;
+        }
+    }
+
+    private class TransitionSystemView implements UniversalDTS<Integer, I, Integer, Acceptance, Void> {
+
+        @Override
+        public @Nullable Integer getTransition(Integer state, I input) {
+            final int succ = trie.getSuccessor(state, inputAlphabet.getSymbolIndex(input));
+            return succ == PersistentTrie.NO_NODE ? null : succ;
+        }
+
+        @Override
+        public Integer getSuccessor(Integer transition) {
+            return transition;
+        }
+
+        @Override
+        public Integer getInitialState() {
+            return PersistentTrie.ROOT;
+        }
+
+        @Override
+        public Acceptance getStateProperty(Integer state) {
+            return getAcceptance(state);
+        }
+
+        @Override
+        public @Nullable Void getTransitionProperty(Integer transition) {
+            return null;
+        }
+    }
+
+    private class GraphView implements Graph<Integer, Integer> {
+
+        @Override
+        public Collection<Integer> getNodes() {
+            final List<Integer> result = new ArrayList<>();
+            final Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(PersistentTrie.ROOT);
+
+            while (!queue.isEmpty()) {
+                final int node = queue.poll();
+                result.add(node);
+                queue.addAll(getSuccessors(node));
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection<Integer> getOutgoingEdges(Integer node) {
+            return getSuccessors(node);
+        }
+
+        @Override
+        public Integer getTarget(Integer edge) {
+            return edge;
+        }
+    }
+}
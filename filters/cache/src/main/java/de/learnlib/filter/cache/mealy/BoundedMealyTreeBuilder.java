@@ -0,0 +1,284 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import de.learnlib.filter.cache.BoundedCacheTree;
+import de.learnlib.filter.cache.BoundedCacheTree.Node;
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicy;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.GrowingAlphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.exception.GrowingAlphabetNotSupportedException;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A tree-based {@link IncrementalMealyBuilder} whose memory consumption is bounded by a {@link CacheBudget}. Once the
+ * budget is exceeded, information is evicted according to the given {@link EvictionPolicy} (see
+ * {@link BoundedCacheTree} for details). Since only leaves are evicted, outputs of short prefixes are retained the
+ * longest.
+ * <p>
+ * Evicted information is simply forgotten, i.e., a cache using this builder will re-query evicted words.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe. In particular, lookups update the eviction statistics,
+ * so this builder must not be used with caches that only acquire a read lock for lookups.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class BoundedMealyTreeBuilder<I, O> implements IncrementalMealyBuilder<I, O>, InputAlphabetHolder<I> {
+
+    private final Alphabet<I> inputAlphabet;
+    private final BoundedCacheTree<O> tree;
+
+    public BoundedMealyTreeBuilder(Alphabet<I> inputAlphabet, CacheBudget budget, EvictionPolicy policy) {
+        this.inputAlphabet = inputAlphabet;
+        this.tree = new BoundedCacheTree<>(inputAlphabet.size(), budget, policy);
+    }
+
+    @Override
+    public boolean lookup(Word<? extends I> word, List<? super O> output) {
+        Node<O> curr = tree.getRoot();
+
+        for (I sym : word) {
+            final Node<O> succ = curr.getSuccessor(inputAlphabet.getSymbolIndex(sym));
+
+            if (succ == null) {
+                return false;
+            }
+
+            tree.touch(succ);
+            output.add(succ.getValue());
+            curr = succ;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void insert(Word<? extends I> input, Word<? extends O> outputWord) {
+        if (input.length() != outputWord.length()) {
+            throw new IllegalArgumentException("Lengths of input and output word do not match");
+        }
+
+        Node<O> curr = tree.getRoot();
+
+        for (int i = 0; i < input.length(); i++) {
+            final int idx = inputAlphabet.getSymbolIndex(input.getSymbol(i));
+            final O out = outputWord.getSymbol(i);
+            final Node<O> succ = tree.getOrCreateSuccessor(curr, idx, out);
+
+            if (!Objects.equals(succ.getValue(), out)) {
+                throw new ConflictException(
+                        "Error inserting " + input.prefix(i + 1) + " / " + outputWord.prefix(i + 1) +
+                        ": Incompatible output symbols: " + out + " vs " + succ.getValue());
+            }
+
+            curr = succ;
+        }
+
+        tree.evict(curr);
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            if (!(this.inputAlphabet instanceof GrowingAlphabet)) {
+                throw new GrowingAlphabetNotSupportedException(this.inputAlphabet);
+            }
+            ((GrowingAlphabet<I>) this.inputAlphabet).addSymbol(symbol);
+        }
+
+        // successor arrays are grown lazily, we only need to update the budget
+        tree.setAlphabetSize(this.inputAlphabet.size());
+    }
+
+    /**
+     * Returns the number of cache entries (i.e. the number of nodes in the underlying tree, excluding the root).
+     *
+     * @return the number of cache entries
+     */
+    public long size() {
+        return tree.size();
+    }
+
+    /**
+     * Returns the number of cache entries that have been evicted so far.
+     *
+     * @return the number of evicted cache entries
+     */
+    public long getEvictionCount() {
+        return tree.getEvictionCount();
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(MealyMachine<?, I, ?, O> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        return doFindSeparatingWord(target, inputs, omitUndefined);
+    }
+
+    private <S, T> @Nullable Word<I> doFindSeparatingWord(MealyMachine<S, I, T, O> target,
+                                                          Collection<? extends I> inputs,
+                                                          boolean omitUndefined) {
+        final S init = target.getInitialState();
+
+        if (init == null) {
+            return omitUndefined ? null : Word.epsilon();
+        }
+
+        final Deque<Record<S, I, O>> dfsStack = new ArrayDeque<>();
+        dfsStack.push(new Record<>(init, tree.getRoot(), null, inputs.iterator()));
+
+        while (!dfsStack.isEmpty()) {
+            final Record<S, I, O> rec = dfsStack.peek();
+
+            if (!rec.inputIt.hasNext()) {
+                dfsStack.pop();
+                continue;
+            }
+
+            final I input = rec.inputIt.next();
+            final Node<O> succ = rec.treeNode.getSuccessor(inputAlphabet.getSymbolIndex(input));
+
+            if (succ == null) {
+                continue;
+            }
+
+            final T trans = target.getTransition(rec.automatonState, input);
+
+            if (omitUndefined && trans == null) {
+                continue;
+            }
+
+            if (trans == null || !Objects.equals(target.getTransitionOutput(trans), succ.getValue())) {
+                final WordBuilder<I> sep = new WordBuilder<>(dfsStack.size());
+                sep.append(input);
+
+                Record<S, I, O> curr = dfsStack.pop();
+                while (!dfsStack.isEmpty()) {
+                    sep.append(curr.incomingInput);
+                    curr = dfsStack.pop();
+                }
+
+                return sep.reverse().toWord();
+            }
+
+            dfsStack.push(new Record<>(target.getSuccessor(trans), succ, input, inputs.iterator()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new GraphView();
+    }
+
+    @Override
+    public MealyTransitionSystem<?, I, ?, O> asTransitionSystem() {
+        return new TransitionSystemView();
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final S automatonState;
+        private final Node<O> treeNode;
+        private final @Nullable I incomingInput;
+        private final Iterator<? extends I> inputIt;
+
+        Record(S automatonState, Node<O> treeNode, @Nullable I incomingInput, Iterator<? extends I> inputIt) {
+            this.automatonState = automatonState;
+            this.treeNode = treeNode;
+            this.incomingInput = incomingInput;
+            this.inputIt = inputIt;
+        }
+    }
+
+    private class TransitionSystemView implements MealyTransitionSystem<Node<O>, I, Node<O>, O> {
+
+        @Override
+        public @Nullable Node<O> getTransition(Node<O> state, I input) {
+            return state.getSuccessor(inputAlphabet.getSymbolIndex(input));
+        }
+
+        @Override
+        public Node<O> getSuccessor(Node<O> transition) {
+            return transition;
+        }
+
+        @Override
+        public Node<O> getInitialState() {
+            return tree.getRoot();
+        }
+
+        @Override
+        @SuppressWarnings("nullness") // only the root has no output and the root is never a transition
+        public O getTransitionOutput(Node<O> transition) {
+            return transition.getValue();
+        }
+    }
+
+    private class GraphView implements Graph<Node<O>, Node<O>> {
+
+        @Override
+        public Collection<Node<O>> getNodes() {
+            final List<Node<O>> result = new ArrayList<>();
+            final Deque<Node<O>> queue = new ArrayDeque<>();
+            queue.add(tree.getRoot());
+
+            while (!queue.isEmpty()) {
+                final Node<O> node = queue.poll();
+                result.add(node);
+                queue.addAll(node.getSuccessors());
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection<Node<O>> getOutgoingEdges(Node<O> node) {
+            return node.getSuccessors();
+        }
+
+        @Override
+        public Node<O> getTarget(Node<O> edge) {
+            return edge;
+        }
+    }
+}
@@ -0,0 +1,662 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.GrowingAlphabet;
+import net.automatalib.alphabet.GrowingMapAlphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.exception.GrowingAlphabetNotSupportedException;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.incremental.mealy.dag.IncrementalMealyDAGBuilder;
+import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A hybrid {@link IncrementalMealyBuilder} that combines the cheap insertions of an {@link IncrementalMealyTreeBuilder}
+ * with the compact representation of an {@link IncrementalMealyDAGBuilder}.
+ * <p>
+ * New information is inserted into a (young) tree. Once a configurable number of words has been inserted, the young
+ * tree is frozen and replaced by a fresh one, and the frozen tree is folded into a shared, minimized DAG on a
+ * background thread. Lookups consult all three components, so they continue to work (and see all information) while
+ * a compaction is running. Only one compaction is performed at a time; if the threshold is reached while the previous
+ * compaction is still running, the young tree simply continues to grow.
+ * <p>
+ * If a compaction fails, its failure is re-thrown by the next call of {@link #lookup(Word, List)},
+ * {@link #insert(Word, Word)} or {@link #awaitCompaction()}. The frozen tree is kept in this case, so no information
+ * is lost, and its compaction is retried once the threshold is reached again.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe with respect to its callers, i.e., concurrent access from
+ * several threads has to be synchronized externally. Synchronization with the background compaction is handled
+ * internally.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class CompactingMealyTreeBuilder<I, O> implements IncrementalMealyBuilder<I, O>, InputAlphabetHolder<I> {
+
+    /**
+     * The default number of inserted words after which a compaction is triggered.
+     */
+    public static final int DEFAULT_THRESHOLD = 10_000;
+
+    private final Alphabet<I> inputAlphabet;
+    private final int threshold;
+    private final IncrementalMealyDAGBuilder<I, O> dag;
+
+    // runtime state that is excluded from (reflection-based) serialization of suspended caches, see readResolve()
+    private transient ReadWriteLock dagLock;
+    private transient Executor executor;
+    private transient @Nullable CompletableFuture<Void> compaction;
+
+    private IncrementalMealyTreeBuilder<I, O> young;
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // reset by the compaction thread
+    private volatile @Nullable IncrementalMealyTreeBuilder<I, O> frozen;
+    private int insertsSinceSwap;
+
+    public CompactingMealyTreeBuilder(Alphabet<I> inputAlphabet) {
+        this(inputAlphabet, DEFAULT_THRESHOLD);
+    }
+
+    public CompactingMealyTreeBuilder(Alphabet<I> inputAlphabet, int threshold) {
+        this(inputAlphabet, threshold, ForkJoinPool.commonPool());
+    }
+
+    public CompactingMealyTreeBuilder(Alphabet<I> inputAlphabet, int threshold, Executor executor) {
+        if (threshold <= 0) {
+            throw new IllegalArgumentException("Threshold must be positive");
+        }
+
+        this.inputAlphabet = inputAlphabet;
+        this.threshold = threshold;
+        this.executor = executor;
+        this.dagLock = new ReentrantReadWriteLock();
+        this.dag = new IncrementalMealyDAGBuilder<>(new GrowingMapAlphabet<>(inputAlphabet));
+        this.young = new IncrementalMealyTreeBuilder<>(new GrowingMapAlphabet<>(inputAlphabet));
+    }
+
+    private CompactingMealyTreeBuilder(CompactingMealyTreeBuilder<I, O> deserialized) {
+        this.inputAlphabet = deserialized.inputAlphabet;
+        this.threshold = deserialized.threshold;
+        this.executor = ForkJoinPool.commonPool();
+        this.dagLock = new ReentrantReadWriteLock();
+        this.dag = deserialized.dag;
+        this.young = deserialized.young;
+        this.insertsSinceSwap = deserialized.insertsSinceSwap;
+    }
+
+    @Override
+    public boolean lookup(Word<? extends I> word, List<? super O> output) {
+        checkCompaction();
+
+        final WordBuilder<O> best = new WordBuilder<>(word.length());
+
+        if (young.lookup(word, best)) {
+            output.addAll(best);
+            return true;
+        }
+
+        // read the frozen tree before the DAG: once the frozen tree is gone, its information is contained in the DAG
+        final IncrementalMealyTreeBuilder<I, O> currentFrozen = frozen;
+
+        if (currentFrozen != null && lookupLonger(currentFrozen, word, best)) {
+            output.addAll(best);
+            return true;
+        }
+
+        final Lock readLock = dagLock.readLock();
+        readLock.lock();
+        try {
+            if (lookupLonger(dag, word, best)) {
+                output.addAll(best);
+                return true;
+            }
+        } finally {
+            readLock.unlock();
+        }
+
+        output.addAll(best);
+        return false;
+    }
+
+    private boolean lookupLonger(IncrementalMealyBuilder<I, O> builder, Word<? extends I> word, WordBuilder<O> best) {
+        final WordBuilder<O> wb = new WordBuilder<>(word.length());
+        final boolean found = builder.lookup(word, wb);
+
+        if (wb.size() > best.size()) {
+            best.clear();
+            best.append(wb);
+        }
+
+        return found;
+    }
+
+    @Override
+    public void insert(Word<? extends I> input, Word<? extends O> outputWord) {
+        if (input.length() != outputWord.length()) {
+            throw new IllegalArgumentException("Lengths of input and output word do not match");
+        }
+
+        checkCompaction();
+
+        final WordBuilder<O> known = new WordBuilder<>(input.length());
+        final IncrementalMealyTreeBuilder<I, O> currentFrozen = frozen;
+        boolean contained = currentFrozen != null && lookupLonger(currentFrozen, input, known);
+
+        final Lock readLock = dagLock.readLock();
+        readLock.lock();
+        try {
+            contained |= lookupLonger(dag, input, known);
+        } finally {
+            readLock.unlock();
+        }
+
+        for (int i = 0; i < known.size(); i++) {
+            final O out = outputWord.getSymbol(i);
+            final O knownOut = known.get(i);
+            if (!Objects.equals(out, knownOut)) {
+                throw new ConflictException("Error inserting " + input.prefix(i + 1) + " / " +
+                                            outputWord.prefix(i + 1) + ": Incompatible output symbols: " + out +
+                                            " vs " + knownOut);
+            }
+        }
+
+        if (!contained) {
+            young.insert(input, outputWord);
+            insertsSinceSwap++;
+            maybeCompact();
+        }
+    }
+
+    private void maybeCompact() {
+        if (insertsSinceSwap < threshold || isCompacting()) {
+            return;
+        }
+
+        final IncrementalMealyTreeBuilder<I, O> leftover = frozen;
+
+        // a previous compaction has failed, so retry it before freezing the young tree
+        if (leftover != null) {
+            startCompaction(leftover);
+            return;
+        }
+
+        final IncrementalMealyTreeBuilder<I, O> toCompact = young;
+        this.young = new IncrementalMealyTreeBuilder<>(new GrowingMapAlphabet<>(inputAlphabet));
+        this.frozen = toCompact;
+        this.insertsSinceSwap = 0;
+        startCompaction(toCompact);
+    }
+
+    private void startCompaction(IncrementalMealyTreeBuilder<I, O> tree) {
+        try {
+            this.compaction = CompletableFuture.runAsync(() -> compact(tree), executor);
+        } catch (RejectedExecutionException e) {
+            compact(tree);
+        }
+    }
+
+    private void checkCompaction() {
+        final CompletableFuture<Void> current = compaction;
+        if (current != null && current.isCompletedExceptionally()) {
+            joinCompaction(current);
+        }
+    }
+
+    private void joinCompaction(CompletableFuture<Void> current) {
+        try {
+            current.join();
+        } catch (CompletionException e) {
+            // report the failure only once. The frozen tree is kept (so no information is lost) and its compaction is
+            // retried once the threshold is reached again
+            this.compaction = null;
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the running compaction and synchronously compacts the frozen tree of a previously failed compaction.
+     */
+    private void compactFully() {
+        awaitCompaction();
+
+        final IncrementalMealyTreeBuilder<I, O> leftover = frozen;
+        if (leftover != null) {
+            compact(leftover);
+        }
+    }
+
+    private void compact(IncrementalMealyTreeBuilder<I, O> tree) {
+        final MealyTransitionSystem<?, I, ?, O> ts = tree.asTransitionSystem();
+        final Lock writeLock = dagLock.writeLock();
+
+        for (Word<I> leaf : collectLeaves(ts)) {
+            final WordBuilder<O> output = new WordBuilder<>(leaf.length());
+            tree.lookup(leaf, output);
+
+            // acquire the lock per word so that lookups can interleave with the compaction
+            writeLock.lock();
+            try {
+                dag.insert(leaf, output.toWord());
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        this.frozen = null;
+    }
+
+    private <S, T> List<Word<I>> collectLeaves(MealyTransitionSystem<S, I, T, O> ts) {
+        final List<Word<I>> result = new ArrayList<>();
+        final Deque<Record<S, I>> stack = new ArrayDeque<>();
+        stack.push(new Record<>(ts.getInitialState(), Word.epsilon()));
+
+        while (!stack.isEmpty()) {
+            final Record<S, I> rec = stack.pop();
+            boolean leaf = true;
+
+            for (I sym : inputAlphabet) {
+                final T trans = ts.getTransition(rec.state, sym);
+                if (trans != null) {
+                    stack.push(new Record<>(ts.getSuccessor(trans), rec.word.append(sym)));
+                    leaf = false;
+                }
+            }
+
+            if (leaf && !rec.word.isEmpty()) {
+                result.add(rec.word);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Blocks until the currently running compaction (if any) has finished. If the compaction has failed, its failure
+     * is re-thrown by this method.
+     */
+    public void awaitCompaction() {
+        final CompletableFuture<Void> current = compaction;
+        if (current != null) {
+            joinCompaction(current);
+        }
+    }
+
+    /**
+     * Returns whether a compaction is currently running.
+     *
+     * @return {@code true} if a compaction is currently running, {@code false} otherwise
+     */
+    public boolean isCompacting() {
+        final CompletableFuture<Void> current = compaction;
+        return current != null && !current.isDone();
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            if (!(this.inputAlphabet instanceof GrowingAlphabet)) {
+                throw new GrowingAlphabetNotSupportedException(this.inputAlphabet);
+            }
+            ((GrowingAlphabet<I>) this.inputAlphabet).addSymbol(symbol);
+        }
+
+        // the frozen tree does not support new symbols, so wait until it has been folded into the DAG
+        compactFully();
+
+        young.addAlphabetSymbol(symbol);
+
+        final Lock writeLock = dagLock.writeLock();
+        writeLock.lock();
+        try {
+            dag.addAlphabetSymbol(symbol);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(MealyMachine<?, I, ?, O> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        final Word<I> youngSep = young.findSeparatingWord(target, inputs, omitUndefined);
+        if (youngSep != null) {
+            return youngSep;
+        }
+
+        final IncrementalMealyTreeBuilder<I, O> currentFrozen = frozen;
+        if (currentFrozen != null) {
+            final Word<I> frozenSep = currentFrozen.findSeparatingWord(target, inputs, omitUndefined);
+            if (frozenSep != null) {
+                return frozenSep;
+            }
+        }
+
+        final Lock readLock = dagLock.readLock();
+        readLock.lock();
+        try {
+            return dag.findSeparatingWord(target, inputs, omitUndefined);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a graph view that consists of the (disjoint) nodes of all components of this builder. Its size therefore
+     * reflects the actual number of nodes stored by this builder.
+     *
+     * @return a graph view of all components of this builder
+     */
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new UnionGraph(getComponents());
+    }
+
+    /**
+     * Returns a transition system view that combines the information of all components of this builder. Note that the
+     * view is backed by the components present at the time of this call, i.e., information inserted after a subsequent
+     * compaction has been triggered may not be visible.
+     *
+     * @return a transition system view of all components of this builder
+     */
+    @Override
+    public MealyTransitionSystem<?, I, ?, O> asTransitionSystem() {
+        final List<IncrementalMealyBuilder<I, O>> components = getComponents();
+        final List<MealyTransitionSystem<?, I, ?, O>> systems = new ArrayList<>(components.size());
+
+        for (IncrementalMealyBuilder<I, O> c : components) {
+            systems.add(c.asTransitionSystem());
+        }
+
+        return new UnionTransitionSystem(systems);
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    private List<IncrementalMealyBuilder<I, O>> getComponents() {
+        final List<IncrementalMealyBuilder<I, O>> result = new ArrayList<>(3);
+        result.add(young);
+
+        final IncrementalMealyTreeBuilder<I, O> currentFrozen = frozen;
+        if (currentFrozen != null) {
+            result.add(currentFrozen);
+        }
+
+        result.add(dag);
+        return result;
+    }
+
+    // Suspended caches (see Resumable) are serialized reflectively (e.g., via XStream), which skips the transient
+    // runtime state but honors these hooks. Hence, only serialize completely compacted states and re-create the runtime
+    // state after deserialization.
+    private Object writeReplace() {
+        compactFully();
+        return this;
+    }
+
+    private Object readResolve() {
+        return new CompactingMealyTreeBuilder<>(this);
+    }
+
+    private static final class Record<S, I> {
+
+        private final S state;
+        private final Word<I> word;
+
+        Record(S state, Word<I> word) {
+            this.state = state;
+            this.word = word;
+        }
+    }
+
+    /**
+     * A node or an edge of one of the components.
+     */
+    private static final class Part {
+
+        private final int component;
+        private final Object value;
+
+        Part(int component, Object value) {
+            this.component = component;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Part)) {
+                return false;
+            }
+
+            final Part that = (Part) o;
+            return component == that.component && Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * component + Objects.hashCode(value);
+        }
+    }
+
+    /**
+     * A state of the combined transition system, i.e., a vector of (possibly undefined) component states.
+     */
+    private static final class HybridState {
+
+        private final @Nullable Object[] states;
+
+        HybridState(@Nullable Object[] states) {
+            this.states = states;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HybridState)) {
+                return false;
+            }
+
+            return Arrays.equals(states, ((HybridState) o).states);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(states);
+        }
+    }
+
+    private static final class HybridTransition<O> {
+
+        private final HybridState successor;
+        private final O output;
+
+        HybridTransition(HybridState successor, O output) {
+            this.successor = successor;
+            this.output = output;
+        }
+    }
+
+    private class UnionGraph implements Graph<Part, Part> {
+
+        private final List<Graph<?, ?>> graphs;
+
+        UnionGraph(List<IncrementalMealyBuilder<I, O>> components) {
+            this.graphs = new ArrayList<>(components.size());
+            for (IncrementalMealyBuilder<I, O> c : components) {
+                this.graphs.add(c.asGraph());
+            }
+        }
+
+        @Override
+        public Collection<Part> getNodes() {
+            final List<Part> result = new ArrayList<>();
+            final Lock readLock = dagLock.readLock();
+            readLock.lock();
+            try {
+                for (int i = 0; i < graphs.size(); i++) {
+                    for (Object n : graphs.get(i).getNodes()) {
+                        result.add(new Part(i, n));
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+            return result;
+        }
+
+        @Override
+        public Collection<Part> getOutgoingEdges(Part node) {
+            final Graph<Object, Object> graph = getGraph(node.component);
+            final List<Part> result = new ArrayList<>();
+            final Lock readLock = dagLock.readLock();
+            readLock.lock();
+            try {
+                for (Object e : graph.getOutgoingEdges(node.value)) {
+                    result.add(new Part(node.component, e));
+                }
+            } finally {
+                readLock.unlock();
+            }
+            return result;
+        }
+
+        @Override
+        public Part getTarget(Part edge) {
+            final Graph<Object, Object> graph = getGraph(edge.component);
+            final Lock readLock = dagLock.readLock();
+            readLock.lock();
+            try {
+                return new Part(edge.component, graph.getTarget(edge.value));
+            } finally {
+                readLock.unlock();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private Graph<Object, Object> getGraph(int component) {
+            return (Graph<Object, Object>) graphs.get(component);
+        }
+    }
+
+    private class UnionTransitionSystem implements MealyTransitionSystem<HybridState, I, HybridTransition<O>, O> {
+
+        private final List<MealyTransitionSystem<?, I, ?, O>> systems;
+
+        UnionTransitionSystem(List<MealyTransitionSystem<?, I, ?, O>> systems) {
+            this.systems = systems;
+        }
+
+        @Override
+        public HybridState getInitialState() {
+            final Object[] states = new Object[systems.size()];
+            final Lock readLock = dagLock.readLock();
+            readLock.lock();
+            try {
+                for (int i = 0; i < states.length; i++) {
+                    states[i] = getSystem(i).getInitialState();
+                }
+            } finally {
+                readLock.unlock();
+            }
+            return new HybridState(states);
+        }
+
+        @Override
+        @SuppressWarnings("nullness") // the output is only used if at least one component defines the transition
+        public @Nullable HybridTransition<O> getTransition(HybridState state, I input) {
+            final @Nullable Object[] succs = new Object[systems.size()];
+            O output = null;
+            boolean defined = false;
+
+            final Lock readLock = dagLock.readLock();
+            readLock.lock();
+            try {
+                for (int i = 0; i < succs.length; i++) {
+                    final Object s = state.states[i];
+                    if (s == null) {
+                        continue;
+                    }
+
+                    final MealyTransitionSystem<Object, I, Object, O> ts = getSystem(i);
+                    final Object trans = ts.getTransition(s, input);
+
+                    if (trans != null) {
+                        succs[i] = ts.getSuccessor(trans);
+                        if (!defined) {
+                            output = ts.getTransitionOutput(trans);
+                            defined = true;
+                        }
+                    }
+                }
+            } finally {
+                readLock.unlock();
+            }
+
+            return defined ? new HybridTransition<>(new HybridState(succs), output) : null;
+        }
+
+        @Override
+        public HybridState getSuccessor(HybridTransition<O> transition) {
+            return transition.successor;
+        }
+
+        @Override
+        public O getTransitionOutput(HybridTransition<O> transition) {
+            return transition.output;
+        }
+
+        @SuppressWarnings("unchecked")
+        private MealyTransitionSystem<Object, I, Object, O> getSystem(int component) {
+            return (MealyTransitionSystem<Object, I, Object, O>) systems.get(component);
+        }
+    }
+}
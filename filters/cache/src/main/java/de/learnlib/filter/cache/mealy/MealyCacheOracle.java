@@ -23,6 +23,8 @@ import java.util.Iterator;
 import java.util.List;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.DynamicSymbolComparator;
 import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
 import de.learnlib.filter.cache.ReverseLexCmp;
@@ -53,6 +55,10 @@ import org.slf4j.LoggerFactory;
  * reflected in the learned model, it is forced to result in a sink state with only a single repeating output symbol
  * (value in the mapping).
  * <p>
+ * By default, unanswered queries are forwarded to the delegate oracle one at a time and their answers are incorporated
+ * into the cache immediately. If the delegate is able to process multiple queries concurrently (e.g., a parallel
+ * oracle), consider enabling the batch mode via {@link #setBatchMode(boolean)}.
+ * <p>
  * <b>Note:</b> this implementation is <b>not</b> thread-safe. If you require a cache that is usable in a parallel
  * environment. use the {@code ThreadSafeMealyCacheOracle} (or rather the {@code ThreadSafeMealyCaches} factory) from
  * the {@code learnlib-parallelism} artifact.
@@ -63,7 +69,10 @@ import org.slf4j.LoggerFactory;
  *         output symbol class
  */
 public class MealyCacheOracle<I, O>
-        implements MealyLearningCacheOracle<I, O>, SupportsGrowingAlphabet<I>, Resumable<MealyCacheOracleState<I, O>> {
+        implements MealyLearningCacheOracle<I, O>,
+                   SupportsGrowingAlphabet<I>,
+                   CacheStatistics,
+                   Resumable<MealyCacheOracleState<I, O>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MealyCacheOracle.class);
 
@@ -71,6 +80,8 @@ public class MealyCacheOracle<I, O>
     private IncrementalMealyBuilder<I, O> incMealy;
     private final Comparator<? super Query<I, ?>> queryCmp;
     private final @Nullable Mapping<? super O, ? extends O> errorSyms;
+    private final CacheCounters counters;
+    private boolean batchMode;
 
     MealyCacheOracle(IncrementalMealyBuilder<I, O> incrementalBuilder,
                      @Nullable Mapping<? super O, ? extends O> errorSyms,
@@ -85,6 +96,7 @@ public class MealyCacheOracle<I, O>
         this.incMealy = incrementalBuilder;
         this.queryCmp = new ReverseLexCmp<>(comparator);
         this.errorSyms = errorSyms;
+        this.counters = new CacheCounters();
         this.delegate = delegate;
     }
 
@@ -103,10 +115,22 @@ public class MealyCacheOracle<I, O>
         qrys.sort(queryCmp);
 
         List<MasterQuery<I, O>> masterQueries = queryCache(qrys);
-        for (MasterQuery<I, O> query : masterQueries) {
-            delegate.processQuery(query);
-            updateCache(Collections.singleton(query));
-        }
+        processMisses(masterQueries);
+    }
+
+    /**
+     * Sets whether cache misses should be forwarded to the delegate oracle in a single batch. If enabled, all queries
+     * of a {@link #processQueries(Collection) processQueries} call that cannot be answered by the cache are passed to
+     * the delegate oracle at once and the cache is updated only after all of them have been answered. This allows
+     * delegates such as parallel oracles to process the cache misses concurrently, but defers the integration of new
+     * information into the cache until the whole batch has been processed.
+     *
+     * @param batchMode
+     *         {@code true} if cache misses should be forwarded in a single batch, {@code false} if they should be
+     *         forwarded (and integrated into the cache) one at a time
+     */
+    public void setBatchMode(boolean batchMode) {
+        this.batchMode = batchMode;
     }
 
     @Override
@@ -134,6 +158,39 @@ public class MealyCacheOracle<I, O>
         this.incMealy = state.getBuilder();
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return incMealy.asGraph().size();
+    }
+
+    boolean isBatchMode() {
+        return batchMode;
+    }
+
+    void processMisses(List<MasterQuery<I, O>> masterQueries) {
+        if (batchMode) {
+            if (!masterQueries.isEmpty()) {
+                delegate.processQueries(masterQueries);
+                updateCache(masterQueries);
+            }
+        } else {
+            for (MasterQuery<I, O> query : masterQueries) {
+                delegate.processQuery(query);
+                updateCache(Collections.singleton(query));
+            }
+        }
+    }
+
+    @Nullable Word<O> lookupCache(Word<I> word) {
+        final WordBuilder<O> wb = new WordBuilder<>(word.size());
+        return incMealy.lookup(word, wb) ? wb.toWord() : null;
+    }
+
     List<MasterQuery<I, O>> queryCache(Collection<? extends Query<I, Word<O>>> queries) {
         List<MasterQuery<I, O>> masterQueries = new ArrayList<>();
 
@@ -155,6 +212,8 @@ public class MealyCacheOracle<I, O>
                 if (!master.isAnswered()) {
                     masterQueries.add(master);
                 }
+            } else {
+                counters.recordHit(curr.length());
             }
 
             master.addSlave(q);
@@ -167,7 +226,19 @@ public class MealyCacheOracle<I, O>
     }
 
     private MasterQuery<I, O> createMasterQuery(Word<I> word) {
-        WordBuilder<O> wb = new WordBuilder<>(word.size());
+        final WordBuilder<O> wb = new WordBuilder<>(word.size());
+        final MasterQuery<I, O> master = lookupMasterQuery(word, wb);
+
+        if (master.isAnswered()) {
+            counters.recordHit(word.length());
+        } else {
+            counters.recordMiss(word.length(), wb.size());
+        }
+
+        return master;
+    }
+
+    private MasterQuery<I, O> lookupMasterQuery(Word<I> word, WordBuilder<O> wb) {
         if (incMealy.lookup(word, wb)) {
             return new MasterQuery<>(word, wb.toWord());
         }
@@ -15,10 +15,13 @@
  */
 package de.learnlib.filter.cache.mealy;
 
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicy;
 import de.learnlib.oracle.MembershipOracle;
 import de.learnlib.oracle.SymbolQueryOracle;
 import net.automatalib.alphabet.Alphabet;
 import net.automatalib.common.util.mapping.Mapping;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.incremental.mealy.dag.IncrementalMealyDAGBuilder;
 import net.automatalib.incremental.mealy.tree.DynamicIncrementalMealyTreeBuilder;
 import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
@@ -51,6 +54,28 @@ public final class MealyCaches {
         return createDAGCache(alphabet, mqOracle);
     }
 
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using the given builder for internal cache
+     * organization. This allows to seed the cache with previously collected information, e.g. via a
+     * {@link MealyTraceLoader}.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     * @param cacheBuilder
+     *         the (possibly pre-populated) builder to be used by the cache oracle
+     *
+     * @return a Mealy learning cache based on the given builder
+     *
+     * @see MealyTraceLoader
+     */
+    public static <I, O> MealyCacheOracle<I, O> createCache(Alphabet<I> alphabet,
+                                                            MembershipOracle<I, Word<O>> mqOracle,
+                                                            IncrementalMealyBuilder<I, O> cacheBuilder) {
+        return new MealyCacheOracle<>(cacheBuilder, null, mqOracle, alphabet);
+    }
+
     /**
      * Creates a cache oracle for a Mealy machine learning setup, using a DAG for internal cache organization.
      *
@@ -143,6 +168,92 @@ public final class MealyCaches {
         return new MealyCacheOracle<>(new IncrementalMealyTreeBuilder<>(alphabet), errorSyms, mqOracle, alphabet);
     }
 
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a tree with bounded memory consumption for
+     * internal cache organization.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     * @param budget
+     *         the budget of the cache
+     * @param policy
+     *         the policy which determines the order in which cache entries are evicted
+     *
+     * @return a Mealy learning cache with a bounded tree-based implementation
+     *
+     * @see BoundedMealyTreeBuilder
+     */
+    public static <I, O> MealyCacheOracle<I, O> createBoundedTreeCache(Alphabet<I> alphabet,
+                                                                       MembershipOracle<I, Word<O>> mqOracle,
+                                                                       CacheBudget budget,
+                                                                       EvictionPolicy policy) {
+        return createBoundedTreeCache(alphabet, mqOracle, new BoundedMealyTreeBuilder<>(alphabet, budget, policy));
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a tree with bounded memory consumption for
+     * internal cache organization. The given builder can be used to inspect the eviction statistics of the cache.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     * @param cacheBuilder
+     *         the bounded builder to be used by the cache oracle
+     *
+     * @return a Mealy learning cache with a bounded tree-based implementation
+     *
+     * @see BoundedMealyTreeBuilder
+     */
+    public static <I, O> MealyCacheOracle<I, O> createBoundedTreeCache(Alphabet<I> alphabet,
+                                                                       MembershipOracle<I, Word<O>> mqOracle,
+                                                                       BoundedMealyTreeBuilder<I, O> cacheBuilder) {
+        return new MealyCacheOracle<>(cacheBuilder, null, mqOracle, alphabet);
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a tree for internal cache organization whose
+     * content is periodically folded into a minimized DAG on a background thread.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a hybrid tree/DAG-based implementation
+     *
+     * @see CompactingMealyTreeBuilder
+     */
+    public static <I, O> MealyCacheOracle<I, O> createCompactingTreeCache(Alphabet<I> alphabet,
+                                                                          MembershipOracle<I, Word<O>> mqOracle) {
+        return createCompactingTreeCache(alphabet, mqOracle, new CompactingMealyTreeBuilder<>(alphabet));
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a tree for internal cache organization whose
+     * content is periodically folded into a minimized DAG on a background thread. The given builder can be used to
+     * configure the compaction threshold and the executor of the compaction.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     * @param cacheBuilder
+     *         the compacting builder to be used by the cache oracle
+     *
+     * @return a Mealy learning cache with a hybrid tree/DAG-based implementation
+     *
+     * @see CompactingMealyTreeBuilder
+     */
+    public static <I, O> MealyCacheOracle<I, O> createCompactingTreeCache(
+            Alphabet<I> alphabet,
+            MembershipOracle<I, Word<O>> mqOracle,
+            CompactingMealyTreeBuilder<I, O> cacheBuilder) {
+        return new MealyCacheOracle<>(cacheBuilder, null, mqOracle, alphabet);
+    }
+
     /**
      * Creates a cache oracle for a Mealy machine learning setup with a dynamic alphabet storage, using a tree for
      * internal cache organization.
@@ -184,6 +295,51 @@ public final class MealyCaches {
         return new MealyCacheOracle<>(new DynamicIncrementalMealyTreeBuilder<>(), errorSyms, mqOracle);
     }
 
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a memory-mapped file for internal cache
+     * organization. The cached information survives restarts of the JVM and may be shared with other processes.
+     * <p>
+     * Note: the given builder is owned by the caller, who is responsible for closing it once the cache is no longer
+     * used.
+     *
+     * @param alphabet
+     *         the input alphabet
+     * @param mqOracle
+     *         the membership oracle
+     * @param cacheBuilder
+     *         the (opened) persistent builder to be used by the cache oracle
+     *
+     * @return a Mealy learning cache with a persistent, tree-based implementation
+     *
+     * @see PersistentMealyTreeBuilder
+     */
+    public static <I, O> MealyCacheOracle<I, O> createPersistentCache(Alphabet<I> alphabet,
+                                                                      MembershipOracle<I, Word<O>> mqOracle,
+                                                                      PersistentMealyTreeBuilder<I, O> cacheBuilder) {
+        return new MealyCacheOracle<>(cacheBuilder, null, mqOracle, alphabet);
+    }
+
+    /**
+     * Creates a cache oracle for a Mealy machine learning setup, using a compact hash table of bit-packed words for
+     * internal cache organization.
+     *
+     * @param inputAlphabet
+     *         the input alphabet
+     * @param outputAlphabet
+     *         the output alphabet, which must contain all outputs of the membership oracle
+     * @param mqOracle
+     *         the membership oracle
+     *
+     * @return a Mealy learning cache with a compact hash-based implementation
+     *
+     * @see MealyPackedHashCacheOracle
+     */
+    public static <I, O> MealyPackedHashCacheOracle<I, O> createPackedHashCache(Alphabet<I> inputAlphabet,
+                                                                                Alphabet<O> outputAlphabet,
+                                                                                MembershipOracle<I, Word<O>> mqOracle) {
+        return new MealyPackedHashCacheOracle<>(inputAlphabet, outputAlphabet, mqOracle);
+    }
+
     /**
      * Creates a cache oracle for a symbol-based Mealy machine learning setup, using a tree for internal cache
      * organization.
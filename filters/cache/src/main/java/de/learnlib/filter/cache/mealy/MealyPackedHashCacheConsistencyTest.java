@@ -0,0 +1,65 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.Collection;
+
+import de.learnlib.filter.cache.PackedWordTable;
+import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.query.DefaultQuery;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+final class MealyPackedHashCacheConsistencyTest<I, O> implements MealyEquivalenceOracle<I, O> {
+
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final PackedWordTable cache;
+
+    MealyPackedHashCacheConsistencyTest(Alphabet<I> inputAlphabet,
+                                        Alphabet<O> outputAlphabet,
+                                        PackedWordTable cache) {
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.cache = cache;
+    }
+
+    @Override
+    public @Nullable DefaultQuery<I, Word<O>> findCounterExample(MealyMachine<?, I, ?, O> hypothesis,
+                                                                 Collection<? extends I> inputs) {
+        for (int entry = 0; entry < cache.size(); entry++) {
+            final int length = cache.getLength(entry);
+            final WordBuilder<I> inputBuilder = new WordBuilder<>(length);
+            final WordBuilder<O> outputBuilder = new WordBuilder<>(length);
+
+            for (int i = 0; i < length; i++) {
+                inputBuilder.append(inputAlphabet.getSymbol(cache.getSymbol(entry, i)));
+                outputBuilder.append(outputAlphabet.getSymbol(cache.getPayloadSymbol(entry, i)));
+            }
+
+            final Word<I> input = inputBuilder.toWord();
+            final Word<O> output = outputBuilder.toWord();
+
+            if (!hypothesis.computeOutput(input).equals(output)) {
+                return new DefaultQuery<>(input, output);
+            }
+        }
+        return null;
+    }
+}
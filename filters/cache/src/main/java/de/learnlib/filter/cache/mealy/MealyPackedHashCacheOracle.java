@@ -0,0 +1,197 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
+import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
+import de.learnlib.filter.cache.PackedWordTable;
+import de.learnlib.filter.cache.mealy.MealyPackedHashCacheOracle.MealyPackedHashCacheOracleState;
+import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.Query;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * A {@link MealyLearningCacheOracle} that uses a {@link PackedWordTable} for internal cache organization. Input words
+ * and their outputs are stored as bit-packed sequences of alphabet indices, which drastically reduces the memory
+ * consumption per cached query compared to storing {@link Word} objects.
+ * <p>
+ * Unlike the tree-based caches (see {@link MealyCaches}), this cache only answers queries whose input word exactly
+ * matches a previously cached query. Since the packing depends on the sizes of the input and output alphabet, this
+ * cache does not support growing alphabets and all outputs of the delegate oracle must be contained in the output
+ * alphabet.
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class MealyPackedHashCacheOracle<I, O>
+        implements MealyLearningCacheOracle<I, O>, CacheStatistics, Resumable<MealyPackedHashCacheOracleState> {
+
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final MembershipOracle<I, Word<O>> delegate;
+    private PackedWordTable cache;
+    private int[] inputBuffer;
+    private int[] outputBuffer;
+    private final CacheCounters counters;
+
+    MealyPackedHashCacheOracle(Alphabet<I> inputAlphabet,
+                               Alphabet<O> outputAlphabet,
+                               MembershipOracle<I, Word<O>> delegate) {
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.delegate = delegate;
+        this.cache = new PackedWordTable(inputAlphabet.size(), outputAlphabet.size());
+        this.inputBuffer = new int[0];
+        this.outputBuffer = new int[0];
+        this.counters = new CacheCounters();
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return new MealyPackedHashCacheConsistencyTest<>(inputAlphabet, outputAlphabet, cache);
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        final List<MasterQuery<I, O>> misses = new ArrayList<>();
+        final PackedWordTable batchCache = new PackedWordTable(inputAlphabet.size());
+
+        for (Query<I, Word<O>> qry : queries) {
+            final Word<I> input = qry.getInput();
+            final int length = input.length();
+            final long hash = encodeInput(input);
+            final int entry = cache.find(inputBuffer, length, hash);
+
+            if (entry != PackedWordTable.NO_ENTRY) {
+                final int start = qry.getPrefix().length();
+                qry.answer(decodeOutput(entry, start, start + qry.getSuffix().length()));
+                counters.recordHit(length);
+            } else {
+                final int batchEntry = batchCache.find(inputBuffer, length, hash);
+                final MasterQuery<I, O> master;
+
+                if (batchEntry == PackedWordTable.NO_ENTRY) { // never seen before
+                    master = new MasterQuery<>(input);
+                    batchCache.insert(inputBuffer, length, hash, misses.size(), null);
+                    misses.add(master);
+                    counters.recordMiss(length, 0);
+                } else {
+                    master = misses.get(batchCache.getValue(batchEntry));
+                    counters.recordHit(length);
+                }
+
+                master.addSlave(qry);
+            }
+        }
+
+        delegate.processQueries(misses);
+
+        for (MasterQuery<I, O> miss : misses) {
+            final int length = miss.getInput().length();
+            final long hash = encodeInput(miss.getInput());
+            encodeOutput(miss.getAnswer());
+            cache.insert(inputBuffer, length, hash, 0, outputBuffer);
+        }
+    }
+
+    /**
+     * Encodes the given word into the input buffer and returns its hash, which is computed along the way.
+     */
+    private long encodeInput(Word<I> word) {
+        final int length = word.length();
+
+        if (inputBuffer.length < length) {
+            inputBuffer = new int[Math.max(length, 2 * inputBuffer.length)];
+        }
+
+        long hash = PackedWordTable.EMPTY_HASH;
+        for (int i = 0; i < length; i++) {
+            final int idx = inputAlphabet.getSymbolIndex(word.getSymbol(i));
+            inputBuffer[i] = idx;
+            hash = PackedWordTable.extendHash(hash, idx);
+        }
+
+        return hash;
+    }
+
+    private void encodeOutput(Word<O> word) {
+        final int length = word.length();
+
+        if (outputBuffer.length < length) {
+            outputBuffer = new int[Math.max(length, 2 * outputBuffer.length)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            outputBuffer[i] = outputAlphabet.getSymbolIndex(word.getSymbol(i));
+        }
+    }
+
+    private Word<O> decodeOutput(int entry, int start, int end) {
+        final WordBuilder<O> wb = new WordBuilder<>(end - start);
+
+        for (int i = start; i < end; i++) {
+            wb.append(outputAlphabet.getSymbol(cache.getPayloadSymbol(entry, i)));
+        }
+
+        return wb.toWord();
+    }
+
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return cache.size();
+    }
+
+    @Override
+    public MealyPackedHashCacheOracleState suspend() {
+        return new MealyPackedHashCacheOracleState(cache);
+    }
+
+    @Override
+    public void resume(MealyPackedHashCacheOracleState state) {
+        this.cache = state.getCache();
+    }
+
+    public static class MealyPackedHashCacheOracleState {
+
+        private final PackedWordTable cache;
+
+        public MealyPackedHashCacheOracleState(PackedWordTable cache) {
+            this.cache = cache;
+        }
+
+        public PackedWordTable getCache() {
+            return cache;
+        }
+    }
+}
@@ -0,0 +1,595 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.learnlib.query.DefaultQuery;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+
+/**
+ * A utility class for seeding an {@link IncrementalMealyBuilder} (and therefore the caches based on it, see e.g.
+ * {@link MealyCaches#createCache(Alphabet, de.learnlib.oracle.MembershipOracle, IncrementalMealyBuilder)}) with
+ * previously recorded input/output traces, without replaying them on the system under learning.
+ * <p>
+ * Traces can be read from two formats:
+ * <ul>
+ *     <li>a compact binary format (see {@link #writeBinary(Path, Collection)}) which stores each symbol by its index
+ *     in the respective alphabet, using as few bytes per symbol as the alphabet sizes permit, and</li>
+ *     <li>a plain text format which contains one trace per line. The symbols of a trace are separated by
+ *     {@value #SYMBOL_DELIMITER} and the input word is separated from the output word by {@value #WORD_DELIMITER},
+ *     e.g. {@code a,b,c;1,2,3}. Symbols are identified by their {@link Object#toString() string representation}.
+ *     Empty lines and lines starting with {@value #COMMENT} are ignored.</li>
+ * </ul>
+ * Before insertion, the traces are sorted lexicographically (by their alphabet indices), so that they are inserted in
+ * prefix order and traces that are prefixes of other traces only need to be compared with them. Traces that conflict
+ * with each other or with the information already stored in the builder do not abort the loading process but are
+ * reported in the returned {@link LoadResult}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class MealyTraceLoader<I, O> {
+
+    public static final String WORD_DELIMITER = ";";
+    public static final String SYMBOL_DELIMITER = ",";
+    public static final String COMMENT = "#";
+
+    private static final int MAGIC = 0x4C4C5452; // "LLTR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final int symbolWidth;
+
+    public MealyTraceLoader(Alphabet<I> inputAlphabet, Alphabet<O> outputAlphabet) {
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.symbolWidth = getSymbolWidth(Math.max(inputAlphabet.size(), outputAlphabet.size()));
+    }
+
+    /**
+     * Loads the traces of the given (binary) file into the given builder.
+     *
+     * @param file
+     *         the file containing the traces in binary format
+     * @param builder
+     *         the builder to insert the traces into
+     *
+     * @return the result of the loading process
+     *
+     * @throws IOException
+     *         if the file cannot be read or is not a valid trace file for the alphabets of this loader
+     */
+    public LoadResult<I> loadBinary(Path file, IncrementalMealyBuilder<I, O> builder) throws IOException {
+        return insert(readBinary(file), builder);
+    }
+
+    /**
+     * Loads the traces of the given (text) file into the given builder.
+     *
+     * @param file
+     *         the file containing the traces in text format
+     * @param builder
+     *         the builder to insert the traces into
+     *
+     * @return the result of the loading process
+     *
+     * @throws IOException
+     *         if the file cannot be read or contains malformed traces
+     */
+    public LoadResult<I> loadText(Path file, IncrementalMealyBuilder<I, O> builder) throws IOException {
+        return insert(readText(file), builder);
+    }
+
+    /**
+     * Writes the given traces to the given file in binary format. The input and the output of each trace must be of
+     * equal length.
+     *
+     * @param file
+     *         the file to write to
+     * @param traces
+     *         the traces to write
+     *
+     * @throws IOException
+     *         if the file cannot be written
+     */
+    public void writeBinary(Path file, Collection<? extends DefaultQuery<I, Word<O>>> traces) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(inputAlphabet.size()).putInt(outputAlphabet.size());
+
+            for (DefaultQuery<I, Word<O>> trace : traces) {
+                final Word<I> input = trace.getInput();
+                final Word<O> output = getOutput(trace);
+
+                ensureCapacity(channel, buffer, Integer.BYTES);
+                buffer.putInt(input.length());
+
+                for (I i : input) {
+                    ensureCapacity(channel, buffer, symbolWidth);
+                    putSymbol(buffer, inputAlphabet.getSymbolIndex(i));
+                }
+                for (O o : output) {
+                    ensureCapacity(channel, buffer, symbolWidth);
+                    putSymbol(buffer, outputAlphabet.getSymbolIndex(o));
+                }
+            }
+
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the given traces to the given file in text format. The input and the output of each trace must be of
+     * equal length.
+     *
+     * @param file
+     *         the file to write to
+     * @param traces
+     *         the traces to write
+     *
+     * @throws IOException
+     *         if the file cannot be written
+     */
+    public void writeText(Path file, Collection<? extends DefaultQuery<I, Word<O>>> traces) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                                                    StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.name()))) {
+
+            for (DefaultQuery<I, Word<O>> trace : traces) {
+                final Word<O> output = getOutput(trace);
+                writer.write(toString(trace.getInput()));
+                writer.write(WORD_DELIMITER);
+                writer.write(toString(output));
+                writer.newLine();
+            }
+        }
+    }
+
+    private List<int[]> readBinary(Path file) throws IOException {
+        final List<int[]> result = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            buffer.flip();
+
+            if (!fill(channel, buffer, HEADER_SIZE) || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("'" + file + "' is not a valid trace file");
+            }
+
+            final int numInputs = buffer.getInt();
+            final int numOutputs = buffer.getInt();
+
+            if (numInputs != inputAlphabet.size() || numOutputs != outputAlphabet.size()) {
+                throw new IOException("'" + file + "' contains traces for " + numInputs + " input symbols and " +
+                                      numOutputs + " output symbols, but the alphabets contain " +
+                                      inputAlphabet.size() + " and " + outputAlphabet.size() + " symbols");
+            }
+
+            // each trace symbol occupies at least one byte, which bounds the maximum valid trace length
+            final long maxLength = channel.size() / (2L * symbolWidth);
+
+            while (fill(channel, buffer, Integer.BYTES)) {
+                final int length = buffer.getInt();
+
+                if (length < 0 || length > maxLength) {
+                    throw new IOException("'" + file + "' contains an invalid trace length: " + length);
+                }
+
+                final int[] trace = new int[2 * length];
+
+                for (int i = 0; i < trace.length; i++) {
+                    if (!fill(channel, buffer, symbolWidth)) {
+                        throw new EOFException("'" + file + "' ends within a trace");
+                    }
+                    trace[i] = getSymbol(buffer);
+                }
+
+                validate(trace, file);
+                result.add(trace);
+            }
+        }
+
+        return result;
+    }
+
+    private List<int[]> readText(Path file) throws IOException {
+        final Map<String, Integer> inputIndices = getIndexMap(inputAlphabet);
+        final Map<String, Integer> outputIndices = getIndexMap(outputAlphabet);
+        final List<int[]> result = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8.name()))) {
+
+            String line;
+            int lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+
+                if (line.isEmpty() || line.startsWith(COMMENT)) {
+                    continue;
+                }
+
+                final int delimiterIdx = line.indexOf(WORD_DELIMITER);
+                if (delimiterIdx < 0) {
+                    throw new IOException("Missing '" + WORD_DELIMITER + "' in line " + lineNumber + " of '" + file +
+                                          "'");
+                }
+
+                final String[] inputs = split(line.substring(0, delimiterIdx));
+                final String[] outputs = split(line.substring(delimiterIdx + 1));
+
+                if (inputs.length != outputs.length) {
+                    throw new IOException("Lengths of input and output word do not match in line " + lineNumber +
+                                          " of '" + file + "'");
+                }
+
+                final int[] trace = new int[2 * inputs.length];
+                for (int i = 0; i < inputs.length; i++) {
+                    trace[i] = getIndex(inputIndices, inputs[i], lineNumber, file);
+                    trace[inputs.length + i] = getIndex(outputIndices, outputs[i], lineNumber, file);
+                }
+
+                result.add(trace);
+            }
+        }
+
+        return result;
+    }
+
+    private LoadResult<I> insert(List<int[]> traces, IncrementalMealyBuilder<I, O> builder) {
+        traces.sort(TraceComparator.INSTANCE);
+
+        final List<Word<I>> conflicts = new ArrayList<>();
+        final List<int[]> pendingPrefixes = new ArrayList<>();
+        int inserted = 0;
+
+        for (int i = 0; i < traces.size(); i++) {
+            final int[] trace = traces.get(i);
+
+            // a trace that is a prefix of its successor is covered by the successor's insertion (if it succeeds)
+            if (i + 1 < traces.size()) {
+                final int[] next = traces.get(i + 1);
+                if (isInputPrefix(trace, next)) {
+                    if (isOutputPrefix(trace, next)) {
+                        pendingPrefixes.add(trace);
+                    } else {
+                        conflicts.add(decodeInput(trace));
+                    }
+                    continue;
+                }
+            }
+
+            if (insert(trace, builder)) {
+                inserted++;
+            } else {
+                // the skipped prefixes may contain information that has not been inserted (or conflicts as well)
+                for (int[] prefix : pendingPrefixes) {
+                    if (insert(prefix, builder)) {
+                        inserted++;
+                    } else {
+                        conflicts.add(decodeInput(prefix));
+                    }
+                }
+                conflicts.add(decodeInput(trace));
+            }
+
+            pendingPrefixes.clear();
+        }
+
+        return new LoadResult<>(traces.size(), inserted, conflicts);
+    }
+
+    private boolean insert(int[] trace, IncrementalMealyBuilder<I, O> builder) {
+        try {
+            builder.insert(decodeInput(trace), decodeOutput(trace));
+            return true;
+        } catch (ConflictException e) {
+            return false;
+        }
+    }
+
+    private Word<I> decodeInput(int[] trace) {
+        final int length = trace.length / 2;
+        final WordBuilder<I> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.append(inputAlphabet.getSymbol(trace[i]));
+        }
+        return wb.toWord();
+    }
+
+    private Word<O> decodeOutput(int[] trace) {
+        final int length = trace.length / 2;
+        final WordBuilder<O> wb = new WordBuilder<>(length);
+        for (int i = length; i < trace.length; i++) {
+            wb.append(outputAlphabet.getSymbol(trace[i]));
+        }
+        return wb.toWord();
+    }
+
+    private void validate(int[] trace, Path file) throws IOException {
+        final int length = trace.length / 2;
+        for (int i = 0; i < trace.length; i++) {
+            final int size = i < length ? inputAlphabet.size() : outputAlphabet.size();
+            if (trace[i] < 0 || trace[i] >= size) {
+                throw new IOException("'" + file + "' contains an invalid symbol index: " + trace[i]);
+            }
+        }
+    }
+
+    private void putSymbol(ByteBuffer buffer, int index) {
+        switch (symbolWidth) {
+            case Byte.BYTES:
+                buffer.put((byte) index);
+                break;
+            case Short.BYTES:
+                buffer.putShort((short) index);
+                break;
+            default:
+                buffer.putInt(index);
+                break;
+        }
+    }
+
+    private int getSymbol(ByteBuffer buffer) {
+        switch (symbolWidth) {
+            case Byte.BYTES:
+                return Byte.toUnsignedInt(buffer.get());
+            case Short.BYTES:
+                return Short.toUnsignedInt(buffer.getShort());
+            default:
+                return buffer.getInt();
+        }
+    }
+
+    private static <O> Word<O> getOutput(DefaultQuery<?, Word<O>> trace) {
+        final Word<O> output = trace.getOutput();
+
+        if (output == null || output.length() != trace.getInput().length()) {
+            throw new IllegalArgumentException("Lengths of input and output word do not match: " + trace);
+        }
+
+        return output;
+    }
+
+    private static int getSymbolWidth(int alphabetSize) {
+        if (alphabetSize <= 1 << Byte.SIZE) {
+            return Byte.BYTES;
+        } else if (alphabetSize <= 1 << Short.SIZE) {
+            return Short.BYTES;
+        }
+        return Integer.BYTES;
+    }
+
+    private static void ensureCapacity(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Makes sure that (at least) the given number of bytes can be read from the buffer (which is in read mode).
+     *
+     * @return {@code true} if the bytes are available, {@code false} if the end of the channel has been reached before
+     */
+    private static boolean fill(FileChannel channel, ByteBuffer buffer, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return true;
+        }
+
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                buffer.flip();
+                return false;
+            }
+        }
+        buffer.flip();
+        return true;
+    }
+
+    private static boolean isInputPrefix(int[] trace, int[] other) {
+        final int length = trace.length / 2;
+        final int otherLength = other.length / 2;
+
+        if (length > otherLength) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (trace[i] != other[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isOutputPrefix(int[] trace, int[] other) {
+        final int length = trace.length / 2;
+        final int otherLength = other.length / 2;
+
+        for (int i = 0; i < length; i++) {
+            if (trace[length + i] != other[otherLength + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static <S> Map<String, Integer> getIndexMap(Alphabet<S> alphabet) {
+        final Map<String, Integer> result = new HashMap<>();
+
+        for (S symbol : alphabet) {
+            final String name = Objects.toString(symbol);
+            if (result.put(name, alphabet.getSymbolIndex(symbol)) != null) {
+                throw new IllegalArgumentException("Symbol name '" + name + "' is used more than once in alphabet");
+            }
+        }
+
+        return result;
+    }
+
+    private static int getIndex(Map<String, Integer> indices, String name, int lineNumber, Path file)
+            throws IOException {
+        final Integer index = indices.get(name);
+
+        if (index == null) {
+            throw new IOException("Unknown symbol '" + name + "' in line " + lineNumber + " of '" + file + "'");
+        }
+
+        return index;
+    }
+
+    private static String[] split(String word) {
+        final String trimmed = word.trim();
+        if (trimmed.isEmpty()) {
+            return new String[0];
+        }
+
+        final String[] result = trimmed.split(SYMBOL_DELIMITER);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = result[i].trim();
+        }
+        return result;
+    }
+
+    private static String toString(Word<?> word) {
+        final StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < word.length(); i++) {
+            if (i > 0) {
+                sb.append(SYMBOL_DELIMITER);
+            }
+            sb.append(word.getSymbol(i));
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Lexicographically compares (the inputs of) two encoded traces. Prefixes are ordered before their extensions.
+     */
+    private enum TraceComparator implements Comparator<int[]> {
+        INSTANCE;
+
+        @Override
+        public int compare(int[] t1, int[] t2) {
+            final int l1 = t1.length / 2;
+            final int l2 = t2.length / 2;
+            final int min = Math.min(l1, l2);
+
+            for (int i = 0; i < min; i++) {
+                final int cmp = Integer.compare(t1[i], t2[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+
+            return Integer.compare(l1, l2);
+        }
+    }
+
+    /**
+     * The result of loading traces into a builder.
+     *
+     * @param <I>
+     *         input symbol type
+     */
+    public static final class LoadResult<I> {
+
+        private final int numTraces;
+        private final int numInserted;
+        private final List<Word<I>> conflicts;
+
+        LoadResult(int numTraces, int numInserted, List<Word<I>> conflicts) {
+            this.numTraces = numTraces;
+            this.numInserted = numInserted;
+            this.conflicts = Collections.unmodifiableList(conflicts);
+        }
+
+        /**
+         * Returns the number of traces that have been read.
+         *
+         * @return the number of traces
+         */
+        public int getNumTraces() {
+            return numTraces;
+        }
+
+        /**
+         * Returns the number of traces that have been inserted into the builder. Traces that are prefixes of other
+         * traces are not inserted explicitly.
+         *
+         * @return the number of inserted traces
+         */
+        public int getNumInserted() {
+            return numInserted;
+        }
+
+        /**
+         * Returns the input words of the traces that conflicted with other traces or with the information already
+         * stored in the builder.
+         *
+         * @return the input words of the conflicting traces
+         */
+        public List<Word<I>> getConflicts() {
+            return conflicts;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import de.learnlib.filter.cache.PersistentTrie;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A tree-based {@link IncrementalMealyBuilder} whose data is stored in a memory-mapped file (see
+ * {@link PersistentTrie}). The cached information survives restarts of the JVM and can be shared (read-only) by
+ * several processes on the same host.
+ * <p>
+ * Output symbols are stored by their index in the given output alphabet, hence every inserted output symbol must be
+ * contained in the output alphabet. Since the file layout depends on the size of the input alphabet, the alphabets
+ * must not change between different runs.
+ * <p>
+ * If the builder is opened in read-only mode, insertions of new information are silently discarded (conflicts with
+ * existing information are still reported).
+ * <p>
+ * <b>Note:</b> this implementation is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class PersistentMealyTreeBuilder<I, O>
+        implements IncrementalMealyBuilder<I, O>, InputAlphabetHolder<I>, Closeable, Flushable {
+
+    // 0 is reserved for the root which has no output
+    private static final int NO_OUTPUT = 0;
+
+    private final Alphabet<I> inputAlphabet;
+    private final Alphabet<O> outputAlphabet;
+    private final PersistentTrie trie;
+
+    public PersistentMealyTreeBuilder(Path file, Alphabet<I> inputAlphabet, Alphabet<O> outputAlphabet)
+            throws IOException {
+        this(file, inputAlphabet, outputAlphabet, false);
+    }
+
+    public PersistentMealyTreeBuilder(Path file,
+                                      Alphabet<I> inputAlphabet,
+                                      Alphabet<O> outputAlphabet,
+                                      boolean readOnly) throws IOException {
+        this.inputAlphabet = inputAlphabet;
+        this.outputAlphabet = outputAlphabet;
+        this.trie = readOnly ?
+                PersistentTrie.openReadOnly(file, inputAlphabet.size()) :
+                PersistentTrie.open(file, inputAlphabet.size());
+    }
+
+    @Override
+    public boolean lookup(Word<? extends I> word, List<? super O> output) {
+        int curr = PersistentTrie.ROOT;
+
+        for (I sym : word) {
+            final int succ = trie.getSuccessor(curr, inputAlphabet.getSymbolIndex(sym));
+
+            if (succ == PersistentTrie.NO_NODE) {
+                return false;
+            }
+
+            output.add(getNodeOutput(succ));
+            curr = succ;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void insert(Word<? extends I> input, Word<? extends O> outputWord) {
+        if (input.length() != outputWord.length()) {
+            throw new IllegalArgumentException("Lengths of input and output word do not match");
+        }
+
+        int curr = PersistentTrie.ROOT;
+
+        for (int i = 0; i < input.length(); i++) {
+            final int idx = inputAlphabet.getSymbolIndex(input.getSymbol(i));
+            final O out = outputWord.getSymbol(i);
+            final int succ = trie.getSuccessor(curr, idx);
+
+            if (succ == PersistentTrie.NO_NODE) {
+                if (trie.isReadOnly()) {
+                    return;
+                }
+                curr = trie.addSuccessor(curr, idx, outputAlphabet.getSymbolIndex(out) + 1);
+            } else {
+                final O succOut = getNodeOutput(succ);
+                if (!Objects.equals(succOut, out)) {
+                    throw new ConflictException(
+                            "Error inserting " + input.prefix(i + 1) + " / " + outputWord.prefix(i + 1) +
+                            ": Incompatible output symbols: " + out + " vs " + succOut);
+                }
+                curr = succ;
+            }
+        }
+    }
+
+    /**
+     * Adding new alphabet symbols is not supported, because the file layout depends on the size of the input alphabet.
+     * Symbols that are already contained in the input alphabet are silently ignored.
+     *
+     * @param symbol
+     *         the symbol to add
+     *
+     * @throws UnsupportedOperationException
+     *         if the symbol is not contained in the input alphabet
+     */
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            throw new UnsupportedOperationException("Persistent caches do not support growing alphabets");
+        }
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(MealyMachine<?, I, ?, O> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        return doFindSeparatingWord(target, inputs, omitUndefined);
+    }
+
+    private <S, T> @Nullable Word<I> doFindSeparatingWord(MealyMachine<S, I, T, O> target,
+                                                          Collection<? extends I> inputs,
+                                                          boolean omitUndefined) {
+        final S init = target.getInitialState();
+
+        if (init == null) {
+            return omitUndefined ? null : Word.epsilon();
+        }
+
+        final Deque<Record<S, I>> dfsStack = new ArrayDeque<>();
+        dfsStack.push(new Record<>(init, PersistentTrie.ROOT, null, inputs.iterator()));
+
+        while (!dfsStack.isEmpty()) {
+            final Record<S, I> rec = dfsStack.peek();
+
+            if (!rec.inputIt.hasNext()) {
+                dfsStack.pop();
+                continue;
+            }
+
+            final I input = rec.inputIt.next();
+            final int succ = trie.getSuccessor(rec.treeNode, inputAlphabet.getSymbolIndex(input));
+
+            if (succ == PersistentTrie.NO_NODE) {
+                continue;
+            }
+
+            final T trans = target.getTransition(rec.automatonState, input);
+
+            if (omitUndefined && trans == null) {
+                continue;
+            }
+
+            if (trans == null || !Objects.equals(target.getTransitionOutput(trans), getNodeOutput(succ))) {
+                final WordBuilder<I> sep = new WordBuilder<>(dfsStack.size());
+                sep.append(input);
+
+                Record<S, I> curr = dfsStack.pop();
+                while (!dfsStack.isEmpty()) {
+                    sep.append(curr.incomingInput);
+                    curr = dfsStack.pop();
+                }
+
+                return sep.reverse().toWord();
+            }
+
+            dfsStack.push(new Record<>(target.getSuccessor(trans), succ, input, inputs.iterator()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new GraphView();
+    }
+
+    @Override
+    public MealyTransitionSystem<?, I, ?, O> asTransitionSystem() {
+        return new TransitionSystemView();
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    /**
+     * Returns the number of cached words (i.e. the number of nodes in the underlying tree, excluding the root).
+     *
+     * @return the number of cached words
+     */
+    public int size() {
+        return trie.size() - 1;
+    }
+
+    @Override
+    public void flush() {
+        trie.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        trie.close();
+    }
+
+    @SuppressWarnings("nullness") // only the root has no output and the root is never a successor
+    private O getNodeOutput(int node) {
+        final int value = trie.getValue(node);
+        return value == NO_OUTPUT ? null : outputAlphabet.getSymbol(value - 1);
+    }
+
+    private List<Integer> getSuccessors(int node) {
+        final List<Integer> result = new ArrayList<>();
+
+        for (int i = 0; i < inputAlphabet.size(); i++) {
+            final int succ = trie.getSuccessor(node, i);
+            if (succ != PersistentTrie.NO_NODE) {
+                result.add(succ);
+            }
+        }
+
+        return result;
+    }
+
+    private static final class Record<S, I> {
+
+        private final S automatonState;
+        private final int treeNode;
+        private final @Nullable I incomingInput;
+        private final Iterator<? extends I> inputIt;
+
+        Record(S automatonState, int treeNode, @Nullable I incomingInput, Iterator<? extends I> inputIt) {
+            this.automatonState = automatonState;
+            this.treeNode = treeNode;
+            this.incomingInput = incomingInput;
+            this.inputIt = inputIt;
+        }
+    }
+
+    private class TransitionSystemView implements MealyTransitionSystem<Integer, I, Integer, O> {
+
+        @Override
+        public @Nullable Integer getTransition(Integer state, I input) {
+            final int succ = trie.getSuccessor(state, inputAlphabet.getSymbolIndex(input));
+            return succ == PersistentTrie.NO_NODE ? null : succ;
+        }
+
+        @Override
+        public Integer getSuccessor(Integer transition) {
+            return transition;
+        }
+
+        @Override
+        public Integer getInitialState() {
+            return PersistentTrie.ROOT;
+        }
+
+        @Override
+        public O getTransitionOutput(Integer transition) {
+            return getNodeOutput(transition);
+        }
+    }
+
+    private class GraphView implements Graph<Integer, Integer> {
+
+        @Override
+        public Collection<Integer> getNodes() {
+            final List<Integer> result = new ArrayList<>();
+            final Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(PersistentTrie.ROOT);
+
+            while (!queue.isEmpty()) {
+                final int node = queue.poll();
+                result.add(node);
+                queue.addAll(getSuccessors(node));
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection<Integer> getOutgoingEdges(Integer node) {
+            return getSuccessors(node);
+        }
+
+        @Override
+        public Integer getTarget(Integer edge) {
+            return edge;
+        }
+    }
+}
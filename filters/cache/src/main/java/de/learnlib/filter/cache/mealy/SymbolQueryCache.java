@@ -21,6 +21,8 @@ import java.util.List;
 import java.util.Objects;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.LearningCacheOracle.MealyLearningCacheOracle;
 import de.learnlib.filter.cache.mealy.SymbolQueryCache.SymbolQueryCacheState;
 import de.learnlib.oracle.EquivalenceOracle;
@@ -39,6 +41,9 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  * have to be delegated are incorporated into the cache directly.
  * <p>
  * Internally, an incrementally growing tree (in form of a mealy automaton) is used for caching.
+ * <p>
+ * For the {@link CacheStatistics cache statistics}, the sequence of symbols queried between two {@link #reset()
+ * resets} is considered a single query. The statistics of such a sequence are recorded upon the subsequent reset.
  *
  * @param <I>
  *         input alphabet type
@@ -46,7 +51,10 @@ import org.checkerframework.checker.nullness.qual.Nullable;
  *         output alphabet type
  */
 public class SymbolQueryCache<I, O>
-        implements SymbolQueryOracle<I, O>, MealyLearningCacheOracle<I, O>, Resumable<SymbolQueryCacheState<I, O>> {
+        implements SymbolQueryOracle<I, O>,
+                   MealyLearningCacheOracle<I, O>,
+                   CacheStatistics,
+                   Resumable<SymbolQueryCacheState<I, O>> {
 
     private CompactMealy<I, O> cache;
     private final SymbolQueryOracle<I, O> delegate;
@@ -55,6 +63,10 @@ public class SymbolQueryCache<I, O>
     private Integer currentState;
     private boolean currentTraceValid;
 
+    private final CacheCounters counters;
+    private int traceLength;
+    private int cachedTraceLength;
+
     SymbolQueryCache(SymbolQueryOracle<I, O> delegate, Alphabet<I> alphabet) {
         this.delegate = delegate;
         this.cache = new CompactMealy<>(alphabet);
@@ -62,11 +74,15 @@ public class SymbolQueryCache<I, O>
 
         this.currentTrace = new ArrayList<>();
         this.currentTraceValid = false;
+
+        this.counters = new CacheCounters();
     }
 
     @Override
     public O query(I i) {
 
+        this.traceLength++;
+
         if (this.currentTraceValid) {
             final Integer succ = this.cache.getSuccessor(this.currentState, i);
 
@@ -75,6 +91,7 @@ public class SymbolQueryCache<I, O>
                 assert output != null;
                 this.currentTrace.add(i);
                 this.currentState = succ;
+                this.cachedTraceLength++;
                 return output;
             } else {
                 this.currentTraceValid = false;
@@ -105,6 +122,17 @@ public class SymbolQueryCache<I, O>
 
     @Override
     public void reset() {
+        if (this.traceLength > 0) {
+            if (this.currentTraceValid) {
+                this.counters.recordHit(this.traceLength);
+            } else {
+                this.counters.recordMiss(this.traceLength, this.cachedTraceLength);
+            }
+        }
+
+        this.traceLength = 0;
+        this.cachedTraceLength = 0;
+
         Integer init = this.cache.getInitialState();
         assert init != null;
         this.currentState = init;
@@ -132,6 +160,16 @@ public class SymbolQueryCache<I, O>
         return null;
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return cache.size();
+    }
+
     @Override
     public SymbolQueryCacheState<I, O> suspend() {
         return new SymbolQueryCacheState<>(cache);
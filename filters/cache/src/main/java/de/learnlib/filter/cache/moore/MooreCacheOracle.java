@@ -22,6 +22,8 @@ import java.util.Iterator;
 import java.util.List;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.DynamicSymbolComparator;
 import de.learnlib.filter.cache.LearningCacheOracle.MooreLearningCacheOracle;
 import de.learnlib.filter.cache.ReverseLexCmp;
@@ -62,7 +64,10 @@ import org.slf4j.LoggerFactory;
  *         output symbol class
  */
 public class MooreCacheOracle<I, O>
-        implements MooreLearningCacheOracle<I, O>, SupportsGrowingAlphabet<I>, Resumable<MooreCacheOracleState<I, O>> {
+        implements MooreLearningCacheOracle<I, O>,
+                   SupportsGrowingAlphabet<I>,
+                   CacheStatistics,
+                   Resumable<MooreCacheOracleState<I, O>> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MooreCacheOracle.class);
 
@@ -70,6 +75,7 @@ public class MooreCacheOracle<I, O>
     private IncrementalMooreBuilder<I, O> incMoore;
     private final Comparator<? super Query<I, ?>> queryCmp;
     private final @Nullable Mapping<? super O, ? extends O> errorSyms;
+    private final CacheCounters counters;
 
 
     MooreCacheOracle(IncrementalMooreBuilder<I, O> incrementalBuilder,
@@ -85,6 +91,7 @@ public class MooreCacheOracle<I, O>
         this.incMoore = incrementalBuilder;
         this.queryCmp = new ReverseLexCmp<>(comparator);
         this.errorSyms = errorSyms;
+        this.counters = new CacheCounters();
         this.delegate = delegate;
     }
 
@@ -134,6 +141,16 @@ public class MooreCacheOracle<I, O>
         this.incMoore = state.getBuilder();
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return incMoore.asGraph().size();
+    }
+
     List<MasterQuery<I, O>> queryCache(Collection<? extends Query<I, Word<O>>> queries) {
         List<MasterQuery<I, O>> masterQueries = new ArrayList<>();
 
@@ -155,6 +172,8 @@ public class MooreCacheOracle<I, O>
                 if (!master.isAnswered()) {
                     masterQueries.add(master);
                 }
+            } else {
+                counters.recordHit(curr.length());
             }
 
             master.addSlave(q);
@@ -167,7 +186,19 @@ public class MooreCacheOracle<I, O>
     }
 
     private MasterQuery<I, O> createMasterQuery(Word<I> word) {
-        WordBuilder<O> wb = new WordBuilder<>(word.size());
+        final WordBuilder<O> wb = new WordBuilder<>(word.size());
+        final MasterQuery<I, O> master = lookupMasterQuery(word, wb);
+
+        if (master.isAnswered()) {
+            counters.recordHit(word.length());
+        } else {
+            counters.recordMiss(word.length(), Math.max(0, wb.size() - 1));
+        }
+
+        return master;
+    }
+
+    private MasterQuery<I, O> lookupMasterQuery(Word<I> word, WordBuilder<O> wb) {
         if (incMoore.lookup(word, wb)) {
             return new MasterQuery<>(word, wb.toWord());
         }
@@ -16,6 +16,8 @@
 package de.learnlib.filter.cache.sul;
 
 import de.learnlib.Resumable;
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.CacheStatistics;
 import de.learnlib.filter.cache.LearningCache.MealyLearningCache;
 import de.learnlib.filter.cache.mealy.MealyCacheConsistencyTest;
 import de.learnlib.filter.cache.sul.AbstractSULCache.SULCacheState;
@@ -25,13 +27,14 @@ import de.learnlib.sul.SUL;
 import net.automatalib.alphabet.SupportsGrowingAlphabet;
 import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
 import net.automatalib.word.WordBuilder;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
-        implements SUL<I, O>, MealyLearningCache<I, O>, SupportsGrowingAlphabet<I>, Resumable<C> {
+        implements SUL<I, O>, MealyLearningCache<I, O>, SupportsGrowingAlphabet<I>, CacheStatistics, Resumable<C> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractSULCache.class);
 
@@ -56,6 +59,11 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
         return impl.step(in);
     }
 
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        return impl.stepAll(in);
+    }
+
     @Override
     public boolean canFork() {
         return impl.canFork();
@@ -90,6 +98,16 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
         return impl.incMealy.asGraph().size();
     }
 
+    @Override
+    public CacheCounters getCacheCounters() {
+        return impl.counters;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return impl.getNodeCount();
+    }
+
     /**
      * Implementation class; we need this to bind the {@code T} and {@code S} type parameters of the transition system
      * returned by {@link IncrementalMealyBuilder#asTransitionSystem()}.
@@ -111,19 +129,31 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
         protected IncrementalMealyBuilder<I, O> incMealy;
         protected MealyTransitionSystem<S, I, T, O> mealyTs;
         protected final SUL<I, O> delegate;
+        protected final CacheCounters counters;
 
         private final WordBuilder<I> inputWord = new WordBuilder<>();
         private final WordBuilder<O> outputWord = new WordBuilder<>();
 
         private boolean delegatePreCalled;
+        private boolean beyondCache;
+        private int cachedSteps;
+        private @Nullable O cachedOutput;
         protected @Nullable S current;
 
         AbstractSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
                              MealyTransitionSystem<S, I, T, O> mealyTs,
                              SUL<I, O> sul) {
+            this(incMealy, mealyTs, sul, new CacheCounters());
+        }
+
+        AbstractSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
+                             MealyTransitionSystem<S, I, T, O> mealyTs,
+                             SUL<I, O> sul,
+                             CacheCounters counters) {
             this.incMealy = incMealy;
             this.mealyTs = mealyTs;
             this.delegate = sul;
+            this.counters = counters;
         }
 
         @Override
@@ -133,33 +163,130 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
 
         @Override
         public O step(I in) {
-            O out = null;
+            if (current != null || beyondCache) {
+                if (stepCached(in)) {
+                    return cachedOutput;
+                }
+                return stepMissed(Word.fromLetter(in)).firstSymbol();
+            }
+
+            final O out = delegate.step(in);
+            postNewStepHook();
+            inputWord.append(in);
+            outputWord.add(out);
+
+            return out;
+        }
+
+        /**
+         * Answers the inputs from the cache as long as possible. Once the delegate needs to be queried, the cached
+         * prefix and all remaining inputs are executed at once via {@link #stepDelegate(Word, Word)}.
+         */
+        @Override
+        public Word<O> stepAll(Word<? extends I> in) {
+            final WordBuilder<O> result = new WordBuilder<>(in.length());
+            int i = 0;
+
+            while (i < in.length() && (current != null || beyondCache)) {
+                if (!stepCached(in.getSymbol(i))) {
+                    result.append(stepMissed(in.subWord(i)));
+                    return result.toWord();
+                }
+                result.add(cachedOutput);
+                i++;
+            }
+
+            if (i < in.length()) {
+                final Word<? extends I> remaining = in.subWord(i);
+                final Word<O> outputs = stepDelegate(remaining);
+                inputWord.append(remaining);
+                outputWord.append(outputs);
+                result.append(outputs);
+            }
+
+            return result.toWord();
+        }
 
+        /**
+         * Tries to answer the given input from the cache (or via {@link #lookupBeyondCache(Word)}). On success, the
+         * output is stored in {@link #cachedOutput}. Otherwise the cache has been left and the current query needs to
+         * be continued via {@link #stepMissed(Word)}.
+         */
+        private boolean stepCached(I in) {
             if (current != null) {
-                T trans = mealyTs.getTransition(current, in);
+                final T trans = mealyTs.getTransition(current, in);
 
                 if (trans != null) {
-                    out = mealyTs.getTransitionOutput(trans);
+                    cachedOutput = mealyTs.getTransitionOutput(trans);
                     current = mealyTs.getSuccessor(trans);
+                    cachedSteps++;
+                    inputWord.append(in);
                     assert current != null;
-                } else {
-                    requiredInitializedDelegate();
-                    current = null;
-                    for (I prevSym : inputWord) {
-                        outputWord.append(delegate.step(prevSym));
-                    }
+                    return true;
                 }
+
+                current = null;
+                beyondCache = true;
             }
 
-            inputWord.append(in);
+            final Word<O> known = lookupBeyondCache(inputWord.toWord().append(in));
 
-            if (current == null) {
-                out = delegate.step(in);
-                postNewStepHook();
-                outputWord.add(out);
+            if (known == null) {
+                beyondCache = false;
+                return false;
             }
 
-            return out;
+            outputWord.clear();
+            outputWord.append(known);
+            cachedOutput = known.lastSymbol();
+            inputWord.append(in);
+            return true;
+        }
+
+        /**
+         * Executes the so far cached prefix together with the given inputs via {@link #stepDelegate(Word, Word)},
+         * after the cache has been left.
+         */
+        private Word<O> stepMissed(Word<? extends I> in) {
+            requiredInitializedDelegate();
+
+            final int prefixLength = inputWord.size();
+            final Word<O> outputs = stepDelegate(inputWord.toWord(), in);
+
+            inputWord.append(in);
+            outputWord.clear();
+            outputWord.append(outputs);
+
+            return outputs.subWord(prefixLength);
+        }
+
+        /**
+         * Executes the given inputs on the delegate, after the cache has been left and the delegate has been
+         * initialized.
+         *
+         * @param in
+         *         the inputs to execute
+         *
+         * @return the outputs of the delegate
+         */
+        protected Word<O> stepDelegate(Word<? extends I> in) {
+            return delegate.stepAll(in);
+        }
+
+        /**
+         * Replays the given (already cached) prefix and executes the given inputs on the delegate, after the cache has
+         * been left and the delegate has been initialized. By default, both are sent to the delegate in a single
+         * {@link SUL#stepAll(Word)} call.
+         *
+         * @param prefix
+         *         the cached prefix to replay
+         * @param in
+         *         the new inputs to execute
+         *
+         * @return the outputs of the delegate for both the prefix and the new inputs
+         */
+        protected Word<O> stepDelegate(Word<I> prefix, Word<? extends I> in) {
+            return delegate.stepAll(prefix.concat(in));
         }
 
         // TODO: The SUL interface might need a cleanup() method which, by contract,
@@ -169,6 +296,12 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
         public void post() {
             updateCache(inputWord, outputWord);
 
+            if (current == null && !beyondCache) {
+                counters.recordMiss(inputWord.size(), cachedSteps);
+            } else {
+                counters.recordHit(inputWord.size());
+            }
+
             if (delegatePreCalled) {
                 delegate.post();
                 delegatePreCalled = false;
@@ -176,6 +309,9 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
             inputWord.clear();
             outputWord.clear();
             current = null;
+            beyondCache = false;
+            cachedSteps = 0;
+            cachedOutput = null;
         }
 
         @Override
@@ -205,6 +341,10 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
             this.mealyTs = (MealyTransitionSystem<S, I, T, O>) this.incMealy.asTransitionSystem();
         }
 
+        long getNodeCount() {
+            return incMealy.asGraph().size();
+        }
+
         protected void requiredInitializedDelegate() {
             if (!delegatePreCalled) {
                 delegate.pre();
@@ -214,6 +354,20 @@ abstract class AbstractSULCache<I, O, C extends SULCacheState<I, O>>
 
         protected void postNewStepHook() {}
 
+        /**
+         * Hook for answering a query that is not (yet) contained in the cache without consulting the delegate, e.g.
+         * because a concurrent cache currently executes the same query. Once this method returns {@code null} during a
+         * query, the remainder of the query is executed on the delegate.
+         *
+         * @param input
+         *         the input word of the query so far
+         *
+         * @return the output of the complete input word, or {@code null} if it is unknown
+         */
+        protected @Nullable Word<O> lookupBeyondCache(Word<I> input) {
+            return null;
+        }
+
         protected void updateCache(WordBuilder<I> inputBuilder, WordBuilder<O> outputBuilder) {
             if (!outputBuilder.isEmpty()) {
                 incMealy.insert(inputBuilder.toWord(), outputBuilder.toWord());
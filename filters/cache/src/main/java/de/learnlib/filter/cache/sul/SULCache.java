@@ -15,6 +15,7 @@
  */
 package de.learnlib.filter.cache.sul;
 
+import de.learnlib.filter.cache.CacheCounters;
 import de.learnlib.filter.cache.sul.AbstractSULCache.SULCacheState;
 import de.learnlib.sul.SUL;
 import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
@@ -68,6 +69,13 @@ public class SULCache<I, O> extends AbstractSULCache<I, O, SULCacheState<I, O>>
             super(incMealy, mealyTs, sul);
         }
 
+        SULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
+                     MealyTransitionSystem<S, I, T, O> mealyTs,
+                     SUL<I, O> sul,
+                     CacheCounters counters) {
+            super(incMealy, mealyTs, sul, counters);
+        }
+
         @Override
         public SULCacheState<I, O> suspend() {
             return new SULCacheState<>(incMealy);
@@ -18,6 +18,7 @@ package de.learnlib.filter.cache.sul;
 import de.learnlib.sul.SUL;
 import de.learnlib.sul.StateLocalInputSUL;
 import net.automatalib.alphabet.Alphabet;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.incremental.mealy.dag.IncrementalMealyDAGBuilder;
 import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
 
@@ -47,6 +48,22 @@ public final class SULCaches {
         return createDAGCache(alphabet, sul);
     }
 
+    /**
+     * Creates a {@link SULCache} for a given {@link SUL}, using the given builder for internal cache organization. This
+     * allows to seed the cache with previously collected information, e.g. via a
+     * {@link de.learnlib.filter.cache.mealy.MealyTraceLoader}.
+     *
+     * @param sul
+     *         the sul
+     * @param cacheBuilder
+     *         the (possibly pre-populated) builder to be used by the cache
+     *
+     * @return a {@link SULCache} based on the given builder
+     */
+    public static <I, O> SULCache<I, O> createCache(SUL<I, O> sul, IncrementalMealyBuilder<I, O> cacheBuilder) {
+        return new SULCache<>(cacheBuilder, sul);
+    }
+
     /**
      * Creates a {@link SULCache} for a given {@link SUL}, using a DAG for internal cache organization.
      *
@@ -21,11 +21,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import de.learnlib.filter.cache.CacheCounters;
 import de.learnlib.filter.cache.sul.AbstractSULCache.SULCacheState;
 import de.learnlib.filter.cache.sul.StateLocalInputSULCache.StateLocalInputSULCacheState;
 import de.learnlib.sul.StateLocalInputSUL;
 import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
 import net.automatalib.word.WordBuilder;
 
 /**
@@ -81,7 +83,15 @@ public class StateLocalInputSULCache<I, O> extends AbstractSULCache<I, O, StateL
                                     MealyTransitionSystem<S, I, T, O> mealyTs,
                                     Map<S, Collection<I>> enabledInputCache,
                                     StateLocalInputSUL<I, O> sul) {
-            super(incMealy, mealyTs, sul);
+            this(incMealy, mealyTs, enabledInputCache, sul, new CacheCounters());
+        }
+
+        StateLocalInputSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
+                                    MealyTransitionSystem<S, I, T, O> mealyTs,
+                                    Map<S, Collection<I>> enabledInputCache,
+                                    StateLocalInputSUL<I, O> sul,
+                                    CacheCounters counters) {
+            super(incMealy, mealyTs, sul, counters);
             this.delegate = sul;
             S init = mealyTs.getInitialState();
             assert init != null;
@@ -95,6 +105,23 @@ public class StateLocalInputSULCache<I, O> extends AbstractSULCache<I, O, StateL
             inputsTrace.add(delegate.currentlyEnabledInputs());
         }
 
+        @Override
+        protected Word<O> stepDelegate(Word<? extends I> in) {
+            // the enabled inputs need to be recorded after each step
+            final WordBuilder<O> wb = new WordBuilder<>(in.length());
+            for (I sym : in) {
+                wb.add(delegate.step(sym));
+                postNewStepHook();
+            }
+            return wb.toWord();
+        }
+
+        @Override
+        protected Word<O> stepDelegate(Word<I> prefix, Word<? extends I> in) {
+            // the enabled inputs of the prefix are already cached
+            return delegate.stepAll(prefix).concat(stepDelegate(in));
+        }
+
         @Override
         protected void updateCache(WordBuilder<I> input, WordBuilder<O> output) {
             super.updateCache(input, output);
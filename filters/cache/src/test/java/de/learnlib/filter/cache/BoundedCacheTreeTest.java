@@ -0,0 +1,147 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Arrays;
+
+import de.learnlib.filter.cache.BoundedCacheTree.Node;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class BoundedCacheTreeTest {
+
+    private static final int A = 0;
+    private static final int B = 1;
+    private static final int C = 2;
+
+    @Test
+    public void testLeafFirstEviction() {
+        final BoundedCacheTree<Integer> tree = new BoundedCacheTree<>(3, CacheBudget.entries(3), EvictionPolicies.LRU);
+
+        insert(tree, A, A, A);
+        insert(tree, B);
+
+        // the leaf 'aaa' has to be evicted, although its prefixes are older
+        Assert.assertEquals(tree.size(), 3);
+        Assert.assertEquals(tree.getEvictionCount(), 1);
+        Assert.assertNotNull(lookup(tree, A, A));
+        Assert.assertNull(lookup(tree, A, A, A));
+        Assert.assertNotNull(lookup(tree, B));
+
+        insert(tree, C);
+        insert(tree, C, C);
+
+        // after 'aa' has been evicted, 'a' becomes a leaf itself
+        Assert.assertEquals(tree.size(), 3);
+        Assert.assertEquals(tree.getEvictionCount(), 3);
+        Assert.assertNull(lookup(tree, A));
+        Assert.assertNotNull(lookup(tree, C, C));
+    }
+
+    @Test
+    public void testLRU() {
+        final BoundedCacheTree<Integer> tree = new BoundedCacheTree<>(3, CacheBudget.entries(3), EvictionPolicies.LRU);
+        fillFrequencyScenario(tree);
+
+        Assert.assertNull(lookup(tree, A));
+        Assert.assertNotNull(lookup(tree, C));
+    }
+
+    @Test
+    public void testLFU() {
+        final BoundedCacheTree<Integer> tree = new BoundedCacheTree<>(3, CacheBudget.entries(3), EvictionPolicies.LFU);
+        fillFrequencyScenario(tree);
+
+        Assert.assertNotNull(lookup(tree, A));
+        Assert.assertNull(lookup(tree, C));
+    }
+
+    @Test
+    public void testDepthAware() {
+        final BoundedCacheTree<Integer> lru = new BoundedCacheTree<>(3, CacheBudget.entries(3), EvictionPolicies.LRU);
+        final BoundedCacheTree<Integer> depth =
+                new BoundedCacheTree<>(3, CacheBudget.entries(3), EvictionPolicies.DEPTH_AWARE);
+
+        for (BoundedCacheTree<Integer> tree : Arrays.asList(lru, depth)) {
+            insert(tree, A, A);
+            insert(tree, B);
+            lookup(tree, A, A);
+            insert(tree, C);
+        }
+
+        Assert.assertNotNull(lru.getRoot().getSuccessor(A).getSuccessor(A));
+        Assert.assertNull(lru.getRoot().getSuccessor(B));
+
+        Assert.assertNull(depth.getRoot().getSuccessor(A).getSuccessor(A));
+        Assert.assertNotNull(depth.getRoot().getSuccessor(B));
+    }
+
+    @Test
+    public void testConnectorRemoval() {
+        final BoundedCacheTree<Integer> tree = new BoundedCacheTree<>(3, CacheBudget.entries(2), EvictionPolicies.LRU);
+
+        final Node<Integer> aa = tree.getOrCreateSuccessor(tree.getOrCreateSuccessor(tree.getRoot(), A, null), A, 1);
+        tree.evict(aa);
+        insert(tree, B);
+
+        // 'a' carries no value, so it is removed together with 'aa'
+        Assert.assertEquals(tree.size(), 1);
+        Assert.assertEquals(tree.getEvictionCount(), 1);
+        Assert.assertNull(tree.getRoot().getSuccessor(A));
+    }
+
+    @Test
+    public void testByteBudget() {
+        final CacheBudget budget = CacheBudget.bytes(1024);
+        final long maxEntries = budget.getMaxEntries(3);
+        final BoundedCacheTree<Integer> tree = new BoundedCacheTree<>(3, budget, EvictionPolicies.LRU);
+
+        for (int i = 0; i < 2 * maxEntries; i++) {
+            insert(tree, i % 3, (i / 3) % 3, (i / 9) % 3);
+            Assert.assertTrue(tree.size() <= maxEntries);
+        }
+    }
+
+    // 'a' is accessed frequently but not recently, 'c' is accessed recently but not frequently
+    private static void fillFrequencyScenario(BoundedCacheTree<Integer> tree) {
+        insert(tree, A);
+        lookup(tree, A);
+        lookup(tree, A);
+        insert(tree, B);
+        insert(tree, C);
+        insert(tree, B, A);
+    }
+
+    private static void insert(BoundedCacheTree<Integer> tree, int... word) {
+        Node<Integer> curr = tree.getRoot();
+        for (int sym : word) {
+            curr = tree.getOrCreateSuccessor(curr, sym, sym);
+        }
+        tree.evict(curr);
+    }
+
+    private static Node<Integer> lookup(BoundedCacheTree<Integer> tree, int... word) {
+        Node<Integer> curr = tree.getRoot();
+        for (int sym : word) {
+            curr = curr.getSuccessor(sym);
+            if (curr == null) {
+                return null;
+            }
+            tree.touch(curr);
+        }
+        return curr;
+    }
+}
@@ -0,0 +1,191 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.driver.simulator.MealySimulatorSUL;
+import de.learnlib.filter.cache.dfa.DFACacheOracle;
+import de.learnlib.filter.cache.dfa.DFACaches;
+import de.learnlib.filter.cache.mealy.MealyCacheOracle;
+import de.learnlib.filter.cache.mealy.MealyCaches;
+import de.learnlib.filter.cache.mealy.SymbolQueryCache;
+import de.learnlib.filter.cache.sul.SULCache;
+import de.learnlib.filter.cache.sul.SULCaches;
+import de.learnlib.oracle.membership.DFASimulatorOracle;
+import de.learnlib.oracle.membership.MealySimulatorOracle;
+import de.learnlib.oracle.membership.SULSymbolQueryOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.statistic.StatisticData;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CacheStatisticsTest {
+
+    private static final Word<Character> AB = Word.fromString("ab");
+    private static final Word<Character> ABC = Word.fromString("abc");
+    private static final Word<Character> ABCAB = Word.fromString("abcab");
+
+    @Test
+    public void testMealyCache() {
+        final MealyCacheOracle<Character, Integer> cache =
+                MealyCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET,
+                                            new MealySimulatorOracle<>(CacheTestUtils.MEALY));
+
+        cache.answerQuery(ABC); // miss
+        cache.answerQuery(ABCAB); // partial hit
+        cache.answerQuery(AB); // hit
+        cache.processQueries(Arrays.asList(new DefaultQuery<>(ABC), new DefaultQuery<>(ABC))); // 2 hits
+
+        final CacheCounters counters = cache.getCacheCounters();
+        Assert.assertEquals(counters.getHits(), 3);
+        Assert.assertEquals(counters.getMisses(), 2);
+        Assert.assertEquals(counters.getPartialHits(), 1);
+        Assert.assertEquals(counters.getSavedSymbols(), AB.length() + 2 * ABC.length());
+
+        final SortedMap<Integer, Long> histogram = counters.getPrefixLengthHistogram();
+        Assert.assertEquals(histogram.size(), 3);
+        Assert.assertEquals(histogram.get(0).longValue(), 1);
+        Assert.assertEquals(histogram.get(2).longValue(), 1);
+        Assert.assertEquals(histogram.get(3).longValue(), 3);
+
+        // root + one node per symbol
+        Assert.assertEquals(cache.getNodeCount(), ABCAB.length() + 1);
+    }
+
+    @Test
+    public void testDFACache() {
+        final DFACacheOracle<Character> cache =
+                DFACaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, new DFASimulatorOracle<>(CacheTestUtils.DFA));
+
+        cache.answerQuery(ABC); // miss
+        cache.answerQuery(ABCAB); // partial hit
+        cache.answerQuery(AB); // miss, the tree knows the prefix but not its acceptance
+        cache.answerQuery(ABC); // hit
+
+        final CacheCounters counters = cache.getCacheCounters();
+        Assert.assertEquals(counters.getHits(), 1);
+        Assert.assertEquals(counters.getMisses(), 3);
+        Assert.assertEquals(counters.getPartialHits(), 1);
+        Assert.assertEquals(counters.getSavedSymbols(), ABC.length());
+
+        final SortedMap<Integer, Long> histogram = counters.getPrefixLengthHistogram();
+        Assert.assertEquals(histogram.get(0).longValue(), 1);
+        Assert.assertEquals(histogram.get(2).longValue(), 1);
+        Assert.assertEquals(histogram.get(3).longValue(), 2);
+    }
+
+    @Test
+    public void testSULCache() {
+        final SULCache<Character, Integer> cache =
+                SULCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET, new MealySimulatorSUL<>(CacheTestUtils.MEALY));
+
+        execute(cache, ABC); // miss
+        execute(cache, AB); // hit
+        execute(cache, ABCAB); // partial hit
+
+        final CacheCounters counters = cache.getCacheCounters();
+        Assert.assertEquals(counters.getHits(), 1);
+        Assert.assertEquals(counters.getMisses(), 2);
+        Assert.assertEquals(counters.getPartialHits(), 1);
+        Assert.assertEquals(counters.getSavedSymbols(), AB.length());
+        Assert.assertEquals(cache.getNodeCount(), ABCAB.length() + 1);
+    }
+
+    @Test
+    public void testSymbolQueryCache() {
+        final SymbolQueryCache<Character, Integer> cache =
+                MealyCaches.createSymbolQueryCache(CacheTestUtils.INPUT_ALPHABET,
+                                                   new SULSymbolQueryOracle<>(new MealySimulatorSUL<>(CacheTestUtils.MEALY)));
+
+        cache.reset();
+        query(cache, AB); // miss
+        cache.reset();
+        query(cache, AB); // hit
+        cache.reset();
+        query(cache, ABC); // partial hit
+        cache.reset();
+
+        final CacheCounters counters = cache.getCacheCounters();
+        Assert.assertEquals(counters.getHits(), 1);
+        Assert.assertEquals(counters.getMisses(), 2);
+        Assert.assertEquals(counters.getPartialHits(), 1);
+        Assert.assertEquals(counters.getSavedSymbols(), AB.length());
+        Assert.assertEquals(cache.getNodeCount(), ABC.length() + 1);
+    }
+
+    @Test
+    public void testStatisticalData() {
+        final MealyCacheOracle<Character, Integer> cache =
+                MealyCaches.createTreeCache(CacheTestUtils.INPUT_ALPHABET,
+                                            new MealySimulatorOracle<>(CacheTestUtils.MEALY));
+
+        cache.answerQuery(ABC);
+        cache.answerQuery(AB);
+
+        final StatisticData data = cache.getStatisticalData();
+        Assert.assertEquals(data.getSummary(),
+                            "Cache [queries]: 1 (hits), 1 (misses), 0 (partial hits), 2 (saved symbols), 4 (nodes)");
+        Assert.assertTrue(data.getDetails().startsWith(data.getSummary()));
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        final CacheCounters counters = new CacheCounters();
+        final int threads = 4;
+        final int updates = 10_000;
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                for (int j = 0; j < updates; j++) {
+                    counters.recordHit(1);
+                    counters.recordMiss(2, 1);
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        Assert.assertEquals(counters.getHits(), threads * updates);
+        Assert.assertEquals(counters.getMisses(), threads * updates);
+        Assert.assertEquals(counters.getPartialHits(), threads * updates);
+        Assert.assertEquals(counters.getSavedSymbols(), threads * updates);
+        Assert.assertEquals(counters.getPrefixLengthHistogram().get(1).longValue(), 2L * threads * updates);
+    }
+
+    private static void execute(SULCache<Character, Integer> sul, Word<Character> word) {
+        sul.pre();
+        try {
+            for (Character c : word) {
+                sul.step(c);
+            }
+        } finally {
+            sul.post();
+        }
+    }
+
+    private static void query(SymbolQueryCache<Character, Integer> oracle, Word<Character> word) {
+        for (Character c : word) {
+            oracle.query(c);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class PackedWordTableTest {
+
+    private static final int NUM_WORDS = 5000;
+    private static final int MAX_LENGTH = 20;
+
+    @DataProvider
+    public static Object[][] alphabetSizes() {
+        // covers symbols that are stored across long boundaries (e.g., 3 or 10 bits per symbol)
+        return new Object[][] {{1, 2}, {2, 1}, {5, 3}, {26, 7}, {1000, 1 << 16}};
+    }
+
+    @Test(dataProvider = "alphabetSizes")
+    public void testAgainstHashMap(int alphabetSize, int payloadAlphabetSize) {
+        final Random random = new Random(42);
+        final PackedWordTable table = new PackedWordTable(alphabetSize, payloadAlphabetSize);
+        final Map<List<Integer>, int[]> reference = new HashMap<>();
+
+        for (int i = 0; i < NUM_WORDS; i++) {
+            final int length = random.nextInt(MAX_LENGTH);
+            final int[] word = randomWord(random, length, alphabetSize);
+            final int[] payload = randomWord(random, length, payloadAlphabetSize);
+            final List<Integer> key = asList(word);
+
+            final int entry = table.find(word, length);
+
+            if (reference.containsKey(key)) {
+                Assert.assertNotEquals(entry, PackedWordTable.NO_ENTRY);
+            } else {
+                Assert.assertEquals(entry, PackedWordTable.NO_ENTRY);
+                table.insert(word, length, i, payload);
+                reference.put(key, Arrays.copyOf(payload, length));
+            }
+        }
+
+        Assert.assertEquals(table.size(), reference.size());
+
+        for (int entry = 0; entry < table.size(); entry++) {
+            final int length = table.getLength(entry);
+            final int[] word = new int[length];
+            final int[] payload = new int[length];
+
+            for (int i = 0; i < length; i++) {
+                word[i] = table.getSymbol(entry, i);
+                payload[i] = table.getPayloadSymbol(entry, i);
+            }
+
+            Assert.assertEquals(payload, reference.get(asList(word)));
+            Assert.assertEquals(table.find(word, length), entry);
+        }
+    }
+
+    @Test
+    public void testValues() {
+        final PackedWordTable table = new PackedWordTable(2);
+        final int[] word = {0, 1, 1};
+
+        final int entry = table.insert(word, 3, 1);
+        Assert.assertEquals(table.getValue(entry), 1);
+
+        // only the relevant prefix of the buffer is considered
+        Assert.assertEquals(table.find(new int[] {0, 1, 1, 0}, 3), entry);
+        Assert.assertEquals(table.find(word, 2), PackedWordTable.NO_ENTRY);
+
+        Assert.assertEquals(table.insert(word, 3, 0), entry);
+        Assert.assertEquals(table.getValue(entry), 0);
+        Assert.assertEquals(table.size(), 1);
+    }
+
+    @Test
+    public void testRollingHash() {
+        final Random random = new Random(42);
+        final PackedWordTable table = new PackedWordTable(3);
+        final int[] word = randomWord(random, MAX_LENGTH, 3);
+
+        // insert all prefixes with hashes that are derived from the hashes of their predecessors
+        long hash = PackedWordTable.EMPTY_HASH;
+        Assert.assertEquals(table.insert(word, 0, hash, 0, null), 0);
+
+        for (int i = 0; i < MAX_LENGTH; i++) {
+            hash = PackedWordTable.extendHash(hash, word[i]);
+            Assert.assertEquals(hash, PackedWordTable.hash(word, i + 1));
+            Assert.assertEquals(table.insert(word, i + 1, hash, i + 1, null), i + 1);
+        }
+
+        for (int i = 0; i <= MAX_LENGTH; i++) {
+            Assert.assertEquals(table.getValue(table.find(word, i)), i);
+        }
+    }
+
+    private static int[] randomWord(Random random, int length, int alphabetSize) {
+        final int[] result = new int[length];
+        for (int i = 0; i < length; i++) {
+            result[i] = random.nextInt(alphabetSize);
+        }
+        return result;
+    }
+
+    private static List<Integer> asList(int[] word) {
+        final Integer[] result = new Integer[word.length];
+        for (int i = 0; i < word.length; i++) {
+            result[i] = word[i];
+        }
+        return Arrays.asList(result);
+    }
+}
@@ -0,0 +1,31 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicies;
+import de.learnlib.oracle.MembershipOracle.DFAMembershipOracle;
+
+public class DFABoundedCacheTest extends AbstractDFACacheTest {
+
+    @Override
+    protected DFACacheOracle<Character> getCache(DFAMembershipOracle<Character> delegate) {
+        return DFACaches.createBoundedTreeCache(getAlphabet(),
+                                                delegate,
+                                                CacheBudget.entries(10_000),
+                                                EvictionPolicies.LFU);
+    }
+}
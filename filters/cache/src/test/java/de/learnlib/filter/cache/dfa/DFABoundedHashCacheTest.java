@@ -0,0 +1,127 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.util.Arrays;
+
+import de.learnlib.filter.cache.AbstractCacheTest;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.statistic.oracle.DFACounterOracle;
+import de.learnlib.oracle.membership.DFASimulatorOracle;
+import de.learnlib.query.DefaultQuery;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DFABoundedHashCacheTest
+        extends AbstractCacheTest<DFAHashCacheOracle<Character>, DFA<?, Character>, Character, Boolean> {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final DFACounterOracle<Character> counter;
+
+    public DFABoundedHashCacheTest() {
+        counter = new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA));
+    }
+
+    @Test
+    public void testEviction() {
+        final DFACounterOracle<Character> delegate =
+                new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA));
+        final DFAHashCacheOracle<Character> cache = DFACaches.createBoundedHashCache(delegate, 2);
+
+        final Word<Character> a = Word.fromLetter('a');
+        final Word<Character> b = Word.fromLetter('b');
+        final Word<Character> c = Word.fromLetter('c');
+
+        cache.answerQuery(a);
+        cache.answerQuery(b);
+        cache.answerQuery(a); // hit, makes b the least recently used entry
+        Assert.assertEquals(delegate.getQueryCounter().getCount(), 2);
+
+        cache.answerQuery(c); // evicts b
+        Assert.assertEquals(cache.getNodeCount(), 2);
+        Assert.assertEquals(delegate.getQueryCounter().getCount(), 3);
+
+        cache.answerQuery(a);
+        Assert.assertEquals(delegate.getQueryCounter().getCount(), 3);
+
+        cache.answerQuery(b);
+        Assert.assertEquals(delegate.getQueryCounter().getCount(), 4);
+    }
+
+    @Test
+    public void testDuplicatesOfEvictedQueries() {
+        final DFACounterOracle<Character> delegate =
+                new DFACounterOracle<>(new DFASimulatorOracle<>(CacheTestUtils.DFA));
+        final DFAHashCacheOracle<Character> cache = DFACaches.createBoundedHashCache(delegate, 1);
+
+        final DefaultQuery<Character, Boolean> q1 = new DefaultQuery<>(Word.fromLetter('a'));
+        final DefaultQuery<Character, Boolean> q2 = new DefaultQuery<>(Word.fromLetter('b'));
+        final DefaultQuery<Character, Boolean> q3 = new DefaultQuery<>(Word.fromLetter('a'));
+
+        // the answer to 'a' is evicted by 'b' before the duplicate is answered
+        cache.processQueries(Arrays.asList(q1, q2, q3));
+
+        Assert.assertEquals(delegate.getQueryCounter().getCount(), 2);
+        Assert.assertEquals(q3.getOutput(), CacheTestUtils.DFA.computeOutput(q3.getInput()));
+        Assert.assertEquals(cache.getNodeCount(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidBound() {
+        DFACaches.createBoundedHashCache(counter, 0);
+    }
+
+    @Override
+    protected DFA<?, Character> getTargetModel() {
+        return CacheTestUtils.DFA;
+    }
+
+    @Override
+    protected DFA<?, Character> getInvalidTargetModel() {
+        return CacheTestUtils.DFA_INVALID;
+    }
+
+    @Override
+    protected DFAHashCacheOracle<Character> getCachedOracle() {
+        return DFACaches.createBoundedHashCache(counter, MAX_ENTRIES);
+    }
+
+    @Override
+    protected DFAHashCacheOracle<Character> getResumedOracle(DFAHashCacheOracle<Character> original) {
+        final DFAHashCacheOracle<Character> fresh = DFACaches.createBoundedHashCache(counter, MAX_ENTRIES);
+        serializeResumable(original, fresh);
+        return fresh;
+    }
+
+    @Override
+    protected long getNumberOfPosedQueries() {
+        return counter.getQueryCounter().getCount();
+    }
+
+    @Override
+    protected boolean supportsPrefixes() {
+        return false;
+    }
+
+    @Override
+    protected Alphabet<Character> getAlphabet() {
+        return CacheTestUtils.INPUT_ALPHABET;
+    }
+}
@@ -0,0 +1,87 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.dfa;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import de.learnlib.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.query.Query;
+import net.automatalib.incremental.dfa.Acceptance;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class DFAPersistentCacheTest extends AbstractDFACacheTest {
+
+    private final Path file;
+    private PersistentDFATreeBuilder<Character> writer;
+    private PersistentDFATreeBuilder<Character> reader;
+    private DFAMembershipOracle<Character> delegate;
+
+    public DFAPersistentCacheTest() throws IOException {
+        this.file = Files.createTempFile("learnlib-dfa-cache", ".bin");
+    }
+
+    @Override
+    protected DFACacheOracle<Character> getCache(DFAMembershipOracle<Character> delegate) {
+        try {
+            this.writer = new PersistentDFATreeBuilder<>(file, getAlphabet());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.delegate = delegate;
+        return DFACaches.createPersistentCache(delegate, writer);
+    }
+
+    /**
+     * Persistent caches are not resumed via serialization but share their data via the file. Hence, we open the file
+     * in read-only mode (while the original cache is still in use).
+     */
+    @Override
+    protected DFACacheOracle<Character> getResumedOracle(DFACacheOracle<Character> original) {
+        try {
+            this.reader = new PersistentDFATreeBuilder<>(file, getAlphabet(), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return DFACaches.createPersistentCache(delegate, reader);
+    }
+
+    @Test(dependsOnMethods = "testDuplicatesInBatch")
+    public void testReopen() throws IOException {
+        final Query<Character, Boolean> original = getQuery(0);
+        final Word<Character> input = original.getInput();
+        final Acceptance acceptance = writer.lookup(input);
+        writer.close();
+
+        try (PersistentDFATreeBuilder<Character> reopened = new PersistentDFATreeBuilder<>(file, getAlphabet())) {
+            Assert.assertNotEquals(acceptance, Acceptance.DONT_KNOW);
+            Assert.assertEquals(reopened.lookup(input), acceptance);
+        }
+    }
+
+    @AfterClass
+    public void cleanUp() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,245 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+
+import de.learnlib.filter.cache.CacheTestUtils;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.GrowingMapAlphabet;
+import net.automatalib.alphabet.ListAlphabet;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CompactingMealyTreeBuilderTest {
+
+    private static final int THRESHOLD = 50;
+    private static final int NUM_WORDS = 3 * THRESHOLD;
+    private static final int LENGTH = 10;
+
+    private final MealyMachine<?, Character, ?, Integer> target = CacheTestUtils.MEALY;
+    private final Alphabet<Character> alphabet = CacheTestUtils.INPUT_ALPHABET;
+
+    @Test
+    public void testLookupsDuringCompaction() {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        final CompactingMealyTreeBuilder<Character, Integer> builder =
+                new CompactingMealyTreeBuilder<>(alphabet, THRESHOLD, tasks::add);
+
+        final List<Word<Character>> words = generateWords();
+
+        for (int i = 0; i < THRESHOLD; i++) {
+            insert(builder, words.get(i));
+        }
+
+        // the compaction has been triggered but not yet executed
+        Assert.assertTrue(builder.isCompacting());
+        Assert.assertEquals(tasks.size(), 1);
+
+        for (int i = THRESHOLD; i < NUM_WORDS; i++) {
+            insert(builder, words.get(i));
+        }
+
+        // no second compaction while the first one is still pending
+        Assert.assertEquals(tasks.size(), 1);
+        checkLookups(builder, words);
+
+        tasks.remove().run();
+
+        Assert.assertFalse(builder.isCompacting());
+        checkLookups(builder, words);
+
+        // the next insertion triggers the next compaction
+        insert(builder, generateWord(new Random(1), LENGTH + 1));
+        Assert.assertTrue(builder.isCompacting());
+        tasks.remove().run();
+        checkLookups(builder, words);
+    }
+
+    @Test
+    public void testCompactionReducesNodes() {
+        final CompactingMealyTreeBuilder<Character, Integer> builder =
+                new CompactingMealyTreeBuilder<>(alphabet, NUM_WORDS);
+        final IncrementalMealyTreeBuilder<Character, Integer> tree = new IncrementalMealyTreeBuilder<>(alphabet);
+
+        final List<Word<Character>> words = generateWords();
+
+        for (Word<Character> w : words) {
+            insert(builder, w);
+            insert(tree, w);
+        }
+
+        builder.awaitCompaction();
+
+        Assert.assertFalse(builder.isCompacting());
+        Assert.assertTrue(builder.asGraph().size() < tree.asGraph().size());
+        Assert.assertNull(builder.findSeparatingWord(target, alphabet, true));
+
+        final MealyTransitionSystem<?, Character, ?, Integer> ts = builder.asTransitionSystem();
+        for (Word<Character> w : words) {
+            Assert.assertEquals(computeOutput(ts, w), target.computeOutput(w));
+        }
+    }
+
+    @Test
+    public void testConflicts() {
+        final CompactingMealyTreeBuilder<Character, Integer> builder =
+                new CompactingMealyTreeBuilder<>(alphabet, 1, Runnable::run);
+
+        final Word<Character> word = Word.fromSymbols('a', 'b');
+        insert(builder, word);
+        Assert.assertFalse(builder.isCompacting());
+
+        final Word<Integer> output = target.computeOutput(word);
+        final Integer invalid = output.firstSymbol() % CacheTestUtils.OUTPUT_ALPHABET.size() + 1;
+
+        // conflicts with the information in the DAG
+        Assert.assertThrows(ConflictException.class,
+                            () -> builder.insert(word.prefix(1), Word.fromLetter(invalid)));
+        Assert.assertThrows(IllegalArgumentException.class, () -> builder.insert(word, Word.epsilon()));
+    }
+
+    @Test
+    public void testGrowingAlphabet() {
+        final Alphabet<Character> growing = new GrowingMapAlphabet<>(alphabet);
+        final CompactingMealyTreeBuilder<Character, Integer> builder =
+                new CompactingMealyTreeBuilder<>(growing, 1, Runnable::run);
+
+        insert(builder, Word.fromSymbols('a', 'b'));
+        builder.addAlphabetSymbol('d');
+        final Integer out = target.computeOutput(Word.fromLetter('a')).firstSymbol();
+        builder.insert(Word.fromSymbols('a', 'd'), Word.fromSymbols(out, 1));
+
+        Assert.assertEquals(builder.lookup(Word.fromSymbols('a', 'd')).lastSymbol(), Integer.valueOf(1));
+        Assert.assertTrue(growing.containsSymbol('d'));
+    }
+
+    @Test
+    public void testFailingCompaction() {
+        final FailingAlphabet failing = new FailingAlphabet(alphabet);
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        final CompactingMealyTreeBuilder<Character, Integer> builder =
+                new CompactingMealyTreeBuilder<>(failing, THRESHOLD, tasks::add);
+
+        final List<Word<Character>> words = generateWords();
+
+        for (int i = 0; i < THRESHOLD; i++) {
+            insert(builder, words.get(i));
+        }
+
+        failing.fail = true;
+        tasks.remove().run();
+        failing.fail = false;
+
+        // the failure is reported once
+        Assert.assertFalse(builder.isCompacting());
+        Assert.assertThrows(IllegalStateException.class, () -> builder.lookup(words.get(0)));
+
+        for (int i = THRESHOLD; i < NUM_WORDS; i++) {
+            insert(builder, words.get(i));
+        }
+
+        // the frozen tree is compacted again
+        Assert.assertEquals(tasks.size(), 1);
+        tasks.remove().run();
+        builder.awaitCompaction();
+
+        checkLookups(builder, words);
+    }
+
+    private void insert(IncrementalMealyBuilder<Character, Integer> builder, Word<Character> word) {
+        builder.insert(word, target.computeOutput(word));
+    }
+
+    private void checkLookups(CompactingMealyTreeBuilder<Character, Integer> builder, List<Word<Character>> words) {
+        for (Word<Character> w : words) {
+            final WordBuilder<Integer> wb = new WordBuilder<>();
+            Assert.assertTrue(builder.lookup(w, wb));
+            Assert.assertEquals(wb.toWord(), target.computeOutput(w));
+
+            // prefixes of cached words are cached as well
+            final Word<Character> prefix = w.prefix(w.length() / 2);
+            Assert.assertEquals(builder.lookup(prefix), target.computeOutput(prefix));
+        }
+    }
+
+    private static <S, T> Word<Integer> computeOutput(MealyTransitionSystem<S, Character, T, Integer> ts,
+                                                      Word<Character> word) {
+        final WordBuilder<Integer> wb = new WordBuilder<>(word.length());
+        S state = ts.getInitialState();
+
+        for (Character sym : word) {
+            final T trans = ts.getTransition(state, sym);
+            Assert.assertNotNull(trans);
+            wb.append(ts.getTransitionOutput(trans));
+            state = ts.getSuccessor(trans);
+        }
+
+        return wb.toWord();
+    }
+
+    private List<Word<Character>> generateWords() {
+        final Random random = new Random(42);
+        final List<Word<Character>> result = new ArrayList<>(NUM_WORDS);
+
+        while (result.size() < NUM_WORDS) {
+            // words of equal length are never prefixes of each other, so each word triggers an insertion
+            final Word<Character> w = generateWord(random, LENGTH);
+            if (!result.contains(w)) {
+                result.add(w);
+            }
+        }
+
+        return result;
+    }
+
+    private Word<Character> generateWord(Random random, int length) {
+        final WordBuilder<Character> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.append(alphabet.getSymbol(random.nextInt(alphabet.size())));
+        }
+        return wb.toWord();
+    }
+
+    private static final class FailingAlphabet extends ListAlphabet<Character> {
+
+        private boolean fail;
+
+        FailingAlphabet(Alphabet<Character> alphabet) {
+            super(new ArrayList<>(alphabet));
+        }
+
+        @Override
+        public Iterator<Character> iterator() {
+            if (fail) {
+                throw new IllegalStateException();
+            }
+            return super.iterator();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.oracle.membership.MealySimulatorOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class MealyBatchModeCacheTest extends AbstractMealyCacheTest {
+
+    @Override
+    protected MealyCacheOracle<Character, Integer> getCache(MealyMembershipOracle<Character, Integer> delegate) {
+        final MealyCacheOracle<Character, Integer> cache = MealyCaches.createTreeCache(getAlphabet(), delegate);
+        cache.setBatchMode(true);
+        return cache;
+    }
+
+    @Test
+    public void testSingleDelegateBatch() {
+        final BatchRecordingOracle delegate = new BatchRecordingOracle();
+        final MealyCacheOracle<Character, Integer> cache = getCache(delegate);
+
+        final Word<Character> w1 = Word.fromCharSequence("abc");
+        final Word<Character> w2 = Word.fromCharSequence("bca");
+        final Word<Character> w3 = Word.fromCharSequence("ab");
+
+        final List<DefaultQuery<Character, Word<Integer>>> queries = Arrays.asList(new DefaultQuery<>(w1),
+                                                                                   new DefaultQuery<>(w2),
+                                                                                   new DefaultQuery<>(w3));
+
+        cache.processQueries(queries);
+
+        // w3 is a prefix of w1, so only two queries are forwarded, but both in a single batch
+        Assert.assertEquals(delegate.batchSizes, Arrays.asList(2));
+
+        for (DefaultQuery<Character, Word<Integer>> q : queries) {
+            Assert.assertEquals(q.getOutput(), CacheTestUtils.MEALY.computeOutput(q.getInput()));
+        }
+
+        // all information should now be cached
+        cache.processQueries(queries);
+        Assert.assertEquals(delegate.batchSizes, Arrays.asList(2));
+    }
+
+    private static final class BatchRecordingOracle implements MealyMembershipOracle<Character, Integer> {
+
+        private final MealySimulatorOracle<Character, Integer> simulator =
+                new MealySimulatorOracle<>(CacheTestUtils.MEALY);
+        private final List<Integer> batchSizes = new ArrayList<>();
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Word<Integer>>> queries) {
+            batchSizes.add(queries.size());
+            simulator.processQueries(queries);
+        }
+    }
+}
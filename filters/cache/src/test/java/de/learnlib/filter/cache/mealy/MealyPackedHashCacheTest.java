@@ -0,0 +1,71 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import de.learnlib.filter.cache.AbstractCacheTest;
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
+import de.learnlib.oracle.membership.MealySimulatorOracle;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+
+public class MealyPackedHashCacheTest
+        extends AbstractCacheTest<MealyPackedHashCacheOracle<Character, Integer>, MealyMachine<?, Character, ?, Integer>, Character, Word<Integer>> {
+
+    private final MealyCounterOracle<Character, Integer> counter;
+
+    public MealyPackedHashCacheTest() {
+        counter = new MealyCounterOracle<>(new MealySimulatorOracle<>(CacheTestUtils.MEALY));
+    }
+
+    @Override
+    protected MealyMachine<?, Character, ?, Integer> getTargetModel() {
+        return CacheTestUtils.MEALY;
+    }
+
+    @Override
+    protected MealyMachine<?, Character, ?, Integer> getInvalidTargetModel() {
+        return CacheTestUtils.MEALY_INVALID;
+    }
+
+    @Override
+    protected MealyPackedHashCacheOracle<Character, Integer> getCachedOracle() {
+        return MealyCaches.createPackedHashCache(getAlphabet(), CacheTestUtils.OUTPUT_ALPHABET, counter);
+    }
+
+    @Override
+    protected MealyPackedHashCacheOracle<Character, Integer> getResumedOracle(MealyPackedHashCacheOracle<Character, Integer> original) {
+        final MealyPackedHashCacheOracle<Character, Integer> fresh = getCachedOracle();
+        serializeResumable(original, fresh);
+        return fresh;
+    }
+
+    @Override
+    protected long getNumberOfPosedQueries() {
+        return counter.getQueryCounter().getCount();
+    }
+
+    @Override
+    protected boolean supportsPrefixes() {
+        return false;
+    }
+
+    @Override
+    protected Alphabet<Character> getAlphabet() {
+        return CacheTestUtils.INPUT_ALPHABET;
+    }
+}
@@ -0,0 +1,134 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+public class MealyPersistentCacheTest extends AbstractMealyCacheTest {
+
+    private final Path file;
+    private PersistentMealyTreeBuilder<Character, Integer> writer;
+    private PersistentMealyTreeBuilder<Character, Integer> reader;
+    private MealyMembershipOracle<Character, Integer> delegate;
+
+    public MealyPersistentCacheTest() throws IOException {
+        this.file = Files.createTempFile("learnlib-mealy-cache", ".bin");
+    }
+
+    @Override
+    protected MealyCacheOracle<Character, Integer> getCache(MealyMembershipOracle<Character, Integer> delegate) {
+        try {
+            this.writer = new PersistentMealyTreeBuilder<>(file, getAlphabet(), CacheTestUtils.OUTPUT_ALPHABET);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.delegate = delegate;
+        return MealyCaches.createPersistentCache(getAlphabet(), delegate, writer);
+    }
+
+    /**
+     * Persistent caches are not resumed via serialization but share their data via the file. Hence, we open the file
+     * in read-only mode (while the original cache is still in use).
+     */
+    @Override
+    protected MealyCacheOracle<Character, Integer> getResumedOracle(MealyCacheOracle<Character, Integer> original) {
+        try {
+            this.reader =
+                    new PersistentMealyTreeBuilder<>(file, getAlphabet(), CacheTestUtils.OUTPUT_ALPHABET, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return MealyCaches.createPersistentCache(getAlphabet(), delegate, reader);
+    }
+
+    @Test
+    public void testSingleWriter() throws IOException {
+        final Path tmp = Files.createTempFile("learnlib-mealy-cache", ".bin");
+
+        try (PersistentMealyTreeBuilder<Character, Integer> first = new PersistentMealyTreeBuilder<>(tmp,
+                                                                                                      getAlphabet(),
+                                                                                                      CacheTestUtils.OUTPUT_ALPHABET)) {
+            first.insert(Word.fromLetter('a'), Word.fromLetter(1));
+            Assert.assertThrows(IOException.class,
+                                () -> new PersistentMealyTreeBuilder<>(tmp,
+                                                                       getAlphabet(),
+                                                                       CacheTestUtils.OUTPUT_ALPHABET));
+
+            // readers are not restricted
+            try (PersistentMealyTreeBuilder<Character, Integer> second = new PersistentMealyTreeBuilder<>(tmp,
+                                                                                                           getAlphabet(),
+                                                                                                           CacheTestUtils.OUTPUT_ALPHABET,
+                                                                                                           true)) {
+                Assert.assertEquals(second.size(), 1);
+            }
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    @Test(dependsOnMethods = "testDuplicatesInBatch")
+    public void testReopen() throws IOException {
+        final Query<Character, Word<Integer>> original = getQuery(0);
+        final int size = writer.size();
+        writer.close();
+
+        try (PersistentMealyTreeBuilder<Character, Integer> reopened = new PersistentMealyTreeBuilder<>(file,
+                                                                                                         getAlphabet(),
+                                                                                                         CacheTestUtils.OUTPUT_ALPHABET)) {
+            Assert.assertEquals(reopened.size(), size);
+
+            final MealyCacheOracle<Character, Integer> cache =
+                    MealyCaches.createPersistentCache(getAlphabet(), new FailingOracle(), reopened);
+            final DefaultQuery<Character, Word<Integer>> query =
+                    new DefaultQuery<>(original.getPrefix(), original.getSuffix());
+
+            cache.processQuery(query);
+            Assert.assertEquals(query.getOutput(), CacheTestUtils.MEALY.computeSuffixOutput(query.getPrefix(),
+                                                                                            query.getSuffix()));
+        }
+    }
+
+    @AfterClass
+    public void cleanUp() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+        Files.deleteIfExists(file);
+    }
+
+    private static final class FailingOracle implements MealyMembershipOracle<Character, Integer> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Word<Integer>>> queries) {
+            if (!queries.isEmpty()) {
+                throw new AssertionError("Cached queries should not be delegated");
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import de.learnlib.filter.cache.CacheTestUtils;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.incremental.mealy.tree.IncrementalMealyTreeBuilder;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class MealyTraceLoaderTest {
+
+    private static final int NUM_TRACES = 200;
+    private static final int MAX_LENGTH = 15;
+    // the (binary) header consists of four integers
+    private static final int TRACE_OFFSET = 4 * Integer.BYTES;
+
+    private final MealyTraceLoader<Character, Integer> loader =
+            new MealyTraceLoader<>(CacheTestUtils.INPUT_ALPHABET, CacheTestUtils.OUTPUT_ALPHABET);
+
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("learnlib-mealy-traces", ".trace");
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        final List<DefaultQuery<Character, Word<Integer>>> traces = generateTraces();
+        loader.writeBinary(file, traces);
+
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        checkLoadedTraces(loader.loadBinary(file, builder), builder, traces);
+    }
+
+    @Test
+    public void testTextRoundTrip() throws IOException {
+        final List<DefaultQuery<Character, Word<Integer>>> traces = generateTraces();
+        loader.writeText(file, traces);
+
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        checkLoadedTraces(loader.loadText(file, builder), builder, traces);
+    }
+
+    @Test
+    public void testTextFormat() throws IOException {
+        Files.write(file,
+                    Arrays.asList("# a comment", "", "a, b;1, 2", "a;1", "c,c,c ; 3,3,3", ";"),
+                    StandardCharsets.UTF_8);
+
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        final MealyTraceLoader.LoadResult<Character> result = loader.loadText(file, builder);
+
+        Assert.assertEquals(result.getNumTraces(), 4);
+        Assert.assertTrue(result.getConflicts().isEmpty());
+        Assert.assertEquals(builder.lookup(Word.fromSymbols('a', 'b')), Word.fromSymbols(1, 2));
+        Assert.assertEquals(builder.lookup(Word.fromSymbols('c', 'c', 'c')), Word.fromSymbols(3, 3, 3));
+    }
+
+    @Test
+    public void testMalformedText() throws IOException {
+        Files.write(file, Collections.singletonList("a,b;1"), StandardCharsets.UTF_8);
+        Assert.assertThrows(IOException.class, () -> loader.loadText(file, newBuilder()));
+
+        Files.write(file, Collections.singletonList("a,x;1,2"), StandardCharsets.UTF_8);
+        Assert.assertThrows(IOException.class, () -> loader.loadText(file, newBuilder()));
+
+        Files.write(file, Collections.singletonList("a,b"), StandardCharsets.UTF_8);
+        Assert.assertThrows(IOException.class, () -> loader.loadText(file, newBuilder()));
+    }
+
+    @Test
+    public void testMalformedBinary() throws IOException {
+        loader.writeBinary(file, generateTraces());
+
+        // alphabet sizes do not match
+        final MealyTraceLoader<Character, Integer> other =
+                new MealyTraceLoader<>(CacheTestUtils.INPUT_ALPHABET, Alphabets.integers(1, 2));
+        Assert.assertThrows(IOException.class, () -> other.loadBinary(file, newBuilder()));
+
+        // truncated file
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        Assert.assertThrows(IOException.class, () -> loader.loadBinary(file, newBuilder()));
+
+        // no trace file
+        Files.write(file, "a;1".getBytes(StandardCharsets.UTF_8));
+        Assert.assertThrows(IOException.class, () -> loader.loadBinary(file, newBuilder()));
+    }
+
+    @Test
+    public void testCorruptBinary() throws IOException {
+        loader.writeBinary(file, Collections.singletonList(trace(Word.fromLetter('a'), Word.fromLetter(1))));
+        final byte[] bytes = Files.readAllBytes(file);
+
+        // negative and overflowing trace lengths
+        for (int length : new int[] {-1, Integer.MAX_VALUE}) {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes.clone());
+            buffer.putInt(TRACE_OFFSET, length);
+            Files.write(file, buffer.array());
+            Assert.assertThrows(IOException.class, () -> loader.loadBinary(file, newBuilder()));
+        }
+
+        // negative symbol indices (only representable with a symbol width of four bytes)
+        final MealyTraceLoader<Character, Integer> wide =
+                new MealyTraceLoader<>(CacheTestUtils.INPUT_ALPHABET, Alphabets.integers(0, 1 << Short.SIZE));
+        wide.writeBinary(file, Collections.singletonList(trace(Word.fromLetter('a'), Word.fromLetter(0))));
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        buffer.putInt(TRACE_OFFSET + 2 * Integer.BYTES, -1);
+        Files.write(file, buffer.array());
+        Assert.assertThrows(IOException.class, () -> wide.loadBinary(file, newBuilder()));
+    }
+
+    @Test
+    public void testConflictingPrefixOfConflict() throws IOException {
+        final List<DefaultQuery<Character, Word<Integer>>> traces = new ArrayList<>();
+        traces.add(trace(Word.fromLetter('a'), Word.fromLetter(1)));
+        traces.add(trace(Word.fromSymbols('a', 'b'), Word.fromSymbols(1, 2)));
+        traces.add(trace(Word.fromLetter('b'), Word.fromLetter(1)));
+        traces.add(trace(Word.fromSymbols('b', 'c'), Word.fromSymbols(1, 2)));
+
+        // both prefixes are consistent with their successors, but only the prefix 'b' with the builder
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        builder.insert(Word.fromLetter('a'), Word.fromLetter(2));
+        builder.insert(Word.fromSymbols('b', 'c'), Word.fromSymbols(1, 3));
+
+        loader.writeBinary(file, traces);
+        final MealyTraceLoader.LoadResult<Character> result = loader.loadBinary(file, builder);
+
+        Assert.assertEquals(result.getNumInserted(), 1);
+        Assert.assertEquals(result.getConflicts(),
+                            Arrays.asList(Word.fromLetter('a'),
+                                          Word.fromSymbols('a', 'b'),
+                                          Word.fromSymbols('b', 'c')));
+    }
+
+    @Test
+    public void testConflicts() throws IOException {
+        final List<DefaultQuery<Character, Word<Integer>>> traces = new ArrayList<>();
+        traces.add(trace(Word.fromSymbols('a', 'b', 'c'), Word.fromSymbols(1, 2, 3)));
+        // conflicting prefix
+        traces.add(trace(Word.fromSymbols('a', 'b'), Word.fromSymbols(1, 1)));
+        // consistent prefix
+        traces.add(trace(Word.fromLetter('a'), Word.fromLetter(1)));
+        // conflicting sibling
+        traces.add(trace(Word.fromSymbols('a', 'c'), Word.fromSymbols(2, 1)));
+        // conflicts with pre-existing information
+        traces.add(trace(Word.fromLetter('b'), Word.fromLetter(2)));
+
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        builder.insert(Word.fromLetter('b'), Word.fromLetter(3));
+
+        loader.writeBinary(file, traces);
+        final MealyTraceLoader.LoadResult<Character> result = loader.loadBinary(file, builder);
+
+        Assert.assertEquals(result.getNumTraces(), traces.size());
+        Assert.assertEquals(result.getNumInserted(), 1);
+        Assert.assertEquals(result.getConflicts(),
+                            Arrays.asList(Word.fromSymbols('a', 'b'),
+                                          Word.fromSymbols('a', 'c'),
+                                          Word.fromLetter('b')));
+        Assert.assertEquals(builder.lookup(Word.fromSymbols('a', 'b', 'c')), Word.fromSymbols(1, 2, 3));
+        Assert.assertEquals(builder.lookup(Word.fromLetter('b')), Word.fromLetter(3));
+    }
+
+    @Test
+    public void testSeededCache() throws IOException {
+        final List<DefaultQuery<Character, Word<Integer>>> traces = generateTraces();
+        loader.writeBinary(file, traces);
+
+        final IncrementalMealyBuilder<Character, Integer> builder = newBuilder();
+        loader.loadBinary(file, builder);
+
+        final MealyCacheOracle<Character, Integer> cache =
+                MealyCaches.createCache(CacheTestUtils.INPUT_ALPHABET, new FailingOracle(), builder);
+
+        for (DefaultQuery<Character, Word<Integer>> trace : traces) {
+            final Word<Character> input = trace.getInput();
+            final int split = input.length() / 2;
+            Assert.assertEquals(cache.answerQuery(input.prefix(split), input.subWord(split)),
+                                trace.getOutput().subWord(split));
+        }
+
+        Assert.assertEquals(cache.getCacheCounters().getMisses(), 0);
+    }
+
+    private IncrementalMealyBuilder<Character, Integer> newBuilder() {
+        return new IncrementalMealyTreeBuilder<>(CacheTestUtils.INPUT_ALPHABET);
+    }
+
+    private static void checkLoadedTraces(MealyTraceLoader.LoadResult<Character> result,
+                                          IncrementalMealyBuilder<Character, Integer> builder,
+                                          Collection<DefaultQuery<Character, Word<Integer>>> traces) {
+        Assert.assertEquals(result.getNumTraces(), traces.size());
+        Assert.assertTrue(result.getConflicts().isEmpty());
+
+        for (DefaultQuery<Character, Word<Integer>> trace : traces) {
+            Assert.assertEquals(builder.lookup(trace.getInput()), trace.getOutput());
+        }
+    }
+
+    private static DefaultQuery<Character, Word<Integer>> trace(Word<Character> input, Word<Integer> output) {
+        return new DefaultQuery<>(input, output);
+    }
+
+    private static List<DefaultQuery<Character, Word<Integer>>> generateTraces() {
+        final Random random = new Random(42);
+        final List<DefaultQuery<Character, Word<Integer>>> result = new ArrayList<>(NUM_TRACES);
+
+        for (int i = 0; i < NUM_TRACES; i++) {
+            final int length = random.nextInt(MAX_LENGTH + 1);
+            final WordBuilder<Character> wb = new WordBuilder<>(length);
+            for (int j = 0; j < length; j++) {
+                final int idx = random.nextInt(CacheTestUtils.INPUT_ALPHABET.size());
+                wb.append(CacheTestUtils.INPUT_ALPHABET.getSymbol(idx));
+            }
+            final Word<Character> input = wb.toWord();
+            result.add(trace(input, CacheTestUtils.MEALY.computeOutput(input)));
+        }
+
+        return result;
+    }
+
+    private static final class FailingOracle implements MealyMembershipOracle<Character, Integer> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Word<Integer>>> queries) {
+            if (!queries.isEmpty()) {
+                throw new AssertionError("Cached queries should not be delegated");
+            }
+        }
+    }
+}
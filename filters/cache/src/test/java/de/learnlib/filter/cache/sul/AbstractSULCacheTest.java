@@ -24,6 +24,8 @@ import de.learnlib.sul.SUL;
 import net.automatalib.alphabet.Alphabet;
 import net.automatalib.automaton.transducer.MealyMachine;
 import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
 
 public abstract class AbstractSULCacheTest
         extends AbstractCacheTest<SULLearningCacheOracle<Character, Integer, SULCache<Character, Integer>>, MealyMachine<?, Character, ?, Integer>, Character, Word<Integer>> {
@@ -72,5 +74,70 @@ public abstract class AbstractSULCacheTest
         return CacheTestUtils.INPUT_ALPHABET;
     }
 
+    @Test
+    public void testSingleDelegateCallPerMiss() {
+        final CountingSUL delegate = new CountingSUL(new MealySimulatorSUL<>(CacheTestUtils.MEALY));
+        final SULCache<Character, Integer> cache = getCache(delegate);
+
+        // complete miss
+        assertStepAll(cache, Word.fromString("abc"));
+        Assert.assertEquals(delegate.calls, 1);
+
+        // cached prefix, then miss
+        assertStepAll(cache, Word.fromString("abcab"));
+        Assert.assertEquals(delegate.calls, 2);
+
+        // cached single steps, then miss
+        cache.pre();
+        Assert.assertEquals(cache.step('a'), CacheTestUtils.MEALY.computeOutput(Word.fromLetter('a')).firstSymbol());
+        final Word<Character> suffix = Word.fromString("bcabcc");
+        Assert.assertEquals(cache.stepAll(suffix),
+                            CacheTestUtils.MEALY.computeSuffixOutput(Word.fromLetter('a'), suffix));
+        cache.post();
+        Assert.assertEquals(delegate.calls, 3);
+
+        // complete hit
+        assertStepAll(cache, Word.fromString("abcabc"));
+        Assert.assertEquals(delegate.calls, 3);
+    }
+
+    private static void assertStepAll(SUL<Character, Integer> sul, Word<Character> input) {
+        sul.pre();
+        Assert.assertEquals(sul.stepAll(input), CacheTestUtils.MEALY.computeOutput(input));
+        sul.post();
+    }
+
     protected abstract SULCache<Character, Integer> getCache(SUL<Character, Integer> delegate);
+
+    private static final class CountingSUL implements SUL<Character, Integer> {
+
+        private final SUL<Character, Integer> delegate;
+        private int calls;
+
+        CountingSUL(SUL<Character, Integer> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void pre() {
+            delegate.pre();
+        }
+
+        @Override
+        public void post() {
+            delegate.post();
+        }
+
+        @Override
+        public Integer step(Character in) {
+            calls++;
+            return delegate.step(in);
+        }
+
+        @Override
+        public Word<Integer> stepAll(Word<? extends Character> in) {
+            calls++;
+            return delegate.stepAll(in);
+        }
+    }
 }
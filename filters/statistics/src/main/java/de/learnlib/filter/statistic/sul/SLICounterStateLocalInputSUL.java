@@ -20,6 +20,7 @@ import java.util.Collection;
 import de.learnlib.filter.statistic.Counter;
 import de.learnlib.statistic.StatisticSUL;
 import de.learnlib.sul.StateLocalInputSUL;
+import net.automatalib.word.Word;
 
 public class SLICounterStateLocalInputSUL<I, O> implements StateLocalInputSUL<I, O>, StatisticSUL<I, O> {
 
@@ -50,6 +51,11 @@ public class SLICounterStateLocalInputSUL<I, O> implements StateLocalInputSUL<I,
         return sul.step(in);
     }
 
+    @Override
+    public Word<O> stepAll(Word<? extends I> in) {
+        return sul.stepAll(in);
+    }
+
     @Override
     public boolean canFork() {
         return sul.canFork();
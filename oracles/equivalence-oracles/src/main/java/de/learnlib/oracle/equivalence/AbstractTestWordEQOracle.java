@@ -15,17 +15,29 @@
  */
 package de.learnlib.oracle.equivalence;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
 
 import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Streams;
 import de.learnlib.logging.Category;
+import de.learnlib.oracle.AsyncMembershipOracle;
 import de.learnlib.oracle.EquivalenceOracle;
 import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.BatchInterruptedException;
 import de.learnlib.query.DefaultQuery;
 import net.automatalib.automaton.concept.Output;
 import net.automatalib.word.Word;
@@ -39,6 +51,14 @@ import org.slf4j.LoggerFactory;
  * <p>
  * Being {@link Stream stream}-based, this oracle encourages the lazy computation of counterexamples, so that all
  * counterexamples do not have to be computed upfront, but only until the first valid counterexample is found.
+ * <p>
+ * If explicitly enabled via the {@code parallel} constructor flag and the given membership oracle is an
+ * {@link AsyncMembershipOracle} (such as a parallel oracle), the oracle operates in a parallel mode: up to
+ * {@code batchSize} test words are kept in flight and each answer is compared against the hypothesis as soon as it
+ * arrives (rather than waiting for a whole batch). Once a counterexample has been found, no further test words are
+ * submitted, all outstanding queries are cancelled (queries that have not started yet are skipped), and the shortest
+ * counterexample among the answered queries is returned. Note that in this mode the returned counterexample depends on
+ * the timing of the answers and is not necessarily the first counterexample of the test word stream.
  *
  * @param <A>
  *         hypothesis type
@@ -53,16 +73,40 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
 
     private final MembershipOracle<I, D> membershipOracle;
     private final int batchSize;
+    private final @Nullable AsyncMembershipOracle<I, D> asyncOracle;
 
     public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle) {
         this(membershipOracle, 1);
     }
 
     public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle, int batchSize) {
+        this(membershipOracle, batchSize, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param membershipOracle
+     *         the membership oracle to answer the test words
+     * @param batchSize
+     *         the number of test words that are processed at once (or kept in flight, in parallel mode)
+     * @param parallel
+     *         whether to enable the parallel mode. Only has an effect if the membership oracle is an
+     *         {@link AsyncMembershipOracle}
+     */
+    public AbstractTestWordEQOracle(MembershipOracle<I, D> membershipOracle, int batchSize, boolean parallel) {
         Preconditions.checkArgument(batchSize > 0);
 
         this.membershipOracle = membershipOracle;
         this.batchSize = batchSize;
+
+        if (parallel && membershipOracle instanceof AsyncMembershipOracle) {
+            @SuppressWarnings("unchecked") // the async oracle is the very same object as the membership oracle
+            final AsyncMembershipOracle<I, D> async = (AsyncMembershipOracle<I, D>) membershipOracle;
+            this.asyncOracle = async;
+        } else {
+            this.asyncOracle = null;
+        }
     }
 
     @Override
@@ -75,17 +119,105 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         }
 
         final Stream<Word<I>> testWordStream = generateTestWords(hypothesis, inputs);
+
+        if (asyncOracle != null) {
+            return findCounterExampleAsync(hypothesis, testWordStream, asyncOracle);
+        }
+
         final Stream<DefaultQuery<I, D>> queryStream = testWordStream.map(DefaultQuery::new);
         final Stream<DefaultQuery<I, D>> answeredQueryStream = answerQueries(queryStream);
 
-        final Stream<DefaultQuery<I, D>> ceStream = answeredQueryStream.filter(query -> {
-            D hypOutput = hypothesis.computeOutput(query.getInput());
-            return !Objects.equals(hypOutput, query.getOutput());
-        });
+        final Stream<DefaultQuery<I, D>> ceStream =
+                answeredQueryStream.filter(query -> isCounterExample(hypothesis, query));
 
         return ceStream.findFirst().orElse(null);
     }
 
+    private @Nullable DefaultQuery<I, D> findCounterExampleAsync(A hypothesis,
+                                                                 Stream<Word<I>> testWordStream,
+                                                                 AsyncMembershipOracle<I, D> oracle) {
+        final Iterator<Word<I>> testWordIt = testWordStream.iterator();
+        final BlockingQueue<Completion<I, D>> completions = new LinkedBlockingQueue<>();
+        final Map<DefaultQuery<I, D>, CompletableFuture<Void>> inFlight = new IdentityHashMap<>();
+
+        DefaultQuery<I, D> result = null;
+
+        try {
+            while (result == null) {
+                while (inFlight.size() < batchSize && testWordIt.hasNext()) {
+                    final DefaultQuery<I, D> query = new DefaultQuery<>(testWordIt.next());
+                    final CompletableFuture<Void> future = oracle.processQueriesAsync(Collections.singleton(query));
+                    inFlight.put(query, future);
+                    future.whenComplete((v, t) -> completions.add(new Completion<>(query, t)));
+                }
+
+                if (inFlight.isEmpty()) {
+                    return null;
+                }
+
+                final Completion<I, D> completion = completions.take();
+                inFlight.remove(completion.query);
+                result = checkCompletion(hypothesis, completion, null);
+            }
+
+            // collect the answers that arrived in the meantime, they may contain shorter counterexamples
+            final List<Completion<I, D>> remaining = new ArrayList<>();
+            completions.drainTo(remaining);
+            for (Completion<I, D> c : remaining) {
+                if (inFlight.remove(c.query) != null) {
+                    if (c.error == null) {
+                        result = checkCompletion(hypothesis, c, result);
+                    } else {
+                        // we already have a valid counterexample, so do not discard it because of unrelated failures
+                        LOGGER.warn(Category.COUNTEREXAMPLE,
+                                    "Ignoring failed test query after a counterexample has been found",
+                                    unwrap(c.error));
+                    }
+                }
+            }
+
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchInterruptedException(e);
+        } finally {
+            for (CompletableFuture<Void> future : inFlight.values()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private @Nullable DefaultQuery<I, D> checkCompletion(A hypothesis,
+                                                         Completion<I, D> completion,
+                                                         @Nullable DefaultQuery<I, D> shortest) {
+        if (completion.error != null) {
+            final Throwable cause = unwrap(completion.error);
+            Throwables.throwIfUnchecked(cause);
+            throw new IllegalStateException(cause);
+        }
+
+        final DefaultQuery<I, D> query = completion.query;
+
+        if (!isCounterExample(hypothesis, query)) {
+            return shortest;
+        }
+
+        if (shortest == null || query.getInput().length() < shortest.getInput().length()) {
+            return query;
+        }
+
+        return shortest;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private boolean isCounterExample(A hypothesis, DefaultQuery<I, D> query) {
+        D hypOutput = hypothesis.computeOutput(query.getInput());
+        return !Objects.equals(hypOutput, query.getOutput());
+    }
+
     /**
      * Generate the stream of test words that should be used for the current equivalence check cycle.
      *
@@ -114,4 +246,15 @@ public abstract class AbstractTestWordEQOracle<A extends Output<I, D>, I, D> imp
         return this.batchSize > 1;
     }
 
+    private static final class Completion<I, D> {
+
+        private final DefaultQuery<I, D> query;
+        private final @Nullable Throwable error;
+
+        Completion(DefaultQuery<I, D> query, @Nullable Throwable error) {
+            this.query = query;
+            this.error = error;
+        }
+    }
+
 }
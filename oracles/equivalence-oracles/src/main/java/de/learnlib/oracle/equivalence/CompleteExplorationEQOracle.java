@@ -117,7 +117,30 @@ public class CompleteExplorationEQOracle<A extends Output<I, D>, I, D> extends A
      *         size of the batches sent to the membership oracle
      */
     public CompleteExplorationEQOracle(MembershipOracle<I, D> sulOracle, int minDepth, int maxDepth, int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, minDepth, maxDepth, batchSize, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sulOracle
+     *         interface to the system under learning
+     * @param minDepth
+     *         minimum exploration depth
+     * @param maxDepth
+     *         maximum exploration depth
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param parallel
+     *         whether to enable the parallel mode (see {@link AbstractTestWordEQOracle}), if the membership oracle
+     *         is asynchronous
+     */
+    public CompleteExplorationEQOracle(MembershipOracle<I, D> sulOracle,
+                                       int minDepth,
+                                       int maxDepth,
+                                       int batchSize,
+                                       boolean parallel) {
+        super(sulOracle, batchSize, parallel);
         this.minDepth = Math.min(minDepth, maxDepth);
         this.maxDepth = Math.max(minDepth, maxDepth);
     }
@@ -83,7 +83,15 @@ public class IncrementalWMethodEQOracle<A extends UniversalDeterministicAutomato
                                       Alphabet<I> alphabet,
                                       int maxDepth,
                                       int batchSize) {
-        super(oracle, batchSize);
+        this(oracle, alphabet, maxDepth, batchSize, false);
+    }
+
+    public IncrementalWMethodEQOracle(MembershipOracle<I, D> oracle,
+                                      Alphabet<I> alphabet,
+                                      int maxDepth,
+                                      int batchSize,
+                                      boolean parallel) {
+        super(oracle, batchSize, parallel);
 
         this.incrementalWMethodIt = new IncrementalWMethodTestsIterator<>(alphabet);
         this.incrementalWMethodIt.setMaxDepth(maxDepth);
@@ -91,7 +91,17 @@ public class RandomWordsEQOracle<A extends Output<I, D>, I, D> extends AbstractT
                                int maxTests,
                                Random random,
                                int batchSize) {
-        super(mqOracle, batchSize);
+        this(mqOracle, minLength, maxLength, maxTests, random, batchSize, false);
+    }
+
+    public RandomWordsEQOracle(MembershipOracle<I, D> mqOracle,
+                               int minLength,
+                               int maxLength,
+                               int maxTests,
+                               Random random,
+                               int batchSize,
+                               boolean parallel) {
+        super(mqOracle, batchSize, parallel);
         this.maxTests = maxTests;
         this.minLength = minLength;
         this.maxLength = maxLength;
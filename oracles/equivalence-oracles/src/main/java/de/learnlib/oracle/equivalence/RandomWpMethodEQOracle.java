@@ -173,7 +173,36 @@ public class RandomWpMethodEQOracle<A extends UniversalDeterministicAutomaton<?,
                                   int bound,
                                   Random random,
                                   int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, minimalSize, rndLength, bound, random, batchSize, false);
+    }
+
+    /**
+     * Constructor for a bounded testing oracle with specific batch size.
+     *
+     * @param sulOracle
+     *         oracle which answers tests.
+     * @param minimalSize
+     *         minimal size of the random word
+     * @param rndLength
+     *         expected length (in addition to minimalSize) of random word
+     * @param bound
+     *         specifies the bound (set to 0 for unbounded).
+     * @param random
+     *         custom Random generator.
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param parallel
+     *         whether to enable the parallel mode (see {@link AbstractTestWordEQOracle}), if the membership oracle
+     *         is asynchronous
+     */
+    public RandomWpMethodEQOracle(MembershipOracle<I, D> sulOracle,
+                                  int minimalSize,
+                                  int rndLength,
+                                  int bound,
+                                  Random random,
+                                  int batchSize,
+                                  boolean parallel) {
+        super(sulOracle, batchSize, parallel);
         this.minimalSize = minimalSize;
         this.rndLength = rndLength;
         this.bound = bound;
@@ -0,0 +1,332 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence.mealy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import de.learnlib.logging.Category;
+import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import de.learnlib.oracle.parallelism.BatchInterruptedException;
+import de.learnlib.oracle.parallelism.ThreadPool;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.sul.SUL;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.common.util.collection.CollectionsUtil;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A parallel version of the {@link RandomWalkEQOracle}. The given SUL is {@link SUL#fork() forked} into several
+ * walkers that concurrently perform random walks over the hypothesis. All walkers share a common step budget, and all
+ * walkers stop as soon as one of them has found a counterexample.
+ * <p>
+ * Each walker uses its own random number generator. The generators are derived from the given seed, so the sequence
+ * of walks performed by each walker is reproducible. However, since the step budget is shared, the number of steps
+ * performed by each walker (and therefore the returned counterexample) depends on the scheduling of the walkers.
+ * <p>
+ * Note that the hypothesis is accessed concurrently by all walkers (read-only).
+ * <p>
+ * The walkers are executed on an executor that is shared by all searches of this oracle. If a walker fails, all other
+ * walkers are stopped and the failure is propagated once they have finished.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class ParallelRandomWalkEQOracle<I, O> implements MealyEquivalenceOracle<I, O>, ThreadPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelRandomWalkEQOracle.class);
+
+    // the golden ratio increment of SplitMix64, spreads the seeds of the walkers across the seed space
+    private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+    private final double restartProbability;
+    private final long maxSteps;
+    private final boolean resetStepCount;
+    private final List<SUL<I, O>> suls;
+    private final List<Random> randoms;
+    private final AtomicLong steps;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor, using an internal executor with one (daemon) thread per additional walker.
+     *
+     * @param sul
+     *         the system under learning. Must be forkable, if more than one walker is requested
+     * @param restartProbability
+     *         the probability to restart a walk before each step
+     * @param maxSteps
+     *         the maximum number of steps (of all walkers)
+     * @param resetStepCount
+     *         flag whether to reset the step count for every new search
+     * @param seed
+     *         the seed from which the random number generators of the walkers are derived
+     * @param numWalkers
+     *         the number of concurrent walkers
+     */
+    public ParallelRandomWalkEQOracle(SUL<I, O> sul,
+                                      double restartProbability,
+                                      long maxSteps,
+                                      boolean resetStepCount,
+                                      long seed,
+                                      int numWalkers) {
+        this(sul,
+             restartProbability,
+             maxSteps,
+             resetStepCount,
+             seed,
+             numWalkers,
+             Executors.newFixedThreadPool(Math.max(1, numWalkers - 1), r -> {
+                 final Thread t = new Thread(r, "random-walker");
+                 t.setDaemon(true);
+                 return t;
+             }));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning. Must be forkable, if more than one walker is requested
+     * @param restartProbability
+     *         the probability to restart a walk before each step
+     * @param maxSteps
+     *         the maximum number of steps (of all walkers)
+     * @param resetStepCount
+     *         flag whether to reset the step count for every new search
+     * @param seed
+     *         the seed from which the random number generators of the walkers are derived
+     * @param numWalkers
+     *         the number of concurrent walkers
+     * @param executor
+     *         the executor on which all but one walker are executed (the remaining walker is executed in the calling
+     *         thread)
+     */
+    public ParallelRandomWalkEQOracle(SUL<I, O> sul,
+                                      double restartProbability,
+                                      long maxSteps,
+                                      boolean resetStepCount,
+                                      long seed,
+                                      int numWalkers,
+                                      ExecutorService executor) {
+        Preconditions.checkArgument(numWalkers > 0, "At least one walker is required");
+        Preconditions.checkArgument(numWalkers == 1 || sul.canFork(), "The SUL must be forkable");
+
+        this.restartProbability = restartProbability;
+        this.maxSteps = maxSteps;
+        this.resetStepCount = resetStepCount;
+        this.steps = new AtomicLong();
+        this.executor = executor;
+        this.suls = new ArrayList<>(numWalkers);
+        this.randoms = new ArrayList<>(numWalkers);
+
+        this.suls.add(sul);
+        this.randoms.add(new Random(seed));
+
+        for (int i = 1; i < numWalkers; i++) {
+            this.suls.add(sul.fork());
+            this.randoms.add(new Random(seed + i * SEED_INCREMENT));
+        }
+    }
+
+    @Override
+    public @Nullable DefaultQuery<I, Word<O>> findCounterExample(MealyMachine<?, I, ?, O> hypothesis,
+                                                                 Collection<? extends I> inputs) {
+        return doFindCounterExample(hypothesis, inputs);
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // failures are re-thrown after all walkers have finished
+    private <S, T> @Nullable DefaultQuery<I, Word<O>> doFindCounterExample(MealyMachine<S, I, T, O> hypothesis,
+                                                                           Collection<? extends I> inputs) {
+        // reset termination counter?
+        if (resetStepCount) {
+            steps.set(0);
+        }
+
+        if (inputs.isEmpty()) {
+            LOGGER.warn(Category.COUNTEREXAMPLE,
+                        "Passed empty set of inputs to equivalence oracle; no counterexample can be found!");
+            return null;
+        }
+
+        final List<? extends I> choices = CollectionsUtil.randomAccessList(inputs);
+        final AtomicReference<@Nullable DefaultQuery<I, Word<O>>> result = new AtomicReference<>();
+        final AtomicBoolean abort = new AtomicBoolean();
+        final int numWalkers = suls.size();
+
+        if (numWalkers == 1) {
+            walk(hypothesis, choices, suls.get(0), randoms.get(0), result, abort);
+            return result.get();
+        }
+
+        final List<Future<?>> futures = new ArrayList<>(numWalkers - 1);
+        Throwable failure = null;
+
+        try {
+            for (int i = 1; i < numWalkers; i++) {
+                final SUL<I, O> sul = suls.get(i);
+                final Random random = randoms.get(i);
+                futures.add(executor.submit(() -> walk(hypothesis, choices, sul, random, result, abort)));
+            }
+
+            // the first walker is executed in the local thread
+            walk(hypothesis, choices, suls.get(0), randoms.get(0), result, abort);
+        } catch (RuntimeException e) {
+            // e.g., the submission was rejected. Failing walkers have already stopped the others
+            abort.set(true);
+            failure = e;
+        }
+
+        // wait for all walkers, so that the (forked) SULs are no longer in use once this method returns
+        InterruptedException interrupt = null;
+        for (Future<?> f : futures) {
+            while (true) {
+                try {
+                    f.get();
+                    break;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    break;
+                } catch (InterruptedException e) {
+                    abort.set(true);
+                    interrupt = e;
+                }
+            }
+        }
+
+        if (interrupt != null) {
+            Thread.currentThread().interrupt();
+            throw new BatchInterruptedException(interrupt);
+        }
+
+        if (failure != null) {
+            Throwables.throwIfUnchecked(failure);
+            throw new AssertionError("Runnables must not throw checked exceptions", failure);
+        }
+
+        return result.get();
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // failures are re-thrown after stopping the other walkers
+    private <S, T> void walk(MealyMachine<S, I, T, O> hypothesis,
+                             List<? extends I> choices,
+                             SUL<I, O> sul,
+                             Random random,
+                             AtomicReference<@Nullable DefaultQuery<I, Word<O>>> result,
+                             AtomicBoolean abort) {
+        try {
+            doWalk(hypothesis, choices, sul, random, result, abort);
+        } catch (RuntimeException e) {
+            abort.set(true);
+            throw e;
+        }
+    }
+
+    private <S, T> void doWalk(MealyMachine<S, I, T, O> hypothesis,
+                               List<? extends I> choices,
+                               SUL<I, O> sul,
+                               Random random,
+                               AtomicReference<@Nullable DefaultQuery<I, Word<O>>> result,
+                               AtomicBoolean abort) {
+        int bound = choices.size();
+        S cur = hypothesis.getInitialState();
+        WordBuilder<I> wbIn = new WordBuilder<>();
+        WordBuilder<O> wbOut = new WordBuilder<>();
+
+        boolean first = true;
+        sul.pre();
+        try {
+            while (result.get() == null && !abort.get() && acquireStep()) {
+
+                if (first) {
+                    first = false;
+                } else {
+                    // restart?
+                    double restart = random.nextDouble();
+                    if (restart < restartProbability) {
+                        sul.post();
+                        sul.pre();
+                        cur = hypothesis.getInitialState();
+                        wbIn.clear();
+                        wbOut.clear();
+                        first = true;
+                    }
+                }
+
+                // step
+                I in = choices.get(random.nextInt(bound));
+                O outSul = sul.step(in);
+
+                assert cur != null;
+                O outHyp = hypothesis.getTransitionProperty(cur, in);
+                wbIn.add(in);
+                wbOut.add(outSul);
+
+                // ce?
+                if (!Objects.equals(outSul, outHyp)) {
+                    DefaultQuery<I, Word<O>> ce = new DefaultQuery<>(wbIn.toWord());
+                    ce.answer(wbOut.toWord());
+                    result.compareAndSet(null, ce);
+                    return;
+                }
+                cur = hypothesis.getSuccessor(cur, in);
+            }
+        } finally {
+            sul.post();
+        }
+    }
+
+    private boolean acquireStep() {
+        long current;
+        do {
+            current = steps.get();
+            if (current >= maxSteps) {
+                return false;
+            }
+        } while (!steps.compareAndSet(current, current + 1));
+
+        return true;
+    }
+}
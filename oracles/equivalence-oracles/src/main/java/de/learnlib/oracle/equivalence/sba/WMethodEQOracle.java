@@ -87,7 +87,36 @@ public class WMethodEQOracle<I> extends AbstractTestWordEQOracle<SBA<?, I>, I, B
      * @see WMethodTestsIterator
      */
     public WMethodEQOracle(MembershipOracle<I, Boolean> sulOracle, int lookahead, int expectedSize, int batchSize) {
-        super(sulOracle, batchSize);
+        this(sulOracle, lookahead, expectedSize, batchSize, false);
+    }
+
+    /**
+     * Constructor. Uses
+     * {@link Math#max(int, int) Math.max}{@code (lookahead, expectedSize - }{@link FiniteRepresentation#size()
+     * hypothesis.size()}{@code )} to determine the maximum length of sequences, that should be appended to the
+     * transition-cover part of the test sequence to account for the fact that the system under learning may have more
+     * states than the current hypothesis.
+     *
+     * @param sulOracle
+     *         interface to the system under learning
+     * @param lookahead
+     *         the (minimal) maximum length of the "middle" part of the test cases
+     * @param expectedSize
+     *         the expected size of the system under learning
+     * @param batchSize
+     *         size of the batches sent to the membership oracle
+     * @param parallel
+     *         whether to enable the parallel mode (see {@link AbstractTestWordEQOracle}), if the membership oracle
+     *         is asynchronous
+     *
+     * @see WMethodTestsIterator
+     */
+    public WMethodEQOracle(MembershipOracle<I, Boolean> sulOracle,
+                           int lookahead,
+                           int expectedSize,
+                           int batchSize,
+                           boolean parallel) {
+        super(sulOracle, batchSize, parallel);
         this.lookahead = lookahead;
         this.expectedSize = expectedSize;
     }
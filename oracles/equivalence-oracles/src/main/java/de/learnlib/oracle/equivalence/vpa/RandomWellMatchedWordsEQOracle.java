@@ -57,7 +57,18 @@ public class RandomWellMatchedWordsEQOracle<I> extends AbstractTestWordEQOracle<
                                           int minLength,
                                           int maxLength,
                                           int batchSize) {
-        super(oracle, batchSize);
+        this(random, oracle, callProb, maxTests, minLength, maxLength, batchSize, false);
+    }
+
+    public RandomWellMatchedWordsEQOracle(Random random,
+                                          MembershipOracle<I, Boolean> oracle,
+                                          double callProb,
+                                          int maxTests,
+                                          int minLength,
+                                          int maxLength,
+                                          int batchSize,
+                                          boolean parallel) {
+        super(oracle, batchSize, parallel);
 
         Preconditions.checkArgument(minLength <= maxLength, "minLength is smaller than maxLength");
 
@@ -0,0 +1,292 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.google.common.collect.Iterables;
+import de.learnlib.oracle.AsyncMembershipOracle;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.MembershipOracle.DFAMembershipOracle;
+import de.learnlib.oracle.membership.DFASimulatorOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.automaton.concept.Output;
+import net.automatalib.automaton.fsa.CompactDFA;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the parallel mode of {@link AbstractTestWordEQOracle} with {@link AsyncMembershipOracle}s.
+ */
+public class TestWordEQOracleAsyncTest {
+
+    private static final int BATCH_SIZE = 8;
+    private static final int MAX_LENGTH = 100;
+    private static final int THRESHOLD = 3;
+
+    @Test
+    public void testShortestCounterexample() {
+        // answers all in-flight queries at once (longest first) as soon as the in-flight limit is reached
+        final ReversingAsyncOracle mOracle = new ReversingAsyncOracle(-1);
+        final DummyEQOracle eqOracle = new DummyEQOracle(mOracle, true);
+
+        final DefaultQuery<Character, Integer> ce = eqOracle.findCounterExample(new DummyHypothesis(), inputs());
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getInput().length(), THRESHOLD);
+        Assert.assertEquals(ce.getOutput(), Integer.valueOf(THRESHOLD));
+        // no test words are submitted after the first counterexample
+        Assert.assertEquals(eqOracle.generatedWords, BATCH_SIZE);
+    }
+
+    @Test
+    public void testFailureAfterCounterexample() {
+        // the query of length 1 fails, but is only answered after a counterexample has been found
+        final DummyEQOracle eqOracle = new DummyEQOracle(new ReversingAsyncOracle(1), true);
+
+        final DefaultQuery<Character, Integer> ce = eqOracle.findCounterExample(new DummyHypothesis(), inputs());
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getInput().length(), THRESHOLD);
+    }
+
+    @Test
+    public void testSequentialByDefault() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final DummyEQOracle eqOracle = new DummyEQOracle(new ExecutorAsyncOracle(executor), false);
+
+        // without the parallel flag, the first counterexample of the stream is returned deterministically
+        final DefaultQuery<Character, Integer> ce = eqOracle.findCounterExample(new DummyHypothesis(), inputs());
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getInput().length(), THRESHOLD);
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testConcurrentOracle() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final ExecutorAsyncOracle mOracle = new ExecutorAsyncOracle(executor);
+        final DummyEQOracle eqOracle = new DummyEQOracle(mOracle, true);
+
+        final DefaultQuery<Character, Integer> ce = eqOracle.findCounterExample(new DummyHypothesis(), inputs());
+
+        Assert.assertNotNull(ce);
+        Assert.assertTrue(ce.getInput().length() >= THRESHOLD);
+        Assert.assertEquals(ce.getOutput(), Integer.valueOf(ce.getInput().length()));
+        Assert.assertTrue(eqOracle.generatedWords < MAX_LENGTH);
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testNoCounterexample() {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final DummyEQOracle eqOracle = new DummyEQOracle(new ExecutorAsyncOracle(executor), true);
+
+        // a hypothesis that agrees on all words
+        Assert.assertNull(eqOracle.findCounterExample(input -> computeOutput(input), inputs()));
+        Assert.assertEquals(eqOracle.generatedWords, MAX_LENGTH);
+
+        executor.shutdown();
+    }
+
+    @Test
+    public void testWMethod() {
+        final Alphabet<Character> alphabet = Alphabets.characters('a', 'b');
+
+        // accepts all words with an even number of 'a's
+        final CompactDFA<Character> target = new CompactDFA<>(alphabet);
+        final int even = target.addInitialState(true);
+        final int odd = target.addState(false);
+        target.addTransition(even, 'a', odd);
+        target.addTransition(even, 'b', even);
+        target.addTransition(odd, 'a', even);
+        target.addTransition(odd, 'b', odd);
+
+        // accepts all words
+        final CompactDFA<Character> hypothesis = new CompactDFA<>(alphabet);
+        final int init = hypothesis.addInitialState(true);
+        hypothesis.addTransition(init, 'a', init);
+        hypothesis.addTransition(init, 'b', init);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final AsyncSimulatorOracle mOracle = new AsyncSimulatorOracle(new DFASimulatorOracle<>(target), executor);
+        final DFAWMethodEQOracle<Character> eqOracle = new DFAWMethodEQOracle<>(mOracle, 1, 0, BATCH_SIZE, true);
+
+        final DefaultQuery<Character, Boolean> ce = eqOracle.findCounterExample(hypothesis, alphabet);
+
+        Assert.assertNotNull(ce);
+        Assert.assertNotEquals(hypothesis.computeOutput(ce.getInput()), ce.getOutput());
+        Assert.assertEquals(target.computeOutput(ce.getInput()), ce.getOutput());
+        // the queries have been posed asynchronously
+        Assert.assertTrue(mOracle.asyncCalls.get() > 0);
+
+        executor.shutdown();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testException() {
+        final DummyEQOracle eqOracle = new DummyEQOracle(new FailingAsyncOracle(), true);
+        eqOracle.findCounterExample(new DummyHypothesis(), inputs());
+    }
+
+    private static Collection<Character> inputs() {
+        return Collections.singleton('a');
+    }
+
+    private static Integer computeOutput(Iterable<? extends Character> input) {
+        return Iterables.size(input);
+    }
+
+    private static final class DummyHypothesis implements Output<Character, Integer> {
+
+        @Override
+        public Integer computeOutput(Iterable<? extends Character> input) {
+            final int length = TestWordEQOracleAsyncTest.computeOutput(input);
+            return length >= THRESHOLD ? -1 : length;
+        }
+    }
+
+    private static final class DummyEQOracle
+            extends AbstractTestWordEQOracle<Output<Character, Integer>, Character, Integer> {
+
+        private int generatedWords;
+
+        DummyEQOracle(MembershipOracle<Character, Integer> membershipOracle, boolean parallel) {
+            super(membershipOracle, BATCH_SIZE, parallel);
+        }
+
+        @Override
+        public Stream<Word<Character>> generateTestWords(Output<Character, Integer> hypothesis,
+                                                         Collection<? extends Character> inputs) {
+            final Character sym = inputs.iterator().next();
+            return IntStream.rangeClosed(1, MAX_LENGTH).mapToObj(i -> {
+                generatedWords++;
+                return Word.fromList(Collections.nCopies(i, sym));
+            });
+        }
+    }
+
+    private abstract static class AbstractAsyncOracle
+            implements MembershipOracle<Character, Integer>, AsyncMembershipOracle<Character, Integer> {
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Integer>> queries) {
+            asBlockingOracle().processQueries(queries);
+        }
+
+        static void answer(Collection<? extends Query<Character, Integer>> queries) {
+            for (Query<Character, Integer> q : queries) {
+                q.answer(computeOutput(q.getInput()));
+            }
+        }
+    }
+
+    private static final class ReversingAsyncOracle extends AbstractAsyncOracle {
+
+        private final List<Collection<? extends Query<Character, Integer>>> pendingQueries = new ArrayList<>();
+        private final List<CompletableFuture<Void>> pendingFutures = new ArrayList<>();
+        private final int failingLength;
+
+        ReversingAsyncOracle(int failingLength) {
+            this.failingLength = failingLength;
+        }
+
+        @Override
+        public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<Character, Integer>> queries) {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            pendingQueries.add(queries);
+            pendingFutures.add(result);
+
+            if (pendingFutures.size() == BATCH_SIZE) {
+                for (int i = BATCH_SIZE - 1; i >= 0; i--) {
+                    final Collection<? extends Query<Character, Integer>> pending = pendingQueries.get(i);
+                    if (pending.iterator().next().getInput().length() == failingLength) {
+                        pendingFutures.get(i).completeExceptionally(new IllegalStateException());
+                    } else {
+                        answer(pending);
+                        pendingFutures.get(i).complete(null);
+                    }
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static final class ExecutorAsyncOracle extends AbstractAsyncOracle {
+
+        private final ExecutorService executor;
+
+        ExecutorAsyncOracle(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<Character, Integer>> queries) {
+            return CompletableFuture.runAsync(() -> answer(queries), executor);
+        }
+    }
+
+    private static final class AsyncSimulatorOracle
+            implements DFAMembershipOracle<Character>, AsyncMembershipOracle<Character, Boolean> {
+
+        private final DFAMembershipOracle<Character> delegate;
+        private final ExecutorService executor;
+        private final AtomicInteger asyncCalls = new AtomicInteger();
+
+        AsyncSimulatorOracle(DFAMembershipOracle<Character> delegate, ExecutorService executor) {
+            this.delegate = delegate;
+            this.executor = executor;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Boolean>> queries) {
+            delegate.processQueries(queries);
+        }
+
+        @Override
+        public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<Character, Boolean>> queries) {
+            asyncCalls.incrementAndGet();
+            return CompletableFuture.runAsync(() -> delegate.processQueries(queries), executor);
+        }
+    }
+
+    private static final class FailingAsyncOracle extends AbstractAsyncOracle {
+
+        @Override
+        public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<Character, Integer>> queries) {
+            final CompletableFuture<Void> result = new CompletableFuture<>();
+            result.completeExceptionally(new IllegalArgumentException());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.equivalence.mealy;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.automaton.transducer.CompactMealy;
+import net.automatalib.word.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParallelRandomWalkEQOracleTest {
+
+    private static final int MAX_STEPS = 10_000;
+    private static final int NUM_WALKERS = 4;
+    private static final Alphabet<Character> ALPHABET = Alphabets.characters('a', 'f');
+
+    @Test
+    public void testSharedBudget() {
+        final ForkableSUL sul = new ForkableSUL(Integer.MAX_VALUE);
+        final ParallelRandomWalkEQOracle<Character, Character> oracle =
+                new ParallelRandomWalkEQOracle<>(sul, 0.05, MAX_STEPS, true, 42, NUM_WALKERS);
+
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertEquals(sul.steps.get(), MAX_STEPS);
+        Assert.assertEquals(sul.instances.size(), NUM_WALKERS);
+        for (ForkableSUL s : sul.instances) {
+            Assert.assertFalse(s.active);
+        }
+
+        // the budget is reset for every search
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertEquals(sul.steps.get(), 2 * MAX_STEPS);
+    }
+
+    @Test
+    public void testExhaustedBudget() {
+        final ForkableSUL sul = new ForkableSUL(Integer.MAX_VALUE);
+        final ParallelRandomWalkEQOracle<Character, Character> oracle =
+                new ParallelRandomWalkEQOracle<>(sul, 0.05, MAX_STEPS, false, 42, NUM_WALKERS);
+
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertEquals(sul.steps.get(), MAX_STEPS);
+    }
+
+    @Test
+    public void testCounterexample() {
+        final int depth = 5;
+        final ForkableSUL sul = new ForkableSUL(depth);
+        final ParallelRandomWalkEQOracle<Character, Character> oracle =
+                new ParallelRandomWalkEQOracle<>(sul, 0.01, MAX_STEPS, true, 42, NUM_WALKERS);
+
+        final DefaultQuery<Character, Word<Character>> ce =
+                oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET);
+
+        Assert.assertNotNull(ce);
+        Assert.assertEquals(ce.getInput().length(), depth);
+        Assert.assertEquals(ce.getOutput().lastSymbol(), Character.valueOf('x'));
+        // all walkers stop soon after the first counterexample
+        Assert.assertTrue(sul.steps.get() < MAX_STEPS);
+        for (ForkableSUL s : sul.instances) {
+            Assert.assertFalse(s.active);
+        }
+    }
+
+    @Test(timeOut = 10_000)
+    public void testFailingWalker() {
+        final ForkableSUL sul = new ForkableSUL(Integer.MAX_VALUE);
+        // without an abort, the walkers would run forever
+        final ParallelRandomWalkEQOracle<Character, Character> oracle =
+                new ParallelRandomWalkEQOracle<>(sul, 0.05, Long.MAX_VALUE, true, 42, NUM_WALKERS);
+        sul.instances.get(NUM_WALKERS - 1).failAfter = 100;
+
+        Assert.assertThrows(IllegalStateException.class,
+                            () -> oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+
+        // all walkers have finished
+        for (ForkableSUL s : sul.instances) {
+            Assert.assertFalse(s.active);
+        }
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testCustomExecutor() {
+        final ForkableSUL sul = new ForkableSUL(Integer.MAX_VALUE);
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_WALKERS - 1);
+        final ParallelRandomWalkEQOracle<Character, Character> oracle =
+                new ParallelRandomWalkEQOracle<>(sul, 0.05, MAX_STEPS, true, 42, NUM_WALKERS, executor);
+
+        // the executor is re-used across searches
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertNull(oracle.findCounterExample(new DummyMealy(ALPHABET), ALPHABET));
+        Assert.assertEquals(sul.steps.get(), 2 * MAX_STEPS);
+        Assert.assertFalse(executor.isShutdown());
+
+        oracle.shutdown();
+        Assert.assertTrue(executor.isShutdown());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonForkableSUL() {
+        final SUL<Character, Character> sul = new SUL<Character, Character>() {
+
+            @Override
+            public void pre() {}
+
+            @Override
+            public void post() {}
+
+            @Override
+            public @Nullable Character step(Character in) {
+                return null;
+            }
+        };
+
+        new ParallelRandomWalkEQOracle<>(sul, 0.01, MAX_STEPS, true, 42, NUM_WALKERS);
+    }
+
+    /**
+     * A SUL that outputs {@code null} for every input up to a given depth and {@code 'x'} afterwards. All forks share
+     * the step counter.
+     */
+    private static final class ForkableSUL implements SUL<Character, Character> {
+
+        private final int depth;
+        private final AtomicLong steps;
+        private final List<ForkableSUL> instances;
+
+        private boolean active;
+        private int length;
+        private long ownSteps;
+        private long failAfter = Long.MAX_VALUE;
+
+        ForkableSUL(int depth) {
+            this(depth, new AtomicLong(), new CopyOnWriteArrayList<>());
+        }
+
+        private ForkableSUL(int depth, AtomicLong steps, List<ForkableSUL> instances) {
+            this.depth = depth;
+            this.steps = steps;
+            this.instances = instances;
+            this.instances.add(this);
+        }
+
+        @Override
+        public void pre() {
+            Assert.assertFalse(active);
+            active = true;
+            length = 0;
+        }
+
+        @Override
+        public void post() {
+            Assert.assertTrue(active);
+            active = false;
+        }
+
+        @Override
+        public @Nullable Character step(Character in) {
+            Assert.assertTrue(active);
+            steps.incrementAndGet();
+            if (++ownSteps >= failAfter) {
+                throw new IllegalStateException("Step " + ownSteps + " failed");
+            }
+            return ++length >= depth ? 'x' : null;
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public SUL<Character, Character> fork() {
+            return new ForkableSUL(depth, steps, instances);
+        }
+    }
+
+    private static class DummyMealy extends CompactMealy<Character, Character> {
+
+        DummyMealy(Alphabet<Character> alphabet) {
+            super(alphabet);
+            final Integer init = super.addInitialState();
+
+            alphabet.forEach(s -> super.addTransition(init, s, init, null));
+        }
+    }
+}
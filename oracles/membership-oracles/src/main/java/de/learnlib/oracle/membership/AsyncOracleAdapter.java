@@ -0,0 +1,70 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import de.learnlib.oracle.AsyncMembershipOracle;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.Query;
+
+/**
+ * An adapter that lifts a (blocking) {@link MembershipOracle} to an {@link AsyncMembershipOracle} by processing the
+ * batches on the given {@link Executor}.
+ * <p>
+ * Since the delegate oracle is not required to be thread-safe, batches are processed sequentially in the order of
+ * their submission, i.e., the processing of a batch only starts after the processing of the previously submitted
+ * batch has finished (regardless of whether it finished normally or exceptionally). Callers may, however, prepare
+ * further batches while a batch is being processed.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ *
+ * @see AsyncMembershipOracle#asBlockingOracle()
+ */
+public class AsyncOracleAdapter<I, D> implements AsyncMembershipOracle<I, D> {
+
+    private final MembershipOracle<I, D> delegate;
+    private final Executor executor;
+    private final Object lock;
+
+    private CompletableFuture<?> tail;
+
+    public AsyncOracleAdapter(MembershipOracle<I, D> delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.lock = new Object();
+        this.tail = CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        // copy the batch, so that the caller may re-use its collection
+        final Collection<? extends Query<I, D>> batch = new ArrayList<>(queries);
+
+        synchronized (lock) {
+            final CompletableFuture<Void> result =
+                    tail.handle((v, t) -> null).thenRunAsync(() -> delegate.processQueries(batch), executor);
+            tail = result;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.Query;
+import de.learnlib.sul.SUL;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.automaton.concept.StateIDs;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A wrapper around a system under learning (SUL) that avoids resetting the SUL between queries. Instead of bracketing
+ * each query with {@link SUL#pre()} and {@link SUL#post()}, the oracle keeps a single episode open and tracks the
+ * state of the SUL in a hypothesis model (see {@link #setHypothesis(MealyMachine)}). Before answering a query, the SUL
+ * is driven back to its initial state via a transfer sequence of the hypothesis. If the current state is unknown
+ * (e.g., because the SUL produced an output that is not predicted by the hypothesis), a homing sequence is applied
+ * first, whose response determines the current state. The homing sequence may either be given explicitly (a
+ * synchronizing sequence is a special case of a homing sequence) or is computed from the hypothesis.
+ * <p>
+ * The oracle falls back to a hard reset if no hypothesis is available, if the response to the homing sequence is
+ * ambiguous or unknown to the hypothesis, if the initial state cannot be reached from the current state, or if the
+ * SUL deviates from the hypothesis while being transferred to the initial state.
+ * <p>
+ * <b>Note:</b> the answers of this oracle are only correct if the hypothesis is correct with respect to the homing
+ * and transfer sequences, i.e., this oracle trades some accuracy for fewer resets. It is therefore best suited for
+ * SULs with expensive resets and for later stages of the learning process, where hypotheses change little.
+ * <p>
+ * This membership oracle is <b>not</b> thread-safe.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class HomingSULOracle<I, O> implements MealyMembershipOracle<I, O>, Closeable {
+
+    private static final int UNKNOWN = -1;
+
+    private final SUL<I, O> sul;
+    private final Alphabet<I> alphabet;
+    private final @Nullable Word<I> homingSequence;
+
+    private @Nullable Model<I, O> model;
+    private boolean active;
+    private int currentState;
+
+    private long numResets;
+    private long numAvoidedResets;
+
+    /**
+     * Constructor. The homing sequence is computed from each hypothesis.
+     *
+     * @param sul
+     *         the system under learning
+     * @param alphabet
+     *         the input alphabet
+     */
+    public HomingSULOracle(SUL<I, O> sul, Alphabet<I> alphabet) {
+        this(sul, alphabet, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sul
+     *         the system under learning
+     * @param alphabet
+     *         the input alphabet
+     * @param homingSequence
+     *         the homing (or synchronizing) sequence of the SUL. If {@code null}, the homing sequence is computed from
+     *         each hypothesis
+     */
+    public HomingSULOracle(SUL<I, O> sul, Alphabet<I> alphabet, @Nullable Word<I> homingSequence) {
+        this.sul = sul;
+        this.alphabet = alphabet;
+        this.homingSequence = homingSequence;
+        this.currentState = UNKNOWN;
+    }
+
+    /**
+     * Sets the hypothesis that is used for tracking the state of the SUL. Since hypotheses of learners are usually
+     * modified in-place, this method needs to be called after each refinement of the hypothesis. Until the first call
+     * of this method, every query is answered after a hard reset.
+     *
+     * @param hypothesis
+     *         the current hypothesis
+     */
+    public void setHypothesis(MealyMachine<?, I, ?, O> hypothesis) {
+        this.model = Model.of(hypothesis, alphabet, homingSequence);
+        this.currentState = UNKNOWN;
+    }
+
+    /**
+     * Returns the homing sequence that is currently used, i.e., either the explicitly given homing sequence or the one
+     * computed from the current hypothesis.
+     *
+     * @return the current homing sequence, or {@code null} if no homing sequence is available yet
+     */
+    public @Nullable Word<I> getHomingSequence() {
+        return model == null ? homingSequence : model.homingSequence;
+    }
+
+    /**
+     * Returns the number of hard resets (i.e., calls to {@link SUL#pre()}) that have been performed.
+     *
+     * @return the number of hard resets
+     */
+    public long getNumResets() {
+        return numResets;
+    }
+
+    /**
+     * Returns the number of queries that have been answered without a preceding hard reset.
+     *
+     * @return the number of avoided resets
+     */
+    public long getNumAvoidedResets() {
+        return numAvoidedResets;
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, Word<O>>> queries) {
+        for (Query<I, Word<O>> q : queries) {
+            Word<O> output = answerQuery(q.getPrefix(), q.getSuffix());
+            q.answer(output);
+        }
+    }
+
+    @Override
+    public Word<O> answerQuery(Word<I> prefix, Word<I> suffix) {
+        boolean success = false;
+        try {
+            prepare();
+
+            // Prefix: Execute symbols, don't record output
+            for (I sym : prefix) {
+                step(sym);
+            }
+
+            // Suffix: Execute symbols, outputs constitute output word
+            WordBuilder<O> wb = new WordBuilder<>(suffix.length());
+            for (I sym : suffix) {
+                wb.add(step(sym));
+            }
+
+            success = true;
+            return wb.toWord();
+        } finally {
+            if (!success) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * Terminates the currently open episode of the SUL (if any). The next query starts a new episode.
+     */
+    @Override
+    public void close() {
+        if (active) {
+            active = false;
+            currentState = UNKNOWN;
+            sul.post();
+        }
+    }
+
+    private void prepare() {
+        if (!active) {
+            sul.pre();
+            active = true;
+            numResets++;
+            currentState = model == null ? UNKNOWN : model.initialState;
+            return;
+        }
+
+        if (model != null) {
+            if (currentState == UNKNOWN) {
+                currentState = home(model);
+            }
+            if (currentState != UNKNOWN) {
+                currentState = transfer(model, currentState);
+            }
+            if (currentState != UNKNOWN) {
+                numAvoidedResets++;
+                return;
+            }
+        }
+
+        sul.post();
+        active = false;
+        sul.pre();
+        active = true;
+        numResets++;
+        currentState = model == null ? UNKNOWN : model.initialState;
+    }
+
+    private int home(Model<I, O> m) {
+        final WordBuilder<O> response = new WordBuilder<>(m.homingSequence.length());
+        for (I sym : m.homingSequence) {
+            response.add(sul.step(sym));
+        }
+
+        final Integer state = m.responses.get(response.toWord());
+        return state == null ? UNKNOWN : state;
+    }
+
+    private int transfer(Model<I, O> m, int state) {
+        int curr = state;
+
+        while (curr != m.initialState) {
+            final int idx = m.transferInputs[curr];
+            if (idx == UNKNOWN) {
+                return UNKNOWN;
+            }
+
+            final O out = sul.step(alphabet.getSymbol(idx));
+            curr = m.getSuccessor(curr, idx, out);
+            if (curr == UNKNOWN) {
+                return UNKNOWN;
+            }
+        }
+
+        return curr;
+    }
+
+    private O step(I sym) {
+        final O out = sul.step(sym);
+
+        if (model != null && currentState != UNKNOWN) {
+            currentState = model.getSuccessor(currentState, alphabet.getSymbolIndex(sym), out);
+        }
+
+        return out;
+    }
+
+    /**
+     * An integer-based snapshot of a hypothesis, including the information required for homing and for transferring
+     * the SUL to its initial state.
+     */
+    private static final class Model<I, O> {
+
+        private final int numInputs;
+        private final int[] successors;
+        private final Object[] outputs;
+        private final int initialState;
+
+        // the input index of the first symbol of the shortest transfer sequence to the initial state (per state)
+        private final int[] transferInputs;
+        // the block of the coarsest partition of equivalent states after each refinement round (per state)
+        private final List<int[]> blocks;
+
+        private Word<I> homingSequence;
+        private Map<Word<O>, Integer> responses;
+
+        private Model(int numInputs, int[] successors, Object[] outputs, int initialState) {
+            this.numInputs = numInputs;
+            this.successors = successors;
+            this.outputs = outputs;
+            this.initialState = initialState;
+            this.transferInputs = computeTransferInputs();
+            this.blocks = computeBlocks();
+            this.homingSequence = Word.epsilon();
+            this.responses = new HashMap<>();
+        }
+
+        static <S, T, I, O> Model<I, O> of(MealyMachine<S, I, T, O> hypothesis,
+                                           Alphabet<I> alphabet,
+                                           @Nullable Word<I> homingSequence) {
+            final S init = hypothesis.getInitialState();
+            if (init == null) {
+                throw new IllegalArgumentException("The hypothesis has no initial state");
+            }
+
+            final StateIDs<S> ids = hypothesis.stateIDs();
+            final int numInputs = alphabet.size();
+            final int[] successors = new int[hypothesis.size() * numInputs];
+            final Object[] outputs = new Object[successors.length];
+
+            for (S s : hypothesis.getStates()) {
+                final int base = ids.getStateId(s) * numInputs;
+                for (int i = 0; i < numInputs; i++) {
+                    final T t = hypothesis.getTransition(s, alphabet.getSymbol(i));
+                    if (t == null) {
+                        successors[base + i] = UNKNOWN;
+                    } else {
+                        successors[base + i] = ids.getStateId(hypothesis.getSuccessor(t));
+                        outputs[base + i] = hypothesis.getTransitionOutput(t);
+                    }
+                }
+            }
+
+            final Model<I, O> result = new Model<>(numInputs, successors, outputs, ids.getStateId(init));
+            result.homingSequence = homingSequence == null ? result.computeHomingSequence(alphabet) : homingSequence;
+            result.responses = result.computeResponses(alphabet, result.homingSequence);
+            return result;
+        }
+
+        int size() {
+            return successors.length / numInputs;
+        }
+
+        /**
+         * Returns the successor of the given state if the observed output matches the predicted one, and
+         * {@link #UNKNOWN} otherwise.
+         */
+        int getSuccessor(int state, int input, O output) {
+            final int trans = state * numInputs + input;
+            final int succ = successors[trans];
+            return succ != UNKNOWN && Objects.equals(outputs[trans], output) ? succ : UNKNOWN;
+        }
+
+        private int[] computeTransferInputs() {
+            final int n = size();
+            final List<List<Integer>> predecessors = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                predecessors.add(new ArrayList<>());
+            }
+            for (int t = 0; t < successors.length; t++) {
+                if (successors[t] != UNKNOWN) {
+                    predecessors.get(successors[t]).add(t);
+                }
+            }
+
+            final int[] result = new int[n];
+            Arrays.fill(result, UNKNOWN);
+
+            final boolean[] visited = new boolean[n];
+            final Deque<Integer> queue = new ArrayDeque<>();
+            visited[initialState] = true;
+            queue.add(initialState);
+
+            while (!queue.isEmpty()) {
+                final int state = queue.poll();
+                for (int t : predecessors.get(state)) {
+                    final int pred = t / numInputs;
+                    if (!visited[pred]) {
+                        visited[pred] = true;
+                        result[pred] = t % numInputs;
+                        queue.add(pred);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @SuppressWarnings("PMD.UseArraysAsList") // signatures combine several arrays and are not plain copies
+        private List<int[]> computeBlocks() {
+            final int n = size();
+            final List<int[]> result = new ArrayList<>();
+
+            // initial partition: states with the same outputs (and defined transitions)
+            final Map<List<Object>, Integer> initialSignatures = new HashMap<>();
+            int[] curr = new int[n];
+            for (int s = 0; s < n; s++) {
+                final List<Object> sig = new ArrayList<>(numInputs);
+                for (int i = 0; i < numInputs; i++) {
+                    final int trans = s * numInputs + i;
+                    sig.add(successors[trans] == UNKNOWN ? null : Collections.singletonList(outputs[trans]));
+                }
+                curr[s] = getBlock(initialSignatures, sig);
+            }
+            result.add(curr);
+            int numBlocks = initialSignatures.size();
+
+            while (true) {
+                final Map<List<Integer>, Integer> signatures = new HashMap<>();
+                final int[] next = new int[n];
+                for (int s = 0; s < n; s++) {
+                    final List<Integer> sig = new ArrayList<>(numInputs + 1);
+                    sig.add(curr[s]);
+                    for (int i = 0; i < numInputs; i++) {
+                        final int succ = successors[s * numInputs + i];
+                        sig.add(succ == UNKNOWN ? UNKNOWN : curr[succ]);
+                    }
+                    next[s] = getBlock(signatures, sig);
+                }
+
+                if (signatures.size() == numBlocks) {
+                    return result;
+                }
+
+                result.add(next);
+                numBlocks = signatures.size();
+                curr = next;
+            }
+        }
+
+        private static <K> int getBlock(Map<K, Integer> signatures, K signature) {
+            final Integer block = signatures.get(signature);
+            if (block != null) {
+                return block;
+            }
+            final int newBlock = signatures.size();
+            signatures.put(signature, newBlock);
+            return newBlock;
+        }
+
+        private boolean isEquivalent(int s1, int s2) {
+            final int[] finalBlocks = blocks.get(blocks.size() - 1);
+            return finalBlocks[s1] == finalBlocks[s2];
+        }
+
+        /**
+         * Computes a shortest separating word for two inequivalent states, based on the recorded refinement rounds.
+         */
+        private Word<I> computeSeparatingWord(Alphabet<I> alphabet, int s1, int s2) {
+            final WordBuilder<I> wb = new WordBuilder<>();
+            int p = s1;
+            int q = s2;
+
+            int round = 0;
+            while (blocks.get(round)[p] == blocks.get(round)[q]) {
+                round++;
+            }
+
+            while (round > 0) {
+                final int[] prev = blocks.get(round - 1);
+                for (int i = 0; i < numInputs; i++) {
+                    final int pSucc = successors[p * numInputs + i];
+                    final int qSucc = successors[q * numInputs + i];
+                    if (pSucc != UNKNOWN && qSucc != UNKNOWN && prev[pSucc] != prev[qSucc]) {
+                        wb.add(alphabet.getSymbol(i));
+                        p = pSucc;
+                        q = qSucc;
+                        break;
+                    }
+                }
+                round--;
+                while (round > 0 && blocks.get(round - 1)[p] != blocks.get(round - 1)[q]) {
+                    round--;
+                }
+            }
+
+            for (int i = 0; i < numInputs; i++) {
+                final int pTrans = p * numInputs + i;
+                final int qTrans = q * numInputs + i;
+                if ((successors[pTrans] == UNKNOWN) != (successors[qTrans] == UNKNOWN) ||
+                    !Objects.equals(outputs[pTrans], outputs[qTrans])) {
+                    wb.add(alphabet.getSymbol(i));
+                    break;
+                }
+            }
+
+            return wb.toWord();
+        }
+
+        /**
+         * Computes a homing sequence by successively appending separating words for pairs of (inequivalent) states that
+         * cannot be distinguished by the current sequence.
+         */
+        private Word<I> computeHomingSequence(Alphabet<I> alphabet) {
+            final int n = size();
+            final WordBuilder<I> homing = new WordBuilder<>();
+            final int[] current = new int[n];
+            final List<List<O>> responses = new ArrayList<>(n);
+
+            for (int s = 0; s < n; s++) {
+                current[s] = s;
+                responses.add(new ArrayList<>());
+            }
+
+            while (true) {
+                final Map<List<O>, Integer> representatives = new HashMap<>();
+                Word<I> separator = null;
+
+                for (int s = 0; s < n && separator == null; s++) {
+                    if (current[s] == UNKNOWN) {
+                        continue;
+                    }
+                    final Integer rep = representatives.putIfAbsent(responses.get(s), s);
+                    if (rep != null && !isEquivalent(current[rep], current[s])) {
+                        separator = computeSeparatingWord(alphabet, current[rep], current[s]);
+                    }
+                }
+
+                if (separator == null) {
+                    return homing.toWord();
+                }
+
+                homing.append(separator);
+                for (int s = 0; s < n; s++) {
+                    current[s] = run(alphabet, current[s], separator, responses.get(s));
+                }
+            }
+        }
+
+        private Map<Word<O>, Integer> computeResponses(Alphabet<I> alphabet, Word<I> homing) {
+            final Map<Word<O>, Integer> result = new HashMap<>();
+
+            for (int s = 0; s < size(); s++) {
+                final List<O> response = new ArrayList<>(homing.length());
+                final int target = run(alphabet, s, homing, response);
+
+                if (target != UNKNOWN) {
+                    final Word<O> key = Word.fromList(response);
+                    final Integer existing = result.putIfAbsent(key, target);
+                    if (existing != null && existing != UNKNOWN && !isEquivalent(existing, target)) {
+                        result.put(key, UNKNOWN);
+                    }
+                }
+            }
+
+            return result;
+        }
+
+        @SuppressWarnings("unchecked") // outputs only contains elements of type O
+        private int run(Alphabet<I> alphabet, int state, Word<I> input, List<O> response) {
+            int curr = state;
+
+            for (I sym : input) {
+                if (curr == UNKNOWN) {
+                    return UNKNOWN;
+                }
+                final int trans = curr * numInputs + alphabet.getSymbolIndex(sym);
+                response.add((O) outputs[trans]);
+                curr = successors[trans];
+            }
+
+            return curr;
+        }
+    }
+}
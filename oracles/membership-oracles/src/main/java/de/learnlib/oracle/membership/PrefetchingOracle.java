@@ -0,0 +1,308 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.logging.Category;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A membership oracle that speculatively prefetches queries which are likely to be posed next. This oracle is meant to
+ * be placed in front of a cache (e.g., a {@code MealyCacheOracle} or {@code DFACacheOracle}) whose delegate is backed
+ * by (potentially parallel) SULs, so that the SULs do not idle while the learner performs its internal computations
+ * (e.g., checking the closedness and consistency of an observation table or sifting states through a discrimination
+ * tree).
+ * <p>
+ * The oracle tracks the prefixes and suffixes of all (real) queries. Whenever a new prefix {@code u} is observed, the
+ * queries {@code (u a, v)} for all input symbols {@code a} and known suffixes {@code v} are scheduled, since learners
+ * typically continue with the one-symbol extensions of new rows or states. Whenever a new suffix {@code v} is
+ * observed, the queries {@code (u, v)} for all known prefixes {@code u} are scheduled, since learners typically
+ * complete new columns or discriminators. The speculative queries are processed in small batches on the given
+ * {@link Executor} and their answers are discarded, i.e., their only effect is to populate the cache of the delegate.
+ * <p>
+ * Real queries take precedence over speculative ones: the processing of speculative queries is paused as long as real
+ * queries are pending, and a real query waits for at most the speculative batch that is currently being processed.
+ * The number of pending speculative queries is bounded, and further speculative queries are dropped. Likewise, only
+ * the most recently observed prefixes and suffixes (up to the same bound) are tracked, and speculative queries are
+ * only remembered (in order to avoid duplicates) until they have been delegated.
+ * <p>
+ * Speculative queries never affect the answers of real queries, but they consume resources of the SULs. Hence, this
+ * oracle is opt-in and should only be used if the SULs would otherwise idle.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public class PrefetchingOracle<I, D> implements MembershipOracle<I, D> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchingOracle.class);
+
+    public static final int DEFAULT_MAX_PENDING = 10_000;
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
+    private final MembershipOracle<I, D> delegate;
+    private final Collection<? extends I> alphabet;
+    private final Executor executor;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final Object delegateLock;
+    private final Object stateLock;
+    private final AtomicInteger pendingRealQueries;
+    private final AtomicBoolean scheduled;
+    private final AtomicLong prefetched;
+
+    // guarded by stateLock
+    private final Set<Word<I>> prefixes;
+    private final Set<Word<I>> suffixes;
+    private final Set<Word<I>> issued; // the inputs of the pending speculative queries
+    private final Deque<DefaultQuery<I, D>> speculativeQueries;
+
+    public PrefetchingOracle(MembershipOracle<I, D> delegate, Collection<? extends I> alphabet, Executor executor) {
+        this(delegate, alphabet, executor, DEFAULT_MAX_PENDING, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate
+     *         the oracle to which real and speculative queries are delegated
+     * @param alphabet
+     *         the input symbols used for the one-symbol extensions of prefixes
+     * @param executor
+     *         the executor on which speculative queries are processed
+     * @param maxPending
+     *         the maximum number of pending speculative queries (and tracked prefixes and suffixes)
+     * @param batchSize
+     *         the number of speculative queries that are delegated at once
+     */
+    public PrefetchingOracle(MembershipOracle<I, D> delegate,
+                             Collection<? extends I> alphabet,
+                             Executor executor,
+                             int maxPending,
+                             int batchSize) {
+        Preconditions.checkArgument(maxPending >= 0, "The number of pending queries must not be negative");
+        Preconditions.checkArgument(batchSize > 0, "The batch size must be positive");
+
+        this.delegate = delegate;
+        this.alphabet = alphabet;
+        this.executor = executor;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+
+        this.delegateLock = new Object();
+        this.stateLock = new Object();
+        this.pendingRealQueries = new AtomicInteger();
+        this.scheduled = new AtomicBoolean();
+        this.prefetched = new AtomicLong();
+
+        this.prefixes = newBoundedSet(maxPending);
+        this.suffixes = newBoundedSet(maxPending);
+        this.issued = new HashSet<>();
+        this.speculativeQueries = new ArrayDeque<>();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, D>> queries) {
+        pendingRealQueries.incrementAndGet();
+        try {
+            synchronized (delegateLock) {
+                delegate.processQueries(queries);
+            }
+        } finally {
+            pendingRealQueries.decrementAndGet();
+        }
+
+        speculate(queries);
+        schedule();
+    }
+
+    /**
+     * Returns the number of speculative queries that have been delegated so far.
+     *
+     * @return the number of speculative queries that have been delegated so far
+     */
+    public long getNumPrefetchedQueries() {
+        return prefetched.get();
+    }
+
+    /**
+     * Returns the number of currently pending speculative queries.
+     *
+     * @return the number of currently pending speculative queries
+     */
+    public int getNumPendingQueries() {
+        synchronized (stateLock) {
+            return speculativeQueries.size();
+        }
+    }
+
+    private void speculate(Collection<? extends Query<I, D>> queries) {
+        final Set<Word<I>> answered = new HashSet<>();
+        for (Query<I, D> q : queries) {
+            answered.add(q.getInput());
+        }
+
+        synchronized (stateLock) {
+            for (Query<I, D> q : queries) {
+                // once the queue is full, further prefixes and suffixes are not tracked either, so that their
+                // combinations are considered when they re-occur
+                if (isFull()) {
+                    return;
+                }
+
+                final Word<I> suffix = q.getSuffix();
+
+                if (suffixes.add(suffix)) {
+                    for (Word<I> u : prefixes) {
+                        if (!enqueue(u, suffix, answered)) {
+                            return;
+                        }
+                    }
+                }
+
+                final Word<I> prefix = q.getPrefix();
+                if (prefixes.add(prefix)) {
+                    for (I a : alphabet) {
+                        final Word<I> extension = prefix.append(a);
+                        for (Word<I> v : suffixes) {
+                            if (!enqueue(extension, v, answered)) {
+                                return;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Enqueues the given speculative query, unless it is already pending or has just been answered.
+     *
+     * @return {@code false} if the queue is full, {@code true} otherwise
+     */
+    private boolean enqueue(Word<I> prefix, Word<I> suffix, Set<Word<I>> answered) {
+        if (isFull()) {
+            return false;
+        }
+
+        final Word<I> input = prefix.concat(suffix);
+        if (!answered.contains(input) && issued.add(input)) {
+            speculativeQueries.add(new DefaultQuery<>(prefix, suffix));
+        }
+
+        return true;
+    }
+
+    private boolean isFull() {
+        return speculativeQueries.size() >= maxPending;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::prefetch);
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // failures of speculative queries are not propagated
+    private void prefetch() {
+        try {
+            while (pendingRealQueries.get() == 0) {
+                final List<DefaultQuery<I, D>> batch = nextBatch();
+
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                synchronized (delegateLock) {
+                    delegate.processQueries(batch);
+                }
+
+                // the answers are now available to the delegate, so there is no need to remember the queries
+                synchronized (stateLock) {
+                    for (DefaultQuery<I, D> q : batch) {
+                        issued.remove(q.getInput());
+                    }
+                }
+
+                prefetched.addAndGet(batch.size());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn(Category.QUERY, "Failed to prefetch speculative queries, discarding the pending ones", e);
+            synchronized (stateLock) {
+                speculativeQueries.clear();
+                issued.clear();
+            }
+        } finally {
+            scheduled.set(false);
+        }
+
+        // speculative queries may have been added after the last check
+        if (pendingRealQueries.get() == 0 && getNumPendingQueries() > 0) {
+            schedule();
+        }
+    }
+
+    /**
+     * Creates a set that holds at most the given number of elements and evicts the eldest element (in order of
+     * insertion) once this number is exceeded.
+     */
+    private static <T> Set<T> newBoundedSet(int maxSize) {
+        return Collections.newSetFromMap(new LinkedHashMap<T, Boolean>() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<T, Boolean> eldest) {
+                return size() > maxSize;
+            }
+        });
+    }
+
+    private List<DefaultQuery<I, D>> nextBatch() {
+        synchronized (stateLock) {
+            final int size = Math.min(batchSize, speculativeQueries.size());
+            final List<DefaultQuery<I, D>> batch = new ArrayList<>(size);
+
+            for (int i = 0; i < size; i++) {
+                batch.add(speculativeQueries.poll());
+            }
+
+            return batch;
+        }
+    }
+}
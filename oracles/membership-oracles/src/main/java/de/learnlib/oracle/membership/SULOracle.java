@@ -21,10 +21,9 @@ import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
 import de.learnlib.query.Query;
 import de.learnlib.sul.SUL;
 import net.automatalib.word.Word;
-import net.automatalib.word.WordBuilder;
 
 /**
- * A wrapper around a system under learning (SUL).
+ * A wrapper around a system under learning (SUL). Each query is executed via a single {@link SUL#stepAll(Word)} call.
  * <p>
  * This membership oracle is <b>not</b> thread-safe.
  */
@@ -48,18 +47,8 @@ public class SULOracle<I, O> implements MealyMembershipOracle<I, O> {
     public Word<O> answerQuery(Word<I> prefix, Word<I> suffix) {
         sul.pre();
         try {
-            // Prefix: Execute symbols, don't record output
-            for (I sym : prefix) {
-                sul.step(sym);
-            }
-
-            // Suffix: Execute symbols, outputs constitute output word
-            WordBuilder<O> wb = new WordBuilder<>(suffix.length());
-            for (I sym : suffix) {
-                wb.add(sul.step(sym));
-            }
-
-            return wb.toWord();
+            // Execute prefix and suffix at once, only the outputs of the suffix constitute the output word
+            return sul.stepAll(prefix.concat(suffix)).suffix(suffix.length());
         } finally {
             sul.post();
         }
@@ -0,0 +1,179 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.example.dfa.ExamplePaulAndMary;
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.automaton.fsa.DFA;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class AsyncOracleAdapterTest {
+
+    private static final Word<String> PAUL_LOVES_MARY = Word.fromSymbols(ExamplePaulAndMary.IN_PAUL,
+                                                                         ExamplePaulAndMary.IN_LOVES,
+                                                                         ExamplePaulAndMary.IN_MARY);
+    private static final Word<String> MARY_LOVES_PAUL = Word.fromSymbols(ExamplePaulAndMary.IN_MARY,
+                                                                         ExamplePaulAndMary.IN_LOVES,
+                                                                         ExamplePaulAndMary.IN_PAUL);
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAsyncAnswers() throws InterruptedException, ExecutionException {
+        final DFA<?, String> dfa = ExamplePaulAndMary.constructMachine();
+        final AsyncOracleAdapter<String, Boolean> oracle =
+                new AsyncOracleAdapter<>(new SimulatorOracle<>(dfa), executor);
+
+        final DefaultQuery<String, Boolean> q1 = new DefaultQuery<>(PAUL_LOVES_MARY);
+        final DefaultQuery<String, Boolean> q2 = new DefaultQuery<>(MARY_LOVES_PAUL);
+
+        final CompletableFuture<Void> f1 = oracle.processQueriesAsync(Collections.singletonList(q1));
+        final CompletableFuture<Boolean> f2 = oracle.answerQueryAsync(Word.epsilon(), MARY_LOVES_PAUL);
+        oracle.processQueriesAsync(Collections.singletonList(q2)).get();
+
+        Assert.assertTrue(f1.isDone());
+        Assert.assertEquals(q1.getOutput(), Boolean.TRUE);
+        Assert.assertEquals(f2.get(), Boolean.FALSE);
+        Assert.assertEquals(q2.getOutput(), Boolean.FALSE);
+
+        // the blocking view
+        final MembershipOracle<String, Boolean> blocking = oracle.asBlockingOracle();
+        Assert.assertEquals(blocking.answerQuery(PAUL_LOVES_MARY), Boolean.TRUE);
+    }
+
+    @Test(timeOut = 10000)
+    public void testSequentialProcessing() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingOracle delegate = new RecordingOracle(release);
+        final AsyncOracleAdapter<String, Boolean> oracle = new AsyncOracleAdapter<>(delegate, executor);
+
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(oracle.processQueriesAsync(Collections.singletonList(new DefaultQuery<>(createWord(i)))));
+        }
+
+        // the first batch blocks, so the subsequent batches must not have been started (despite a second thread)
+        Thread.sleep(50);
+        Assert.assertFalse(futures.get(4).isDone());
+        Assert.assertTrue(delegate.maxConcurrent <= 1);
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        Assert.assertEquals(delegate.processed.size(), 5);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(delegate.processed.get(i), createWord(i));
+        }
+        Assert.assertEquals(delegate.maxConcurrent, 1);
+    }
+
+    @Test
+    public void testExceptions() throws InterruptedException, ExecutionException {
+        final AtomicInteger calls = new AtomicInteger();
+        final MembershipOracle<String, Boolean> failOnce = queries -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("expected");
+            }
+            queries.forEach(q -> q.answer(Boolean.TRUE));
+        };
+        final AsyncOracleAdapter<String, Boolean> oracle = new AsyncOracleAdapter<>(failOnce, executor);
+
+        final CompletableFuture<Void> failed =
+                oracle.processQueriesAsync(Collections.singletonList(new DefaultQuery<>(PAUL_LOVES_MARY)));
+        final CompletableFuture<Boolean> succeeded = oracle.answerQueryAsync(Word.epsilon(), PAUL_LOVES_MARY);
+
+        try {
+            failed.get();
+            Assert.fail("Exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        // subsequent batches are not affected by the failure of a previous one
+        Assert.assertEquals(succeeded.get(), Boolean.TRUE);
+
+        // the blocking view re-throws the original exception
+        calls.set(0);
+        Assert.assertThrows(IllegalStateException.class,
+                            () -> oracle.asBlockingOracle().answerQuery(PAUL_LOVES_MARY));
+    }
+
+    private static Word<String> createWord(int length) {
+        return Word.fromList(Collections.nCopies(length, ExamplePaulAndMary.IN_LOVES));
+    }
+
+    private static final class RecordingOracle implements MembershipOracle<String, Boolean> {
+
+        private final CountDownLatch release;
+        private final List<Word<String>> processed = Collections.synchronizedList(new ArrayList<>());
+
+        private int concurrent;
+        private volatile int maxConcurrent;
+
+        RecordingOracle(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<String, Boolean>> queries) {
+            synchronized (this) {
+                concurrent++;
+                maxConcurrent = Math.max(maxConcurrent, concurrent);
+            }
+            try {
+                Assert.assertTrue(release.await(5, TimeUnit.SECONDS));
+                for (Query<String, Boolean> q : queries) {
+                    processed.add(q.getInput());
+                    q.answer(Boolean.TRUE);
+                }
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                synchronized (this) {
+                    concurrent--;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.Random;
+
+import de.learnlib.driver.simulator.MealySimulatorSUL;
+import de.learnlib.example.mealy.ExampleRandomMealy;
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.Alphabets;
+import net.automatalib.automaton.transducer.CompactMealy;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class HomingSULOracleTest {
+
+    private static final int NUM_QUERIES = 200;
+    private static final int MAX_LENGTH = 10;
+
+    @Test
+    public void testLearnedHomingSequence() {
+        final Alphabet<Character> inputs = Alphabets.characters('a', 'c');
+        final Alphabet<Integer> outputs = Alphabets.integers(0, 2);
+        final ExampleRandomMealy<Character, Integer> example =
+                ExampleRandomMealy.createExample(new Random(42), inputs, 10, outputs.toArray(new Integer[0]));
+        final MealyMachine<?, Character, ?, Integer> target = example.getReferenceAutomaton();
+
+        final HomingSULOracle<Character, Integer> oracle =
+                new HomingSULOracle<>(new MealySimulatorSUL<>(target), inputs);
+        oracle.setHypothesis(target);
+
+        Assert.assertNotNull(oracle.getHomingSequence());
+
+        checkQueries(oracle, target, inputs, new Random(42));
+        oracle.close();
+
+        // the hypothesis is correct, so the state of the SUL is never lost
+        Assert.assertEquals(oracle.getNumResets(), 1);
+        Assert.assertEquals(oracle.getNumAvoidedResets(), NUM_QUERIES - 1);
+    }
+
+    @Test
+    public void testWithoutHypothesis() {
+        final Alphabet<Character> inputs = Alphabets.characters('a', 'b');
+        final CompactMealy<Character, Integer> target = createCounter(inputs, 2);
+
+        final HomingSULOracle<Character, Integer> oracle =
+                new HomingSULOracle<>(new MealySimulatorSUL<>(target), inputs);
+
+        checkQueries(oracle, target, inputs, new Random(42));
+        oracle.close();
+
+        Assert.assertEquals(oracle.getNumResets(), NUM_QUERIES);
+        Assert.assertEquals(oracle.getNumAvoidedResets(), 0);
+    }
+
+    @Test
+    public void testAmbiguousHomingSequence() {
+        final Alphabet<Character> inputs = Alphabets.characters('a', 'b');
+        final CompactMealy<Character, Integer> target = createCounter(inputs, 2);
+        // same structure, but a wrong output for 'b' in state 2
+        final CompactMealy<Character, Integer> hypothesis = createCounter(inputs, 0);
+
+        // the empty word cannot distinguish the states, so every deviation from the hypothesis requires a reset
+        final HomingSULOracle<Character, Integer> oracle =
+                new HomingSULOracle<>(new MealySimulatorSUL<>(target), inputs, Word.epsilon());
+        oracle.setHypothesis(hypothesis);
+
+        checkQueries(oracle, target, inputs, new Random(42));
+        oracle.close();
+
+        Assert.assertTrue(oracle.getNumResets() > 1);
+        Assert.assertTrue(oracle.getNumAvoidedResets() > 0);
+        Assert.assertEquals(oracle.getNumResets() + oracle.getNumAvoidedResets(), NUM_QUERIES);
+
+        // with a (learned) distinguishing homing sequence, the state can be recovered without resets
+        final HomingSULOracle<Character, Integer> homing =
+                new HomingSULOracle<>(new MealySimulatorSUL<>(target), inputs);
+        homing.setHypothesis(target);
+
+        Assert.assertEquals(homing.getHomingSequence(), Word.fromLetter('b'));
+    }
+
+    /**
+     * A modulo-3 counter that is incremented by 'a' and reveals its value via 'b'.
+     */
+    private static CompactMealy<Character, Integer> createCounter(Alphabet<Character> inputs, int outputOfState2) {
+        final CompactMealy<Character, Integer> result = new CompactMealy<>(inputs);
+        final int s0 = result.addInitialState();
+        final int s1 = result.addState();
+        final int s2 = result.addState();
+
+        result.addTransition(s0, 'a', s1, 0);
+        result.addTransition(s1, 'a', s2, 0);
+        result.addTransition(s2, 'a', s0, 1);
+        result.addTransition(s0, 'b', s0, 0);
+        result.addTransition(s1, 'b', s1, 1);
+        result.addTransition(s2, 'b', s2, outputOfState2);
+
+        return result;
+    }
+
+    private static <I, O> void checkQueries(HomingSULOracle<I, O> oracle,
+                                            MealyMachine<?, I, ?, O> target,
+                                            Alphabet<I> inputs,
+                                            Random random) {
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            final Word<I> prefix = randomWord(inputs, random);
+            final Word<I> suffix = randomWord(inputs, random);
+            Assert.assertEquals(oracle.answerQuery(prefix, suffix), target.computeSuffixOutput(prefix, suffix));
+        }
+    }
+
+    private static <I> Word<I> randomWord(Alphabet<I> inputs, Random random) {
+        final int length = random.nextInt(MAX_LENGTH);
+        final WordBuilder<I> wb = new WordBuilder<>(length);
+        for (int i = 0; i < length; i++) {
+            wb.add(inputs.getSymbol(random.nextInt(inputs.size())));
+        }
+        return wb.toWord();
+    }
+}
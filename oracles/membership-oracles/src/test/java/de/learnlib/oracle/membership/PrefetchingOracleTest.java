@@ -0,0 +1,200 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.membership;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PrefetchingOracleTest {
+
+    private static final List<Character> ALPHABET = Arrays.asList('a', 'b');
+
+    @Test
+    public void testSpeculation() {
+        final RecordingOracle delegate = new RecordingOracle(null);
+        final PrefetchingOracle<Character, Integer> oracle =
+                new PrefetchingOracle<>(delegate, ALPHABET, Runnable::run);
+
+        final DefaultQuery<Character, Integer> q1 = new DefaultQuery<>(Word.epsilon(), Word.fromLetter('a'));
+        oracle.processQuery(q1);
+        Assert.assertEquals(q1.getOutput(), Integer.valueOf(1));
+
+        // the one-symbol extensions of the new prefix with the known suffix
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 2);
+        Assert.assertEquals(delegate.getInputs(), words("a", "aa", "ba"));
+
+        // a new suffix for a known prefix, whose query has already been posed
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.fromLetter('b')));
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 2);
+
+        // a new prefix: extensions 'aa', 'ab' with the suffixes 'a', 'b'
+        oracle.processQuery(new DefaultQuery<>(Word.fromLetter('a'), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 6);
+        Assert.assertTrue(delegate.getInputs().containsAll(words("aaa", "aab", "aba", "abb")));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 0);
+    }
+
+    @Test
+    public void testMaxPending() {
+        final RecordingOracle delegate = new RecordingOracle(null);
+        final List<Runnable> tasks = new ArrayList<>();
+        final PrefetchingOracle<Character, Integer> oracle =
+                new PrefetchingOracle<>(delegate, ALPHABET, tasks::add, 1, 1);
+
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 1);
+        Assert.assertEquals(tasks.size(), 1);
+
+        tasks.get(0).run();
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 1);
+        Assert.assertEquals(oracle.getNumPendingQueries(), 0);
+    }
+
+    @Test
+    public void testBoundedState() {
+        final RecordingOracle delegate = new RecordingOracle(null);
+        final PrefetchingOracle<Character, Integer> oracle =
+                new PrefetchingOracle<>(delegate, ALPHABET, Runnable::run, 2, 2);
+
+        // each new prefix schedules its two extensions
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.epsilon()));
+        oracle.processQuery(new DefaultQuery<>(Word.fromLetter('a'), Word.epsilon()));
+        oracle.processQuery(new DefaultQuery<>(Word.fromLetter('b'), Word.epsilon()));
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 6);
+
+        // only the two most recent prefixes are tracked, so the empty prefix is new again. Since the previous
+        // speculative queries have been delegated, they are no longer remembered either
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.epsilon()));
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 8);
+        Assert.assertEquals(oracle.getNumPendingQueries(), 0);
+    }
+
+    @Test
+    public void testFullQueue() {
+        final RecordingOracle delegate = new RecordingOracle(null);
+        final List<Runnable> tasks = new ArrayList<>();
+        final PrefetchingOracle<Character, Integer> oracle =
+                new PrefetchingOracle<>(delegate, ALPHABET, tasks::add, 1, 1);
+
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 1);
+
+        // the queue is full, so the new prefix is not tracked and re-considered once the queue has been drained
+        oracle.processQuery(new DefaultQuery<>(Word.fromLetter('b'), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 1);
+
+        tasks.get(0).run();
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 1);
+
+        oracle.processQuery(new DefaultQuery<>(Word.fromLetter('b'), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 1);
+        Assert.assertEquals(tasks.size(), 2);
+        tasks.get(1).run();
+        Assert.assertTrue(delegate.getInputs().contains(Word.fromString("baa")));
+    }
+
+    @Test(timeOut = 10000)
+    public void testPreemption() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingOracle delegate = new RecordingOracle(() -> {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        final List<Runnable> tasks = Collections.synchronizedList(new ArrayList<>());
+        final PrefetchingOracle<Character, Integer> oracle = new PrefetchingOracle<>(delegate, ALPHABET, tasks::add);
+
+        delegate.setBlocking(false);
+        oracle.processQuery(new DefaultQuery<>(Word.epsilon(), Word.fromLetter('a')));
+        Assert.assertEquals(oracle.getNumPendingQueries(), 2);
+
+        // a real query is pending, so the speculative queries must not be processed
+        delegate.setBlocking(true);
+        final Thread thread = new Thread(() -> oracle.processQuery(new DefaultQuery<>(Word.fromLetter('b'),
+                                                                                        Word.fromLetter('b'))));
+        thread.start();
+        blocked.await();
+
+        tasks.remove(0).run();
+        Assert.assertEquals(oracle.getNumPrefetchedQueries(), 0);
+
+        delegate.setBlocking(false);
+        release.countDown();
+        thread.join();
+
+        // the completion of the real query resumes the speculation
+        Assert.assertEquals(tasks.size(), 1);
+        tasks.remove(0).run();
+        Assert.assertTrue(oracle.getNumPrefetchedQueries() > 0);
+        Assert.assertEquals(oracle.getNumPendingQueries(), 0);
+    }
+
+    private static Set<Word<Character>> words(String... words) {
+        final Set<Word<Character>> result = new HashSet<>();
+        for (String w : words) {
+            result.add(Word.fromString(w));
+        }
+        return result;
+    }
+
+    private static final class RecordingOracle implements MembershipOracle<Character, Integer> {
+
+        private final Runnable blocker;
+        private final Set<Word<Character>> inputs;
+        private volatile boolean blocking;
+
+        RecordingOracle(Runnable blocker) {
+            this.blocker = blocker;
+            this.inputs = Collections.synchronizedSet(new HashSet<>());
+        }
+
+        void setBlocking(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        Set<Word<Character>> getInputs() {
+            return new HashSet<>(inputs);
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Integer>> queries) {
+            if (blocking) {
+                blocker.run();
+            }
+            for (Query<Character, Integer> q : queries) {
+                inputs.add(q.getInput());
+                q.answer(q.getInput().length());
+            }
+        }
+    }
+}
@@ -41,6 +41,16 @@ public class ThreadSafeDFACacheOracle<I> extends DFACacheOracle<I> {
         this.lock = lock;
     }
 
+    @Override
+    public long getNodeCount() {
+        lock.readLock().lock();
+        try {
+            return super.getNodeCount();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public DFAEquivalenceOracle<I> createCacheConsistencyTest() {
         return new ThreadSafeDFACacheConsistencyTest<>(super.createCacheConsistencyTest(), lock);
@@ -0,0 +1,357 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import net.automatalib.alphabet.Alphabet;
+import net.automatalib.alphabet.GrowingAlphabet;
+import net.automatalib.automaton.concept.InputAlphabetHolder;
+import net.automatalib.automaton.transducer.MealyMachine;
+import net.automatalib.exception.GrowingAlphabetNotSupportedException;
+import net.automatalib.graph.Graph;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A tree-based {@link IncrementalMealyBuilder} that supports concurrent access without locking.
+ * <p>
+ * Each node of the tree stores its successors in an atomic array that is indexed by the alphabet index of the
+ * respective input symbol. Lookups only perform (volatile) reads and are therefore wait-free. Insertions add missing
+ * nodes via compare-and-set operations, so that concurrent insertions of words with a common prefix always agree on a
+ * single node per prefix. Conflicting outputs are reported via a {@link ConflictException}, regardless of whether the
+ * conflicting information has been inserted by the same thread or a different one.
+ * <p>
+ * <b>Note:</b> adding new alphabet symbols (see {@link #addAlphabetSymbol(Object)}) is not thread-safe and must not
+ * happen concurrently with other operations on this builder.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class ConcurrentMealyTreeBuilder<I, O> implements IncrementalMealyBuilder<I, O>, InputAlphabetHolder<I> {
+
+    private final Alphabet<I> inputAlphabet;
+    private final Node<O> root;
+    private int alphabetSize;
+
+    public ConcurrentMealyTreeBuilder(Alphabet<I> inputAlphabet) {
+        this.inputAlphabet = inputAlphabet;
+        this.alphabetSize = inputAlphabet.size();
+        this.root = new Node<>(null);
+    }
+
+    @Override
+    public boolean lookup(Word<? extends I> word, List<? super O> output) {
+        Node<O> curr = root;
+
+        for (I sym : word) {
+            final Node<O> succ = curr.getSuccessor(inputAlphabet.getSymbolIndex(sym));
+
+            if (succ == null) {
+                return false;
+            }
+
+            output.add(succ.output);
+            curr = succ;
+        }
+
+        return true;
+    }
+
+    @Override
+    public void insert(Word<? extends I> input, Word<? extends O> outputWord) {
+        if (input.length() != outputWord.length()) {
+            throw new IllegalArgumentException("Lengths of input and output word do not match");
+        }
+
+        Node<O> curr = root;
+
+        for (int i = 0; i < input.length(); i++) {
+            final int idx = inputAlphabet.getSymbolIndex(input.getSymbol(i));
+            final O out = outputWord.getSymbol(i);
+            final Node<O> succ = curr.getOrInsertSuccessor(idx, out, alphabetSize);
+
+            if (!Objects.equals(succ.output, out)) {
+                throw new ConflictException(
+                        "Error inserting " + input.prefix(i + 1) + " / " + outputWord.prefix(i + 1) +
+                        ": Incompatible output symbols: " + out + " vs " + succ.output);
+            }
+
+            curr = succ;
+        }
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        if (!this.inputAlphabet.containsSymbol(symbol)) {
+            if (!(this.inputAlphabet instanceof GrowingAlphabet)) {
+                throw new GrowingAlphabetNotSupportedException(this.inputAlphabet);
+            }
+            ((GrowingAlphabet<I>) this.inputAlphabet).addSymbol(symbol);
+        }
+
+        final int newAlphabetSize = this.inputAlphabet.size();
+        // even if the symbol was already in the alphabet, we need to make sure to be able to store the new transitions
+        if (alphabetSize < newAlphabetSize) {
+            final Deque<Node<O>> stack = new ArrayDeque<>();
+            stack.push(root);
+
+            while (!stack.isEmpty()) {
+                final Node<O> node = stack.pop();
+                final AtomicReferenceArray<@Nullable Node<O>> successors = node.successors;
+
+                if (successors != null) {
+                    final AtomicReferenceArray<@Nullable Node<O>> newSuccessors =
+                            new AtomicReferenceArray<>(newAlphabetSize);
+
+                    for (int i = 0; i < successors.length(); i++) {
+                        final Node<O> succ = successors.get(i);
+                        if (succ != null) {
+                            newSuccessors.set(i, succ);
+                            stack.push(succ);
+                        }
+                    }
+
+                    node.successors = newSuccessors;
+                }
+            }
+
+            this.alphabetSize = newAlphabetSize;
+        }
+    }
+
+    @Override
+    public @Nullable Word<I> findSeparatingWord(MealyMachine<?, I, ?, O> target,
+                                                Collection<? extends I> inputs,
+                                                boolean omitUndefined) {
+        return doFindSeparatingWord(target, inputs, omitUndefined);
+    }
+
+    private <S, T> @Nullable Word<I> doFindSeparatingWord(MealyMachine<S, I, T, O> target,
+                                                          Collection<? extends I> inputs,
+                                                          boolean omitUndefined) {
+        final S init = target.getInitialState();
+
+        if (init == null) {
+            return omitUndefined ? null : Word.epsilon();
+        }
+
+        final Deque<Record<S, I, O>> dfsStack = new ArrayDeque<>();
+        dfsStack.push(new Record<>(init, root, null, inputs.iterator()));
+
+        while (!dfsStack.isEmpty()) {
+            final Record<S, I, O> rec = dfsStack.peek();
+
+            if (!rec.inputIt.hasNext()) {
+                dfsStack.pop();
+                continue;
+            }
+
+            final I input = rec.inputIt.next();
+            final Node<O> succ = rec.treeNode.getSuccessor(inputAlphabet.getSymbolIndex(input));
+
+            if (succ == null) {
+                continue;
+            }
+
+            final T trans = target.getTransition(rec.automatonState, input);
+
+            if (omitUndefined && trans == null) {
+                continue;
+            }
+
+            if (trans == null || !Objects.equals(target.getTransitionOutput(trans), succ.output)) {
+                final WordBuilder<I> sep = new WordBuilder<>(dfsStack.size());
+                sep.append(input);
+
+                Record<S, I, O> curr = dfsStack.pop();
+                while (!dfsStack.isEmpty()) {
+                    sep.append(curr.incomingInput);
+                    curr = dfsStack.pop();
+                }
+
+                return sep.reverse().toWord();
+            }
+
+            dfsStack.push(new Record<>(target.getSuccessor(trans), succ, input, inputs.iterator()));
+        }
+
+        return null;
+    }
+
+    @Override
+    public Graph<?, ?> asGraph() {
+        return new GraphView();
+    }
+
+    @Override
+    public MealyTransitionSystem<?, I, ?, O> asTransitionSystem() {
+        return new TransitionSystemView();
+    }
+
+    @Override
+    public Alphabet<I> getInputAlphabet() {
+        return inputAlphabet;
+    }
+
+    private static final class Node<O> {
+
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, AtomicReferenceArray> SUCCESSORS =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, AtomicReferenceArray.class, "successors");
+
+        private final @Nullable O output;
+        // lazily initialized (via CAS) so that leaves do not allocate a successor array
+        @SuppressWarnings("PMD.AvoidUsingVolatile")
+        private volatile @Nullable AtomicReferenceArray<@Nullable Node<O>> successors;
+
+        Node(@Nullable O output) {
+            this.output = output;
+        }
+
+        @Nullable Node<O> getSuccessor(int idx) {
+            final AtomicReferenceArray<@Nullable Node<O>> succs = this.successors;
+            return succs == null ? null : succs.get(idx);
+        }
+
+        @SuppressWarnings("unchecked")
+        Node<O> getOrInsertSuccessor(int idx, O output, int alphabetSize) {
+            AtomicReferenceArray<@Nullable Node<O>> succs = this.successors;
+
+            if (succs == null) {
+                SUCCESSORS.compareAndSet(this, null, new AtomicReferenceArray<>(alphabetSize));
+                succs = this.successors;
+                assert succs != null;
+            }
+
+            final Node<O> succ = succs.get(idx);
+
+            if (succ != null) {
+                return succ;
+            }
+
+            final Node<O> newSucc = new Node<>(output);
+
+            if (succs.compareAndSet(idx, null, newSucc)) {
+                return newSucc;
+            }
+
+            // another thread was faster, use its node
+            final Node<O> existing = succs.get(idx);
+            assert existing != null;
+            return existing;
+        }
+
+        List<Node<O>> getSuccessors() {
+            final AtomicReferenceArray<@Nullable Node<O>> succs = this.successors;
+
+            if (succs == null) {
+                return new ArrayList<>(0);
+            }
+
+            final List<Node<O>> result = new ArrayList<>(succs.length());
+            for (int i = 0; i < succs.length(); i++) {
+                final Node<O> succ = succs.get(i);
+                if (succ != null) {
+                    result.add(succ);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    private static final class Record<S, I, O> {
+
+        private final S automatonState;
+        private final Node<O> treeNode;
+        private final @Nullable I incomingInput;
+        private final Iterator<? extends I> inputIt;
+
+        Record(S automatonState, Node<O> treeNode, @Nullable I incomingInput, Iterator<? extends I> inputIt) {
+            this.automatonState = automatonState;
+            this.treeNode = treeNode;
+            this.incomingInput = incomingInput;
+            this.inputIt = inputIt;
+        }
+    }
+
+    private class TransitionSystemView implements MealyTransitionSystem<Node<O>, I, Node<O>, O> {
+
+        @Override
+        public @Nullable Node<O> getTransition(Node<O> state, I input) {
+            return state.getSuccessor(inputAlphabet.getSymbolIndex(input));
+        }
+
+        @Override
+        public Node<O> getSuccessor(Node<O> transition) {
+            return transition;
+        }
+
+        @Override
+        public Node<O> getInitialState() {
+            return root;
+        }
+
+        @Override
+        @SuppressWarnings("nullness") // only the root has no output and the root is never a transition
+        public O getTransitionOutput(Node<O> transition) {
+            return transition.output;
+        }
+    }
+
+    private class GraphView implements Graph<Node<O>, Node<O>> {
+
+        @Override
+        public Collection<Node<O>> getNodes() {
+            final List<Node<O>> result = new ArrayList<>();
+            final Deque<Node<O>> queue = new ArrayDeque<>();
+            queue.add(root);
+
+            while (!queue.isEmpty()) {
+                final Node<O> node = queue.poll();
+                result.add(node);
+                queue.addAll(node.getSuccessors());
+            }
+
+            return result;
+        }
+
+        @Override
+        public Collection<Node<O>> getOutgoingEdges(Node<O> node) {
+            return node.getSuccessors();
+        }
+
+        @Override
+        public Node<O> getTarget(Node<O> edge) {
+            return edge;
+        }
+    }
+}
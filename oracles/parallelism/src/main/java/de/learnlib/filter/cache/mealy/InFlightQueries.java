@@ -0,0 +1,88 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import net.automatalib.word.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A registry of the queries that are currently executed by the oracles of a shared {@link ThreadSafeMealyCacheOracle}.
+ * Since the cache is only updated after a query has been answered, concurrent oracles that miss on the same (or a
+ * prefix of the same) query would otherwise both delegate it. Instead, the first oracle claims the execution of the
+ * query and all other oracles wait for its result.
+ * <p>
+ * Each execution is registered for its input word and its non-empty prefixes (up to the first prefix that is already
+ * claimed by another execution), so that an execution can be found by a hash lookup of the requested word.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+final class InFlightQueries<I, O> {
+
+    private final ConcurrentMap<Word<I>, CompletableFuture<Word<O>>> executions = new ConcurrentHashMap<>();
+
+    /**
+     * Tries to claim the execution of the given word. If the claim succeeds, the caller is responsible for eventually
+     * calling either {@link #complete(Word, CompletableFuture, Word)} or {@link #fail(Word, CompletableFuture,
+     * Throwable)}.
+     *
+     * @param word
+     *         the input word to execute
+     * @param execution
+     *         the (uncompleted) future which will hold the output of the given word
+     *
+     * @return {@code null} if the claim succeeded, otherwise the execution of another word that has the given word as a
+     * prefix
+     */
+    @Nullable CompletableFuture<Word<O>> claim(Word<I> word, CompletableFuture<Word<O>> execution) {
+        final CompletableFuture<Word<O>> existing = executions.putIfAbsent(word, execution);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        for (int i = word.length() - 1; i > 0; i--) {
+            // the remaining (shorter) prefixes are already covered by another execution
+            if (executions.putIfAbsent(word.prefix(i), execution) != null) {
+                break;
+            }
+        }
+
+        return null;
+    }
+
+    void complete(Word<I> word, CompletableFuture<Word<O>> execution, Word<O> output) {
+        execution.complete(output);
+        release(word, execution);
+    }
+
+    void fail(Word<I> word, CompletableFuture<Word<O>> execution, Throwable cause) {
+        execution.completeExceptionally(cause);
+        release(word, execution);
+    }
+
+    private void release(Word<I> word, CompletableFuture<Word<O>> execution) {
+        for (int i = word.length(); i > 0; i--) {
+            executions.remove(word.prefix(i), execution);
+        }
+    }
+}
@@ -15,9 +15,14 @@
  */
 package de.learnlib.filter.cache.mealy;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
@@ -30,6 +35,13 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A thread-safe variant of {@link MealyCacheOracle}.
+ * <p>
+ * Note that the exclusive (write) lock is acquired for every cache update. Enabling the {@link #setBatchMode(boolean)
+ * batch mode} therefore reduces contention on the shared cache, as the lock is acquired only once per batch.
+ * <p>
+ * Cache misses that are currently executed by another oracle which shares this cache are not delegated a second time.
+ * Instead, the oracle waits for the result of the other execution. This also applies to cache misses that are prefixes
+ * of queries that are currently executed.
  *
  * @param <I>
  *         input symbol type
@@ -39,22 +51,27 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 public class ThreadSafeMealyCacheOracle<I, O> extends MealyCacheOracle<I, O> {
 
     private final ReadWriteLock lock;
+    private final InFlightQueries<I, O> inFlight;
 
     ThreadSafeMealyCacheOracle(IncrementalMealyBuilder<I, O> incMealy,
                                @Nullable Mapping<? super O, ? extends O> errorSyms,
                                MembershipOracle<I, Word<O>> delegate,
-                               ReadWriteLock lock) {
+                               ReadWriteLock lock,
+                               InFlightQueries<I, O> inFlight) {
         super(incMealy, errorSyms, delegate);
         this.lock = lock;
+        this.inFlight = inFlight;
     }
 
     ThreadSafeMealyCacheOracle(IncrementalMealyBuilder<I, O> incMealy,
                                @Nullable Mapping<? super O, ? extends O> errorSyms,
                                MembershipOracle<I, Word<O>> delegate,
                                Comparator<I> comparator,
-                               ReadWriteLock lock) {
+                               ReadWriteLock lock,
+                               InFlightQueries<I, O> inFlight) {
         super(incMealy, errorSyms, delegate, comparator);
         this.lock = lock;
+        this.inFlight = inFlight;
     }
 
     @Override
@@ -67,6 +84,103 @@ public class ThreadSafeMealyCacheOracle<I, O> extends MealyCacheOracle<I, O> {
         }
     }
 
+    /**
+     * Delegates the given cache misses, unless they are currently executed by another oracle that shares this cache. In
+     * this case, the result of the other oracle is awaited (after the remaining queries have been delegated).
+     */
+    @Override
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // the exception is re-thrown
+    void processMisses(List<MasterQuery<I, O>> masterQueries) {
+        final List<MasterQuery<I, O>> owned = new ArrayList<>(masterQueries.size());
+        final List<CompletableFuture<Word<O>>> ownedExecutions = new ArrayList<>(masterQueries.size());
+        final List<MasterQuery<I, O>> awaited = new ArrayList<>();
+        final List<CompletableFuture<Word<O>>> awaitedExecutions = new ArrayList<>();
+
+        for (MasterQuery<I, O> master : masterQueries) {
+            final CompletableFuture<Word<O>> execution = new CompletableFuture<>();
+            final CompletableFuture<Word<O>> existing = inFlight.claim(master.getInput(), execution);
+
+            if (existing == null) {
+                owned.add(master);
+                ownedExecutions.add(execution);
+            } else {
+                awaited.add(master);
+                awaitedExecutions.add(existing);
+            }
+        }
+
+        // another oracle may have completed the query between our cache lookup and our claim
+        answerFromCache(owned, ownedExecutions);
+
+        try {
+            if (isBatchMode()) {
+                super.processMisses(owned);
+                for (int i = 0; i < owned.size(); i++) {
+                    complete(owned.get(i), ownedExecutions.get(i));
+                }
+            } else {
+                for (int i = 0; i < owned.size(); i++) {
+                    super.processMisses(Collections.singletonList(owned.get(i)));
+                    complete(owned.get(i), ownedExecutions.get(i));
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = 0; i < owned.size(); i++) {
+                inFlight.fail(owned.get(i).getInput(), ownedExecutions.get(i), e);
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < awaited.size(); i++) {
+            final MasterQuery<I, O> master = awaited.get(i);
+            final Word<O> output = await(awaitedExecutions.get(i));
+
+            if (output == null) { // the other execution failed, so we have to execute the query ourselves
+                super.processMisses(Collections.singletonList(master));
+            } else {
+                master.answer(output.prefix(master.getInput().length()));
+            }
+        }
+    }
+
+    private void answerFromCache(List<MasterQuery<I, O>> owned, List<CompletableFuture<Word<O>>> executions) {
+        this.lock.readLock().lock();
+        try {
+            final Iterator<MasterQuery<I, O>> queryIt = owned.iterator();
+            final Iterator<CompletableFuture<Word<O>>> executionIt = executions.iterator();
+
+            while (queryIt.hasNext()) {
+                final MasterQuery<I, O> master = queryIt.next();
+                final CompletableFuture<Word<O>> execution = executionIt.next();
+                final Word<O> output = super.lookupCache(master.getInput());
+
+                if (output != null) {
+                    master.answer(output);
+                    complete(master, execution);
+                    queryIt.remove();
+                    executionIt.remove();
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void complete(MasterQuery<I, O> master, CompletableFuture<Word<O>> execution) {
+        inFlight.complete(master.getInput(), execution, master.getAnswer());
+    }
+
+    private static <O> @Nullable Word<O> await(CompletableFuture<Word<O>> execution) {
+        try {
+            return execution.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
     @Override
     void updateCache(Collection<? extends MasterQuery<I, O>> masterQueries) {
         this.lock.writeLock().lock();
@@ -77,6 +191,16 @@ public class ThreadSafeMealyCacheOracle<I, O> extends MealyCacheOracle<I, O> {
         }
     }
 
+    @Override
+    public long getNodeCount() {
+        this.lock.readLock().lock();
+        try {
+            return super.getNodeCount();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
     @Override
     public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
         return new ThreadSafeMealyCacheConsistencyTest<>(super.createCacheConsistencyTest(), lock);
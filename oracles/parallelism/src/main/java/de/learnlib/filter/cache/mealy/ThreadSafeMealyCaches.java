@@ -24,6 +24,9 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.EvictionPolicies;
+import de.learnlib.filter.cache.EvictionPolicy;
 import de.learnlib.oracle.MembershipOracle;
 import de.learnlib.oracle.parallelism.ParallelOracleBuilders;
 import net.automatalib.alphabet.Alphabet;
@@ -250,6 +253,268 @@ public final class ThreadSafeMealyCaches {
         return createCollectionBasedCache(alphabet, errorSyms, oracles, builder);
     }
 
+    /**
+     * Enhances a given oracle supplier with a shared, thread-safe cache for a Mealy machine learning setup, using a
+     * concurrent tree for internal cache organization. In contrast to {@link #createTreeCache(Alphabet, Supplier)}, the
+     * returned oracles do not synchronize on a shared lock but access the cache concurrently, which reduces contention
+     * in setups with many parallel oracles.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param oracleSupplier
+     *         the supplier that is used to construct the delegate oracle for the cache, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a supplier for {@link MealyCacheOracle}s.
+     *
+     * @see ConcurrentMealyTreeBuilder
+     */
+    public static <I, O> Supplier<MealyCacheOracle<I, O>> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                                    Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier) {
+        return createConcurrentTreeCache(alphabet, null, oracleSupplier);
+    }
+
+    /**
+     * Enhances a given oracle supplier with a shared, thread-safe cache for a Mealy machine learning setup, using a
+     * concurrent tree for internal cache organization. In contrast to {@link #createTreeCache(Alphabet, Mapping,
+     * Supplier)}, the returned oracles do not synchronize on a shared lock but access the cache concurrently, which
+     * reduces contention in setups with many parallel oracles.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param errorSyms
+     *         a mapping for defining a prefix-closure filter. If an output symbol has a non-null mapping all symbols
+     *         <i>after</i> this symbol are replaced by the mapped value.
+     * @param oracleSupplier
+     *         the supplier that is used to construct the delegate oracle for the cache, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a supplier for {@link MealyCacheOracle}s.
+     *
+     * @see ConcurrentMealyTreeBuilder
+     */
+    public static <I, O> Supplier<MealyCacheOracle<I, O>> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                                    @Nullable Mapping<? super O, ? extends O> errorSyms,
+                                                                                    Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier) {
+        final IncrementalMealyBuilder<I, O> incremental = new ConcurrentMealyTreeBuilder<>(alphabet);
+        return () -> new MealyCacheOracle<>(incremental, errorSyms, oracleSupplier.get(), alphabet);
+    }
+
+    /**
+     * Enhances each oracle of a given collection with a shared, thread-safe cache for a Mealy machine learning setup,
+     * using a concurrent tree for internal cache organization. In contrast to {@link #createTreeCache(Alphabet,
+     * Collection)}, the returned oracles do not synchronize on a shared lock but access the cache concurrently, which
+     * reduces contention in setups with many parallel oracles.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param oracles
+     *         the collection of oracles which will be used as delegates (in case of a cache-miss) by the corresponding
+     *         oracles caches.
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a collection of {@link MealyCacheOracle}s.
+     *
+     * @see ConcurrentMealyTreeBuilder
+     */
+    public static <I, O> Collection<MealyCacheOracle<I, O>> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                                      Collection<? extends MembershipOracle<I, Word<O>>> oracles) {
+        return createConcurrentTreeCache(alphabet, null, oracles);
+    }
+
+    /**
+     * Enhances each oracle of a given collection with a shared, thread-safe cache for a Mealy machine learning setup,
+     * using a concurrent tree for internal cache organization. In contrast to {@link #createTreeCache(Alphabet,
+     * Mapping, Collection)}, the returned oracles do not synchronize on a shared lock but access the cache
+     * concurrently, which reduces contention in setups with many parallel oracles.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param errorSyms
+     *         a mapping for defining a prefix-closure filter. If an output symbol has a non-null mapping all symbols
+     *         <i>after</i> this symbol are replaced by the mapped value.
+     * @param oracles
+     *         the collection of oracles which will be used as delegates (in case of a cache-miss) by the corresponding
+     *         oracles caches.
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a collection of {@link MealyCacheOracle}s.
+     *
+     * @see ConcurrentMealyTreeBuilder
+     */
+    public static <I, O> Collection<MealyCacheOracle<I, O>> createConcurrentTreeCache(Alphabet<I> alphabet,
+                                                                                      @Nullable Mapping<? super O, ? extends O> errorSyms,
+                                                                                      Collection<? extends MembershipOracle<I, Word<O>>> oracles) {
+        final IncrementalMealyBuilder<I, O> incremental = new ConcurrentMealyTreeBuilder<>(alphabet);
+        final List<MealyCacheOracle<I, O>> result = new ArrayList<>(oracles.size());
+
+        for (MembershipOracle<I, Word<O>> oracle : oracles) {
+            result.add(new MealyCacheOracle<>(incremental, errorSyms, oracle, alphabet));
+        }
+
+        return result;
+    }
+
+    /**
+     * Enhances a given oracle supplier with a two-level cache for a Mealy machine learning setup. Each oracle keeps a
+     * private, bounded tree cache (L1) in front of a shared, thread-safe tree cache (L2), so that queries for frequently
+     * requested (e.g. short) words do not need to synchronize on the shared cache. The L1 caches evict their entries
+     * in least-recently-used order.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param oracleSupplier
+     *         the supplier that is used to construct the delegate oracle for the cache, in case of a cache-miss.
+     * @param localBudget
+     *         the budget of each of the L1 caches
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a supplier for {@link TwoLevelMealyCacheOracle}s.
+     *
+     * @see TwoLevelMealyCacheOracle
+     */
+    public static <I, O> Supplier<TwoLevelMealyCacheOracle<I, O>> createTwoLevelTreeCache(Alphabet<I> alphabet,
+                                                                                          Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier,
+                                                                                          CacheBudget localBudget) {
+        return createTwoLevelTreeCache(alphabet, null, oracleSupplier, localBudget, EvictionPolicies.LRU);
+    }
+
+    /**
+     * Enhances a given oracle supplier with a two-level cache for a Mealy machine learning setup. Each oracle keeps a
+     * private, bounded tree cache (L1) in front of a shared, thread-safe tree cache (L2), so that queries for frequently
+     * requested (e.g. short) words do not need to synchronize on the shared cache.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param errorSyms
+     *         a mapping for defining a prefix-closure filter. If an output symbol has a non-null mapping all symbols
+     *         <i>after</i> this symbol are replaced by the mapped value.
+     * @param oracleSupplier
+     *         the supplier that is used to construct the delegate oracle for the cache, in case of a cache-miss.
+     * @param localBudget
+     *         the budget of each of the L1 caches
+     * @param localPolicy
+     *         the policy which determines the order in which entries of the L1 caches are evicted
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a supplier for {@link TwoLevelMealyCacheOracle}s.
+     *
+     * @see TwoLevelMealyCacheOracle
+     */
+    public static <I, O> Supplier<TwoLevelMealyCacheOracle<I, O>> createTwoLevelTreeCache(Alphabet<I> alphabet,
+                                                                                          @Nullable Mapping<? super O, ? extends O> errorSyms,
+                                                                                          Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier,
+                                                                                          CacheBudget localBudget,
+                                                                                          EvictionPolicy localPolicy) {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
+        final IncrementalMealyBuilder<I, O> incremental = new IncrementalMealyTreeBuilder<>(alphabet);
+        return () -> createTwoLevelCache(alphabet,
+                                         errorSyms,
+                                         oracleSupplier.get(),
+                                         localBudget,
+                                         localPolicy,
+                                         incremental,
+                                         lock,
+                                         inFlight);
+    }
+
+    /**
+     * Enhances each oracle of a given collection with a two-level cache for a Mealy machine learning setup. Each
+     * oracle keeps a private, bounded tree cache (L1) in front of a shared, thread-safe tree cache (L2), so that
+     * queries for frequently requested (e.g. short) words do not need to synchronize on the shared cache. The L1 caches
+     * evict their entries in least-recently-used order.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param oracles
+     *         the collection of oracles which will be used as delegates (in case of a cache-miss) by the corresponding
+     *         oracles caches.
+     * @param localBudget
+     *         the budget of each of the L1 caches
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a collection of {@link TwoLevelMealyCacheOracle}s.
+     *
+     * @see TwoLevelMealyCacheOracle
+     */
+    public static <I, O> Collection<TwoLevelMealyCacheOracle<I, O>> createTwoLevelTreeCache(Alphabet<I> alphabet,
+                                                                                            Collection<? extends MembershipOracle<I, Word<O>>> oracles,
+                                                                                            CacheBudget localBudget) {
+        return createTwoLevelTreeCache(alphabet, null, oracles, localBudget, EvictionPolicies.LRU);
+    }
+
+    /**
+     * Enhances each oracle of a given collection with a two-level cache for a Mealy machine learning setup. Each
+     * oracle keeps a private, bounded tree cache (L1) in front of a shared, thread-safe tree cache (L2), so that
+     * queries for frequently requested (e.g. short) words do not need to synchronize on the shared cache.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param errorSyms
+     *         a mapping for defining a prefix-closure filter. If an output symbol has a non-null mapping all symbols
+     *         <i>after</i> this symbol are replaced by the mapped value.
+     * @param oracles
+     *         the collection of oracles which will be used as delegates (in case of a cache-miss) by the corresponding
+     *         oracles caches.
+     * @param localBudget
+     *         the budget of each of the L1 caches
+     * @param localPolicy
+     *         the policy which determines the order in which entries of the L1 caches are evicted
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a collection of {@link TwoLevelMealyCacheOracle}s.
+     *
+     * @see TwoLevelMealyCacheOracle
+     */
+    public static <I, O> Collection<TwoLevelMealyCacheOracle<I, O>> createTwoLevelTreeCache(Alphabet<I> alphabet,
+                                                                                            @Nullable Mapping<? super O, ? extends O> errorSyms,
+                                                                                            Collection<? extends MembershipOracle<I, Word<O>>> oracles,
+                                                                                            CacheBudget localBudget,
+                                                                                            EvictionPolicy localPolicy) {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
+        final IncrementalMealyBuilder<I, O> incremental = new IncrementalMealyTreeBuilder<>(alphabet);
+        final List<TwoLevelMealyCacheOracle<I, O>> result = new ArrayList<>(oracles.size());
+
+        for (MembershipOracle<I, Word<O>> oracle : oracles) {
+            result.add(createTwoLevelCache(alphabet,
+                                           errorSyms,
+                                           oracle,
+                                           localBudget,
+                                           localPolicy,
+                                           incremental,
+                                           lock,
+                                           inFlight));
+        }
+
+        return result;
+    }
+
     /**
      * Enhances a given oracle supplier with a shared, thread-safe cache for a Mealy machine learning setup, using a
      * dynamically growing tree for internal cache organization. Rather than index-based storage, this cache used {@link
@@ -292,8 +557,9 @@ public final class ThreadSafeMealyCaches {
     public static <I, O> Supplier<ThreadSafeMealyCacheOracle<I, O>> createDynamicTreeCache(@Nullable Mapping<? super O, ? extends O> errorSyms,
                                                                                            Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier) {
         final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
         final IncrementalMealyBuilder<I, O> incremental = new DynamicIncrementalMealyTreeBuilder<>();
-        return () -> new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracleSupplier.get(), lock);
+        return () -> new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracleSupplier.get(), lock, inFlight);
     }
 
     /**
@@ -340,11 +606,12 @@ public final class ThreadSafeMealyCaches {
     public static <I, O> Collection<ThreadSafeMealyCacheOracle<I, O>> createDynamicTreeCache(@Nullable Mapping<? super O, ? extends O> errorSyms,
                                                                                              Collection<? extends MembershipOracle<I, Word<O>>> oracles) {
         final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
         final IncrementalMealyBuilder<I, O> incremental = new DynamicIncrementalMealyTreeBuilder<>();
         final List<ThreadSafeMealyCacheOracle<I, O>> result = new ArrayList<>(oracles.size());
 
         for (MembershipOracle<I, Word<O>> oracle : oracles) {
-            result.add(new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracle, lock));
+            result.add(new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracle, lock, inFlight));
         }
 
         return result;
@@ -355,8 +622,25 @@ public final class ThreadSafeMealyCaches {
                                                                                               Supplier<? extends MembershipOracle<I, Word<O>>> oracleSupplier,
                                                                                               Function<? super Alphabet<I>, ? extends IncrementalMealyBuilder<I, O>> builder) {
         final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
         final IncrementalMealyBuilder<I, O> incremental = builder.apply(alphabet);
-        return () -> new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracleSupplier.get(), lock);
+        return () -> new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracleSupplier.get(), lock, inFlight);
+    }
+
+    private static <I, O> TwoLevelMealyCacheOracle<I, O> createTwoLevelCache(Alphabet<I> alphabet,
+                                                                             @Nullable Mapping<? super O, ? extends O> errorSyms,
+                                                                             MembershipOracle<I, Word<O>> oracle,
+                                                                             CacheBudget localBudget,
+                                                                             EvictionPolicy localPolicy,
+                                                                             IncrementalMealyBuilder<I, O> sharedBuilder,
+                                                                             ReadWriteLock lock,
+                                                                             InFlightQueries<I, O> inFlight) {
+        final ThreadSafeMealyCacheOracle<I, O> sharedCache =
+                new ThreadSafeMealyCacheOracle<>(sharedBuilder, errorSyms, oracle, alphabet, lock, inFlight);
+        return new TwoLevelMealyCacheOracle<>(new BoundedMealyTreeBuilder<>(alphabet, localBudget, localPolicy),
+                                              errorSyms,
+                                              sharedCache,
+                                              alphabet);
     }
 
     private static <I, O> Collection<ThreadSafeMealyCacheOracle<I, O>> createCollectionBasedCache(Alphabet<I> alphabet,
@@ -364,11 +648,12 @@ public final class ThreadSafeMealyCaches {
                                                                                                   Collection<? extends MembershipOracle<I, Word<O>>> oracles,
                                                                                                   Function<? super Alphabet<I>, ? extends IncrementalMealyBuilder<I, O>> builder) {
         final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final InFlightQueries<I, O> inFlight = new InFlightQueries<>();
         final IncrementalMealyBuilder<I, O> incremental = builder.apply(alphabet);
         final List<ThreadSafeMealyCacheOracle<I, O>> result = new ArrayList<>(oracles.size());
 
         for (MembershipOracle<I, Word<O>> oracle : oracles) {
-            result.add(new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracle, alphabet, lock));
+            result.add(new ThreadSafeMealyCacheOracle<>(incremental, errorSyms, oracle, alphabet, lock, inFlight));
         }
 
         return result;
@@ -0,0 +1,87 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.Comparator;
+
+import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
+import net.automatalib.common.util.mapping.Mapping;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A two-level Mealy cache. Each oracle maintains a small, bounded cache (L1, see {@link BoundedMealyTreeBuilder}) which
+ * is consulted first and does not require any synchronization. Only queries that cannot be answered by the L1 cache
+ * are forwarded (as a single batch) to the shared, thread-safe cache (L2), whose misses are in turn answered by the
+ * delegate oracle. Information added to the shared cache by other oracles is propagated lazily, i.e., it enters the
+ * L1 cache once a query misses the L1 cache and is answered by the shared cache.
+ * <p>
+ * Cache consistency tests as well as suspending and resuming operate on the shared cache. The {@link
+ * de.learnlib.filter.cache.CacheStatistics cache statistics} of this oracle refer to its L1 cache, the statistics of
+ * the shared cache are available via {@link #getSharedCache()}.
+ * <p>
+ * <b>Note:</b> instances of this class are <b>not</b> thread-safe themselves. Each thread is required to use its own
+ * instance, as it is the case for oracles obtained from the supplier-based factory methods of {@link
+ * ThreadSafeMealyCaches} when used in conjunction with the parallel oracles of this module.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class TwoLevelMealyCacheOracle<I, O> extends MealyCacheOracle<I, O> {
+
+    private final ThreadSafeMealyCacheOracle<I, O> sharedCache;
+
+    TwoLevelMealyCacheOracle(BoundedMealyTreeBuilder<I, O> localBuilder,
+                             @Nullable Mapping<? super O, ? extends O> errorSyms,
+                             ThreadSafeMealyCacheOracle<I, O> sharedCache,
+                             Comparator<I> comparator) {
+        super(localBuilder, errorSyms, sharedCache, comparator);
+        this.sharedCache = sharedCache;
+        // forward all L1 misses at once, so that the shared cache is locked only once per batch
+        super.setBatchMode(true);
+    }
+
+    /**
+     * Returns the shared (L2) cache of this oracle.
+     *
+     * @return the shared cache
+     */
+    public ThreadSafeMealyCacheOracle<I, O> getSharedCache() {
+        return sharedCache;
+    }
+
+    @Override
+    public MealyEquivalenceOracle<I, O> createCacheConsistencyTest() {
+        return sharedCache.createCacheConsistencyTest();
+    }
+
+    @Override
+    public void addAlphabetSymbol(I symbol) {
+        super.addAlphabetSymbol(symbol);
+        sharedCache.addAlphabetSymbol(symbol);
+    }
+
+    @Override
+    public MealyCacheOracleState<I, O> suspend() {
+        return sharedCache.suspend();
+    }
+
+    @Override
+    public void resume(MealyCacheOracleState<I, O> state) {
+        sharedCache.resume(state);
+    }
+}
@@ -76,6 +76,16 @@ public class ThreadSafeMooreCacheOracle<I, O> extends MooreCacheOracle<I, O> {
         }
     }
 
+    @Override
+    public long getNodeCount() {
+        this.lock.readLock().lock();
+        try {
+            return super.getNodeCount();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
     @Override
     public MooreEquivalenceOracle<I, O> createCacheConsistencyTest() {
         return new ThreadSafeMooreCacheConsistencyTest<>(super.createCacheConsistencyTest(), lock);
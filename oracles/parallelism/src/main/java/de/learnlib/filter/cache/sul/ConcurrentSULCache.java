@@ -0,0 +1,69 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.sul;
+
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.mealy.ConcurrentMealyTreeBuilder;
+import de.learnlib.sul.SUL;
+import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
+import net.automatalib.ts.output.MealyTransitionSystem;
+
+/**
+ * A thread-safe variant of {@link SULCache} that does not require any locking, because the underlying cache (a
+ * {@link ConcurrentMealyTreeBuilder}) natively supports concurrent access.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+public class ConcurrentSULCache<I, O> extends SULCache<I, O> {
+
+    ConcurrentSULCache(ConcurrentMealyTreeBuilder<I, O> incMealy, SUL<I, O> sul) {
+        this(new ConcurrentSULCacheImpl<>(incMealy, incMealy.asTransitionSystem(), sul));
+    }
+
+    private <S, T> ConcurrentSULCache(ConcurrentSULCacheImpl<S, I, T, O> cacheImpl) {
+        super(cacheImpl);
+    }
+
+    private static final class ConcurrentSULCacheImpl<S, I, T, O> extends SULCacheImpl<S, I, T, O> {
+
+        ConcurrentSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
+                               MealyTransitionSystem<S, I, T, O> mealyTs,
+                               SUL<I, O> sul) {
+            super(incMealy, mealyTs, sul);
+        }
+
+        ConcurrentSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
+                               MealyTransitionSystem<S, I, T, O> mealyTs,
+                               SUL<I, O> sul,
+                               CacheCounters counters) {
+            super(incMealy, mealyTs, sul, counters);
+        }
+
+        @Override
+        public boolean canFork() {
+            return delegate.canFork();
+        }
+
+        @Override
+        public SUL<I, O> fork() {
+            return new ConcurrentSULCacheImpl<>(incMealy, mealyTs, delegate.fork(), counters);
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.sul;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.learnlib.sul.SUL;
+import net.automatalib.word.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A registry of the traces that are currently executed on the (forked) {@link SUL}s of a {@link ThreadSafeSULCache}.
+ * Since the cache is only updated after a trace has been completed, concurrent forks that require (a prefix of) a trace
+ * which is currently executed would otherwise execute it a second time. Instead, they can wait for the executing fork
+ * to reach the required input and re-use its observed outputs.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <O>
+ *         output symbol type
+ */
+final class InFlightTraces<I, O> {
+
+    private final Set<Trace<I, O>> traces = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Looks up the output of the given input word in the currently executed traces. If a trace that is executed at the
+     * moment constitutes a prefix of the given input word, this method blocks until the trace either reaches the given
+     * input word, diverges from it, or is completed.
+     *
+     * @param input
+     *         the input word
+     *
+     * @return the output of the given input word, or {@code null} if none of the currently executed traces covers the
+     * given input word
+     */
+    @Nullable Word<O> lookup(Word<I> input) {
+        for (Trace<I, O> trace : traces) {
+            final Word<O> output = trace.lookup(input);
+            if (output != null) {
+                return output;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Wraps the given SUL such that all of its traces are published to this registry while they are executed.
+     *
+     * @param sul
+     *         the SUL to wrap
+     *
+     * @return the wrapped SUL
+     */
+    PublishingSUL publishing(SUL<I, O> sul) {
+        return new PublishingSUL(sul);
+    }
+
+    final class PublishingSUL implements SUL<I, O> {
+
+        private final SUL<I, O> delegate;
+        private @Nullable Trace<I, O> trace;
+
+        PublishingSUL(SUL<I, O> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void pre() {
+            finishTrace();
+            delegate.pre();
+            final Trace<I, O> newTrace = new Trace<>();
+            traces.add(newTrace);
+            this.trace = newTrace;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException") // the exception is re-thrown
+        public O step(I in) {
+            final O out;
+
+            try {
+                out = delegate.step(in);
+            } catch (RuntimeException e) {
+                // do not let other forks wait for a trace that will not be continued
+                finishTrace();
+                throw e;
+            }
+
+            if (trace != null) {
+                trace.append(in, out);
+            }
+
+            return out;
+        }
+
+        @Override
+        @SuppressWarnings("PMD.AvoidCatchingGenericException") // the exception is re-thrown
+        public Word<O> stepAll(Word<? extends I> in) {
+            final Word<O> out;
+
+            try {
+                out = delegate.stepAll(in);
+            } catch (RuntimeException e) {
+                // do not let other forks wait for a trace that will not be continued
+                finishTrace();
+                throw e;
+            }
+
+            if (trace != null) {
+                trace.appendAll(in, out);
+            }
+
+            return out;
+        }
+
+        @Override
+        public void post() {
+            finishTrace();
+            delegate.post();
+        }
+
+        @Override
+        public boolean canFork() {
+            return delegate.canFork();
+        }
+
+        @Override
+        public PublishingSUL fork() {
+            return new PublishingSUL(delegate.fork());
+        }
+
+        /**
+         * Marks the currently executed trace as completed. Other forks no longer wait for this trace after calling this
+         * method.
+         */
+        void finishTrace() {
+            final Trace<I, O> t = this.trace;
+
+            if (t != null) {
+                traces.remove(t);
+                t.finish();
+                this.trace = null;
+            }
+        }
+
+        @Nullable Word<O> lookup(Word<I> input) {
+            return InFlightTraces.this.lookup(input);
+        }
+    }
+
+    private static final class Trace<I, O> {
+
+        private final Object monitor = new Object();
+        private final List<I> inputs = new ArrayList<>();
+        private final List<O> outputs = new ArrayList<>();
+        private boolean finished;
+
+        void append(I input, O output) {
+            synchronized (monitor) {
+                inputs.add(input);
+                outputs.add(output);
+                monitor.notifyAll();
+            }
+        }
+
+        void appendAll(Word<? extends I> input, Word<? extends O> output) {
+            synchronized (monitor) {
+                inputs.addAll(input.asList());
+                outputs.addAll(output.asList());
+                monitor.notifyAll();
+            }
+        }
+
+        void finish() {
+            synchronized (monitor) {
+                finished = true;
+                monitor.notifyAll();
+            }
+        }
+
+        @Nullable Word<O> lookup(Word<I> input) {
+            final int length = input.length();
+            int matched = 0;
+
+            synchronized (monitor) {
+                while (true) {
+                    final int available = Math.min(inputs.size(), length);
+
+                    while (matched < available) {
+                        if (!Objects.equals(inputs.get(matched), input.getSymbol(matched))) {
+                            return null;
+                        }
+                        matched++;
+                    }
+
+                    if (matched == length) {
+                        return Word.fromList(outputs.subList(0, length));
+                    } else if (finished) {
+                        return null;
+                    }
+
+                    try {
+                        monitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -18,15 +18,22 @@ package de.learnlib.filter.cache.sul;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import de.learnlib.filter.cache.CacheCounters;
 import de.learnlib.filter.cache.mealy.ThreadSafeMealyCacheConsistencyTest;
 import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
 import de.learnlib.sul.SUL;
 import net.automatalib.incremental.mealy.IncrementalMealyBuilder;
 import net.automatalib.ts.output.MealyTransitionSystem;
+import net.automatalib.word.Word;
 import net.automatalib.word.WordBuilder;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A thread-safe variant of {@link SULCache}.
+ * <p>
+ * The forks of this cache publish the traces they currently execute. If a fork requires a query that is not contained
+ * in the cache but that is (or may become) a prefix of a trace that is currently executed by another fork, it waits for
+ * the other fork instead of executing the query a second time.
  *
  * @param <I>
  *         input symbol type
@@ -36,7 +43,11 @@ import net.automatalib.word.WordBuilder;
 public class ThreadSafeSULCache<I, O> extends SULCache<I, O> {
 
     ThreadSafeSULCache(IncrementalMealyBuilder<I, O> incMealy, SUL<I, O> sul) {
-        this(new ThreadSafeSULCacheImpl<>(incMealy, new ReentrantReadWriteLock(), incMealy.asTransitionSystem(), sul));
+        this(new ThreadSafeSULCacheImpl<>(incMealy,
+                                          new ReentrantReadWriteLock(),
+                                          incMealy.asTransitionSystem(),
+                                          new InFlightTraces<I, O>().publishing(sul),
+                                          new CacheCounters()));
     }
 
     private <S, T> ThreadSafeSULCache(ThreadSafeSULCacheImpl<S, I, T, O> cacheImpl) {
@@ -46,31 +57,44 @@ public class ThreadSafeSULCache<I, O> extends SULCache<I, O> {
     private static final class ThreadSafeSULCacheImpl<S, I, T, O> extends SULCacheImpl<S, I, T, O> {
 
         private final ReadWriteLock lock;
+        private final InFlightTraces<I, O>.PublishingSUL publisher;
+        private boolean holdsReadLock;
 
         ThreadSafeSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
                                ReadWriteLock lock,
                                MealyTransitionSystem<S, I, T, O> mealyTs,
-                               SUL<I, O> sul) {
-            super(incMealy, mealyTs, sul);
+                               InFlightTraces<I, O>.PublishingSUL sul,
+                               CacheCounters counters) {
+            super(incMealy, mealyTs, sul, counters);
             this.lock = lock;
+            this.publisher = sul;
         }
 
         @Override
         public void pre() {
             lock.readLock().lock();
+            holdsReadLock = true;
             super.pre();
         }
 
         @Override
         protected void requiredInitializedDelegate() {
-            lock.readLock().unlock();
+            releaseReadLock();
             super.requiredInitializedDelegate();
         }
 
+        @Override
+        protected @Nullable Word<O> lookupBeyondCache(Word<I> input) {
+            return publisher.lookup(input);
+        }
+
         @Override
         protected void updateCache(WordBuilder<I> inputBuilder, WordBuilder<O> outputBuilder) {
-            if (outputBuilder.isEmpty()) { // if outputBuilder is empty we still hold the read-lock!
-                lock.readLock().unlock();
+            // other forks must not wait for our trace while we wait for the write-lock
+            publisher.finishTrace();
+
+            if (holdsReadLock) { // the delegate has not been queried, so there is no new information
+                releaseReadLock();
             } else { // otherwise acquire write-lock to update cache!
                 lock.writeLock().lock();
                 try {
@@ -81,6 +105,16 @@ public class ThreadSafeSULCache<I, O> extends SULCache<I, O> {
             }
         }
 
+        @Override
+        long getNodeCount() {
+            lock.readLock().lock();
+            try {
+                return super.getNodeCount();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
         @Override
         public boolean canFork() {
             return delegate.canFork();
@@ -93,7 +127,14 @@ public class ThreadSafeSULCache<I, O> extends SULCache<I, O> {
 
         @Override
         public SUL<I, O> fork() {
-            return new ThreadSafeSULCacheImpl<>(incMealy, lock, mealyTs, delegate.fork());
+            return new ThreadSafeSULCacheImpl<>(incMealy, lock, mealyTs, publisher.fork(), counters);
+        }
+
+        private void releaseReadLock() {
+            if (holdsReadLock) {
+                lock.readLock().unlock();
+                holdsReadLock = false;
+            }
         }
     }
 
@@ -15,6 +15,7 @@
  */
 package de.learnlib.filter.cache.sul;
 
+import de.learnlib.filter.cache.mealy.ConcurrentMealyTreeBuilder;
 import de.learnlib.sul.SUL;
 import de.learnlib.sul.StateLocalInputSUL;
 import net.automatalib.alphabet.Alphabet;
@@ -94,6 +95,29 @@ public final class ThreadSafeSULCaches {
         return new ThreadSafeSULCache<>(new IncrementalMealyTreeBuilder<>(alphabet), sul);
     }
 
+    /**
+     * Wraps a given {@link SUL} in a thread-safe variant of a {@link SULCache} that supports {@link SUL#fork() forking}
+     * iff the given {@link SUL} supports it and uses a concurrent tree for internal cache organization. In contrast to
+     * {@link #createTreeCache(Alphabet, SUL)}, the forks of the returned cache do not synchronize on a shared lock but
+     * access the cache concurrently.
+     *
+     * @param alphabet
+     *         the alphabet containing the symbols of possible queries
+     * @param sul
+     *         the supplier that is used as a delegate, in case of a cache-miss.
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output symbol type
+     *
+     * @return a {@link ConcurrentSULCache}.
+     *
+     * @see ConcurrentMealyTreeBuilder
+     */
+    public static <I, O> ConcurrentSULCache<I, O> createConcurrentTreeCache(Alphabet<I> alphabet, SUL<I, O> sul) {
+        return new ConcurrentSULCache<>(new ConcurrentMealyTreeBuilder<>(alphabet), sul);
+    }
+
     /**
      * Wraps a given {@link StateLocalInputSUL} in a thread-safe variant of a {@link StateLocalInputSULCache} that
      * supports {@link SUL#fork() forking} iff the given {@link SUL} supports it.
@@ -21,6 +21,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import de.learnlib.filter.cache.CacheCounters;
 import de.learnlib.filter.cache.mealy.ThreadSafeMealyCacheConsistencyTest;
 import de.learnlib.oracle.EquivalenceOracle.MealyEquivalenceOracle;
 import de.learnlib.sul.StateLocalInputSUL;
@@ -58,15 +59,16 @@ public class ThreadSafeStateLocalInputSULCache<I, O> extends StateLocalInputSULC
                                               ReadWriteLock lock,
                                               MealyTransitionSystem<S, I, T, O> mealyTs,
                                               StateLocalInputSUL<I, O> sul) {
-            this(incMealy, lock, mealyTs, new ConcurrentHashMap<>(), sul);
+            this(incMealy, lock, mealyTs, new ConcurrentHashMap<>(), sul, new CacheCounters());
         }
 
         ThreadSafeStateLocalInputSULCacheImpl(IncrementalMealyBuilder<I, O> incMealy,
                                               ReadWriteLock lock,
                                               MealyTransitionSystem<S, I, T, O> mealyTs,
                                               Map<S, Collection<I>> enabledInputCache,
-                                              StateLocalInputSUL<I, O> sul) {
-            super(incMealy, mealyTs, enabledInputCache, sul);
+                                              StateLocalInputSUL<I, O> sul,
+                                              CacheCounters counters) {
+            super(incMealy, mealyTs, enabledInputCache, sul, counters);
             this.lock = lock;
         }
 
@@ -96,6 +98,16 @@ public class ThreadSafeStateLocalInputSULCache<I, O> extends StateLocalInputSULC
             }
         }
 
+        @Override
+        long getNodeCount() {
+            lock.readLock().lock();
+            try {
+                return super.getNodeCount();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
         @Override
         public boolean canFork() {
             return delegate.canFork();
@@ -112,7 +124,8 @@ public class ThreadSafeStateLocalInputSULCache<I, O> extends StateLocalInputSULC
                                                                lock,
                                                                mealyTs,
                                                                enabledInputCache,
-                                                               delegate.fork());
+                                                               delegate.fork(),
+                                                               counters);
         }
 
     }
@@ -18,18 +18,35 @@ package de.learnlib.oracle.parallelism;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import com.google.common.base.Throwables;
 import de.learnlib.setting.LearnLibProperty;
 import de.learnlib.setting.LearnLibSettings;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A batch processor that dynamically distributes queries to worker threads.
+ * <p>
+ * The (sub-) processors are not bound to the worker threads, but are leased from a pool for the duration of each job.
+ * Hence, the number of (sub-) processors only depends on the number of concurrently executed jobs (which can be
+ * limited via the pool size), but not on the number of threads created by the executor. This allows executors that
+ * create a new thread for each job (such as virtual-thread executors) without creating a new (sub-) processor for each
+ * job.
+ * <p>
+ * Optionally, queries can be routed by a shard function (e.g., the first few symbols of a query). In this case, jobs
+ * are formed from whole shards, so that related queries are processed by the same (sub-) processor. Shards that
+ * exceed their fair share of the batch (with respect to the number of (sub-) processors) are split, so that skewed
+ * shard sizes do not serialize the processing of a batch.
+ * <p>
+ * Instead of a fixed batch size, the number of queries per job can be determined adaptively by an
+ * {@link AdaptiveBatchSizer} which tunes the batch size based on the observed latencies of previous jobs.
  *
  * @param <Q>
  *         query type
@@ -53,16 +70,93 @@ public abstract class AbstractDynamicBatchProcessor<Q, P extends BatchProcessor<
         POOL_POLICY = settings.getEnumValue(LearnLibProperty.PARALLEL_POOL_POLICY, PoolPolicy.class, PoolPolicy.CACHED);
     }
 
-    private final ThreadLocal<P> threadLocalOracle;
+    private final ThreadLocal<P> localOracle;
+    private final ProcessorPool<P> oraclePool;
     private final ExecutorService executor;
     private final @NonNegative int batchSize;
+    private final @NonNegative int maxOracles;
+    private final @Nullable Function<? super Q, ?> shardFunction;
+    private final @Nullable AdaptiveBatchSizer batchSizer;
 
     public AbstractDynamicBatchProcessor(Supplier<? extends P> oracleSupplier,
                                          @NonNegative int batchSize,
                                          ExecutorService executor) {
-        this.threadLocalOracle = ThreadLocal.withInitial(oracleSupplier);
+        this(oracleSupplier, batchSize, POOL_SIZE, executor);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) processors
+     * @param batchSize
+     *         the maximum number of queries per job
+     * @param maxOracles
+     *         the maximum number of (sub-) processors used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     */
+    public AbstractDynamicBatchProcessor(Supplier<? extends P> oracleSupplier,
+                                         @NonNegative int batchSize,
+                                         @NonNegative int maxOracles,
+                                         ExecutorService executor) {
+        this(oracleSupplier, batchSize, maxOracles, executor, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) processors
+     * @param batchSize
+     *         the (minimum) number of queries per job
+     * @param maxOracles
+     *         the maximum number of (sub-) processors used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param shardFunction
+     *         the function that determines the shard of a query. Queries with equal shards are processed by the same
+     *         job. May be {@code null} to distribute queries regardless of their shard
+     */
+    public AbstractDynamicBatchProcessor(Supplier<? extends P> oracleSupplier,
+                                         @NonNegative int batchSize,
+                                         @NonNegative int maxOracles,
+                                         ExecutorService executor,
+                                         @Nullable Function<? super Q, ?> shardFunction) {
+        this(oracleSupplier, batchSize, maxOracles, executor, shardFunction, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) processors
+     * @param batchSize
+     *         the (minimum) number of queries per job. Ignored, if {@code batchSizer} is non-{@code null}
+     * @param maxOracles
+     *         the maximum number of (sub-) processors used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param shardFunction
+     *         the function that determines the shard of a query. Queries with equal shards are processed by the same
+     *         job. May be {@code null} to distribute queries regardless of their shard
+     * @param batchSizer
+     *         the sizer that adaptively determines the number of queries per job. May be {@code null} to use the
+     *         fixed {@code batchSize}
+     */
+    public AbstractDynamicBatchProcessor(Supplier<? extends P> oracleSupplier,
+                                         @NonNegative int batchSize,
+                                         @NonNegative int maxOracles,
+                                         ExecutorService executor,
+                                         @Nullable Function<? super Q, ?> shardFunction,
+                                         @Nullable AdaptiveBatchSizer batchSizer) {
+        this.localOracle = ThreadLocal.withInitial(oracleSupplier);
+        this.oraclePool = new ProcessorPool<>(oracleSupplier, maxOracles);
         this.executor = executor;
         this.batchSize = batchSize;
+        this.maxOracles = maxOracles;
+        this.shardFunction = shardFunction;
+        this.batchSizer = batchSizer;
     }
 
     @Override
@@ -81,47 +175,138 @@ public abstract class AbstractDynamicBatchProcessor<Q, P extends BatchProcessor<
             return;
         }
 
+        List<DynamicQueriesJob<Q, P>> jobs = createJobs(queries);
+        List<Future<?>> futures = new ArrayList<>(jobs.size());
+
+        for (DynamicQueriesJob<Q, P> job : jobs) {
+            futures.add(executor.submit(job));
+        }
+
+        try {
+            // Await completion of all jobs
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError("Runnables must not throw checked exceptions", e);
+        } catch (InterruptedException e) {
+            Thread.interrupted();
+            throw new BatchInterruptedException(e);
+        }
+    }
+
+    /**
+     * Asynchronously processes the given batch. The returned future completes once all jobs of the batch have
+     * finished. If any job fails, the future completes exceptionally (after all other jobs have finished as well).
+     * <p>
+     * Cancelling the returned future cancels all jobs of the batch that have not started yet. Jobs that are already
+     * running are completed regularly.
+     *
+     * @param queries
+     *         the batch to process
+     *
+     * @return a future that completes once all queries of the batch have been processed
+     */
+    public CompletableFuture<Void> processBatchAsync(Collection<? extends Q> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<DynamicQueriesJob<Q, P>> jobs = createJobs(queries);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[jobs.size()];
+
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(jobs.get(i), executor);
+        }
+
+        final CompletableFuture<Void> result = CompletableFuture.allOf(futures);
+
+        // allOf does not propagate cancellation to its constituents, so we have to cancel the individual jobs
+        result.whenComplete((v, t) -> {
+            if (result.isCancelled()) {
+                for (CompletableFuture<?> f : futures) {
+                    f.cancel(false);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    private List<DynamicQueriesJob<Q, P>> createJobs(Collection<? extends Q> queries) {
         int numQueries = queries.size();
-        int numJobs = (numQueries - 1) / batchSize + 1;
+        // with an unbounded pool, the concurrency is determined by the executor, so assume the default pool size
+        int parallelism = maxOracles == Integer.MAX_VALUE ? POOL_SIZE : maxOracles;
+        int jobSize = batchSizer == null ? batchSize : batchSizer.nextBatchSize(numQueries, Math.max(1, parallelism));
+
+        if (shardFunction != null) {
+            return createShardedJobs(queries, shardFunction, jobSize, parallelism);
+        }
+
+        int numJobs = (numQueries - 1) / jobSize + 1;
         List<Q> currentBatch = null;
 
-        List<Future<?>> futures = new ArrayList<>(numJobs);
+        List<DynamicQueriesJob<Q, P>> jobs = new ArrayList<>(numJobs);
 
         for (Q query : queries) {
 
             if (currentBatch == null) {
-                currentBatch = new ArrayList<>(batchSize);
+                currentBatch = new ArrayList<>(jobSize);
             }
 
             currentBatch.add(query);
-            if (currentBatch.size() == batchSize) {
-                Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-                futures.add(future);
+            if (currentBatch.size() == jobSize) {
+                jobs.add(new DynamicQueriesJob<>(currentBatch, oraclePool, batchSizer));
                 currentBatch = null;
             }
         }
 
         if (currentBatch != null) {
-            Future<?> future = executor.submit(new DynamicQueriesJob<>(currentBatch, threadLocalOracle));
-            futures.add(future);
+            jobs.add(new DynamicQueriesJob<>(currentBatch, oraclePool, batchSizer));
         }
 
-        try {
-            // Await completion of all jobs
-            for (Future<?> future : futures) {
-                future.get();
+        return jobs;
+    }
+
+    private List<DynamicQueriesJob<Q, P>> createShardedJobs(Collection<? extends Q> queries,
+                                                            Function<? super Q, ?> shardFunction,
+                                                            int jobSize,
+                                                            int parallelism) {
+        int fairShare = (queries.size() - 1) / Math.max(1, parallelism) + 1;
+        List<List<Q>> shards = PrefixSharding.shard(queries, shardFunction, Math.max(jobSize, fairShare));
+
+        List<DynamicQueriesJob<Q, P>> jobs = new ArrayList<>(shards.size());
+        List<Q> currentBatch = null;
+
+        // merge small shards until a job reaches the configured batch size
+        for (List<Q> shard : shards) {
+            if (currentBatch == null) {
+                currentBatch = new ArrayList<>(Math.max(jobSize, shard.size()));
+            }
+
+            currentBatch.addAll(shard);
+            if (currentBatch.size() >= jobSize) {
+                jobs.add(new DynamicQueriesJob<>(currentBatch, oraclePool, batchSizer));
+                currentBatch = null;
             }
-        } catch (ExecutionException e) {
-            Throwables.throwIfUnchecked(e.getCause());
-            throw new AssertionError("Runnables must not throw checked exceptions", e);
-        } catch (InterruptedException e) {
-            Thread.interrupted();
-            throw new BatchInterruptedException(e);
         }
+
+        if (currentBatch != null) {
+            jobs.add(new DynamicQueriesJob<>(currentBatch, oraclePool, batchSizer));
+        }
+
+        return jobs;
     }
 
+    /**
+     * Returns a (sub-) processor for direct use by the calling thread (i.e., outside of jobs). Each calling thread
+     * receives its own processor, which is created lazily and is never used for processing jobs.
+     *
+     * @return the (sub-) processor for direct use
+     */
     protected P getProcessor() {
-        return threadLocalOracle.get();
+        return localOracle.get();
     }
 
 }
@@ -47,6 +47,8 @@ public abstract class AbstractDynamicBatchProcessorBuilder<Q, P extends BatchPro
     private @NonNegative int batchSize = AbstractDynamicBatchProcessor.BATCH_SIZE;
     private @NonNegative int poolSize = AbstractDynamicBatchProcessor.POOL_SIZE;
     private PoolPolicy poolPolicy = AbstractDynamicBatchProcessor.POOL_POLICY;
+    private @NonNegative int prefixAffinity;
+    private @Nullable AdaptiveBatchSizer batchSizer;
 
     public AbstractDynamicBatchProcessorBuilder(Supplier<? extends P> oracleSupplier) {
         this.oracleSupplier = oracleSupplier;
@@ -69,6 +71,21 @@ public abstract class AbstractDynamicBatchProcessorBuilder<Q, P extends BatchPro
         return this;
     }
 
+    /**
+     * Lets the given sizer adaptively determine the number of queries per job, overriding the fixed batch size (see
+     * {@link #withBatchSize(int)}). The sizer may be retained by the caller in order to inspect the chosen batch sizes.
+     *
+     * @param batchSizer
+     *         the sizer, or {@code null} to use the fixed batch size
+     *
+     * @return {@code this}
+     */
+    public AbstractDynamicBatchProcessorBuilder<Q, P, OR> withAdaptiveBatchSize(
+            @Nullable AdaptiveBatchSizer batchSizer) {
+        this.batchSizer = batchSizer;
+        return this;
+    }
+
     public AbstractDynamicBatchProcessorBuilder<Q, P, OR> withPoolSize(@NonNegative int poolSize) {
         this.poolSize = poolSize;
         return this;
@@ -79,36 +96,76 @@ public abstract class AbstractDynamicBatchProcessorBuilder<Q, P extends BatchPro
         return this;
     }
 
+    /**
+     * Enables prefix-affine routing of queries: queries that agree on their first {@code prefixLength} input symbols
+     * are processed by the same (sub-) processor (as part of the same job). Overly large groups of queries are split to
+     * keep the load balanced.
+     *
+     * @param prefixLength
+     *         the number of leading input symbols that determine the routing of a query. {@code 0} (the default)
+     *         disables prefix-affine routing
+     *
+     * @return {@code this}
+     */
+    public AbstractDynamicBatchProcessorBuilder<Q, P, OR> withPrefixAffinity(@NonNegative int prefixLength) {
+        Preconditions.checkArgument(prefixLength >= 0, "Prefix length must not be negative");
+        this.prefixAffinity = prefixLength;
+        return this;
+    }
+
     @SuppressWarnings("PMD.CloseResource") // false positive on JDK21 builds
     public OR create() {
 
         final Supplier<? extends P> supplier;
         final ExecutorService executor;
+        final int maxOracles;
 
         if (oracles != null) {
             executor = Executors.newFixedThreadPool(oracles.size());
             supplier = new StaticOracleProvider<>(oracles);
+            maxOracles = oracles.size();
         } else if (customExecutor != null) {
             executor = customExecutor;
             supplier = oracleSupplier;
+            // bound the number of oracles even if the custom executor creates a thread per job
+            maxOracles = poolSize;
         } else {
             switch (poolPolicy) {
                 case FIXED:
                     executor = Executors.newFixedThreadPool(poolSize);
                     break;
                 case CACHED:
-                    executor = new ScalingThreadPoolExecutor(0, poolSize, DEFAULT_KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+                    executor = newCachedExecutor();
+                    break;
+                case VIRTUAL:
+                    executor = VirtualThreads.newVirtualThreadPerTaskExecutor(this::newCachedExecutor);
                     break;
                 default:
                     throw new IllegalStateException("Unknown pool policy: " + poolPolicy);
             }
             supplier = oracleSupplier;
+            maxOracles = poolSize;
         }
 
-        return buildOracle(supplier, batchSize, executor);
+        return buildOracle(supplier, batchSize, maxOracles, executor);
+    }
+
+    private ExecutorService newCachedExecutor() {
+        return new ScalingThreadPoolExecutor(0, poolSize, DEFAULT_KEEP_ALIVE_TIME, TimeUnit.SECONDS);
+    }
+
+    protected @NonNegative int getPrefixAffinity() {
+        return prefixAffinity;
+    }
+
+    protected @Nullable AdaptiveBatchSizer getAdaptiveBatchSizer() {
+        return batchSizer;
     }
 
-    protected abstract OR buildOracle(Supplier<? extends P> supplier, int batchSize, ExecutorService executorService);
+    protected abstract OR buildOracle(Supplier<? extends P> supplier,
+                                      int batchSize,
+                                      int maxOracles,
+                                      ExecutorService executorService);
 
     static class StaticOracleProvider<P extends BatchProcessor<?>> implements Supplier<P> {
 
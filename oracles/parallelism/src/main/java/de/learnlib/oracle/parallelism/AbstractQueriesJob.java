@@ -37,8 +37,23 @@ abstract class AbstractQueriesJob<Q> implements Runnable {
     public void run() {
         BatchProcessor<Q> oracle = getOracle();
 
-        oracle.processBatch(queries);
+        try {
+            oracle.processBatch(queries);
+        } finally {
+            releaseOracle(oracle);
+        }
     }
 
     protected abstract BatchProcessor<Q> getOracle();
+
+    /**
+     * Hook for releasing the oracle obtained via {@link #getOracle()} after the queries have been processed. The
+     * default implementation does nothing.
+     *
+     * @param oracle
+     *         the oracle to release
+     */
+    protected void releaseOracle(BatchProcessor<Q> oracle) {
+        // do nothing
+    }
 }
@@ -16,19 +16,24 @@
 package de.learnlib.oracle.parallelism;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.function.Function;
 
+import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import de.learnlib.setting.LearnLibProperty;
 import de.learnlib.setting.LearnLibSettings;
 import net.automatalib.common.smartcollection.ArrayStorage;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A batch processor that statically distributes a set of queries among several threads.
@@ -36,6 +41,18 @@ import org.checkerframework.checker.index.qual.NonNegative;
  * An incoming set of queries is divided into a given number of batches, such that the sizes of all batches differ by at
  * most one. This keeps the required synchronization effort low, but if some batches are "harder" (for whatever reason)
  * than others, the load can be very unbalanced.
+ * <p>
+ * Optionally, queries can be routed by a shard function (e.g., the first few symbols of a query). In this case, all
+ * queries of a shard are processed by the same (sub-) processor, which allows processor-local state (such as caches)
+ * to be re-used across related queries. Shards that exceed the regular batch size are split, and the remaining shards
+ * are distributed largest-first among the batches, so that skewed shard sizes do not unbalance the load.
+ * <p>
+ * Optionally, straggling queries can be hedged (see {@link QueryHedger}). In this case, the (sub-) processors answer
+ * their batches in several jobs, take over the jobs of slower (sub-) processors, and re-issue overdue jobs.
+ * <p>
+ * Batches can also be processed asynchronously (see {@link #processBatchAsync(Collection)}). Since the (sub-)
+ * processors are not thread-safe, the parts of several asynchronous batches are queued per (sub-) processor, so that a
+ * (sub-) processor may already work on the next batch while others still work on the current one.
  *
  * @param <Q>
  *         query type
@@ -63,24 +80,94 @@ public abstract class AbstractStaticBatchProcessor<Q, P extends BatchProcessor<Q
     private final @NonNegative int minBatchSize;
     private final ArrayStorage<P> oracles;
     private final ExecutorService executor;
+    private final @Nullable Function<? super Q, ?> shardFunction;
+    private final @Nullable HedgedBatchExecutor<Q, P> hedgedExecutor;
+
+    // the last asynchronous job of each (sub-) processor (or of the hedged executor), guarded by asyncLock
+    private final CompletableFuture<?>[] asyncTails;
+    private final Object asyncLock;
 
     public AbstractStaticBatchProcessor(Collection<? extends P> oracles,
                                         @NonNegative int minBatchSize,
                                         PoolPolicy policy) {
+        this(oracles, minBatchSize, policy, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) processors
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param shardFunction
+     *         the function that determines the shard of a query. Queries with equal shards are processed by the same
+     *         (sub-) processor. May be {@code null} to distribute queries regardless of their shard
+     */
+    public AbstractStaticBatchProcessor(Collection<? extends P> oracles,
+                                        @NonNegative int minBatchSize,
+                                        PoolPolicy policy,
+                                        @Nullable Function<? super Q, ?> shardFunction) {
+        this(oracles, minBatchSize, policy, shardFunction, null, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) processors
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param shardFunction
+     *         the function that determines the shard of a query. May be {@code null} to distribute queries regardless
+     *         of their shard
+     * @param hedger
+     *         the configuration of the straggler mitigation. May be {@code null} to disable hedging
+     * @param replicator
+     *         the function for creating independent copies of queries. Must be non-{@code null} if {@code hedger} is
+     *         non-{@code null}
+     */
+    AbstractStaticBatchProcessor(Collection<? extends P> oracles,
+                                 @NonNegative int minBatchSize,
+                                 PoolPolicy policy,
+                                 @Nullable Function<? super Q, ?> shardFunction,
+                                 @Nullable QueryHedger hedger,
+                                 @Nullable Function<? super Q, QueryReplica<Q>> replicator) {
 
         this.oracles = new ArrayStorage<>(oracles);
 
         switch (policy) {
             case FIXED:
-                this.executor = Executors.newFixedThreadPool(this.oracles.size() - 1);
+                // when hedging, the local thread only coordinates the (sub-) processors. Asynchronous batches are
+                // coordinated by an additional pool thread
+                this.executor = Executors.newFixedThreadPool(this.oracles.size() + (hedger == null ? -1 : 1));
                 break;
             case CACHED:
                 this.executor = Executors.newCachedThreadPool();
                 break;
+            case VIRTUAL:
+                this.executor = VirtualThreads.newVirtualThreadPerTaskExecutor(Executors::newCachedThreadPool);
+                break;
             default:
                 throw new IllegalArgumentException("Illegal pool policy: " + policy);
         }
         this.minBatchSize = minBatchSize;
+        this.shardFunction = shardFunction;
+        this.asyncTails = new CompletableFuture<?>[hedger == null ? this.oracles.size() : 1];
+        this.asyncLock = new Object();
+
+        Arrays.fill(this.asyncTails, CompletableFuture.completedFuture(null));
+
+        if (hedger == null) {
+            this.hedgedExecutor = null;
+        } else {
+            Preconditions.checkArgument(replicator != null, "Hedging requires a replicator");
+            this.hedgedExecutor = new HedgedBatchExecutor<>(this.oracles, executor, hedger, replicator);
+        }
     }
 
     @Override
@@ -90,11 +177,13 @@ public abstract class AbstractStaticBatchProcessor<Q, P extends BatchProcessor<Q
             return;
         }
 
-        int numBatches = (num - minBatchSize) / minBatchSize + 1;
-        if (numBatches > oracles.size()) {
-            numBatches = oracles.size();
+        if (hedgedExecutor != null) {
+            hedgedExecutor.processBatch(queries, minBatchSize, this::splitBatches);
+            return;
         }
 
+        int numBatches = getNumBatches(num);
+
         // One batch is always executed in the local thread. This saves the thread creation
         // overhead for the common case where the batch size is quite small.
         int externalBatches = numBatches - 1;
@@ -104,38 +193,22 @@ public abstract class AbstractStaticBatchProcessor<Q, P extends BatchProcessor<Q
             return;
         }
 
-        // Calculate the number of full and non-full batches. The difference in size
-        // will never exceed one (cf. pidgeonhole principle)
-        int fullBatchSize = (num - 1) / numBatches + 1;
-        int nonFullBatches = fullBatchSize * numBatches - num;
+        List<? extends List<? extends Q>> batches = splitBatches(queries, numBatches);
 
         List<Future<?>> futures = new ArrayList<>(externalBatches);
 
-        Iterator<? extends Q> queryIt = queries.iterator();
-
         // Start the threads for the external batches
         for (int i = 0; i < externalBatches; i++) {
-            int bs = fullBatchSize;
-            if (i < nonFullBatches) {
-                bs--;
-            }
-            List<Q> batch = new ArrayList<>(bs);
-            for (int j = 0; j < bs; j++) {
-                batch.add(queryIt.next());
+            List<? extends Q> batch = batches.get(i + 1);
+            if (!batch.isEmpty()) {
+                Runnable job = new StaticQueriesJob<>(batch, oracles.get(i + 1));
+                Future<?> future = executor.submit(job);
+                futures.add(future);
             }
-
-            Runnable job = new StaticQueriesJob<>(batch, oracles.get(i + 1));
-            Future<?> future = executor.submit(job);
-            futures.add(future);
         }
 
-        // Finally, prepare and process the batch for the oracle executed in this thread.
-        List<Q> localBatch = new ArrayList<>(fullBatchSize);
-        for (int j = 0; j < fullBatchSize; j++) {
-            localBatch.add(queryIt.next());
-        }
-
-        processQueriesLocally(localBatch);
+        // Finally, process the batch for the oracle executed in this thread.
+        processQueriesLocally(batches.get(0));
 
         try {
             for (Future<?> f : futures) {
@@ -150,6 +223,119 @@ public abstract class AbstractStaticBatchProcessor<Q, P extends BatchProcessor<Q
         }
     }
 
+    /**
+     * Asynchronously processes the given batch. The returned future completes once all queries of the batch have been
+     * processed. If the processing of any part of the batch fails, the future completes exceptionally (after all other
+     * parts have finished as well).
+     * <p>
+     * The batch is split among the (sub-) processors as in {@link #processBatch(Collection)}, but all parts are
+     * processed by the worker threads. The parts of consecutive batches are queued per (sub-) processor, so several
+     * batches may be in flight at the same time. In hedging mode, consecutive batches are processed one after another.
+     * Asynchronous batches must not be processed concurrently with (blocking) calls to
+     * {@link #processBatch(Collection)}.
+     * <p>
+     * Cancelling the returned future cancels all parts of the batch that have not started yet. Parts that are already
+     * running are completed regularly.
+     *
+     * @param queries
+     *         the batch to process
+     *
+     * @return a future that completes once all queries of the batch have been processed
+     */
+    public CompletableFuture<Void> processBatchAsync(Collection<? extends Q> queries) {
+        if (queries.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        if (hedgedExecutor != null) {
+            // copy the batch, so that the caller may re-use its collection
+            final List<Q> batch = new ArrayList<>(queries);
+            synchronized (asyncLock) {
+                final CompletableFuture<Void> result = asyncTails[0].handle((v, t) -> null)
+                                                                    .thenRunAsync(() -> hedgedExecutor.processBatch(
+                                                                            batch,
+                                                                            minBatchSize,
+                                                                            this::splitBatches), executor);
+                asyncTails[0] = result;
+                return result;
+            }
+        }
+
+        final List<? extends List<? extends Q>> batches = splitBatches(queries, getNumBatches(queries.size()));
+        final List<CompletableFuture<?>> futures = new ArrayList<>(batches.size());
+
+        synchronized (asyncLock) {
+            for (int i = 0; i < batches.size(); i++) {
+                final List<? extends Q> batch = batches.get(i);
+                if (!batch.isEmpty()) {
+                    final Runnable job = new StaticQueriesJob<>(batch, oracles.get(i));
+                    // each (sub-) processor starts its part once it has finished its part of the previous batch
+                    final CompletableFuture<Void> future =
+                            asyncTails[i].handle((v, t) -> null).thenRunAsync(job, executor);
+                    asyncTails[i] = future;
+                    futures.add(future);
+                }
+            }
+        }
+
+        final CompletableFuture<Void> result = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+
+        // allOf does not propagate cancellation to its constituents, so we have to cancel the individual parts
+        result.whenComplete((v, t) -> {
+            if (result.isCancelled()) {
+                for (CompletableFuture<?> f : futures) {
+                    f.cancel(false);
+                }
+            }
+        });
+
+        return result;
+    }
+
+    private int getNumBatches(int num) {
+        final int numBatches = (num - minBatchSize) / minBatchSize + 1;
+        return Math.min(numBatches, oracles.size());
+    }
+
+    private List<? extends List<? extends Q>> splitBatches(Collection<? extends Q> queries, int numBatches) {
+        return shardFunction == null ? split(queries, numBatches) : partition(queries, numBatches, shardFunction);
+    }
+
+    private static <Q> List<List<Q>> split(Collection<? extends Q> queries, int numBatches) {
+        int num = queries.size();
+
+        // Calculate the number of full and non-full batches. The difference in size
+        // will never exceed one (cf. pidgeonhole principle)
+        int fullBatchSize = (num - 1) / numBatches + 1;
+        int nonFullBatches = fullBatchSize * numBatches - num;
+
+        List<List<Q>> batches = new ArrayList<>(numBatches);
+        Iterator<? extends Q> queryIt = queries.iterator();
+
+        // The first batch is executed locally and always receives a full batch, followed by the non-full ones
+        for (int i = 0; i < numBatches; i++) {
+            int bs = fullBatchSize;
+            if (i > 0 && i <= nonFullBatches) {
+                bs--;
+            }
+            List<Q> batch = new ArrayList<>(bs);
+            for (int j = 0; j < bs; j++) {
+                batch.add(queryIt.next());
+            }
+            batches.add(batch);
+        }
+
+        return batches;
+    }
+
+    private static <Q> List<List<Q>> partition(Collection<? extends Q> queries,
+                                               int numBatches,
+                                               Function<? super Q, ?> shardFunction) {
+        int maxShardSize = (queries.size() - 1) / numBatches + 1;
+        List<List<Q>> shards = PrefixSharding.shard(queries, shardFunction, maxShardSize);
+        return PrefixSharding.partition(shards, numBatches);
+    }
+
     private void processQueriesLocally(Collection<? extends Q> localBatch) {
         oracles.get(0).processBatch(localBatch);
     }
@@ -42,6 +42,8 @@ public abstract class AbstractStaticBatchProcessorBuilder<Q, P extends BatchProc
     private @NonNegative int minBatchSize = AbstractStaticBatchProcessor.MIN_BATCH_SIZE;
     private @NonNegative int numInstances = AbstractStaticBatchProcessor.NUM_INSTANCES;
     private PoolPolicy poolPolicy = AbstractStaticBatchProcessor.POOL_POLICY;
+    private @NonNegative int prefixAffinity;
+    private @Nullable QueryHedger queryHedger;
 
     public AbstractStaticBatchProcessorBuilder(Collection<? extends P> oracles) {
         Preconditions.checkArgument(!oracles.isEmpty(), "No oracles specified");
@@ -69,6 +71,38 @@ public abstract class AbstractStaticBatchProcessorBuilder<Q, P extends BatchProc
         return this;
     }
 
+    /**
+     * Enables prefix-affine routing of queries: queries that agree on their first {@code prefixLength} input symbols
+     * are processed by the same (sub-) processor within a batch. Overly large groups of queries are split to
+     * keep the load balanced.
+     *
+     * @param prefixLength
+     *         the number of leading input symbols that determine the routing of a query. {@code 0} (the default)
+     *         disables prefix-affine routing
+     *
+     * @return {@code this}
+     */
+    public AbstractStaticBatchProcessorBuilder<Q, P, OR> withPrefixAffinity(@NonNegative int prefixLength) {
+        Preconditions.checkArgument(prefixLength >= 0, "Prefix length must not be negative");
+        this.prefixAffinity = prefixLength;
+        return this;
+    }
+
+    /**
+     * Enables the mitigation of straggling queries: the (sub-) processors answer their queries in several jobs, take
+     * over unstarted jobs of busy (sub-) processors, and re-issue jobs that exceed the latency percentile or timeout of
+     * the given hedger. See {@link QueryHedger} for details.
+     *
+     * @param hedger
+     *         the configuration of the straggler mitigation, which also records its statistics
+     *
+     * @return {@code this}
+     */
+    public AbstractStaticBatchProcessorBuilder<Q, P, OR> withHedging(QueryHedger hedger) {
+        this.queryHedger = hedger;
+        return this;
+    }
+
     @SuppressWarnings("nullness") // the constructors guarantee that oracles and oracleSupplier are null exclusively
     public OR create() {
         Collection<? extends P> oracleInstances;
@@ -85,6 +119,14 @@ public abstract class AbstractStaticBatchProcessorBuilder<Q, P extends BatchProc
         return buildOracle(oracleInstances, minBatchSize, poolPolicy);
     }
 
+    protected @NonNegative int getPrefixAffinity() {
+        return prefixAffinity;
+    }
+
+    protected @Nullable QueryHedger getQueryHedger() {
+        return queryHedger;
+    }
+
     protected abstract OR buildOracle(Collection<? extends P> oracleInstances, int minBatchSize, PoolPolicy poolPolicy);
 
 }
@@ -0,0 +1,316 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Supplier;
+
+import com.google.common.base.Throwables;
+import net.automatalib.common.smartcollection.ArrayStorage;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A batch processor that distributes a set of queries among several threads based on their estimated cost.
+ * <p>
+ * The cost of a query is estimated by its length plus the cost of a reset, which is learned from the observed
+ * execution times of previous queries (see {@link ResetCostEstimator}). An incoming set of queries is divided into
+ * partitions of (approximately) equal total cost, one per worker. Each worker processes the queries of its own
+ * partition (most expensive first) in chunks of {@code 1/}{@value #CHUNKS_PER_PARTITION} of the partition and, once
+ * it runs out of work, steals half of the remaining (cheapest) queries of the partition with the highest remaining
+ * cost. This prevents a single worker from ending up with all the long queries while the others are idle. Since each
+ * chunk is passed to the (sub-) processors as a single batch, they may still apply batch-level optimizations.
+ * <p>
+ * The workers are executed on a {@link ForkJoinPool}. As with the {@link AbstractStaticBatchProcessor}, one partition
+ * is always processed in the local thread.
+ *
+ * @param <Q>
+ *         query type
+ * @param <P>
+ *         (sub-) processor type
+ */
+public abstract class AbstractWorkStealingBatchProcessor<Q, P extends BatchProcessor<Q>>
+        implements ThreadPool, BatchProcessor<Q> {
+
+    /**
+     * The initial estimate for the cost of a reset (in terms of executed symbols), until enough queries have been
+     * observed.
+     */
+    public static final double DEFAULT_RESET_COST = 1.0;
+
+    /**
+     * The number of chunks in which a worker processes its own partition. More chunks leave more work to be stolen
+     * (but pass smaller batches to the (sub-) processors).
+     */
+    static final int CHUNKS_PER_PARTITION = 4;
+
+    private final @NonNegative int minBatchSize;
+    private final ArrayStorage<P> oracles;
+    private final ForkJoinPool pool;
+    private final ResetCostEstimator resetCostEstimator;
+
+    public AbstractWorkStealingBatchProcessor(Collection<? extends P> oracles,
+                                              @NonNegative int minBatchSize,
+                                              double initialResetCost) {
+        this.oracles = new ArrayStorage<>(oracles);
+        this.pool = new ForkJoinPool(Math.max(1, this.oracles.size() - 1));
+        this.minBatchSize = minBatchSize;
+        this.resetCostEstimator = new ResetCostEstimator(initialResetCost);
+    }
+
+    /**
+     * Returns the length of the given query, i.e., the number of symbols that need to be executed in order to answer
+     * the query.
+     *
+     * @param query
+     *         the query
+     *
+     * @return the length of the query
+     */
+    protected abstract int getQueryLength(Q query);
+
+    /**
+     * Returns the currently estimated cost of a reset in terms of executed symbols.
+     *
+     * @return the estimated cost of a reset
+     */
+    public double getEstimatedResetCost() {
+        return resetCostEstimator.getResetCost();
+    }
+
+    @Override
+    public void processBatch(Collection<? extends Q> queries) {
+        int num = queries.size();
+        if (num == 0) {
+            return;
+        }
+
+        int numWorkers = (num - minBatchSize) / minBatchSize + 1;
+        if (numWorkers > oracles.size()) {
+            numWorkers = oracles.size();
+        }
+
+        if (numWorkers <= 1) {
+            oracles.get(0).processBatch(queries);
+            return;
+        }
+
+        final List<Partition<Q>> partitions = partition(queries, numWorkers);
+        final List<Future<?>> futures = new ArrayList<>(numWorkers - 1);
+
+        for (int i = 1; i < numWorkers; i++) {
+            final int id = i;
+            futures.add(pool.submit(() -> work(id, partitions)));
+        }
+
+        work(0, partitions);
+
+        try {
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } catch (ExecutionException ex) {
+            Throwables.throwIfUnchecked(ex.getCause());
+            throw new AssertionError("Runnable must not throw checked exceptions", ex);
+        } catch (InterruptedException ex) {
+            Thread.interrupted();
+            throw new BatchInterruptedException(ex);
+        }
+    }
+
+    /**
+     * Divides the given queries into the given number of partitions such that the total estimated costs of the
+     * partitions are balanced (using the longest-processing-time-first heuristic). Within each partition, the queries
+     * are ordered by descending cost.
+     */
+    List<Partition<Q>> partition(Collection<? extends Q> queries, int numPartitions) {
+        final double resetCost = resetCostEstimator.getResetCost();
+        final List<Entry<Q>> entries = new ArrayList<>(queries.size());
+
+        for (Q q : queries) {
+            final int length = getQueryLength(q);
+            entries.add(new Entry<>(q, length, length + resetCost));
+        }
+
+        entries.sort(Comparator.comparingDouble((Entry<Q> e) -> e.cost).reversed());
+
+        final List<Partition<Q>> result = new ArrayList<>(numPartitions);
+        final double[] loads = new double[numPartitions];
+        for (int i = 0; i < numPartitions; i++) {
+            result.add(new Partition<>());
+        }
+
+        for (Entry<Q> e : entries) {
+            int min = 0;
+            for (int i = 1; i < numPartitions; i++) {
+                if (loads[i] < loads[min]) {
+                    min = i;
+                }
+            }
+            loads[min] += e.cost;
+            result.get(min).add(e);
+        }
+
+        return result;
+    }
+
+    private void work(int id, List<Partition<Q>> partitions) {
+        final P oracle = oracles.get(id);
+        final Partition<Q> own = partitions.get(id);
+
+        final int chunkSize = (own.size() + CHUNKS_PER_PARTITION - 1) / CHUNKS_PER_PARTITION;
+
+        List<Entry<Q>> next = own.pollFirst(chunkSize);
+        while (!next.isEmpty()) {
+            process(oracle, next);
+            next = own.pollFirst(chunkSize);
+        }
+
+        next = steal(partitions);
+        while (!next.isEmpty()) {
+            process(oracle, next);
+            next = steal(partitions);
+        }
+    }
+
+    private void process(P oracle, List<Entry<Q>> entries) {
+        final List<Q> batch = new ArrayList<>(entries.size());
+        int length = 0;
+
+        for (Entry<Q> e : entries) {
+            batch.add(e.query);
+            length += e.length;
+        }
+
+        final long start = System.nanoTime();
+        oracle.processBatch(batch);
+        resetCostEstimator.record(length, batch.size(), System.nanoTime() - start);
+    }
+
+    private List<Entry<Q>> steal(List<Partition<Q>> partitions) {
+        while (true) {
+            Partition<Q> victim = null;
+            double maxCost = Double.NEGATIVE_INFINITY;
+
+            for (Partition<Q> p : partitions) {
+                if (p.size() > 0) {
+                    final double cost = p.getRemainingCost();
+                    if (cost > maxCost) {
+                        victim = p;
+                        maxCost = cost;
+                    }
+                }
+            }
+
+            if (victim == null) {
+                return Collections.emptyList();
+            }
+
+            final List<Entry<Q>> stolen = victim.pollLast((victim.size() + 1) / 2);
+
+            // another worker may have emptied the victim in the meantime, so look for a new one
+            if (!stolen.isEmpty()) {
+                return stolen;
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Override
+    public void shutdownNow() {
+        pool.shutdownNow();
+    }
+
+    protected P getProcessor() {
+        return oracles.get(0);
+    }
+
+    static final class Entry<Q> {
+
+        final Q query;
+        final int length;
+        final double cost;
+
+        Entry(Q query, int length, double cost) {
+            this.query = query;
+            this.length = length;
+            this.cost = cost;
+        }
+    }
+
+    /**
+     * The queries of a single worker. The owner takes queries from the head, thieves take queries from the tail.
+     */
+    static final class Partition<Q> {
+
+        private final Deque<Entry<Q>> entries = new ConcurrentLinkedDeque<>();
+        private final DoubleAdder remaining = new DoubleAdder();
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(Entry<Q> entry) {
+            entries.add(entry);
+            remaining.add(entry.cost);
+            size.incrementAndGet();
+        }
+
+        List<Entry<Q>> pollFirst(int num) {
+            return poll(entries::pollFirst, num);
+        }
+
+        List<Entry<Q>> pollLast(int num) {
+            return poll(entries::pollLast, num);
+        }
+
+        double getRemainingCost() {
+            return remaining.sum();
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        private List<Entry<Q>> poll(Supplier<@Nullable Entry<Q>> poller, int num) {
+            final List<Entry<Q>> result = new ArrayList<>(num);
+
+            for (int i = 0; i < num; i++) {
+                final Entry<Q> entry = poller.get();
+                if (entry == null) {
+                    break;
+                }
+                remaining.add(-entry.cost);
+                size.decrementAndGet();
+                result.add(entry);
+            }
+
+            return result;
+        }
+    }
+}
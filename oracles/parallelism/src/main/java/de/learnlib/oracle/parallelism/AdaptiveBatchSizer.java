@@ -0,0 +1,265 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.statistic.StatisticCollector;
+import de.learnlib.statistic.StatisticData;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+
+/**
+ * Adaptively determines the number of queries per job of an {@link AbstractDynamicBatchProcessor}.
+ * <p>
+ * The sizer observes the execution time and the queue wait time of every job. From the execution times, it estimates
+ * (via a least-squares fit whose older observations decay over time) the processing time per query and the fixed
+ * overhead per job (e.g., for resetting the system). The smallest queue wait time (including the time waiting for a
+ * free (sub-) processor) of the previous batch approximates the dispatching overhead of the executor. For a batch of {@code n} queries and {@code p} concurrently
+ * working (sub-) processors, the makespan is then approximately minimized by a batch size of {@code sqrt(n * o / p)},
+ * where {@code o} denotes the total overhead per job measured in queries: larger jobs amortize the overhead, smaller
+ * jobs reduce the imbalance at the end of a batch.
+ * <p>
+ * As long as no estimate is available, the sizer alternates between the initial batch size and twice its value in
+ * order to gather sufficiently diverse observations.
+ * <p>
+ * The chosen batch sizes (and the underlying estimates) are available as {@link StatisticData}, see
+ * {@link #getStatisticalData()}. An instance may be passed to
+ * {@link AbstractDynamicBatchProcessorBuilder#withAdaptiveBatchSize(AdaptiveBatchSizer)} and retained by the caller
+ * for inspection.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class AdaptiveBatchSizer implements StatisticCollector {
+
+    private static final double DEFAULT_DECAY = 0.99;
+    private static final double WAIT_SMOOTHING = 0.2;
+
+    private final @Positive int initialBatchSize;
+    private final @Positive int minBatchSize;
+    private final @Positive int maxBatchSize;
+    private final ResetCostEstimator estimator;
+    private final SortedMap<Integer, Long> histogram;
+    private final Object lock;
+
+    private int lastBatchSize;
+    private long batches;
+    private double queueWait;
+    private long batchMinWait;
+
+    /**
+     * Default constructor. Starts with a batch size of {@code 1} and does not restrict the chosen batch sizes.
+     */
+    public AdaptiveBatchSizer() {
+        this(1, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param initialBatchSize
+     *         the batch size to use until enough observations are available
+     * @param minBatchSize
+     *         the lower bound for chosen batch sizes
+     * @param maxBatchSize
+     *         the upper bound for chosen batch sizes
+     */
+    public AdaptiveBatchSizer(@Positive int initialBatchSize, @Positive int minBatchSize, @Positive int maxBatchSize) {
+        Preconditions.checkArgument(minBatchSize > 0, "Minimum batch size must be positive");
+        Preconditions.checkArgument(minBatchSize <= maxBatchSize, "Minimum batch size exceeds maximum batch size");
+        Preconditions.checkArgument(initialBatchSize >= minBatchSize && initialBatchSize <= maxBatchSize,
+                                    "Initial batch size must lie between the minimum and maximum batch size");
+
+        this.initialBatchSize = initialBatchSize;
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.estimator = new ResetCostEstimator(0, DEFAULT_DECAY);
+        this.histogram = new TreeMap<>();
+        this.lock = new Object();
+        this.lastBatchSize = initialBatchSize;
+        this.queueWait = Double.NaN;
+        this.batchMinWait = Long.MAX_VALUE;
+    }
+
+    /**
+     * Determines the batch size for the next batch of queries.
+     *
+     * @param numQueries
+     *         the number of queries of the batch
+     * @param parallelism
+     *         the number of (sub-) processors that may concurrently process the jobs of the batch
+     *
+     * @return the number of queries per job
+     */
+    int nextBatchSize(@Positive int numQueries, @Positive int parallelism) {
+        synchronized (lock) {
+            if (batchMinWait != Long.MAX_VALUE) {
+                queueWait = Double.isNaN(queueWait) || queueWait == 0 ?
+                        batchMinWait :
+                        (1 - WAIT_SMOOTHING) * queueWait + WAIT_SMOOTHING * batchMinWait;
+                batchMinWait = Long.MAX_VALUE;
+            }
+
+            final double queryLatency = estimator.getSymbolCost();
+            final int result;
+
+            if (Double.isNaN(queryLatency)) {
+                result = batches % 2 == 0 ? initialBatchSize : clamp(2L * initialBatchSize, numQueries);
+            } else {
+                final double wait = Double.isNaN(queueWait) ? 0 : queueWait;
+                final double overhead = estimator.getResetCost() + wait / queryLatency;
+                final double optimum = Math.sqrt(numQueries * overhead / parallelism);
+                // there is no benefit in jobs larger than the fair share of a (sub-) processor
+                final long fairShare = (numQueries - 1L) / parallelism + 1;
+                result = clamp(Math.min(Math.round(optimum), fairShare), numQueries);
+            }
+
+            batches++;
+            lastBatchSize = result;
+            histogram.merge(result, 1L, Long::sum);
+
+            return result;
+        }
+    }
+
+    /**
+     * Records the observations of a finished job.
+     *
+     * @param size
+     *         the number of queries of the job
+     * @param waitNanos
+     *         the time (in nanoseconds) between the submission of the job and the acquisition of a (sub-) processor
+     * @param executionNanos
+     *         the time (in nanoseconds) between the acquisition of a (sub-) processor and the end of the job
+     */
+    void recordJob(@NonNegative int size, long waitNanos, long executionNanos) {
+        estimator.record(size, executionNanos);
+        synchronized (lock) {
+            batchMinWait = Math.min(batchMinWait, waitNanos);
+        }
+    }
+
+    private int clamp(long batchSize, int numQueries) {
+        final long upper = Math.max(minBatchSize, Math.min(maxBatchSize, numQueries));
+        return (int) Math.max(minBatchSize, Math.min(upper, batchSize));
+    }
+
+    /**
+     * Returns the most recently chosen batch size.
+     *
+     * @return the most recently chosen batch size
+     */
+    public int getBatchSize() {
+        synchronized (lock) {
+            return lastBatchSize;
+        }
+    }
+
+    /**
+     * Returns how often each batch size has been chosen.
+     *
+     * @return a (sorted) copy of the mapping from batch sizes to the number of batches that used them
+     */
+    public SortedMap<Integer, Long> getBatchSizeHistogram() {
+        synchronized (lock) {
+            return new TreeMap<>(histogram);
+        }
+    }
+
+    /**
+     * Returns the estimated processing time per query.
+     *
+     * @return the estimated processing time per query (in nanoseconds), or {@link Double#NaN} if no estimate is
+     * available yet
+     */
+    public double getQueryLatency() {
+        return estimator.getSymbolCost();
+    }
+
+    /**
+     * Returns the (smoothed) queue wait time, i.e., the minimum time between the submission of the jobs of recent
+     * batches and the acquisition of their (sub-) processors.
+     *
+     * @return the queue wait time (in nanoseconds), or {@link Double#NaN} if no job has been observed yet
+     */
+    public double getQueueWait() {
+        synchronized (lock) {
+            return queueWait;
+        }
+    }
+
+    @Override
+    public StatisticData getStatisticalData() {
+        synchronized (lock) {
+            return new BatchSizeStatisticData(lastBatchSize,
+                                              new TreeMap<>(histogram),
+                                              estimator.getSymbolCost(),
+                                              queueWait);
+        }
+    }
+
+    private static final class BatchSizeStatisticData implements StatisticData {
+
+        private final int batchSize;
+        private final SortedMap<Integer, Long> histogram;
+        private final double queryLatency;
+        private final double queueWait;
+
+        BatchSizeStatisticData(int batchSize,
+                               SortedMap<Integer, Long> histogram,
+                               double queryLatency,
+                               double queueWait) {
+            this.batchSize = batchSize;
+            this.histogram = histogram;
+            this.queryLatency = queryLatency;
+            this.queueWait = queueWait;
+        }
+
+        @Override
+        public String getName() {
+            return "Adaptive batch size";
+        }
+
+        @Override
+        public String getUnit() {
+            return "queries";
+        }
+
+        @Override
+        public String getSummary() {
+            return getName() + " [" + getUnit() + "]: " + batchSize + " (current), " + histogram.size() +
+                   " (distinct sizes), " + format(queryLatency) + " (ns per query), " + format(queueWait) +
+                   " (ns queue wait)";
+        }
+
+        private static String format(double nanos) {
+            return Double.isNaN(nanos) ? "n/a" : Long.toString(Math.round(nanos));
+        }
+
+        @Override
+        public String getDetails() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(getSummary()).append(System.lineSeparator());
+            for (Entry<Integer, Long> e : histogram.entrySet()) {
+                sb.append('\t').append(e.getKey()).append(", ").append(e.getValue()).append(System.lineSeparator());
+            }
+            return sb.toString();
+        }
+    }
+}
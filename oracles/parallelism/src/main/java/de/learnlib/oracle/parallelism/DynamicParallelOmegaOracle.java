@@ -24,6 +24,7 @@ import de.learnlib.oracle.OmegaMembershipOracle;
 import de.learnlib.query.OmegaQuery;
 import net.automatalib.word.Word;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A specialized {@link AbstractDynamicBatchProcessor} for {@link OmegaMembershipOracle}s that implements {@link
@@ -44,6 +45,69 @@ public class DynamicParallelOmegaOracle<S, I, D>
         super(oracleSupplier, batchSize, executor);
     }
 
+    public DynamicParallelOmegaOracle(Supplier<? extends OmegaMembershipOracle<S, I, D>> oracleSupplier,
+                                      @NonNegative int batchSize,
+                                      @NonNegative int maxOracles,
+                                      ExecutorService executor) {
+        super(oracleSupplier, batchSize, maxOracles, executor);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) oracles
+     * @param batchSize
+     *         the (minimum) number of queries per job
+     * @param maxOracles
+     *         the maximum number of (sub-) oracles used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     */
+    public DynamicParallelOmegaOracle(Supplier<? extends OmegaMembershipOracle<S, I, D>> oracleSupplier,
+                                      @NonNegative int batchSize,
+                                      @NonNegative int maxOracles,
+                                      ExecutorService executor,
+                                      @NonNegative int prefixAffinity) {
+        super(oracleSupplier, batchSize, maxOracles, executor, PrefixSharding.forOmegaQueries(prefixAffinity));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) oracles
+     * @param batchSize
+     *         the (minimum) number of queries per job. Ignored, if {@code batchSizer} is non-{@code null}
+     * @param maxOracles
+     *         the maximum number of (sub-) oracles used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     * @param batchSizer
+     *         the sizer that adaptively determines the number of queries per job (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withAdaptiveBatchSize(AdaptiveBatchSizer)}). May be {@code null} to
+     *         use the fixed {@code batchSize}
+     */
+    public DynamicParallelOmegaOracle(Supplier<? extends OmegaMembershipOracle<S, I, D>> oracleSupplier,
+                                      @NonNegative int batchSize,
+                                      @NonNegative int maxOracles,
+                                      ExecutorService executor,
+                                      @NonNegative int prefixAffinity,
+                                      @Nullable AdaptiveBatchSizer batchSizer) {
+        super(oracleSupplier,
+              batchSize,
+              maxOracles,
+              executor,
+              PrefixSharding.forOmegaQueries(prefixAffinity),
+              batchSizer);
+    }
+
     @Override
     public void processQueries(Collection<? extends OmegaQuery<I, D>> omegaQueries) {
         processBatch(omegaQueries);
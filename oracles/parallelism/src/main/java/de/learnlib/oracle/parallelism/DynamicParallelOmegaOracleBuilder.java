@@ -46,7 +46,13 @@ public class DynamicParallelOmegaOracleBuilder<S, I, D>
     @Override
     protected DynamicParallelOmegaOracle<S, I, D> buildOracle(Supplier<? extends OmegaMembershipOracle<S, I, D>> supplier,
                                                               int batchSize,
+                                                              int maxOracles,
                                                               ExecutorService executorService) {
-        return new DynamicParallelOmegaOracle<>(supplier, batchSize, executorService);
+        return new DynamicParallelOmegaOracle<>(supplier,
+                                                batchSize,
+                                                maxOracles,
+                                                executorService,
+                                                getPrefixAffinity(),
+                                                getAdaptiveBatchSizer());
     }
 }
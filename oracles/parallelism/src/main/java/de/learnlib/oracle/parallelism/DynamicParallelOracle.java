@@ -16,16 +16,23 @@
 package de.learnlib.oracle.parallelism;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
+import de.learnlib.oracle.AsyncMembershipOracle;
 import de.learnlib.oracle.MembershipOracle;
 import de.learnlib.query.Query;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A specialized {@link AbstractDynamicBatchProcessor} for {@link MembershipOracle}s that implements {@link
  * ParallelOracle}.
+ * <p>
+ * Since the queries are processed by worker threads anyway, this oracle also natively supports the asynchronous
+ * processing of batches (see {@link AsyncMembershipOracle}). Several asynchronously submitted batches are processed
+ * concurrently.
  *
  * @param <I>
  *         input symbol type
@@ -33,7 +40,7 @@ import org.checkerframework.checker.index.qual.NonNegative;
  *         output domain type
  */
 public class DynamicParallelOracle<I, D> extends AbstractDynamicBatchProcessor<Query<I, D>, MembershipOracle<I, D>>
-        implements ParallelOracle<I, D> {
+        implements ParallelOracle<I, D>, AsyncMembershipOracle<I, D> {
 
     public DynamicParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
                                  @NonNegative int batchSize,
@@ -41,8 +48,76 @@ public class DynamicParallelOracle<I, D> extends AbstractDynamicBatchProcessor<Q
         super(oracleSupplier, batchSize, executor);
     }
 
+    public DynamicParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                 @NonNegative int batchSize,
+                                 @NonNegative int maxOracles,
+                                 ExecutorService executor) {
+        super(oracleSupplier, batchSize, maxOracles, executor);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) oracles
+     * @param batchSize
+     *         the (minimum) number of queries per job
+     * @param maxOracles
+     *         the maximum number of (sub-) oracles used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     */
+    public DynamicParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                 @NonNegative int batchSize,
+                                 @NonNegative int maxOracles,
+                                 ExecutorService executor,
+                                 @NonNegative int prefixAffinity) {
+        super(oracleSupplier, batchSize, maxOracles, executor, PrefixSharding.forQueries(prefixAffinity));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracleSupplier
+     *         the supplier for the (sub-) oracles
+     * @param batchSize
+     *         the (minimum) number of queries per job. Ignored, if {@code batchSizer} is non-{@code null}
+     * @param maxOracles
+     *         the maximum number of (sub-) oracles used to concurrently process jobs
+     * @param executor
+     *         the executor for the jobs
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     * @param batchSizer
+     *         the sizer that adaptively determines the number of queries per job (see {@link
+     *         AbstractDynamicBatchProcessorBuilder#withAdaptiveBatchSize(AdaptiveBatchSizer)}). May be {@code null} to
+     *         use the fixed {@code batchSize}
+     */
+    public DynamicParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier,
+                                 @NonNegative int batchSize,
+                                 @NonNegative int maxOracles,
+                                 ExecutorService executor,
+                                 @NonNegative int prefixAffinity,
+                                 @Nullable AdaptiveBatchSizer batchSizer) {
+        super(oracleSupplier,
+              batchSize,
+              maxOracles,
+              executor,
+              PrefixSharding.forQueries(prefixAffinity),
+              batchSizer);
+    }
+
     @Override
     public void processQueries(Collection<? extends Query<I, D>> queries) {
         processBatch(queries);
     }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        return processBatchAsync(queries);
+    }
 }
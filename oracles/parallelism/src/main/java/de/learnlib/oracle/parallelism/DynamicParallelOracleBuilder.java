@@ -44,7 +44,13 @@ public class DynamicParallelOracleBuilder<I, D>
     @Override
     protected DynamicParallelOracle<I, D> buildOracle(Supplier<? extends MembershipOracle<I, D>> supplier,
                                                       int batchSize,
+                                                      int maxOracles,
                                                       ExecutorService executorService) {
-        return new DynamicParallelOracle<>(supplier, batchSize, executorService);
+        return new DynamicParallelOracle<>(supplier,
+                                           batchSize,
+                                           maxOracles,
+                                           executorService,
+                                           getPrefixAffinity(),
+                                           getAdaptiveBatchSizer());
     }
 }
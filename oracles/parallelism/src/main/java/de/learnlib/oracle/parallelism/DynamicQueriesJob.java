@@ -17,28 +17,60 @@ package de.learnlib.oracle.parallelism;
 
 import java.util.Collection;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 /**
- * A queries job that maintains a thread-local reference to a {@link BatchProcessor}, and dynamically selects that
- * oracle depending on the executing thread.
- * <p>
- * Note: This class assumes that the respective {@link ThreadLocal#get()} methods never returns a {@code null}
- * reference.
+ * A queries job that dynamically leases a {@link BatchProcessor} from a {@link ProcessorPool} for the duration of its
+ * execution, regardless of the executing thread. If an {@link AdaptiveBatchSizer} is given, the queue wait time (up to
+ * the acquisition of a (sub-) processor) and the execution time of the job are reported to it.
  *
  * @param <Q>
  *         query type
+ * @param <P>
+ *         (sub-) processor type
  */
-final class DynamicQueriesJob<Q> extends AbstractQueriesJob<Q> {
+final class DynamicQueriesJob<Q, P extends BatchProcessor<Q>> extends AbstractQueriesJob<Q> {
 
-    private final ThreadLocal<? extends BatchProcessor<Q>> threadLocalOracle;
+    private final ProcessorPool<P> pool;
+    private final @Nullable AdaptiveBatchSizer batchSizer;
+    private final int size;
+    private final long submitTime;
+    private long startTime;
 
-    DynamicQueriesJob(Collection<? extends Q> queries, ThreadLocal<? extends BatchProcessor<Q>> threadLocalOracle) {
+    DynamicQueriesJob(Collection<? extends Q> queries, ProcessorPool<P> pool, @Nullable AdaptiveBatchSizer batchSizer) {
         super(queries);
-        this.threadLocalOracle = threadLocalOracle;
+        this.pool = pool;
+        this.batchSizer = batchSizer;
+        this.size = queries.size();
+        this.submitTime = batchSizer == null ? 0 : System.nanoTime();
+    }
+
+    @Override
+    public void run() {
+        super.run();
+
+        if (batchSizer != null) {
+            batchSizer.recordJob(size, startTime - submitTime, System.nanoTime() - startTime);
+        }
+    }
+
+    @Override
+    protected P getOracle() {
+        try {
+            final P oracle = pool.acquire();
+            // waiting for a free (sub-) processor counts as queue wait, not as execution time
+            startTime = System.nanoTime();
+            return oracle;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BatchInterruptedException(e);
+        }
     }
 
     @Override
-    protected BatchProcessor<Q> getOracle() {
-        return threadLocalOracle.get();
+    @SuppressWarnings("unchecked") // the oracle has been obtained via getOracle()
+    protected void releaseOracle(BatchProcessor<Q> oracle) {
+        pool.release((P) oracle);
     }
 
 }
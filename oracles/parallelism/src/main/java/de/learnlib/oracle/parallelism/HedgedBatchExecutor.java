@@ -0,0 +1,540 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.google.common.base.Throwables;
+import net.automatalib.common.smartcollection.ArrayStorage;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Executes the batches of an {@link AbstractStaticBatchProcessor} with straggler mitigation, see {@link QueryHedger}.
+ * <p>
+ * Every (sub-) processor that participates in a batch owns a deque of jobs (initially the statically assigned part of
+ * the batch, split into {@link #JOBS_PER_WORKER} jobs), each of which it processes with a single call. Idle (sub-)
+ * processors first steal unstarted jobs from the other deques and then re-issue overdue jobs, so that every job is
+ * processed by at most two (sub-) processors. Since the (sub-) processors are not thread-safe, a (sub-) processor that
+ * is still busy with an abandoned job is excluded from subsequent batches until it has returned.
+ * <p>
+ * Jobs that time out or whose processing throws an exception do not abort the batch. Instead, they are reported by a
+ * {@link QueryFailureException} once all other jobs have been answered.
+ *
+ * @param <Q>
+ *         query type
+ * @param <P>
+ *         (sub-) processor type
+ */
+final class HedgedBatchExecutor<Q, P extends BatchProcessor<Q>> {
+
+    private static final int MAX_ATTEMPTS = 2;
+    private static final int JOBS_PER_WORKER = 4;
+    private static final long MIN_POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ArrayStorage<P> oracles;
+    private final ExecutorService executor;
+    private final QueryHedger hedger;
+    private final Function<? super Q, QueryReplica<Q>> replicator;
+
+    private final boolean[] busy;
+    private final int[] straggles;
+    private final long[] quarantinedUntil;
+    private final Object lock;
+    private long batches;
+
+    HedgedBatchExecutor(ArrayStorage<P> oracles,
+                        ExecutorService executor,
+                        QueryHedger hedger,
+                        Function<? super Q, QueryReplica<Q>> replicator) {
+        this.oracles = oracles;
+        this.executor = executor;
+        this.hedger = hedger;
+        this.replicator = replicator;
+        this.busy = new boolean[oracles.size()];
+        this.straggles = new int[oracles.size()];
+        this.quarantinedUntil = new long[oracles.size()];
+        this.lock = new Object();
+    }
+
+    void processBatch(Collection<? extends Q> queries,
+                      int minBatchSize,
+                      BiFunction<Collection<? extends Q>, Integer, List<? extends List<? extends Q>>> splitter) {
+
+        final List<Integer> workers = acquireWorkers();
+        final int numBatches = Math.min(workers.size(), Math.max(1, queries.size() / Math.max(1, minBatchSize)));
+        final List<? extends List<? extends Q>> batches = splitter.apply(queries, numBatches);
+
+        final Batch batch = new Batch(workers, batches);
+        final List<Future<?>> futures = new ArrayList<>(workers.size());
+
+        hedger.recordBatch(queries.size());
+
+        for (int i = 0; i < workers.size(); i++) {
+            final int idx = i;
+            futures.add(executor.submit(() -> work(batch, idx)));
+        }
+
+        try {
+            while (!batch.await()) {
+                for (Job<Q> timedOut : batch.findTimedOut()) {
+                    final QueryTimeoutException ex = new QueryTimeoutException(
+                            timedOut.queries.size() + " queries have not been answered within " +
+                            TimeUnit.NANOSECONDS.toMillis(timedOut.timeoutNanos) + " ms");
+                    if (batch.fail(timedOut, ex)) {
+                        hedger.recordTimeout(timedOut.queries.size());
+                        straggled(timedOut.lastWorker);
+                        batch.interrupt(timedOut);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            batch.abort(ex);
+            Thread.interrupted();
+        }
+
+        final Throwable abort = batch.abortCause.get();
+        if (abort != null) {
+            // interrupt the pending jobs, but let the remaining workers terminate regularly so that they release their
+            // (sub-) processors
+            batch.interrupt(null);
+            awaitIdleWorkers(batch, futures);
+
+            if (abort instanceof InterruptedException) {
+                throw new BatchInterruptedException(abort);
+            }
+            Throwables.throwIfUnchecked(abort);
+            throw new AssertionError("Queries must not throw checked exceptions", abort);
+        }
+
+        awaitIdleWorkers(batch, futures);
+
+        if (!batch.failures.isEmpty()) {
+            throw batch.createFailure();
+        }
+    }
+
+    /**
+     * Waits for the jobs of all (sub-) processors that are not stuck in an abandoned job, so that they are available
+     * for the next batch.
+     */
+    private void awaitIdleWorkers(Batch batch, List<Future<?>> futures) {
+        for (int i = 0; i < futures.size(); i++) {
+            if (!batch.isAttempting(i)) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException ex) {
+                    Throwables.throwIfUnchecked(ex.getCause());
+                    throw new AssertionError("Runnable must not throw checked exceptions", ex);
+                } catch (InterruptedException ex) {
+                    Thread.interrupted();
+                    throw new BatchInterruptedException(ex);
+                }
+            }
+        }
+    }
+    private List<Integer> acquireWorkers() {
+        synchronized (lock) {
+            batches++;
+
+            while (true) {
+                final List<Integer> free = new ArrayList<>(busy.length);
+                final List<Integer> healthy = new ArrayList<>(busy.length);
+
+                for (int i = 0; i < busy.length; i++) {
+                    if (!busy[i]) {
+                        free.add(i);
+                        if (quarantinedUntil[i] < batches) {
+                            healthy.add(i);
+                        }
+                    }
+                }
+
+                if (!free.isEmpty()) {
+                    // if every free (sub-) processor is quarantined, we have to use them anyway
+                    final List<Integer> result = healthy.isEmpty() ? free : healthy;
+                    for (int i : result) {
+                        busy[i] = true;
+                    }
+                    return result;
+                }
+
+                try {
+                    lock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.interrupted();
+                    throw new BatchInterruptedException(ex);
+                }
+            }
+        }
+    }
+
+    private void releaseWorker(int worker) {
+        synchronized (lock) {
+            busy[worker] = false;
+            lock.notifyAll();
+        }
+    }
+
+    private void straggled(int worker) {
+        synchronized (lock) {
+            straggles[worker]++;
+            if (straggles[worker] >= hedger.getQuarantineThreshold()) {
+                straggles[worker] = 0;
+                quarantinedUntil[worker] = batches + hedger.getQuarantineBatches();
+                hedger.recordQuarantine();
+            }
+        }
+    }
+
+    private void recovered(int worker) {
+        synchronized (lock) {
+            straggles[worker] = 0;
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // failures are propagated to the calling thread
+    private void work(Batch batch, int idx) {
+        final int worker = batch.workers.get(idx);
+        batch.threads[idx] = Thread.currentThread();
+
+        try {
+            Job<Q> job;
+            while (!batch.isFinished()) {
+                job = batch.next(idx);
+                if (job == null) {
+                    batch.awaitQuietly();
+                } else if (batch.beginAttempt(idx, job)) {
+                    try {
+                        attempt(batch, job, worker);
+                    } finally {
+                        batch.endAttempt(idx);
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            batch.abort(ex);
+        } finally {
+            releaseWorker(worker);
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException") // failures are reported per job
+    private void attempt(Batch batch, Job<Q> job, int worker) {
+        final long start = System.nanoTime();
+        job.lastStart = start;
+        job.lastWorker = worker;
+
+        final List<QueryReplica<Q>> replicas = new ArrayList<>(job.queries.size());
+        final List<Q> copies = new ArrayList<>(job.queries.size());
+        for (Q q : job.queries) {
+            final QueryReplica<Q> replica = replicator.apply(q);
+            replicas.add(replica);
+            copies.add(replica.getQuery());
+        }
+
+        try {
+            oracles.get(worker).processBatch(copies);
+        } catch (RuntimeException ex) {
+            batch.fail(job, ex);
+            return;
+        }
+
+        hedger.recordLatency((System.nanoTime() - start) / job.queries.size());
+
+        if (!batch.isFinished() && job.done.compareAndSet(false, true)) {
+            final boolean hedge = worker != job.primaryWorker;
+            for (QueryReplica<Q> replica : replicas) {
+                replica.commit();
+            }
+
+            if (hedge) {
+                hedger.recordHedgeWin(job.queries.size());
+                straggled(job.primaryWorker);
+            } else {
+                recovered(worker);
+            }
+
+            batch.complete(job);
+        }
+    }
+
+    /**
+     * Returns the product of the given (per-query) duration and number of queries, saturating at
+     * {@link Long#MAX_VALUE}.
+     */
+    private static long scale(long nanos, int numQueries) {
+        return nanos > Long.MAX_VALUE / numQueries ? Long.MAX_VALUE : nanos * numQueries;
+    }
+
+    @SuppressWarnings("PMD.AvoidUsingVolatile") // attempts are started and monitored by different threads
+    private static final class Job<Q> {
+
+        private final List<? extends Q> queries;
+        private final long hedgeDelayNanos;
+        private final long timeoutNanos;
+        private final AtomicInteger attempts;
+        private final AtomicBoolean done;
+        private volatile long lastStart;
+        private volatile int lastWorker;
+        private volatile int primaryWorker;
+
+        Job(List<? extends Q> queries, long hedgeDelayNanos, long timeoutNanos) {
+            this.queries = queries;
+            this.hedgeDelayNanos = scale(hedgeDelayNanos, queries.size());
+            this.timeoutNanos = scale(timeoutNanos, queries.size());
+            this.attempts = new AtomicInteger();
+            this.done = new AtomicBoolean();
+        }
+    }
+
+    private static final class Failure<Q> {
+
+        private final Job<Q> job;
+        private final Throwable cause;
+
+        Failure(Job<Q> job, Throwable cause) {
+            this.job = job;
+            this.cause = cause;
+        }
+    }
+
+    private final class Batch {
+
+        private final List<Integer> workers;
+        private final List<Deque<Job<Q>>> deques;
+        private final Set<Job<Q>> running;
+        private final Queue<Failure<Q>> failures;
+        private final CountDownLatch remaining;
+        private final AtomicReference<@Nullable Throwable> abortCause;
+        private final long hedgeDelayNanos;
+        private final long pollNanos;
+
+        // guarded by the attempt lock, so that (sub-) processors are only interrupted during their attempts
+        private final Object attemptLock;
+        private final @Nullable Job<?>[] attempting;
+        private final boolean[] interrupted;
+        private final Thread[] threads;
+
+        Batch(List<Integer> workers, List<? extends List<? extends Q>> batches) {
+            this.workers = workers;
+            this.deques = new ArrayList<>(workers.size());
+            this.running = ConcurrentHashMap.newKeySet();
+            this.failures = new ConcurrentLinkedQueue<>();
+            this.abortCause = new AtomicReference<>();
+            this.hedgeDelayNanos = hedger.getHedgeDelayNanos();
+            this.pollNanos = Math.max(MIN_POLL_NANOS, Math.min(MAX_POLL_NANOS, hedgeDelayNanos / 2));
+            this.attemptLock = new Object();
+            this.attempting = new Job<?>[workers.size()];
+            this.interrupted = new boolean[workers.size()];
+            this.threads = new Thread[workers.size()];
+
+            final long timeoutNanos = hedger.getTimeoutNanos();
+            int numJobs = 0;
+
+            for (int i = 0; i < workers.size(); i++) {
+                final Deque<Job<Q>> deque = new ConcurrentLinkedDeque<>();
+                if (i < batches.size()) {
+                    final List<? extends Q> batch = batches.get(i);
+                    final int jobSize = Math.max(1, (batch.size() + JOBS_PER_WORKER - 1) / JOBS_PER_WORKER);
+                    for (int j = 0; j < batch.size(); j += jobSize) {
+                        deque.add(new Job<>(batch.subList(j, Math.min(j + jobSize, batch.size())),
+                                            hedgeDelayNanos,
+                                            timeoutNanos));
+                        numJobs++;
+                    }
+                }
+                deques.add(deque);
+            }
+
+            this.remaining = new CountDownLatch(numJobs);
+        }
+
+        /**
+         * Returns the next job to process for the given (sub-) processor: either an unstarted job (preferably of its
+         * own deque) or an overdue job that has not been hedged yet.
+         */
+        @Nullable Job<Q> next(int idx) {
+            Job<Q> job = deques.get(idx).pollFirst();
+
+            for (int i = 1; job == null && i < deques.size(); i++) {
+                job = deques.get((idx + i) % deques.size()).pollLast();
+            }
+
+            if (job != null) {
+                job.attempts.set(1);
+                job.primaryWorker = workers.get(idx);
+                job.lastStart = System.nanoTime();
+                running.add(job);
+                return job;
+            }
+
+            if (hedgeDelayNanos == Long.MAX_VALUE) {
+                return null;
+            }
+
+            final long now = System.nanoTime();
+            for (Job<Q> j : running) {
+                if (now - j.lastStart > j.hedgeDelayNanos && !j.done.get() &&
+                    j.attempts.compareAndSet(1, MAX_ATTEMPTS)) {
+                    hedger.recordHedge(j.queries.size());
+                    return j;
+                }
+            }
+
+            return null;
+        }
+
+        List<Job<Q>> findTimedOut() {
+            final List<Job<Q>> result = new ArrayList<>();
+            final long now = System.nanoTime();
+
+            for (Job<Q> j : running) {
+                if (j.timeoutNanos != Long.MAX_VALUE && now - j.lastStart > j.timeoutNanos && !j.done.get()) {
+                    result.add(j);
+                }
+            }
+
+            return result;
+        }
+
+        boolean beginAttempt(int idx, Job<Q> job) {
+            synchronized (attemptLock) {
+                // re-check under the lock, so that the coordinator either knows about our attempt or we stop
+                if (isFinished()) {
+                    return false;
+                }
+                attempting[idx] = job;
+                return true;
+            }
+        }
+
+        void endAttempt(int idx) {
+            synchronized (attemptLock) {
+                attempting[idx] = null;
+                if (interrupted[idx]) {
+                    interrupted[idx] = false;
+                    // clear the interrupt of the abandoned attempt
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        boolean isAttempting(int idx) {
+            synchronized (attemptLock) {
+                return attempting[idx] != null;
+            }
+        }
+
+        /**
+         * Interrupts all (sub-) processors that currently process the given job, or any job if {@code null}.
+         */
+        void interrupt(@Nullable Job<Q> job) {
+            synchronized (attemptLock) {
+                for (int i = 0; i < attempting.length; i++) {
+                    if (attempting[i] != null && (job == null || attempting[i] == job)) {
+                        interrupted[i] = true;
+                        threads[i].interrupt();
+                    }
+                }
+            }
+        }
+
+        void complete(Job<Q> job) {
+            running.remove(job);
+            remaining.countDown();
+        }
+
+        /**
+         * Marks the given job as failed, unless it has already been answered.
+         *
+         * @return {@code true} if the job has been marked as failed, {@code false} otherwise
+         */
+        boolean fail(Job<Q> job, Throwable cause) {
+            if (job.done.compareAndSet(false, true)) {
+                failures.add(new Failure<>(job, cause));
+                complete(job);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Aborts the complete batch, e.g. because the calling thread has been interrupted.
+         */
+        void abort(Throwable t) {
+            if (abortCause.compareAndSet(null, t)) {
+                // wake up everyone waiting for the batch
+                while (remaining.getCount() > 0) {
+                    remaining.countDown();
+                }
+            }
+        }
+
+        QueryFailureException createFailure() {
+            final List<Q> failedQueries = new ArrayList<>();
+            Throwable cause = null;
+
+            for (Failure<Q> f : failures) {
+                failedQueries.addAll(f.job.queries);
+                if (cause == null) {
+                    cause = f.cause;
+                } else if (cause != f.cause) {
+                    cause.addSuppressed(f.cause);
+                }
+            }
+
+            return new QueryFailureException(failedQueries.size() + " queries of the batch have not been answered",
+                                             failedQueries,
+                                             cause);
+        }
+
+        boolean isFinished() {
+            return remaining.getCount() == 0;
+        }
+
+        boolean await() throws InterruptedException {
+            return remaining.await(pollNanos, TimeUnit.NANOSECONDS);
+        }
+
+        void awaitQuietly() {
+            try {
+                await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                abort(ex);
+            }
+        }
+    }
+}
@@ -55,6 +55,14 @@ import net.automatalib.word.Word;
  * </pre>
  * <b>Note:</b> This requires the shared membership oracle to be thread-safe.
  * <p>
+ * Creating a work-stealing parallel oracle that balances the queries among four (forked) SULs based on their
+ * estimated cost:
+ * <pre>
+ * ParallelOracleBuilders.newWorkStealingParallelOracle(sul)
+ *      .withNumInstances(4)
+ *      .create();
+ * </pre>
+ * <p>
  * Creating a dynamic parallel oracle with a cached thread pool of maximum size 4, a batch size of 5, using a (forkabel)
  * SUL:
  * <pre>
@@ -424,6 +432,80 @@ public final class ParallelOracleBuilders {
         return new StaticParallelOmegaOracleBuilder<>(oracles);
     }
 
+    /**
+     * Creates a {@link WorkStealingParallelOracleBuilder} using the provided {@code sul} as a supplier. This requires
+     * that the sul is {@link SUL#canFork() forkable}.
+     *
+     * @param sul
+     *         the sul instance for spawning new thread-specific membership oracle instances
+     * @param <I>
+     *         input symbol type
+     * @param <O>
+     *         output domain type
+     *
+     * @return a preconfigured oracle builder
+     */
+    public static <I, O> WorkStealingParallelOracleBuilder<I, Word<O>> newWorkStealingParallelOracle(SUL<I, O> sul) {
+        Preconditions.checkArgument(sul.canFork(), FORKABLE_SUL_ERR);
+        return new WorkStealingParallelOracleBuilder<>(toSupplier(sul));
+    }
+
+    /**
+     * Creates a {@link WorkStealingParallelOracleBuilder} using the provided supplier. Uses the further specified
+     * {@link WorkStealingParallelOracleBuilder#withNumInstances(int)} (or its default) to determine the number of
+     * workers.
+     *
+     * @param oracleSupplier
+     *         the supplier for spawning new thread-specific membership oracle instances
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return a preconfigured oracle builder
+     */
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        return new WorkStealingParallelOracleBuilder<>(oracleSupplier);
+    }
+
+    /**
+     * Convenience method for {@link #newWorkStealingParallelOracle(Collection)}.
+     *
+     * @param firstOracle
+     *         the first (mandatory) oracle
+     * @param otherOracles
+     *         further (optional) oracles to be used by other threads
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return a preconfigured oracle builder
+     */
+    @SafeVarargs
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(MembershipOracle<I, D> firstOracle,
+                                                                                               MembershipOracle<I, D>... otherOracles) {
+        return newWorkStealingParallelOracle(Lists.asList(firstOracle, otherOracles));
+    }
+
+    /**
+     * Creates a {@link WorkStealingParallelOracleBuilder} using the provided collection of membership oracles. The
+     * resulting parallel oracle uses (at most) one worker for each of the provided oracles, so that each oracle is
+     * only accessed by a single thread at a time.
+     *
+     * @param oracles
+     *         the oracle instances to distribute the queries to
+     * @param <I>
+     *         input symbol type
+     * @param <D>
+     *         output domain type
+     *
+     * @return the preconfigured oracle builder
+     */
+    public static <I, D> WorkStealingParallelOracleBuilder<I, D> newWorkStealingParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles) {
+        return new WorkStealingParallelOracleBuilder<>(oracles);
+    }
+
     private static <I, O> Supplier<SULOracle<I, O>> toSupplier(SUL<I, O> sul) {
         return () -> new SULOracle<>(sul.fork());
     }
@@ -0,0 +1,141 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import de.learnlib.query.OmegaQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Utility methods for the prefix-affine routing of queries. Queries are grouped into shards by their first {@code k}
+ * input symbols, so that queries which share a common prefix are processed by the same (sub-) processor. This allows
+ * processor-local caches (or SULs that are able to continue from a previous prefix) to be re-used more effectively.
+ * <p>
+ * Since the distribution of prefixes may be skewed, shards that exceed a given size are split into several chunks
+ * before they are distributed among the (sub-) processors.
+ */
+final class PrefixSharding {
+
+    private PrefixSharding() {
+        // prevent instantiation
+    }
+
+    /**
+     * Returns a function that computes the shard key of a {@link Query}, or {@code null} if {@code k} is zero, i.e.,
+     * prefix-affine routing is disabled.
+     */
+    static <I, D> @Nullable Function<Query<I, D>, Word<I>> forQueries(@NonNegative int k) {
+        if (k == 0) {
+            return null;
+        }
+        return q -> key(q.getPrefix(), q.getSuffix(), k);
+    }
+
+    /**
+     * Returns a function that computes the shard key of an {@link OmegaQuery}, or {@code null} if {@code k} is zero,
+     * i.e., prefix-affine routing is disabled.
+     */
+    static <I, D> @Nullable Function<OmegaQuery<I, D>, Word<I>> forOmegaQueries(@NonNegative int k) {
+        if (k == 0) {
+            return null;
+        }
+        return q -> key(q.getPrefix(), q.getLoop(), k);
+    }
+
+    /**
+     * Returns the first {@code k} symbols of the concatenation of {@code first} and {@code second} without
+     * materializing the concatenation.
+     */
+    static <I> Word<I> key(Word<I> first, Word<I> second, int k) {
+        final int firstLength = first.length();
+
+        if (firstLength >= k) {
+            return first.prefix(k);
+        }
+
+        return first.concat(second.prefix(Math.min(k - firstLength, second.length())));
+    }
+
+    /**
+     * Groups the given queries into shards of identical keys (preserving the order of the queries within each shard).
+     * Shards larger than {@code maxShardSize} are split into consecutive chunks of at most {@code maxShardSize}
+     * queries.
+     */
+    static <Q> List<List<Q>> shard(Collection<? extends Q> queries,
+                                   Function<? super Q, ?> keyFunction,
+                                   int maxShardSize) {
+        final Map<Object, List<Q>> shards = new LinkedHashMap<>();
+
+        for (Q q : queries) {
+            shards.computeIfAbsent(keyFunction.apply(q), k -> new ArrayList<>()).add(q);
+        }
+
+        final int limit = Math.max(1, maxShardSize);
+        final List<List<Q>> result = new ArrayList<>(shards.size());
+
+        for (List<Q> shard : shards.values()) {
+            final int size = shard.size();
+            if (size <= limit) {
+                result.add(shard);
+            } else {
+                for (int i = 0; i < size; i += limit) {
+                    result.add(shard.subList(i, Math.min(i + limit, size)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Distributes the given shards among {@code numPartitions} partitions such that every shard is contained in
+     * exactly one partition. Shards are assigned largest-first to the currently smallest partition, which bounds the
+     * size of the largest partition by the average size plus the size of the largest shard. Some partitions may remain
+     * empty if there are fewer shards than partitions.
+     */
+    static <Q> List<List<Q>> partition(List<List<Q>> shards, int numPartitions) {
+        final List<List<Q>> sorted = new ArrayList<>(shards);
+        sorted.sort(Comparator.comparingInt(List<Q>::size).reversed());
+
+        final List<List<Q>> partitions = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            partitions.add(new ArrayList<>());
+        }
+
+        for (List<Q> shard : sorted) {
+            List<Q> smallest = partitions.get(0);
+            for (int i = 1; i < numPartitions; i++) {
+                final List<Q> candidate = partitions.get(i);
+                if (candidate.size() < smallest.size()) {
+                    smallest = candidate;
+                }
+            }
+            smallest.addAll(shard);
+        }
+
+        return partitions;
+    }
+}
@@ -0,0 +1,104 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A pool of (sub-) processors that are leased to jobs for the duration of their execution. Processors are created
+ * lazily (via the given supplier) if no idle processor is available, but at most up to the given maximum size.
+ * Afterward, jobs block until a processor is released.
+ * <p>
+ * As opposed to binding processors to threads (e.g., via a {@link ThreadLocal}), the number of processors does not
+ * depend on the number of threads that execute the jobs. This is especially important for executors that create a new
+ * (virtual) thread for each job.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @param <P>
+ *         (sub-) processor type
+ */
+final class ProcessorPool<P> {
+
+    private final Supplier<? extends P> supplier;
+    private final Semaphore permits;
+    private final Deque<P> idle;
+    private final AtomicInteger size;
+
+    ProcessorPool(Supplier<? extends P> supplier, int maxSize) {
+        this.supplier = supplier;
+        // a semaphore (rather than a monitor) does not pin the carrier threads of blocked virtual threads
+        this.permits = new Semaphore(maxSize);
+        this.idle = new ConcurrentLinkedDeque<>();
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Leases a processor from this pool. The processor has to be returned via {@link #release(Object)} once it is no
+     * longer used.
+     *
+     * @return the leased processor
+     *
+     * @throws InterruptedException
+     *         if the thread is interrupted while waiting for an idle processor
+     */
+    P acquire() throws InterruptedException {
+        permits.acquire();
+
+        // each idle processor has returned its permit, so a permit holder either finds an idle processor or may
+        // create a new one without exceeding the maximum size
+        final P idleProcessor = idle.poll();
+        if (idleProcessor != null) {
+            return idleProcessor;
+        }
+
+        boolean created = false;
+        try {
+            final P result = supplier.get();
+            size.incrementAndGet();
+            created = true;
+            return result;
+        } finally {
+            if (!created) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Returns a previously leased processor to this pool.
+     *
+     * @param processor
+     *         the processor to return
+     */
+    void release(P processor) {
+        idle.push(processor);
+        permits.release();
+    }
+
+    /**
+     * Returns the number of processors that have been created by this pool.
+     *
+     * @return the number of created processors
+     */
+    int size() {
+        return size.get();
+    }
+}
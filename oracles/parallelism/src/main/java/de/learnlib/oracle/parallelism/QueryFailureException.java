@@ -0,0 +1,48 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception that is thrown by parallel oracles if some queries of a batch could not be answered (e.g., because they
+ * have timed out, see {@link QueryHedger}). All other queries of the batch have been answered regularly.
+ * <p>
+ * The cause of the exception is the failure of the first affected query. Failures of further queries are attached as
+ * {@link #getSuppressed() suppressed} exceptions.
+ */
+public class QueryFailureException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<?> failedQueries;
+
+    public QueryFailureException(String message, List<?> failedQueries, Throwable cause) {
+        super(message, cause);
+        this.failedQueries = failedQueries;
+    }
+
+    /**
+     * Returns the queries of the batch that have not been answered.
+     *
+     * @return the unanswered queries
+     */
+    public Collection<?> getFailedQueries() {
+        return Collections.unmodifiableList(failedQueries);
+    }
+}
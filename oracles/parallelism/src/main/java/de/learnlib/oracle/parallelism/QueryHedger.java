@@ -0,0 +1,333 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.statistic.StatisticCollector;
+import de.learnlib.statistic.StatisticData;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.index.qual.Positive;
+
+/**
+ * Configures (and records the statistics of) the straggler mitigation of an {@link AbstractStaticBatchProcessor}.
+ * <p>
+ * If hedging is enabled, every (sub-) processor answers its share of a batch in a few jobs, each of which is passed to
+ * the (sub-) processor as a whole, and idle (sub-) processors take over jobs that have not been started yet.
+ * Additionally, a job whose processing takes longer than a given percentile of the recently observed per-query
+ * latencies (or half of the timeout, if this is smaller) times the size of the job is re-issued to an idle (sub-)
+ * processor, and the first answer wins. As a result, a single hung (sub-) processor no longer stalls the whole batch. A
+ * (sub-) processor that is still busy with an abandoned job is not used for subsequent batches until it has returned,
+ * and (sub-) processors that repeatedly straggle (i.e., lose against a hedged job or time out) are quarantined for a
+ * number of batches.
+ * <p>
+ * If a timeout is configured, a job whose most recent attempt has not been answered within the timeout times the size
+ * of the job fails (and the affected (sub-) processors are interrupted). The same holds for jobs whose processing throws
+ * an exception. Failed jobs do not abort the batch: once all other queries have been answered, the batch fails with a
+ * {@link QueryFailureException} which reports the unanswered queries (and, for timed-out jobs, has a
+ * {@link QueryTimeoutException} as cause).
+ * <p>
+ * The number of hedged, won, and timed-out queries as well as the number of quarantines are available as
+ * {@link StatisticData}, see {@link #getStatisticalData()}. An instance may be passed to
+ * {@link AbstractStaticBatchProcessorBuilder#withHedging(QueryHedger)} and retained by the caller for inspection.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class QueryHedger implements StatisticCollector {
+
+    private static final double DEFAULT_PERCENTILE = 0.99;
+    private static final int DEFAULT_MIN_SAMPLES = 100;
+    private static final int DEFAULT_QUARANTINE_THRESHOLD = 3;
+    private static final int DEFAULT_QUARANTINE_BATCHES = 10;
+    private static final int WINDOW_SIZE = 1024;
+
+    private final double percentile;
+    private final @Positive int minSamples;
+    private final long timeoutNanos;
+    private final @Positive int quarantineThreshold;
+    private final @NonNegative int quarantineBatches;
+
+    private final long[] window;
+    private final Object lock;
+
+    private long numSamples;
+    private long numQueries;
+    private long numHedged;
+    private long numHedgeWins;
+    private long numTimeouts;
+    private long numQuarantines;
+
+    /**
+     * Default constructor. Hedges jobs that exceed the 99th percentile of the per-query latencies (once 100 latencies
+     * have been observed), does not time out jobs, and quarantines (sub-) processors for 10 batches after 3 consecutive
+     * straggles.
+     */
+    public QueryHedger() {
+        this(DEFAULT_PERCENTILE, 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param percentile
+     *         the percentile (in the interval {@code (0, 1]}) of the per-query latencies after which a job is
+     *         hedged
+     * @param timeoutMillis
+     *         the time (in milliseconds) per query after which an attempt of a job times out. {@code 0} disables
+     *         timeouts
+     */
+    public QueryHedger(double percentile, @NonNegative long timeoutMillis) {
+        this(percentile, DEFAULT_MIN_SAMPLES, timeoutMillis, DEFAULT_QUARANTINE_THRESHOLD, DEFAULT_QUARANTINE_BATCHES);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param percentile
+     *         the percentile (in the interval {@code (0, 1]}) of the per-query latencies after which a job is
+     *         hedged
+     * @param minSamples
+     *         the number of observed latencies required before hedging by percentile (until then, only jobs that
+     *         exceed half of the timeout are hedged)
+     * @param timeoutMillis
+     *         the time (in milliseconds) per query after which an attempt of a job times out. {@code 0} disables
+     *         timeouts
+     * @param quarantineThreshold
+     *         the number of consecutive straggles after which a (sub-) processor is quarantined
+     * @param quarantineBatches
+     *         the number of batches for which a quarantined (sub-) processor is not used
+     */
+    public QueryHedger(double percentile,
+                       @Positive int minSamples,
+                       @NonNegative long timeoutMillis,
+                       @Positive int quarantineThreshold,
+                       @NonNegative int quarantineBatches) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 1, "Percentile must lie in (0, 1]");
+        Preconditions.checkArgument(minSamples > 0, "Number of samples must be positive");
+        Preconditions.checkArgument(timeoutMillis >= 0, "Timeout must not be negative");
+        Preconditions.checkArgument(quarantineThreshold > 0, "Quarantine threshold must be positive");
+        Preconditions.checkArgument(quarantineBatches >= 0, "Quarantine duration must not be negative");
+
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, WINDOW_SIZE);
+        this.timeoutNanos = timeoutMillis == 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.quarantineThreshold = quarantineThreshold;
+        this.quarantineBatches = quarantineBatches;
+        this.window = new long[WINDOW_SIZE];
+        this.lock = new Object();
+    }
+
+    /**
+     * Returns the time after which a running query should be hedged.
+     *
+     * @return the hedging delay (in nanoseconds), or {@link Long#MAX_VALUE} if queries should not be hedged
+     */
+    long getHedgeDelayNanos() {
+        final long timeoutDelay = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : timeoutNanos / 2;
+        final long latency = getLatencyPercentileNanos();
+        return latency < 0 ? timeoutDelay : Math.min(latency, timeoutDelay);
+    }
+
+    long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    @Positive int getQuarantineThreshold() {
+        return quarantineThreshold;
+    }
+
+    @NonNegative int getQuarantineBatches() {
+        return quarantineBatches;
+    }
+
+    void recordBatch(@NonNegative int size) {
+        synchronized (lock) {
+            numQueries += size;
+        }
+    }
+
+    void recordLatency(long nanos) {
+        synchronized (lock) {
+            window[(int) (numSamples % WINDOW_SIZE)] = nanos;
+            numSamples++;
+        }
+    }
+
+    void recordHedge(@NonNegative int numQueries) {
+        synchronized (lock) {
+            numHedged += numQueries;
+        }
+    }
+
+    void recordHedgeWin(@NonNegative int numQueries) {
+        synchronized (lock) {
+            numHedgeWins += numQueries;
+        }
+    }
+
+    void recordTimeout(@NonNegative int numQueries) {
+        synchronized (lock) {
+            numTimeouts += numQueries;
+        }
+    }
+
+    void recordQuarantine() {
+        synchronized (lock) {
+            numQuarantines++;
+        }
+    }
+
+    /**
+     * Returns the configured percentile of the recently observed query latencies.
+     *
+     * @return the latency percentile (in nanoseconds), or {@code -1} if not enough latencies have been observed yet
+     */
+    public long getLatencyPercentileNanos() {
+        final long[] samples;
+        synchronized (lock) {
+            if (numSamples < minSamples) {
+                return -1;
+            }
+            samples = Arrays.copyOf(window, (int) Math.min(numSamples, WINDOW_SIZE));
+        }
+
+        Arrays.sort(samples);
+        final int idx = (int) Math.ceil(percentile * samples.length) - 1;
+        return samples[Math.max(idx, 0)];
+    }
+
+    /**
+     * Returns the number of queries processed in hedging mode.
+     *
+     * @return the number of queries
+     */
+    public long getNumQueries() {
+        synchronized (lock) {
+            return numQueries;
+        }
+    }
+
+    /**
+     * Returns the number of queries that have been re-issued to a second (sub-) processor.
+     *
+     * @return the number of hedged queries
+     */
+    public long getNumHedgedQueries() {
+        synchronized (lock) {
+            return numHedged;
+        }
+    }
+
+    /**
+     * Returns the number of hedged queries which have been answered by the second (sub-) processor first.
+     *
+     * @return the number of won hedges
+     */
+    public long getNumHedgeWins() {
+        synchronized (lock) {
+            return numHedgeWins;
+        }
+    }
+
+    /**
+     * Returns the number of queries that have timed out.
+     *
+     * @return the number of timeouts
+     */
+    public long getNumTimeouts() {
+        synchronized (lock) {
+            return numTimeouts;
+        }
+    }
+
+    /**
+     * Returns how often (sub-) processors have been quarantined.
+     *
+     * @return the number of quarantines
+     */
+    public long getNumQuarantines() {
+        synchronized (lock) {
+            return numQuarantines;
+        }
+    }
+
+    @Override
+    public StatisticData getStatisticalData() {
+        final long latency = getLatencyPercentileNanos();
+        synchronized (lock) {
+            return new HedgingStatisticData(numQueries,
+                                            numHedged,
+                                            numHedgeWins,
+                                            numTimeouts,
+                                            numQuarantines,
+                                            percentile,
+                                            latency);
+        }
+    }
+
+    private static final class HedgingStatisticData implements StatisticData {
+
+        private static final int PERCENT = 100;
+
+        private final long queries;
+        private final long hedged;
+        private final long hedgeWins;
+        private final long timeouts;
+        private final long quarantines;
+        private final double percentile;
+        private final long latency;
+
+        HedgingStatisticData(long queries,
+                             long hedged,
+                             long hedgeWins,
+                             long timeouts,
+                             long quarantines,
+                             double percentile,
+                             long latency) {
+            this.queries = queries;
+            this.hedged = hedged;
+            this.hedgeWins = hedgeWins;
+            this.timeouts = timeouts;
+            this.quarantines = quarantines;
+            this.percentile = percentile;
+            this.latency = latency;
+        }
+
+        @Override
+        public String getName() {
+            return "Query hedging";
+        }
+
+        @Override
+        public String getUnit() {
+            return "queries";
+        }
+
+        @Override
+        public String getSummary() {
+            return getName() + " [" + getUnit() + "]: " + queries + " (total), " + hedged + " (hedged), " + hedgeWins +
+                   " (won by hedge), " + timeouts + " (timed out), " + quarantines + " (quarantines)";
+        }
+
+        @Override
+        public String getDetails() {
+            return getSummary() + System.lineSeparator() + "\tp" + Math.round(percentile * PERCENT) + " latency: " +
+                   (latency < 0 ? "unknown" : latency + " ns") + System.lineSeparator();
+        }
+    }
+}
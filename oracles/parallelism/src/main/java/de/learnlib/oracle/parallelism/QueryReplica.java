@@ -0,0 +1,59 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.OmegaQuery;
+import de.learnlib.query.Query;
+
+/**
+ * An independent copy of a query which can be processed concurrently with other copies of the same query. Once
+ * processed, the answer of the copy can be committed to the original query.
+ *
+ * @param <Q>
+ *         query type
+ */
+final class QueryReplica<Q> {
+
+    private final Q query;
+    private final Runnable commit;
+
+    private QueryReplica(Q query, Runnable commit) {
+        this.query = query;
+        this.commit = commit;
+    }
+
+    static <I, D> QueryReplica<Query<I, D>> of(Query<I, D> original) {
+        final DefaultQuery<I, D> copy = new DefaultQuery<>(original.getPrefix(), original.getSuffix());
+        return new QueryReplica<>(copy, () -> original.answer(copy.getOutput()));
+    }
+
+    static <I, D> QueryReplica<OmegaQuery<I, D>> ofOmega(OmegaQuery<I, D> original) {
+        final OmegaQuery<I, D> copy = new OmegaQuery<>(original.getPrefix(), original.getLoop(), original.getRepeat());
+        return new QueryReplica<>(copy, () -> original.answer(copy.getOutput(), copy.getPeriodicity()));
+    }
+
+    Q getQuery() {
+        return query;
+    }
+
+    /**
+     * Answers the original query with the answer of this copy.
+     */
+    void commit() {
+        commit.run();
+    }
+}
@@ -0,0 +1,29 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+/**
+ * Exception that indicates that some queries have not been answered within the configured timeout (see
+ * {@link QueryHedger}). Parallel oracles report it as the cause of a {@link QueryFailureException}.
+ */
+public class QueryTimeoutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public QueryTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,135 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+/**
+ * Estimates the cost of a reset in terms of executed symbols. The estimator fits a linear model {@code time = a *
+ * symbols + b * resets} to the observed execution times of (batches of) queries (using least squares) and reports
+ * {@code b / a}, i.e., the number of symbols that could have been executed in the time of a reset. For observations of
+ * single queries ({@code resets = 1}), this is the usual regression line with intercept {@code b}.
+ * <p>
+ * Until enough (and sufficiently diverse) observations are available, the initial estimate is reported.
+ * <p>
+ * Optionally, older observations can be aged by a decay factor, so that the estimate follows changes of the workload
+ * (e.g., when a learner switches from table-filling to equivalence testing).
+ * <p>
+ * This class is thread-safe.
+ */
+final class ResetCostEstimator {
+
+    private static final double EPSILON = 1e-9;
+    private static final int MIN_OBSERVATIONS = 2;
+
+    private final double initialResetCost;
+    private final double decay;
+    private final Object lock = new Object();
+
+    // the number of (undecayed) observations. Note that the decayed number of observations converges to
+    // 1 / (1 - decay), which may stay below MIN_OBSERVATIONS for small decay factors
+    private long observations;
+    private double sumXX;
+    private double sumXR;
+    private double sumRR;
+    private double sumXY;
+    private double sumRY;
+
+    ResetCostEstimator(double initialResetCost) {
+        this(initialResetCost, 1.0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param initialResetCost
+     *         the estimate that is reported until enough observations are available
+     * @param decay
+     *         the factor (in {@code (0, 1]}) by which the weight of all previous observations is multiplied whenever a
+     *         new observation is recorded. {@code 1} weights all observations equally
+     */
+    ResetCostEstimator(double initialResetCost, double decay) {
+        if (decay <= 0 || decay > 1) {
+            throw new IllegalArgumentException("The decay factor must lie in (0, 1]");
+        }
+        this.initialResetCost = initialResetCost;
+        this.decay = decay;
+    }
+
+    void record(int symbols, long nanos) {
+        record(symbols, 1, nanos);
+    }
+
+    /**
+     * Records the execution time of a batch of queries.
+     *
+     * @param symbols
+     *         the total number of symbols of the batch
+     * @param resets
+     *         the number of resets (i.e., queries) of the batch
+     * @param nanos
+     *         the time (in nanoseconds) it took to process the batch
+     */
+    void record(int symbols, int resets, long nanos) {
+        synchronized (lock) {
+            observations++;
+            sumXX = sumXX * decay + (double) symbols * symbols;
+            sumXR = sumXR * decay + (double) symbols * resets;
+            sumRR = sumRR * decay + (double) resets * resets;
+            sumXY = sumXY * decay + (double) symbols * nanos;
+            sumRY = sumRY * decay + (double) resets * nanos;
+        }
+    }
+
+    double getResetCost() {
+        synchronized (lock) {
+            final double slope = computeSlope();
+
+            if (Double.isNaN(slope)) {
+                return initialResetCost;
+            }
+
+            final double perReset = (sumXX * sumRY - sumXR * sumXY) / computeDeterminant();
+            return Math.max(0, perReset / slope);
+        }
+    }
+
+    /**
+     * Returns the estimated time (in nanoseconds) per symbol, or {@link Double#NaN} if no estimate is available yet.
+     */
+    double getSymbolCost() {
+        synchronized (lock) {
+            return computeSlope();
+        }
+    }
+
+    private double computeDeterminant() {
+        return sumXX * sumRR - sumXR * sumXR;
+    }
+
+    private double computeSlope() {
+        final double determinant = computeDeterminant();
+
+        // the number of symbols was proportional to the number of resets in all observations (e.g., all queries had
+        // the same length), so we cannot separate the per-symbol cost from the reset cost. Since the sums may be
+        // decayed, we compare the determinant relative to its magnitude
+        if (observations < MIN_OBSERVATIONS || determinant <= EPSILON * sumXX * sumRR) {
+            return Double.NaN;
+        }
+
+        final double slope = (sumRR * sumXY - sumXR * sumRY) / determinant;
+
+        return slope > 0 ? slope : Double.NaN;
+    }
+}
@@ -22,6 +22,7 @@ import de.learnlib.oracle.OmegaMembershipOracle;
 import de.learnlib.query.OmegaQuery;
 import net.automatalib.word.Word;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A specialized {@link AbstractStaticBatchProcessor} for {@link OmegaMembershipOracle}s that implements {@link
@@ -42,6 +43,50 @@ public class StaticParallelOmegaOracle<S, I, D>
         super(oracles, minBatchSize, policy);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) oracles
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractStaticBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     */
+    public StaticParallelOmegaOracle(Collection<? extends OmegaMembershipOracle<S, I, D>> oracles,
+                                     @NonNegative int minBatchSize,
+                                     PoolPolicy policy,
+                                     @NonNegative int prefixAffinity) {
+        super(oracles, minBatchSize, policy, PrefixSharding.forOmegaQueries(prefixAffinity));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) oracles
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractStaticBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     * @param hedger
+     *         the configuration of the straggler mitigation (see {@link QueryHedger}). May be {@code null} to disable
+     *         hedging
+     */
+    public StaticParallelOmegaOracle(Collection<? extends OmegaMembershipOracle<S, I, D>> oracles,
+                                     @NonNegative int minBatchSize,
+                                     PoolPolicy policy,
+                                     @NonNegative int prefixAffinity,
+                                     @Nullable QueryHedger hedger) {
+        super(oracles, minBatchSize, policy, PrefixSharding.forOmegaQueries(prefixAffinity), hedger, QueryReplica::ofOmega);
+    }
+
     @Override
     public void processQueries(Collection<? extends OmegaQuery<I, D>> omegaQueries) {
         processBatch(omegaQueries);
@@ -45,6 +45,10 @@ public class StaticParallelOmegaOracleBuilder<S, I, D>
     protected StaticParallelOmegaOracle<S, I, D> buildOracle(Collection<? extends OmegaMembershipOracle<S, I, D>> oracleInstances,
                                                              int minBatchSize,
                                                              PoolPolicy poolPolicy) {
-        return new StaticParallelOmegaOracle<>(oracleInstances, minBatchSize, poolPolicy);
+        return new StaticParallelOmegaOracle<>(oracleInstances,
+                                               minBatchSize,
+                                               poolPolicy,
+                                               getPrefixAffinity(),
+                                               getQueryHedger());
     }
 }
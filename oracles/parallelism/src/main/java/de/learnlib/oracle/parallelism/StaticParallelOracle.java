@@ -16,14 +16,20 @@
 package de.learnlib.oracle.parallelism;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
 
+import de.learnlib.oracle.AsyncMembershipOracle;
 import de.learnlib.oracle.MembershipOracle;
 import de.learnlib.query.Query;
 import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * A specialized {@link AbstractStaticBatchProcessor} for {@link MembershipOracle}s that implements {@link
  * ParallelOracle}.
+ * <p>
+ * This oracle also natively supports the asynchronous processing of batches (see {@link AsyncMembershipOracle} and
+ * {@link #processBatchAsync(Collection)}).
  *
  * @param <I>
  *         input symbol type
@@ -31,7 +37,7 @@ import org.checkerframework.checker.index.qual.NonNegative;
  *         output domain type
  */
 public class StaticParallelOracle<I, D> extends AbstractStaticBatchProcessor<Query<I, D>, MembershipOracle<I, D>>
-        implements ParallelOracle<I, D> {
+        implements ParallelOracle<I, D>, AsyncMembershipOracle<I, D> {
 
     public StaticParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
                                 @NonNegative int minBatchSize,
@@ -39,8 +45,57 @@ public class StaticParallelOracle<I, D> extends AbstractStaticBatchProcessor<Que
         super(oracles, minBatchSize, policy);
     }
 
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) oracles
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractStaticBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     */
+    public StaticParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
+                                @NonNegative int minBatchSize,
+                                PoolPolicy policy,
+                                @NonNegative int prefixAffinity) {
+        super(oracles, minBatchSize, policy, PrefixSharding.forQueries(prefixAffinity));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param oracles
+     *         the (sub-) oracles
+     * @param minBatchSize
+     *         the minimum number of queries per batch
+     * @param policy
+     *         the policy for the thread pool
+     * @param prefixAffinity
+     *         the number of leading input symbols by which queries are sharded (see {@link
+     *         AbstractStaticBatchProcessorBuilder#withPrefixAffinity(int)}). {@code 0} disables the sharding
+     * @param hedger
+     *         the configuration of the straggler mitigation (see {@link QueryHedger}). May be {@code null} to disable
+     *         hedging
+     */
+    public StaticParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
+                                @NonNegative int minBatchSize,
+                                PoolPolicy policy,
+                                @NonNegative int prefixAffinity,
+                                @Nullable QueryHedger hedger) {
+        super(oracles, minBatchSize, policy, PrefixSharding.forQueries(prefixAffinity), hedger, QueryReplica::of);
+    }
+
     @Override
     public void processQueries(Collection<? extends Query<I, D>> queries) {
         processBatch(queries);
     }
+
+    @Override
+    public CompletableFuture<Void> processQueriesAsync(Collection<? extends Query<I, D>> queries) {
+        return processBatchAsync(queries);
+    }
 }
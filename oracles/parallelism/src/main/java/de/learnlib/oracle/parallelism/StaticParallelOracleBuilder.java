@@ -45,6 +45,10 @@ public class StaticParallelOracleBuilder<I, D>
     protected StaticParallelOracle<I, D> buildOracle(Collection<? extends MembershipOracle<I, D>> oracleInstances,
                                                      int minBatchSize,
                                                      PoolPolicy poolPolicy) {
-        return new StaticParallelOracle<>(oracleInstances, minBatchSize, poolPolicy);
+        return new StaticParallelOracle<>(oracleInstances,
+                                          minBatchSize,
+                                          poolPolicy,
+                                          getPrefixAffinity(),
+                                          getQueryHedger());
     }
 }
@@ -0,0 +1,75 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Utility methods for (optionally) using virtual threads. Since LearnLib is compiled against Java 8, the corresponding
+ * factory methods (available since Java 21) are accessed reflectively.
+ */
+final class VirtualThreads {
+
+    private static final @Nullable Method FACTORY = findFactory();
+
+    private VirtualThreads() {
+        // prevent instantiation
+    }
+
+    /**
+     * Returns whether virtual threads are supported by the current runtime.
+     *
+     * @return {@code true} if virtual threads are supported, {@code false} otherwise
+     */
+    static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task. If virtual threads are not supported by the
+     * current runtime, the given fallback is used instead.
+     *
+     * @param fallback
+     *         the supplier of the executor that is used if virtual threads are not supported
+     *
+     * @return the created executor
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(Supplier<? extends ExecutorService> fallback) {
+        if (FACTORY == null) {
+            return fallback.get();
+        }
+
+        try {
+            return (ExecutorService) FACTORY.invoke(null);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return fallback.get();
+        }
+    }
+
+    private static @Nullable Method findFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
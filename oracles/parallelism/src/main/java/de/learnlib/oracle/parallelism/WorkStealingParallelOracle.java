@@ -0,0 +1,52 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Collection;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.query.Query;
+import org.checkerframework.checker.index.qual.NonNegative;
+
+/**
+ * A specialized {@link AbstractWorkStealingBatchProcessor} for {@link MembershipOracle}s that implements {@link
+ * ParallelOracle}. The length of a query is the combined length of its prefix and suffix.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public class WorkStealingParallelOracle<I, D>
+        extends AbstractWorkStealingBatchProcessor<Query<I, D>, MembershipOracle<I, D>>
+        implements ParallelOracle<I, D> {
+
+    public WorkStealingParallelOracle(Collection<? extends MembershipOracle<I, D>> oracles,
+                                      @NonNegative int minBatchSize,
+                                      double initialResetCost) {
+        super(oracles, minBatchSize, initialResetCost);
+    }
+
+    @Override
+    protected int getQueryLength(Query<I, D> query) {
+        return query.getPrefix().length() + query.getSuffix().length();
+    }
+
+    @Override
+    public void processQueries(Collection<? extends Query<I, D>> queries) {
+        processBatch(queries);
+    }
+}
@@ -0,0 +1,95 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.google.common.base.Preconditions;
+import de.learnlib.oracle.MembershipOracle;
+import org.checkerframework.checker.index.qual.NonNegative;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A builder for a {@link WorkStealingParallelOracle}.
+ *
+ * @param <I>
+ *         input symbol type
+ * @param <D>
+ *         output domain type
+ */
+public class WorkStealingParallelOracleBuilder<I, D> {
+
+    private final @Nullable Collection<? extends MembershipOracle<I, D>> oracles;
+    private final @Nullable Supplier<? extends MembershipOracle<I, D>> oracleSupplier;
+    private @NonNegative int minBatchSize = AbstractStaticBatchProcessor.MIN_BATCH_SIZE;
+    private @NonNegative int numInstances = AbstractStaticBatchProcessor.NUM_INSTANCES;
+    private double initialResetCost = AbstractWorkStealingBatchProcessor.DEFAULT_RESET_COST;
+
+    public WorkStealingParallelOracleBuilder(Collection<? extends MembershipOracle<I, D>> oracles) {
+        Preconditions.checkArgument(!oracles.isEmpty(), "No oracles specified");
+        this.oracles = oracles;
+        this.oracleSupplier = null;
+    }
+
+    public WorkStealingParallelOracleBuilder(Supplier<? extends MembershipOracle<I, D>> oracleSupplier) {
+        this.oracles = null;
+        this.oracleSupplier = oracleSupplier;
+    }
+
+    public WorkStealingParallelOracleBuilder<I, D> withMinBatchSize(@NonNegative int minBatchSize) {
+        this.minBatchSize = minBatchSize;
+        return this;
+    }
+
+    public WorkStealingParallelOracleBuilder<I, D> withNumInstances(@NonNegative int numInstances) {
+        this.numInstances = numInstances;
+        return this;
+    }
+
+    /**
+     * Sets the initial estimate for the cost of a reset (in terms of executed symbols), which is used until the actual
+     * cost has been learned from the execution times of the first queries.
+     *
+     * @param initialResetCost
+     *         the initial reset cost
+     *
+     * @return {@code this}
+     */
+    public WorkStealingParallelOracleBuilder<I, D> withInitialResetCost(double initialResetCost) {
+        Preconditions.checkArgument(initialResetCost >= 0, "Reset cost must not be negative");
+        this.initialResetCost = initialResetCost;
+        return this;
+    }
+
+    @SuppressWarnings("nullness") // the constructors guarantee that oracles and oracleSupplier are null exclusively
+    public WorkStealingParallelOracle<I, D> create() {
+        Collection<? extends MembershipOracle<I, D>> oracleInstances;
+        if (oracles != null) {
+            oracleInstances = oracles;
+        } else {
+            List<MembershipOracle<I, D>> oracleList = new ArrayList<>(numInstances);
+            for (int i = 0; i < numInstances; i++) {
+                oracleList.add(oracleSupplier.get());
+            }
+            oracleInstances = oracleList;
+        }
+
+        return new WorkStealingParallelOracle<>(oracleInstances, minBatchSize, initialResetCost);
+    }
+}
@@ -22,8 +22,10 @@ import java.util.function.Supplier;
 import de.learnlib.filter.cache.configuration.CacheConfig;
 import de.learnlib.filter.cache.configuration.CacheCreator.MealyCacheCreator;
 import de.learnlib.filter.cache.configuration.Config;
+import de.learnlib.filter.cache.mealy.MealyCacheOracle;
 import de.learnlib.filter.cache.mealy.ThreadSafeMealyCacheOracle;
 import de.learnlib.filter.cache.mealy.ThreadSafeMealyCaches;
+import de.learnlib.filter.cache.mealy.TwoLevelMealyCacheOracle;
 import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
 import de.learnlib.oracle.MembershipOracle;
 import de.learnlib.oracle.parallelism.ParallelOracle;
@@ -37,14 +39,14 @@ public class MealyParallelCacheTest
         extends AbstractParallelCacheTest<MealyMachine<?, Character, ?, Character>, Character, Word<Character>> {
 
     private final MealyCounterOracle<Character, Character> sul;
-    private final ThreadSafeMealyCacheOracle<Character, Character> cacheRepresentative;
+    private final MealyCacheOracle<Character, Character> cacheRepresentative;
     private final ParallelOracle<Character, Word<Character>> parallelOracle;
 
     @Factory(dataProvider = "caches")
-    public MealyParallelCacheTest(MealyCacheCreator<Character, Character, ThreadSafeMealyCacheOracle<Character, Character>> creator) {
+    public MealyParallelCacheTest(MealyCacheCreator<Character, Character, MealyCacheOracle<Character, Character>> creator) {
         this.sul = Config.getCounter(Config.TARGET_MODEL_MEALY);
 
-        final CacheConfig<Character, Word<Character>, ThreadSafeMealyCacheOracle<Character, Character>> config =
+        final CacheConfig<Character, Word<Character>, MealyCacheOracle<Character, Character>> config =
                 creator.apply(Config.ALPHABET, this.sul);
 
         this.cacheRepresentative = config.getRepresentative();
@@ -55,10 +57,14 @@ public class MealyParallelCacheTest
     public static Object[][] cacheProvider() {
         return new MealyCacheCreator<?, ?, ?>[][] {{MealyCacheCreator.forSupplier(ThreadSafeMealyCaches::createDAGCache)},
                                                    {MealyCacheCreator.forSupplier(ThreadSafeMealyCaches::createTreeCache)},
+                                                   {MealyCacheCreator.forSupplier(ThreadSafeMealyCaches::createConcurrentTreeCache)},
                                                    {MealyCacheCreator.forSupplier((Function<Supplier<? extends MembershipOracle<Object, Word<Object>>>, Supplier<ThreadSafeMealyCacheOracle<Object, Object>>>) ThreadSafeMealyCaches::createDynamicTreeCache)},
+                                                   {MealyCacheCreator.<Character, Character, TwoLevelMealyCacheOracle<Character, Character>>forSupplier((alphabet, supplier) -> ThreadSafeMealyCaches.createTwoLevelTreeCache(alphabet, supplier, CacheBudget.entries(16)))},
                                                    {MealyCacheCreator.forCollection(ThreadSafeMealyCaches::createDAGCache)},
                                                    {MealyCacheCreator.forCollection(ThreadSafeMealyCaches::createTreeCache)},
-                                                   {MealyCacheCreator.forCollection((Function<Collection<? extends MembershipOracle<Object, Word<Object>>>, Collection<ThreadSafeMealyCacheOracle<Object, Object>>>) ThreadSafeMealyCaches::createDynamicTreeCache)}};
+                                                   {MealyCacheCreator.forCollection(ThreadSafeMealyCaches::createConcurrentTreeCache)},
+                                                   {MealyCacheCreator.forCollection((Function<Collection<? extends MembershipOracle<Object, Word<Object>>>, Collection<ThreadSafeMealyCacheOracle<Object, Object>>>) ThreadSafeMealyCaches::createDynamicTreeCache)},
+                                                   {MealyCacheCreator.<Character, Character, TwoLevelMealyCacheOracle<Character, Character>>forCollection((alphabet, oracles) -> ThreadSafeMealyCaches.createTwoLevelTreeCache(alphabet, oracles, CacheBudget.entries(16)))}};
     }
 
     @Override
@@ -72,7 +78,7 @@ public class MealyParallelCacheTest
     }
 
     @Override
-    protected ThreadSafeMealyCacheOracle<Character, Character> getCacheRepresentative() {
+    protected MealyCacheOracle<Character, Character> getCacheRepresentative() {
         return this.cacheRepresentative;
     }
 
@@ -18,7 +18,7 @@ package de.learnlib.filter.cache;
 import de.learnlib.filter.cache.configuration.CacheConfig;
 import de.learnlib.filter.cache.configuration.CacheCreator.SULCacheCreator;
 import de.learnlib.filter.cache.configuration.Config;
-import de.learnlib.filter.cache.sul.ThreadSafeSULCache;
+import de.learnlib.filter.cache.sul.SULCache;
 import de.learnlib.filter.cache.sul.ThreadSafeSULCaches;
 import de.learnlib.filter.statistic.sul.ResetCounterSUL;
 import de.learnlib.oracle.parallelism.ParallelOracle;
@@ -32,14 +32,14 @@ public class SULParallelCacheTest
         extends AbstractParallelCacheTest<MealyMachine<?, Character, ?, Character>, Character, Word<Character>> {
 
     private final ResetCounterSUL<Character, Character> sul;
-    private final ThreadSafeSULCache<Character, Character> cacheRepresentative;
+    private final SULCache<Character, Character> cacheRepresentative;
     private final ParallelOracle<Character, Word<Character>> parallelOracle;
 
     @Factory(dataProvider = "caches")
-    public SULParallelCacheTest(SULCacheCreator<Character, Character, ThreadSafeSULCache<Character, Character>> creator) {
+    public SULParallelCacheTest(SULCacheCreator<Character, Character, SULCache<Character, Character>> creator) {
         this.sul = Config.getCounter(Config.TARGET_MODEL_SUL);
 
-        final CacheConfig<Character, Word<Character>, ThreadSafeSULCache<Character, Character>> config =
+        final CacheConfig<Character, Word<Character>, SULCache<Character, Character>> config =
                 creator.apply(Config.ALPHABET, sul);
 
         this.cacheRepresentative = config.getRepresentative();
@@ -50,7 +50,8 @@ public class SULParallelCacheTest
     public static Object[][] cacheProvider() {
         return new SULCacheCreator<?, ?, ?>[][] {{SULCacheCreator.forSupplier(ThreadSafeSULCaches::createCache)},
                                                  {SULCacheCreator.forSupplier(ThreadSafeSULCaches::createDAGCache)},
-                                                 {SULCacheCreator.forSupplier(ThreadSafeSULCaches::createTreeCache)}};
+                                                 {SULCacheCreator.forSupplier(ThreadSafeSULCaches::createTreeCache)},
+                                                 {SULCacheCreator.forSupplier(ThreadSafeSULCaches::createConcurrentTreeCache)}};
     }
 
     @Override
@@ -64,7 +65,7 @@ public class SULParallelCacheTest
     }
 
     @Override
-    protected ThreadSafeSULCache<Character, Character> getCacheRepresentative() {
+    protected SULCache<Character, Character> getCacheRepresentative() {
         return this.cacheRepresentative;
     }
 
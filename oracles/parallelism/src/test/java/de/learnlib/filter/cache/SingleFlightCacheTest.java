@@ -0,0 +1,265 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache;
+
+import java.util.Collection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import de.learnlib.driver.simulator.MealySimulatorSUL;
+import de.learnlib.filter.cache.configuration.Config;
+import de.learnlib.filter.cache.mealy.ThreadSafeMealyCacheOracle;
+import de.learnlib.filter.cache.mealy.ThreadSafeMealyCaches;
+import de.learnlib.filter.cache.sul.ThreadSafeSULCache;
+import de.learnlib.filter.cache.sul.ThreadSafeSULCaches;
+import de.learnlib.oracle.MembershipOracle.MealyMembershipOracle;
+import de.learnlib.query.Query;
+import de.learnlib.sul.SUL;
+import net.automatalib.word.Word;
+import net.automatalib.word.WordBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that concurrent cache misses for (prefixes of) queries which are currently executed are not executed a second
+ * time.
+ */
+public class SingleFlightCacheTest {
+
+    private static final long WAIT_MILLIS = 100;
+
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testMealyCache() throws Exception {
+        final BlockingOracle delegate = new BlockingOracle(false);
+        final Supplier<ThreadSafeMealyCacheOracle<Character, Character>> supplier =
+                ThreadSafeMealyCaches.createTreeCache(Config.ALPHABET, () -> delegate);
+        final ThreadSafeMealyCacheOracle<Character, Character> first = supplier.get();
+        final ThreadSafeMealyCacheOracle<Character, Character> second = supplier.get();
+
+        final Word<Character> word = Word.fromString("abcd");
+        final Word<Character> prefix = Word.fromString("ab");
+
+        final Future<Word<Character>> f1 = executor.submit(() -> first.answerQuery(word));
+        Assert.assertTrue(delegate.started.await(1, TimeUnit.MINUTES));
+        final Future<Word<Character>> f2 = executor.submit(() -> second.answerQuery(prefix));
+
+        Thread.sleep(WAIT_MILLIS);
+        delegate.release.countDown();
+
+        Assert.assertEquals(f1.get(), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(f2.get(), Config.TARGET_MODEL_MEALY.computeOutput(prefix));
+        Assert.assertEquals(delegate.queries.get(), 1);
+
+        // the shared registry must not retain finished executions
+        Assert.assertEquals(second.answerQuery(prefix), Config.TARGET_MODEL_MEALY.computeOutput(prefix));
+        Assert.assertEquals(delegate.queries.get(), 1);
+    }
+
+    @Test
+    public void testMealyCacheFailure() throws Exception {
+        final BlockingOracle delegate = new BlockingOracle(true);
+        final Supplier<ThreadSafeMealyCacheOracle<Character, Character>> supplier =
+                ThreadSafeMealyCaches.createTreeCache(Config.ALPHABET, () -> delegate);
+        final ThreadSafeMealyCacheOracle<Character, Character> first = supplier.get();
+        final ThreadSafeMealyCacheOracle<Character, Character> second = supplier.get();
+
+        final Word<Character> word = Word.fromString("abcd");
+        final Word<Character> prefix = Word.fromString("ab");
+
+        final Future<Word<Character>> f1 = executor.submit(() -> first.answerQuery(word));
+        Assert.assertTrue(delegate.started.await(1, TimeUnit.MINUTES));
+        final Future<Word<Character>> f2 = executor.submit(() -> second.answerQuery(prefix));
+
+        Thread.sleep(WAIT_MILLIS);
+        delegate.release.countDown();
+
+        Assert.assertThrows(ExecutionException.class, f1::get);
+        // the waiting oracle has to execute the query itself
+        Assert.assertEquals(f2.get(), Config.TARGET_MODEL_MEALY.computeOutput(prefix));
+    }
+
+    @Test
+    public void testSULCache() throws Exception {
+        final BlockingSUL delegate = new BlockingSUL(new MealySimulatorSUL<>(Config.TARGET_MODEL_MEALY), 'c');
+        final ThreadSafeSULCache<Character, Character> first =
+                ThreadSafeSULCaches.createTreeCache(Config.ALPHABET, delegate);
+        final SUL<Character, Character> second = first.fork();
+
+        final Word<Character> word = Word.fromString("abcd");
+        final Word<Character> prefix = Word.fromString("abc");
+
+        final Future<Word<Character>> f1 = executor.submit(() -> execute(first, word));
+        Assert.assertTrue(delegate.started.await(1, TimeUnit.MINUTES));
+        final Future<Word<Character>> f2 = executor.submit(() -> execute(second, prefix));
+
+        Thread.sleep(WAIT_MILLIS);
+        delegate.release.countDown();
+
+        Assert.assertEquals(f1.get(), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(f2.get(), Config.TARGET_MODEL_MEALY.computeOutput(prefix));
+        Assert.assertEquals(delegate.resets.get(), 1);
+        Assert.assertEquals(delegate.steps.get(), word.length());
+
+        // answered by the cache
+        Assert.assertEquals(execute(second, prefix), Config.TARGET_MODEL_MEALY.computeOutput(prefix));
+        Assert.assertEquals(delegate.resets.get(), 1);
+    }
+
+    private static Word<Character> execute(SUL<Character, Character> sul, Word<Character> input) {
+        final WordBuilder<Character> wb = new WordBuilder<>(input.length());
+
+        sul.pre();
+        try {
+            for (Character i : input) {
+                wb.append(sul.step(i));
+            }
+        } finally {
+            sul.post();
+        }
+
+        return wb.toWord();
+    }
+
+    private static void awaitRelease(CountDownLatch started, CountDownLatch release) {
+        started.countDown();
+        try {
+            Assert.assertTrue(release.await(1, TimeUnit.MINUTES));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * An oracle that blocks on its first query until it is released.
+     */
+    private static final class BlockingOracle implements MealyMembershipOracle<Character, Character> {
+
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicBoolean blocked = new AtomicBoolean();
+        private final AtomicInteger queries = new AtomicInteger();
+        private final boolean fail;
+
+        BlockingOracle(boolean fail) {
+            this.fail = fail;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Character, Word<Character>>> queries) {
+            for (Query<Character, Word<Character>> q : queries) {
+                if (blocked.compareAndSet(false, true)) {
+                    awaitRelease(started, release);
+                    if (fail) {
+                        throw new IllegalStateException("Failing query");
+                    }
+                }
+                this.queries.incrementAndGet();
+                q.answer(Config.TARGET_MODEL_MEALY.computeSuffixOutput(q.getPrefix(), q.getSuffix()));
+            }
+        }
+    }
+
+    /**
+     * A SUL that blocks on the first step of the given input until it is released.
+     */
+    private static final class BlockingSUL implements SUL<Character, Character> {
+
+        private final SUL<Character, Character> delegate;
+        private final char blockingInput;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private final AtomicBoolean blocked;
+        private final AtomicInteger resets;
+        private final AtomicInteger steps;
+
+        BlockingSUL(SUL<Character, Character> delegate, char blockingInput) {
+            this(delegate,
+                 blockingInput,
+                 new CountDownLatch(1),
+                 new CountDownLatch(1),
+                 new AtomicBoolean(),
+                 new AtomicInteger(),
+                 new AtomicInteger());
+        }
+
+        private BlockingSUL(SUL<Character, Character> delegate,
+                            char blockingInput,
+                            CountDownLatch started,
+                            CountDownLatch release,
+                            AtomicBoolean blocked,
+                            AtomicInteger resets,
+                            AtomicInteger steps) {
+            this.delegate = delegate;
+            this.blockingInput = blockingInput;
+            this.started = started;
+            this.release = release;
+            this.blocked = blocked;
+            this.resets = resets;
+            this.steps = steps;
+        }
+
+        @Override
+        public void pre() {
+            resets.incrementAndGet();
+            delegate.pre();
+        }
+
+        @Override
+        public void post() {
+            delegate.post();
+        }
+
+        @Override
+        public Character step(Character in) {
+            if (in == blockingInput && blocked.compareAndSet(false, true)) {
+                awaitRelease(started, release);
+            }
+            steps.incrementAndGet();
+            return delegate.step(in);
+        }
+
+        @Override
+        public boolean canFork() {
+            return true;
+        }
+
+        @Override
+        public BlockingSUL fork() {
+            return new BlockingSUL(delegate.fork(), blockingInput, started, release, blocked, resets, steps);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.filter.cache.configuration.Config;
+import net.automatalib.alphabet.GrowingAlphabet;
+import net.automatalib.alphabet.GrowingMapAlphabet;
+import net.automatalib.common.util.collection.CollectionsUtil;
+import net.automatalib.incremental.ConflictException;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentMealyTreeBuilderTest {
+
+    @Test(timeOut = 20000)
+    public void testConcurrentInsertion() throws Exception {
+        final ConcurrentMealyTreeBuilder<Character, Character> builder =
+                new ConcurrentMealyTreeBuilder<>(Config.ALPHABET);
+
+        final List<Word<Character>> words = new ArrayList<>();
+        for (List<Character> w : CollectionsUtil.allTuples(Config.ALPHABET, 4, 4)) {
+            words.add(Word.fromList(w));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (Word<Character> w : words) {
+                        builder.insert(w, Config.TARGET_MODEL_MEALY.computeOutput(w));
+                    }
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        for (Word<Character> w : words) {
+            Assert.assertEquals(builder.lookup(w), Config.TARGET_MODEL_MEALY.computeOutput(w));
+        }
+
+        // all words of length four plus their prefixes, plus the root
+        final int expectedSize = (int) ((Math.pow(Config.ALPHABET.size(), 5) - 1) / (Config.ALPHABET.size() - 1));
+        Assert.assertEquals(builder.asGraph().size(), expectedSize);
+        Assert.assertNull(builder.findSeparatingWord(Config.TARGET_MODEL_MEALY, Config.ALPHABET, false));
+    }
+
+    @Test
+    public void testConflict() {
+        final ConcurrentMealyTreeBuilder<Character, Character> builder =
+                new ConcurrentMealyTreeBuilder<>(Config.ALPHABET);
+
+        builder.insert(Word.fromCharSequence("ab"), Word.fromCharSequence("cd"));
+        builder.insert(Word.fromCharSequence("a"), Word.fromCharSequence("c"));
+
+        Assert.assertThrows(ConflictException.class,
+                            () -> builder.insert(Word.fromCharSequence("abc"), Word.fromCharSequence("cee")));
+    }
+
+    @Test
+    public void testGrowingAlphabet() {
+        final GrowingAlphabet<Character> alphabet = new GrowingMapAlphabet<>(Config.ALPHABET);
+        final ConcurrentMealyTreeBuilder<Character, Character> builder = new ConcurrentMealyTreeBuilder<>(alphabet);
+
+        builder.insert(Word.fromCharSequence("ab"), Word.fromCharSequence("cd"));
+        builder.addAlphabetSymbol('x');
+        builder.insert(Word.fromCharSequence("ax"), Word.fromCharSequence("ce"));
+        builder.insert(Word.fromCharSequence("xx"), Word.fromCharSequence("ee"));
+
+        Assert.assertEquals(builder.lookup(Word.fromCharSequence("ab")), Word.fromCharSequence("cd"));
+        Assert.assertEquals(builder.lookup(Word.fromCharSequence("ax")), Word.fromCharSequence("ce"));
+        Assert.assertEquals(builder.lookup(Word.fromCharSequence("xx")), Word.fromCharSequence("ee"));
+    }
+}
@@ -0,0 +1,78 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.mealy;
+
+import java.util.function.Supplier;
+
+import de.learnlib.filter.cache.CacheBudget;
+import de.learnlib.filter.cache.configuration.Config;
+import de.learnlib.filter.statistic.oracle.MealyCounterOracle;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TwoLevelMealyCacheOracleTest {
+
+    @Test
+    public void testLazyPropagation() {
+        final MealyCounterOracle<Character, Character> counter = Config.getCounter(Config.TARGET_MODEL_MEALY);
+        final Supplier<TwoLevelMealyCacheOracle<Character, Character>> supplier =
+                ThreadSafeMealyCaches.createTwoLevelTreeCache(Config.ALPHABET, () -> counter, CacheBudget.entries(16));
+
+        final TwoLevelMealyCacheOracle<Character, Character> first = supplier.get();
+        final TwoLevelMealyCacheOracle<Character, Character> second = supplier.get();
+        final Word<Character> word = Word.fromString("abc");
+
+        Assert.assertEquals(first.answerQuery(word), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(counter.getQueryCounter().getCount(), 1);
+        Assert.assertEquals(first.getSharedCache().getCacheCounters().getMisses(), 1);
+
+        // answered by the local cache without consulting the shared one
+        Assert.assertEquals(first.answerQuery(word), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(first.getCacheCounters().getHits(), 1);
+        Assert.assertEquals(first.getSharedCache().getCacheCounters().getHits(), 0);
+
+        // answered by the shared cache, which propagates the information to the local cache of the second oracle
+        Assert.assertEquals(second.answerQuery(word), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(second.getSharedCache().getCacheCounters().getHits(), 1);
+        Assert.assertEquals(second.answerQuery(word), Config.TARGET_MODEL_MEALY.computeOutput(word));
+        Assert.assertEquals(second.getCacheCounters().getHits(), 1);
+        Assert.assertEquals(second.getSharedCache().getCacheCounters().getHits(), 1);
+
+        Assert.assertEquals(counter.getQueryCounter().getCount(), 1);
+    }
+
+    @Test
+    public void testEviction() {
+        final MealyCounterOracle<Character, Character> counter = Config.getCounter(Config.TARGET_MODEL_MEALY);
+        final TwoLevelMealyCacheOracle<Character, Character> oracle =
+                ThreadSafeMealyCaches.createTwoLevelTreeCache(Config.ALPHABET, () -> counter, CacheBudget.entries(4))
+                                     .get();
+
+        final Word<Character> w1 = Word.fromString("abab");
+        final Word<Character> w2 = Word.fromString("cdec");
+
+        oracle.answerQuery(w1);
+        oracle.answerQuery(w2);
+
+        // the local cache is bounded, but the evicted information is still available in the shared cache
+        Assert.assertTrue(oracle.getNodeCount() <= 4 + 1);
+        Assert.assertEquals(oracle.answerQuery(w1), Config.TARGET_MODEL_MEALY.computeOutput(w1));
+        Assert.assertEquals(counter.getQueryCounter().getCount(), 2);
+        Assert.assertNull(oracle.createCacheConsistencyTest().findCounterExample(Config.TARGET_MODEL_MEALY,
+                                                                                 Config.ALPHABET));
+    }
+}
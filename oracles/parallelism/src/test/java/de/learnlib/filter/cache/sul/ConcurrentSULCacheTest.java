@@ -0,0 +1,45 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.filter.cache.sul;
+
+import de.learnlib.filter.cache.CacheCounters;
+import de.learnlib.filter.cache.configuration.Config;
+import de.learnlib.oracle.membership.SULOracle;
+import de.learnlib.sul.SUL;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentSULCacheTest {
+
+    @Test
+    public void testForkedCounters() {
+        final ConcurrentSULCache<Character, Character> cache =
+                ThreadSafeSULCaches.createConcurrentTreeCache(Config.ALPHABET, Config.TARGET_MODEL_SUL);
+        final SUL<Character, Character> fork = cache.fork();
+
+        final Word<Character> input = Word.fromSymbols(Config.ALPHABET.getSymbol(0), Config.ALPHABET.getSymbol(1));
+
+        // a miss via the fork, a hit via the parent and a hit via the fork
+        new SULOracle<>(fork).answerQuery(input);
+        new SULOracle<>(cache).answerQuery(input);
+        new SULOracle<>(fork).answerQuery(input);
+
+        final CacheCounters counters = cache.getCacheCounters();
+        Assert.assertEquals(counters.getMisses(), 1);
+        Assert.assertEquals(counters.getHits(), 2);
+    }
+}
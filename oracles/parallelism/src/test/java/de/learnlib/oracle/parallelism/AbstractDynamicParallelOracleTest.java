@@ -137,6 +137,10 @@ public abstract class AbstractDynamicParallelOracleTest<D> {
             }
         }
 
+        boolean isAnswered() {
+            return answered.get();
+        }
+
         @Override
         public Word<Void> getPrefix() {
             return Word.epsilon();
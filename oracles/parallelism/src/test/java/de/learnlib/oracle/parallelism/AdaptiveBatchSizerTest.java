@@ -0,0 +1,159 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestMembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestOutput;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.statistic.StatisticData;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class AdaptiveBatchSizerTest {
+
+    @Test
+    public void testExploration() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer(4, 1, 100);
+
+        Assert.assertEquals(sizer.nextBatchSize(1000, 4), 4);
+        Assert.assertEquals(sizer.nextBatchSize(1000, 4), 8);
+        Assert.assertEquals(sizer.nextBatchSize(1000, 4), 4);
+        // never exceed the batch itself
+        Assert.assertEquals(sizer.nextBatchSize(5, 4), 5);
+        Assert.assertTrue(Double.isNaN(sizer.getQueryLatency()));
+    }
+
+    @Test
+    public void testModel() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer();
+
+        // a query takes 1000ns and a job has an overhead of 50 queries
+        for (int i = 1; i <= 20; i++) {
+            sizer.recordJob(i, 0, 1000L * i + 50_000);
+        }
+
+        Assert.assertEquals(sizer.getQueryLatency(), 1000.0, 1e-3);
+        // sqrt(1000 * 50 / 4) ~ 111.8
+        Assert.assertEquals(sizer.nextBatchSize(1000, 4), 112);
+        // bounded by the fair share of 100 / 4
+        Assert.assertEquals(sizer.nextBatchSize(100, 4), 25);
+
+        // a queue wait of 150 queries increases the overhead per job to 200 queries: sqrt(1000 * 200 / 4) ~ 223.6
+        sizer.recordJob(20, 150_000, 70_000);
+        Assert.assertEquals(sizer.nextBatchSize(1000, 4), 224);
+        Assert.assertEquals(sizer.getQueueWait(), 150_000.0, 1e-3);
+
+        final SortedMap<Integer, Long> histogram = sizer.getBatchSizeHistogram();
+        Assert.assertEquals(histogram.keySet().toString(), "[25, 112, 224]");
+        Assert.assertEquals(sizer.getBatchSize(), 224);
+    }
+
+    @Test
+    public void testSummary() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer();
+
+        // no estimates are available yet
+        Assert.assertTrue(Double.isNaN(sizer.getQueueWait()));
+        Assert.assertTrue(sizer.getStatisticalData().getSummary().endsWith("n/a (ns per query), n/a (ns queue wait)"));
+
+        for (int i = 1; i <= 20; i++) {
+            sizer.recordJob(i, 3000, 1000L * i + 50_000);
+        }
+        sizer.nextBatchSize(1000, 4);
+
+        Assert.assertTrue(sizer.getStatisticalData()
+                               .getSummary()
+                               .endsWith("1000 (ns per query), 3000 (ns queue wait)"));
+    }
+
+    @Test
+    public void testDecay() {
+        // the decayed number of observations never exceeds 1 / (1 - 0.5) = 2
+        final ResetCostEstimator estimator = new ResetCostEstimator(1.0, 0.5);
+        for (int i = 0; i < 20; i++) {
+            estimator.record(i, 2L * i + 20);
+        }
+        Assert.assertEquals(estimator.getSymbolCost(), 2.0, 1e-6);
+        Assert.assertEquals(estimator.getResetCost(), 10.0, 1e-6);
+
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ResetCostEstimator(1.0, 0));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new ResetCostEstimator(1.0, 1.5));
+    }
+
+    @Test
+    public void testAcquireWait() throws InterruptedException {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer();
+        final ProcessorPool<TestMembershipOracle> pool = new ProcessorPool<>(() -> new TestMembershipOracle(0), 1);
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(1);
+
+        // block the only processor, so that the job has to wait for it
+        final TestMembershipOracle blocked = pool.acquire();
+        final Thread worker = new Thread(new DynamicQueriesJob<>(queries, pool, sizer));
+        worker.start();
+        Thread.sleep(50);
+        pool.release(blocked);
+        worker.join();
+
+        Assert.assertNotNull(queries.get(0).getOutput());
+
+        // the time waiting for the processor is reported as queue wait
+        sizer.nextBatchSize(100, 1);
+        Assert.assertTrue(sizer.getQueueWait() >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testOracle() {
+        final AdaptiveBatchSizer sizer = new AdaptiveBatchSizer();
+        final DynamicParallelOracle<Integer, TestOutput> oracle =
+                new DynamicParallelOracleBuilder<>(() -> new TestMembershipOracle(0)).withAdaptiveBatchSize(sizer)
+                                                                                      .withPoolSize(Utils.NUM_ORACLES)
+                                                                                      .create();
+
+        long total = 0;
+        for (int i = 0; i < 10; i++) {
+            final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(100 * (i + 1));
+            oracle.processQueries(queries);
+            for (DefaultQuery<Integer, TestOutput> q : queries) {
+                Assert.assertNotNull(q.getOutput());
+            }
+            total++;
+        }
+
+        long batches = 0;
+        for (Long count : sizer.getBatchSizeHistogram().values()) {
+            batches += count;
+        }
+        Assert.assertEquals(batches, total);
+
+        final StatisticData data = sizer.getStatisticalData();
+        Assert.assertTrue(data.getSummary().startsWith(data.getName()));
+
+        oracle.shutdown();
+    }
+
+    private static List<DefaultQuery<Integer, TestOutput>> createQueries(int num) {
+        final List<DefaultQuery<Integer, TestOutput>> result = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            result.add(new DefaultQuery<>(Utils.createWord(0), Utils.createWord(0)));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractDynamicParallelOracleTest.AnswerOnceQuery;
+import de.learnlib.oracle.parallelism.AbstractDynamicParallelOracleTest.NullOracle;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DynamicParallelAsyncTest {
+
+    @Test
+    public void testPipelinedBatches() {
+        final DynamicParallelOracle<Void, Void> oracle =
+                ParallelOracleBuilders.newDynamicParallelOracle(NullOracle::new).withBatchSize(2).create();
+
+        try {
+            final List<List<AnswerOnceQuery<Void>>> batches = new ArrayList<>();
+            final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+            // submit several batches without waiting for the previous ones
+            for (int i = 0; i < 10; i++) {
+                final List<AnswerOnceQuery<Void>> batch = AbstractDynamicParallelOracleTest.createQueries(25);
+                batches.add(batch);
+                futures.add(oracle.processQueriesAsync(batch));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            for (List<AnswerOnceQuery<Void>> batch : batches) {
+                for (AnswerOnceQuery<Void> q : batch) {
+                    Assert.assertTrue(q.isAnswered());
+                }
+            }
+
+            Assert.assertTrue(oracle.processQueriesAsync(Collections.emptyList()).isDone());
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancellation() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger processed = new AtomicInteger();
+        final MembershipOracle<Void, Void> blocking = queries -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            processed.addAndGet(queries.size());
+            new NullOracle().processQueries(queries);
+        };
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        final DynamicParallelOracle<Void, Void> oracle = ParallelOracleBuilders.newDynamicParallelOracle(() -> blocking)
+                                                                               .withCustomExecutor(executor)
+                                                                               .withBatchSize(1)
+                                                                               .create();
+
+        try {
+            final CompletableFuture<Void> future =
+                    oracle.processQueriesAsync(AbstractDynamicParallelOracleTest.createQueries(10));
+
+            started.await();
+            Assert.assertTrue(future.cancel(true));
+            release.countDown();
+
+            // the running job completes, but all other jobs are skipped
+            executor.submit(() -> {}).get();
+            Assert.assertEquals(processed.get(), 1);
+        } catch (ExecutionException e) {
+            throw new AssertionError(e);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testExceptions() throws InterruptedException {
+        final MembershipOracle<Void, Void> failing = queries -> {
+            throw new IllegalStateException("expected");
+        };
+        final DynamicParallelOracle<Void, Void> oracle =
+                ParallelOracleBuilders.newDynamicParallelOracle(() -> failing).create();
+
+        try {
+            final List<Query<Void, Void>> queries = new ArrayList<>(AbstractDynamicParallelOracleTest.createQueries(5));
+            oracle.processQueriesAsync(queries).get();
+            Assert.fail("Exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        try {
+            // the blocking view re-throws the original exception
+            Assert.assertThrows(IllegalStateException.class,
+                                () -> oracle.asBlockingOracle().answerQuery(Word.epsilon()));
+        } finally {
+            oracle.shutdown();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractDynamicParallelOracleTest.AnswerOnceQuery;
+import de.learnlib.oracle.parallelism.ThreadPool.PoolPolicy;
+import de.learnlib.query.Query;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DynamicParallelVirtualTest {
+
+    private static final int POOL_SIZE = 3;
+
+    @Test
+    public void testBoundedNumberOfOracles() {
+        final AtomicInteger numOracles = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+
+        final DynamicParallelOracle<Void, Void> oracle = createOracle(() -> {
+            numOracles.incrementAndGet();
+            return new ConcurrencyTrackingOracle(active, maxActive);
+        });
+
+        try {
+            final List<AnswerOnceQuery<Void>> queries = AbstractDynamicParallelOracleTest.createQueries(200);
+            oracle.processQueries(queries);
+
+            // each job is executed by a separate (virtual) thread, but oracles are only created up to the pool size
+            Assert.assertTrue(numOracles.get() <= POOL_SIZE);
+            Assert.assertTrue(maxActive.get() <= POOL_SIZE);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testOraclesAreReused() {
+        final AtomicInteger numOracles = new AtomicInteger();
+        final DynamicParallelOracle<Void, Void> oracle = createOracle(() -> {
+            numOracles.incrementAndGet();
+            return new AbstractDynamicParallelOracleTest.NullOracle();
+        });
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                oracle.processQueries(AbstractDynamicParallelOracleTest.createQueries(20));
+            }
+            Assert.assertTrue(numOracles.get() <= POOL_SIZE);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static DynamicParallelOracle<Void, Void> createOracle(Supplier<MembershipOracle<Void, Void>> supplier) {
+        return ParallelOracleBuilders.newDynamicParallelOracle(supplier)
+                                     .withBatchSize(1)
+                                     .withPoolSize(POOL_SIZE)
+                                     .withPoolPolicy(PoolPolicy.VIRTUAL)
+                                     .create();
+    }
+
+    private static final class ConcurrencyTrackingOracle implements MembershipOracle<Void, Void> {
+
+        private final AtomicInteger active;
+        private final AtomicInteger maxActive;
+
+        ConcurrencyTrackingOracle(AtomicInteger active, AtomicInteger maxActive) {
+            this.active = active;
+            this.maxActive = maxActive;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Void, Void>> queries) {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+                for (Query<Void, Void> q : queries) {
+                    q.answer(null);
+                }
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestMembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestOutput;
+import de.learnlib.query.DefaultQuery;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class PrefixAffinityTest {
+
+    private static final int PREFIX_LENGTH = 2;
+
+    @Test
+    public void testKey() {
+        final Word<Integer> prefix = Word.fromSymbols(1, 2, 3);
+        final Word<Integer> suffix = Word.fromSymbols(4, 5);
+
+        Assert.assertEquals(PrefixSharding.key(prefix, suffix, 2), Word.fromSymbols(1, 2));
+        Assert.assertEquals(PrefixSharding.key(prefix, suffix, 4), Word.fromSymbols(1, 2, 3, 4));
+        Assert.assertEquals(PrefixSharding.key(prefix, suffix, 10), Word.fromSymbols(1, 2, 3, 4, 5));
+        Assert.assertEquals(PrefixSharding.key(Word.epsilon(), suffix, 1), Word.fromSymbols(4));
+    }
+
+    @Test
+    public void testShardAndPartition() {
+        final List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            values.add(i % 3 == 0 ? 0 : i);
+        }
+
+        // one shard of 10 queries (split into chunks of 4) and 20 singleton shards
+        final List<List<Integer>> shards = PrefixSharding.shard(values, v -> v, 4);
+        Assert.assertEquals(shards.size(), 23);
+        Assert.assertEquals(shards.get(0), Arrays.asList(0, 0, 0, 0));
+        Assert.assertEquals(shards.get(2), Arrays.asList(0, 0));
+
+        final List<List<Integer>> partitions = PrefixSharding.partition(shards, 3);
+        int total = 0;
+        for (List<Integer> p : partitions) {
+            Assert.assertEquals(p.size(), 10);
+            total += p.size();
+        }
+        Assert.assertEquals(total, values.size());
+    }
+
+    @Test
+    public void testStaticAffinity() {
+        final StaticParallelOracle<Integer, TestOutput> oracle =
+                new StaticParallelOracleBuilder<>(getOracles()).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                               .withPrefixAffinity(PREFIX_LENGTH)
+                                                               .create();
+
+        final int numPrefixes = 5;
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(numPrefixes, Utils.MIN_BATCH_SIZE);
+        oracle.processQueries(queries);
+
+        final Map<Word<Integer>, Set<Integer>> routing = checkAnswers(queries);
+        final Set<Integer> involved = new HashSet<>();
+
+        Assert.assertEquals(routing.size(), numPrefixes);
+        for (Set<Integer> ids : routing.values()) {
+            Assert.assertEquals(ids.size(), 1);
+            involved.addAll(ids);
+        }
+        Assert.assertEquals(involved.size(), numPrefixes);
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testStaticRebalancing() {
+        final StaticParallelOracle<Integer, TestOutput> oracle =
+                new StaticParallelOracleBuilder<>(getOracles()).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                               .withPrefixAffinity(PREFIX_LENGTH)
+                                                               .create();
+
+        // a single (skewed) shard must still be distributed among all batches
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(1, 5 * Utils.MIN_BATCH_SIZE);
+        oracle.processQueries(queries);
+
+        final Map<Word<Integer>, Set<Integer>> routing = checkAnswers(queries);
+        Assert.assertEquals(routing.size(), 1);
+        Assert.assertEquals(routing.values().iterator().next().size(), 5);
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testDynamicAffinity() {
+        final DynamicParallelOracle<Integer, TestOutput> oracle =
+                new DynamicParallelOracleBuilder<>(getOracles()).withBatchSize(1)
+                                                                .withPrefixAffinity(PREFIX_LENGTH)
+                                                                .create();
+
+        // shards of 5 queries are below the fair share of 100 / NUM_ORACLES queries and must not be split
+        final int numPrefixes = 20;
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(numPrefixes, 5);
+        oracle.processQueries(queries);
+
+        final Map<Word<Integer>, Set<Integer>> routing = checkAnswers(queries);
+        Assert.assertEquals(routing.size(), numPrefixes);
+        for (Set<Integer> ids : routing.values()) {
+            Assert.assertEquals(ids.size(), 1);
+        }
+
+        oracle.shutdown();
+    }
+
+    private static List<TestMembershipOracle> getOracles() {
+        final List<TestMembershipOracle> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            oracles.add(new TestMembershipOracle(i));
+        }
+        return oracles;
+    }
+
+    private static List<DefaultQuery<Integer, TestOutput>> createQueries(int numPrefixes, int queriesPerPrefix) {
+        final List<DefaultQuery<Integer, TestOutput>> result = new ArrayList<>(numPrefixes * queriesPerPrefix);
+
+        // interleave the prefixes, so that a purely positional distribution would mix them
+        for (int i = 0; i < queriesPerPrefix; i++) {
+            for (int p = 0; p < numPrefixes; p++) {
+                result.add(new DefaultQuery<>(Word.fromSymbols(p, p), Utils.createWord(0)));
+            }
+        }
+
+        return result;
+    }
+
+    private static Map<Word<Integer>, Set<Integer>> checkAnswers(List<DefaultQuery<Integer, TestOutput>> queries) {
+        final Map<Word<Integer>, Set<Integer>> result = new HashMap<>();
+
+        for (DefaultQuery<Integer, TestOutput> q : queries) {
+            final TestOutput out = q.getOutput();
+            Assert.assertNotNull(out);
+            Assert.assertEquals(out.prefix, q.getPrefix());
+            Assert.assertEquals(out.suffix, q.getSuffix());
+            result.computeIfAbsent(q.getPrefix(), k -> new HashSet<>()).add(out.oracleId);
+        }
+
+        return result;
+    }
+}
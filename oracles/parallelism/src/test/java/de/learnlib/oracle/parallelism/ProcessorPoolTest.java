@@ -0,0 +1,84 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ProcessorPoolTest {
+
+    private static final int MAX_SIZE = 3;
+    private static final int NUM_THREADS = 16;
+    private static final int NUM_LEASES = 1000;
+
+    @Test
+    public void testBoundedSize() throws Exception {
+        final ProcessorPool<Object> pool = new ProcessorPool<>(Object::new, MAX_SIZE);
+        final AtomicInteger leased = new AtomicInteger();
+        final AtomicInteger maxLeased = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>(NUM_THREADS);
+
+            for (int i = 0; i < NUM_THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < NUM_LEASES; j++) {
+                        final Object processor = pool.acquire();
+                        maxLeased.accumulateAndGet(leased.incrementAndGet(), Math::max);
+                        leased.decrementAndGet();
+                        pool.release(processor);
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertTrue(pool.size() <= MAX_SIZE);
+        Assert.assertTrue(maxLeased.get() <= MAX_SIZE);
+    }
+
+    @Test
+    public void testFailingSupplier() throws InterruptedException {
+        final AtomicInteger calls = new AtomicInteger();
+        final ProcessorPool<Object> pool = new ProcessorPool<>(() -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException();
+            }
+            return new Object();
+        }, 1);
+
+        Assert.assertThrows(IllegalStateException.class, pool::acquire);
+
+        // the permit of the failed creation has been returned
+        final Object processor = pool.acquire();
+        Assert.assertNotNull(processor);
+        Assert.assertEquals(pool.size(), 1);
+    }
+}
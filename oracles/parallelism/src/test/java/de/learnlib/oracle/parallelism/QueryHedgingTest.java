@@ -0,0 +1,279 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOmegaOracleTest.TestMembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOmegaOracleTest.TestOutput;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.OmegaQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class QueryHedgingTest {
+
+    private static final int STALL = -1;
+
+    @Test
+    public void testHungOracleIsBypassed() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger hung = new AtomicInteger(-1);
+        final List<StallingOracle> oracles = getOracles(release, hung);
+        final QueryHedger hedger = new QueryHedger(0.99, 10, 0, 1, 5);
+        final StaticParallelOracle<Integer, Integer> oracle =
+                new StaticParallelOracleBuilder<>(oracles).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                          .withHedging(hedger)
+                                                          .create();
+
+        try {
+            // warm-up for the latency percentile
+            final List<DefaultQuery<Integer, Integer>> warmUp = createQueries(5 * Utils.MIN_BATCH_SIZE, false);
+            oracle.processQueries(warmUp);
+            checkAnswers(warmUp);
+            Assert.assertTrue(hedger.getLatencyPercentileNanos() >= 0);
+
+            // the first oracle that processes the stalling query hangs
+            final List<DefaultQuery<Integer, Integer>> stalled = createQueries(4 * Utils.MIN_BATCH_SIZE, true);
+            oracle.processQueries(stalled);
+            checkAnswers(stalled);
+
+            Assert.assertNotEquals(hung.get(), -1);
+            Assert.assertNotEquals(stalled.get(0).getOutput(), Integer.valueOf(hung.get()));
+            // (fast) queries that exceed the latency percentile due to scheduling may be hedged as well
+            Assert.assertTrue(hedger.getNumHedgedQueries() >= 1);
+            Assert.assertTrue(hedger.getNumHedgeWins() >= 1);
+            Assert.assertTrue(hedger.getNumQuarantines() >= 1);
+            Assert.assertEquals(hedger.getNumTimeouts(), 0);
+
+            // the hung oracle must not be used until it returns
+            final List<DefaultQuery<Integer, Integer>> next = createQueries(4 * Utils.MIN_BATCH_SIZE, false);
+            oracle.processQueries(next);
+            checkAnswers(next);
+            for (DefaultQuery<Integer, Integer> q : next) {
+                Assert.assertNotEquals(q.getOutput(), Integer.valueOf(hung.get()));
+            }
+
+            Assert.assertEquals(hedger.getNumQueries(), 13 * Utils.MIN_BATCH_SIZE);
+            final String summary = hedger.getStatisticalData().getSummary();
+            Assert.assertTrue(summary.contains(hedger.getNumHedgedQueries() + " (hedged)"));
+        } finally {
+            release.countDown();
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimeout() {
+        final CountDownLatch release = new CountDownLatch(1);
+        final QueryHedger hedger = new QueryHedger(0.99, 10, 200, 1, 5);
+        final StaticParallelOracle<Integer, Integer> oracle =
+                new StaticParallelOracleBuilder<>(getOracles(release, null)).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                                            .withHedging(hedger)
+                                                                            .create();
+
+        try {
+            final List<DefaultQuery<Integer, Integer>> queries = createQueries(2 * Utils.MIN_BATCH_SIZE, true);
+            final QueryFailureException ex =
+                    Assert.expectThrows(QueryFailureException.class, () -> oracle.processQueries(queries));
+
+            Assert.assertTrue(ex.getCause() instanceof QueryTimeoutException);
+            Assert.assertTrue(ex.getFailedQueries().contains(queries.get(0)));
+            checkRemainingAnswers(queries, ex.getFailedQueries());
+
+            // the stalled job has been hedged once (after half of the timeout) before timing out
+            Assert.assertEquals(hedger.getNumHedgedQueries(), ex.getFailedQueries().size());
+            Assert.assertEquals(hedger.getNumTimeouts(), ex.getFailedQueries().size());
+        } finally {
+            release.countDown();
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailingQuery() {
+        final List<MembershipOracle<Integer, Integer>> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            final int id = i;
+            oracles.add(queries -> {
+                for (Query<Integer, Integer> q : queries) {
+                    if (q.getPrefix().firstSymbol() == STALL) {
+                        throw new IllegalStateException("failing query");
+                    }
+                    q.answer(id);
+                }
+            });
+        }
+
+        final StaticParallelOracle<Integer, Integer> oracle =
+                new StaticParallelOracleBuilder<>(oracles).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                          .withHedging(new QueryHedger())
+                                                          .create();
+
+        try {
+            final List<DefaultQuery<Integer, Integer>> queries = createQueries(4 * Utils.MIN_BATCH_SIZE, true);
+            final QueryFailureException ex =
+                    Assert.expectThrows(QueryFailureException.class, () -> oracle.processQueries(queries));
+
+            // only the job of the failing query is affected
+            Assert.assertTrue(ex.getCause() instanceof IllegalStateException);
+            Assert.assertTrue(ex.getFailedQueries().contains(queries.get(0)));
+            Assert.assertTrue(ex.getFailedQueries().size() < Utils.MIN_BATCH_SIZE);
+            checkRemainingAnswers(queries, ex.getFailedQueries());
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testJobsAreBatched() {
+        final AtomicInteger maxBatchSize = new AtomicInteger();
+        final List<MembershipOracle<Integer, Integer>> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            final int id = i;
+            oracles.add(queries -> {
+                maxBatchSize.accumulateAndGet(queries.size(), Math::max);
+                for (Query<Integer, Integer> q : queries) {
+                    q.answer(id);
+                }
+            });
+        }
+
+        final StaticParallelOracle<Integer, Integer> oracle =
+                new StaticParallelOracleBuilder<>(oracles).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                          .withHedging(new QueryHedger())
+                                                          .create();
+
+        try {
+            final List<DefaultQuery<Integer, Integer>> queries = createQueries(4 * Utils.MIN_BATCH_SIZE, false);
+            oracle.processQueries(queries);
+            checkAnswers(queries);
+
+            // the (sub-) oracles receive whole jobs instead of single queries
+            Assert.assertTrue(maxBatchSize.get() > 1);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testOmegaHedging() {
+        final List<TestMembershipOracle> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            oracles.add(new TestMembershipOracle(i));
+        }
+
+        final QueryHedger hedger = new QueryHedger();
+        final StaticParallelOmegaOracle<Integer, Integer, TestOutput> oracle =
+                new StaticParallelOmegaOracleBuilder<>(oracles).withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                                               .withHedging(hedger)
+                                                               .create();
+
+        try {
+            final List<OmegaQuery<Integer, TestOutput>> queries = new ArrayList<>();
+            for (int i = 0; i < 3 * Utils.MIN_BATCH_SIZE; i++) {
+                queries.add(new OmegaQuery<>(Utils.createWord(0), Utils.createWord(1), 2));
+            }
+
+            oracle.processQueries(queries);
+
+            for (OmegaQuery<Integer, TestOutput> q : queries) {
+                final TestOutput out = q.getOutput();
+                Assert.assertNotNull(out);
+                Assert.assertEquals(out.input, q.asDefaultQuery().getInput());
+            }
+            Assert.assertEquals(hedger.getNumQueries(), queries.size());
+            Assert.assertEquals(hedger.getNumHedgedQueries(), 0);
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    private static List<StallingOracle> getOracles(CountDownLatch release, @Nullable AtomicInteger hung) {
+        final List<StallingOracle> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            oracles.add(new StallingOracle(i, release, hung));
+        }
+        return oracles;
+    }
+
+    private static List<DefaultQuery<Integer, Integer>> createQueries(int num, boolean stallFirst) {
+        final List<DefaultQuery<Integer, Integer>> result = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            final int sym = i == 0 && stallFirst ? STALL : i;
+            result.add(new DefaultQuery<>(Word.fromLetter(sym), Word.epsilon()));
+        }
+        return result;
+    }
+
+    private static void checkRemainingAnswers(List<DefaultQuery<Integer, Integer>> queries, Collection<?> failed) {
+        for (DefaultQuery<Integer, Integer> q : queries) {
+            if (!failed.contains(q)) {
+                Assert.assertNotNull(q.getOutput());
+            }
+        }
+    }
+
+    private static void checkAnswers(List<DefaultQuery<Integer, Integer>> queries) {
+        for (DefaultQuery<Integer, Integer> q : queries) {
+            Assert.assertNotNull(q.getOutput());
+        }
+    }
+
+    /**
+     * An oracle which answers queries with its id. Queries starting with {@link #STALL} block until released (or
+     * interrupted). If a shared reference is given, only the first oracle that processes such a query blocks and
+     * stores its id in the reference.
+     */
+    private static final class StallingOracle implements MembershipOracle<Integer, Integer> {
+
+        private final int id;
+        private final CountDownLatch release;
+        private final @Nullable AtomicInteger hung;
+
+        StallingOracle(int id, CountDownLatch release, @Nullable AtomicInteger hung) {
+            this.id = id;
+            this.release = release;
+            this.hung = hung;
+        }
+
+        private boolean shouldStall(Query<Integer, Integer> q) {
+            return q.getPrefix().firstSymbol() == STALL && (hung == null || hung.compareAndSet(-1, id));
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, Integer>> queries) {
+            for (Query<Integer, Integer> q : queries) {
+                if (shouldStall(q)) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                q.answer(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractDynamicParallelOracleTest.AnswerOnceQuery;
+import de.learnlib.oracle.parallelism.ThreadPool.PoolPolicy;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class StaticParallelAsyncTest {
+
+    @Test
+    public void testPipelinedBatches() {
+        checkPipelinedBatches(false);
+    }
+
+    @Test
+    public void testPipelinedHedgedBatches() {
+        checkPipelinedBatches(true);
+    }
+
+    private static void checkPipelinedBatches(boolean hedging) {
+        final List<ExclusiveOracle> oracles = new ArrayList<>(Utils.NUM_ORACLES);
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            oracles.add(new ExclusiveOracle());
+        }
+
+        final AbstractStaticBatchProcessorBuilder<Query<Void, Void>, MembershipOracle<Void, Void>, StaticParallelOracle<Void, Void>>
+                builder = new StaticParallelOracleBuilder<>(oracles).withMinBatchSize(2)
+                                                                    .withPoolPolicy(PoolPolicy.FIXED);
+        final StaticParallelOracle<Void, Void> oracle =
+                hedging ? builder.withHedging(new QueryHedger()).create() : builder.create();
+
+        try {
+            final List<List<AnswerOnceQuery<Void>>> batches = new ArrayList<>();
+            final List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+            // submit several batches without waiting for the previous ones
+            for (int i = 0; i < 10; i++) {
+                final List<AnswerOnceQuery<Void>> batch = AbstractDynamicParallelOracleTest.createQueries(25);
+                batches.add(batch);
+                futures.add(oracle.processQueriesAsync(batch));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+            for (List<AnswerOnceQuery<Void>> batch : batches) {
+                for (AnswerOnceQuery<Void> q : batch) {
+                    Assert.assertTrue(q.isAnswered());
+                }
+            }
+
+            for (ExclusiveOracle o : oracles) {
+                Assert.assertFalse(o.concurrentAccess);
+            }
+
+            Assert.assertTrue(oracle.processQueriesAsync(Collections.emptyList()).isDone());
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    @Test
+    public void testExceptions() throws InterruptedException {
+        final MembershipOracle<Void, Void> failing = queries -> {
+            throw new IllegalStateException("expected");
+        };
+        final StaticParallelOracle<Void, Void> oracle =
+                new StaticParallelOracleBuilder<>(Collections.nCopies(Utils.NUM_ORACLES, failing)).create();
+
+        try {
+            final List<Query<Void, Void>> queries = new ArrayList<>(AbstractDynamicParallelOracleTest.createQueries(50));
+            oracle.processQueriesAsync(queries).get();
+            Assert.fail("Exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        try {
+            // the blocking view re-throws the original exception
+            Assert.assertThrows(IllegalStateException.class,
+                                () -> oracle.asBlockingOracle().answerQuery(Word.epsilon()));
+        } finally {
+            oracle.shutdown();
+        }
+    }
+
+    /**
+     * An oracle that records whether it has been accessed by several threads at the same time.
+     */
+    private static final class ExclusiveOracle implements MembershipOracle<Void, Void> {
+
+        private final AtomicBoolean inUse = new AtomicBoolean();
+        private volatile boolean concurrentAccess;
+
+        @Override
+        public void processQueries(Collection<? extends Query<Void, Void>> queries) {
+            if (!inUse.compareAndSet(false, true)) {
+                concurrentAccess = true;
+            }
+            try {
+                for (Query<Void, Void> q : queries) {
+                    Thread.yield();
+                    q.answer(null);
+                }
+            } finally {
+                inUse.set(false);
+            }
+        }
+    }
+}
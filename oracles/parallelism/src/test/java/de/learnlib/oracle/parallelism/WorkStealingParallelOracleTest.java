@@ -0,0 +1,271 @@
+/* Copyright (C) 2013-2023 TU Dortmund
+ * This file is part of LearnLib, http://www.learnlib.de/.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package de.learnlib.oracle.parallelism;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import de.learnlib.oracle.MembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestMembershipOracle;
+import de.learnlib.oracle.parallelism.AbstractStaticParallelOracleTest.TestOutput;
+import de.learnlib.oracle.parallelism.AbstractWorkStealingBatchProcessor.Partition;
+import de.learnlib.query.DefaultQuery;
+import de.learnlib.query.Query;
+import net.automatalib.word.Word;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class WorkStealingParallelOracleTest {
+
+    @Test
+    public void testZeroQueries() {
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle = getOracle();
+        oracle.processQueries(Collections.emptyList());
+        oracle.shutdownNow();
+    }
+
+    @Test
+    public void testLessThanTwoBatches() {
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle = getOracle();
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(2 * Utils.MIN_BATCH_SIZE - 1);
+        oracle.processQueries(queries);
+        Assert.assertEquals(checkAnswers(queries).size(), 1);
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testFullLoad() {
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle = getOracle();
+        final List<DefaultQuery<Integer, TestOutput>> queries =
+                createQueries(2 * Utils.NUM_ORACLES * Utils.MIN_BATCH_SIZE);
+        oracle.processQueries(queries);
+        Assert.assertTrue(checkAnswers(queries).size() <= Utils.NUM_ORACLES);
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testBalancedPartitions() {
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(Arrays.asList(getOracles()))
+                                      .withInitialResetCost(0)
+                                      .create();
+
+        final List<DefaultQuery<Integer, TestOutput>> queries = new ArrayList<>();
+        // a few long queries (as generated by, e.g., the W-method) and many short ones
+        for (int i = 0; i < 3; i++) {
+            queries.add(new DefaultQuery<>(Word.epsilon(), createWord(100)));
+        }
+        for (int i = 0; i < 300; i++) {
+            queries.add(new DefaultQuery<>(Word.epsilon(), createWord(1)));
+        }
+
+        final List<Partition<Query<Integer, TestOutput>>> partitions = oracle.partition(queries, 3);
+
+        int total = 0;
+        for (Partition<Query<Integer, TestOutput>> p : partitions) {
+            Assert.assertEquals(p.getRemainingCost(), 200.0, 1e-6);
+            total += p.size();
+        }
+        Assert.assertEquals(total, queries.size());
+
+        oracle.shutdown();
+    }
+
+    @Test(timeOut = 10000)
+    public void testStealing() throws InterruptedException {
+        final int numQueries = 4 * Utils.MIN_BATCH_SIZE;
+        final CountDownLatch othersDone = new CountDownLatch(numQueries);
+        final CountDownLatch blocked = new CountDownLatch(1);
+
+        final TestMembershipOracle[] oracles = getOracles();
+        final List<MembershipOracle<Integer, TestOutput>> delegates = new ArrayList<>(oracles.length);
+        for (TestMembershipOracle o : oracles) {
+            delegates.add(new CountingOracle(o, othersDone));
+        }
+        // the second oracle gets stuck on its first batch until all other queries have been answered
+        delegates.set(1, new BlockingOracle(oracles[1], othersDone, blocked));
+
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(delegates)
+                                      .withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                      .create();
+
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(numQueries);
+        oracle.processQueries(queries);
+        checkAnswers(queries);
+
+        // if the blocking oracle received a query, the others must have stolen its remaining queries
+        if (blocked.getCount() == 0) {
+            Assert.assertEquals(othersDone.getCount(), 0);
+        }
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testChunks() {
+        final int numQueries = 2 * Utils.NUM_ORACLES * Utils.MIN_BATCH_SIZE;
+        final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+        final TestMembershipOracle[] oracles = getOracles();
+        final List<MembershipOracle<Integer, TestOutput>> delegates = new ArrayList<>(oracles.length);
+        for (TestMembershipOracle o : oracles) {
+            delegates.add(queries -> {
+                batchSizes.add(queries.size());
+                o.processQueries(queries);
+            });
+        }
+
+        final WorkStealingParallelOracle<Integer, TestOutput> oracle =
+                ParallelOracleBuilders.newWorkStealingParallelOracle(delegates)
+                                      .withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                      .create();
+
+        final List<DefaultQuery<Integer, TestOutput>> queries = createQueries(numQueries);
+        oracle.processQueries(queries);
+        checkAnswers(queries);
+
+        // each worker processes its partition of 2 * MIN_BATCH_SIZE queries in chunks rather than query by query
+        Assert.assertEquals(batchSizes.stream().mapToInt(Integer::intValue).sum(), numQueries);
+        Assert.assertTrue(Collections.max(batchSizes) > 1);
+
+        oracle.shutdown();
+    }
+
+    @Test
+    public void testResetCostEstimation() {
+        final ResetCostEstimator estimator = new ResetCostEstimator(1.0);
+        Assert.assertEquals(estimator.getResetCost(), 1.0);
+
+        // only a single length, the reset cost cannot be identified
+        estimator.record(5, 30);
+        estimator.record(5, 30);
+        Assert.assertEquals(estimator.getResetCost(), 1.0);
+
+        // time = 2 * symbols + 20, i.e., a reset costs as much as 10 symbols
+        for (int i = 0; i < 20; i++) {
+            estimator.record(i, 2L * i + 20);
+        }
+        Assert.assertEquals(estimator.getResetCost(), 10.0, 1e-6);
+
+        // batches of queries: time = 2 * symbols + 20 * resets
+        final ResetCostEstimator batchEstimator = new ResetCostEstimator(1.0);
+        for (int i = 1; i < 20; i++) {
+            batchEstimator.record(5 * i, i % 3 + 1, 10L * i + 20L * (i % 3 + 1));
+        }
+        Assert.assertEquals(batchEstimator.getResetCost(), 10.0, 1e-6);
+    }
+
+    private WorkStealingParallelOracle<Integer, TestOutput> getOracle() {
+        final TestMembershipOracle[] oracles = getOracles();
+        return ParallelOracleBuilders.newWorkStealingParallelOracle(oracles[0],
+                                                                    Arrays.copyOfRange(oracles, 1, oracles.length))
+                                     .withMinBatchSize(Utils.MIN_BATCH_SIZE)
+                                     .create();
+    }
+
+    private static TestMembershipOracle[] getOracles() {
+        final TestMembershipOracle[] oracles = new TestMembershipOracle[Utils.NUM_ORACLES];
+        for (int i = 0; i < Utils.NUM_ORACLES; i++) {
+            oracles[i] = new TestMembershipOracle(i);
+        }
+        return oracles;
+    }
+
+    private static List<DefaultQuery<Integer, TestOutput>> createQueries(int num) {
+        final List<DefaultQuery<Integer, TestOutput>> result = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            result.add(new DefaultQuery<>(Utils.createWord(0), Utils.createWord(0)));
+        }
+        return result;
+    }
+
+    private static Word<Integer> createWord(int length) {
+        final Integer[] ints = new Integer[length];
+        Arrays.fill(ints, 0);
+        return Word.fromSymbols(ints);
+    }
+
+    private static Set<Integer> checkAnswers(Collection<DefaultQuery<Integer, TestOutput>> queries) {
+        final Set<Integer> involved = new HashSet<>();
+
+        for (DefaultQuery<Integer, TestOutput> q : queries) {
+            final TestOutput out = q.getOutput();
+            Assert.assertNotNull(out);
+            Assert.assertEquals(out.prefix, q.getPrefix());
+            Assert.assertEquals(out.suffix, q.getSuffix());
+            involved.add(out.oracleId);
+        }
+
+        return involved;
+    }
+
+    private static class CountingOracle implements MembershipOracle<Integer, TestOutput> {
+
+        private final MembershipOracle<Integer, TestOutput> delegate;
+        private final CountDownLatch latch;
+
+        CountingOracle(MembershipOracle<Integer, TestOutput> delegate, CountDownLatch latch) {
+            this.delegate = delegate;
+            this.latch = latch;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+            delegate.processQueries(queries);
+            for (int i = 0; i < queries.size(); i++) {
+                latch.countDown();
+            }
+        }
+    }
+
+    private static final class BlockingOracle extends CountingOracle {
+
+        private final CountDownLatch othersDone;
+        private final CountDownLatch blocked;
+
+        BlockingOracle(MembershipOracle<Integer, TestOutput> delegate,
+                       CountDownLatch othersDone,
+                       CountDownLatch blocked) {
+            super(delegate, othersDone);
+            this.othersDone = othersDone;
+            this.blocked = blocked;
+        }
+
+        @Override
+        public void processQueries(Collection<? extends Query<Integer, TestOutput>> queries) {
+            if (blocked.getCount() > 0) {
+                blocked.countDown();
+                for (int i = 0; i < queries.size(); i++) {
+                    othersDone.countDown();
+                }
+                try {
+                    Assert.assertTrue(othersDone.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+            }
+            super.processQueries(queries);
+        }
+    }
+}